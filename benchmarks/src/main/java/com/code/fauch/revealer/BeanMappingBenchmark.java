@@ -0,0 +1,78 @@
+/*
+ * Copyright 2021 Claire Fauch
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.code.fauch.revealer;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the reflective accessors of <code>BeanMapping</code> compared with direct calls.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BeanMappingBenchmark {
+
+    private BeanMapping<Person> mapping;
+
+    private Person person;
+
+    @Setup
+    public void setUp() {
+        this.mapping = BeanMapping.from(Person.class);
+        this.person = new Person(1L, "harry", "harry@hogwarts.uk", 17);
+    }
+
+    @Benchmark
+    public Object directGet() {
+        return this.person.getName();
+    }
+
+    @Benchmark
+    public Object get() throws ReflectiveOperationException {
+        return this.mapping.get(this.person, "name");
+    }
+
+    @Benchmark
+    public Object getId() throws ReflectiveOperationException {
+        return this.mapping.get(this.person);
+    }
+
+    @Benchmark
+    public Person directSet() {
+        this.person.setName("ron");
+        return this.person;
+    }
+
+    @Benchmark
+    public Person set() throws ReflectiveOperationException {
+        return this.mapping.set(this.person, "name", "ron");
+    }
+
+    @Benchmark
+    public Person setOnNewBean() throws ReflectiveOperationException {
+        return this.mapping.set(null, "name", "ron");
+    }
+
+    @Benchmark
+    public BeanMapping<Person> from() {
+        return BeanMapping.from(Person.class);
+    }
+
+}
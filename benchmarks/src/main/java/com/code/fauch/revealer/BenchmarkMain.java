@@ -0,0 +1,51 @@
+/*
+ * Copyright 2021 Claire Fauch
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.code.fauch.revealer;
+
+import java.util.Arrays;
+
+/**
+ * Entry point of the benchmarks jar.
+ * <p>
+ * It accepts the JMH command line options and adds the GC profiler (<code>-prof gc</code>) when no profiler
+ * is given, so every result comes with its allocation rate.
+ * </p>
+ */
+public final class BenchmarkMain {
+
+    /**
+     * No constructor.
+     */
+    private BenchmarkMain() {
+        //Nothing to do
+    }
+
+    /**
+     * Runs the benchmarks.
+     * @param args the JMH command line options
+     * @throws Exception if the benchmarks can't be run
+     */
+    public static void main(final String[] args) throws Exception {
+        if (Arrays.asList(args).contains("-prof")) {
+            org.openjdk.jmh.Main.main(args);
+        } else {
+            final String[] withGc = Arrays.copyOf(args, args.length + 2);
+            withGc[args.length] = "-prof";
+            withGc[args.length + 1] = "gc";
+            org.openjdk.jmh.Main.main(withGc);
+        }
+    }
+
+}
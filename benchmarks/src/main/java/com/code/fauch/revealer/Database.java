@@ -0,0 +1,84 @@
+/*
+ * Copyright 2021 Claire Fauch
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.code.fauch.revealer;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * In-memory H2 databases used by the benchmarks.
+ */
+public final class Database {
+
+    /**
+     * No constructor.
+     */
+    private Database() {
+        //Nothing to do
+    }
+
+    /**
+     * Returns the jdbc url of an in-memory database kept open until the JVM ends.
+     * @param name the name of the database (not null)
+     * @return the jdbc url (not null)
+     */
+    public static String url(final String name) {
+        return "jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1";
+    }
+
+    /**
+     * Opens a connection on an in-memory database and (re)creates the table of persons with the given number of rows.
+     * @param name the name of the database (not null)
+     * @param rows the number of rows to insert (>=0)
+     * @return the open connection (not null)
+     * @throws SQLException if the database can't be initialized
+     */
+    public static Connection open(final String name, final int rows) throws SQLException {
+        final Connection conn = DriverManager.getConnection(url(name), "bench", "");
+        reset(conn, rows);
+        return conn;
+    }
+
+    /**
+     * (Re)creates the table of persons with the given number of rows.
+     * @param conn the connection to use (not null)
+     * @param rows the number of rows to insert (>=0)
+     * @throws SQLException if the table can't be initialized
+     */
+    public static void reset(final Connection conn, final int rows) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("create table if not exists bench_persons ("
+                    + "id bigint auto_increment not null primary key, "
+                    + "name varchar(120) not null, "
+                    + "email varchar(120), "
+                    + "age int)");
+            stmt.execute("truncate table bench_persons restart identity");
+        }
+        try (PreparedStatement stmt = conn.prepareStatement(
+                "insert into bench_persons (name, email, age) values (?, ?, ?)")) {
+            for (int i = 0; i < rows; i++) {
+                stmt.setString(1, "person" + i);
+                stmt.setString(2, "person" + i + "@revealer.org");
+                stmt.setInt(3, i % 100);
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+        }
+    }
+
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright 2021 Claire Fauch
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.code.fauch.revealer;
+
+/**
+ * Bean used by the benchmarks.
+ */
+@Collection(name = "bench_persons")
+public class Person {
+
+    @Id
+    @Field(name = "id")
+    private Long id;
+
+    @Field(name = "name")
+    private String name;
+
+    @Field(name = "email")
+    private String email;
+
+    @Field(name = "age")
+    private Integer age;
+
+    /**
+     * Constructor.
+     * @param id the id (it may be null)
+     * @param name the name
+     * @param email the email
+     * @param age the age
+     */
+    public Person(final Long id, final String name, final String email, final Integer age) {
+        this.id = id;
+        this.name = name;
+        this.email = email;
+        this.age = age;
+    }
+
+    /**
+     * Default constructor.
+     */
+    public Person() {
+        this(null, null, null, null);
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public void setEmail(String email) {
+        this.email = email;
+    }
+
+    public Integer getAge() {
+        return age;
+    }
+
+    public void setAge(Integer age) {
+        this.age = age;
+    }
+
+}
@@ -0,0 +1,232 @@
+/*
+ * Copyright 2021 Claire Fauch
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.code.fauch.revealer;
+
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs the key benchmarks and compares their throughput and allocation per operation with a baseline.
+ * <p>
+ * The baseline is a properties file with two entries per benchmark:
+ * <code>&lt;benchmark&gt;.thrpt</code> (operations per second) and <code>&lt;benchmark&gt;.alloc</code>
+ * (bytes per operation). The gate fails (exit status 1) when the throughput drops by more than the throughput
+ * tolerance, or when the allocation grows by more than the allocation tolerance plus 8 bytes.
+ * </p>
+ * <pre>
+ *   RegressionGate &lt;baseline&gt; &lt;throughput tolerance&gt; &lt;allocation tolerance&gt; [update]
+ * </pre>
+ * With <code>update</code>, the baseline is rewritten with the measured values instead. Without it, a missing
+ * baseline, or a guarded benchmark missing from the baseline, fails the gate.
+ */
+public final class RegressionGate {
+
+    /**
+     * The benchmarks guarded by the gate.
+     */
+    static final List<String> BENCHMARKS = List.of(
+            "com.code.fauch.revealer.jdbc.BeanReaderBenchmark.read",
+            "com.code.fauch.revealer.jdbc.SmallJdbcDaoBenchmark.get",
+            "com.code.fauch.revealer.jdbc.transaction.WrapBenchmark.wrappedPing",
+            "com.code.fauch.revealer.jdbc.transaction.WrapBenchmark.wrappedGet");
+
+    private static final String ALLOC = "gc.alloc.rate.norm";
+
+    /**
+     * Absolute slack on the allocation, for benchmarks allocating (almost) nothing.
+     */
+    private static final double ALLOC_SLACK = 8.0;
+
+    /**
+     * No constructor.
+     */
+    private RegressionGate() {
+        //Nothing to do
+    }
+
+    /**
+     * Runs the gate.
+     * @param args the baseline path, the throughput tolerance, the allocation tolerance and optionally "update"
+     * @throws Exception if the benchmarks can't be run or the baseline can't be read
+     */
+    public static void main(final String[] args) throws Exception {
+        if (args.length < 3) {
+            throw new IllegalArgumentException(
+                    "usage: RegressionGate <baseline> <thrpt tolerance> <alloc tolerance> [update]");
+        }
+        final Path baseline = Paths.get(args[0]);
+        final double thrptTolerance = Double.parseDouble(args[1]);
+        final double allocTolerance = Double.parseDouble(args[2]);
+        final boolean update = args.length > 3 && Boolean.parseBoolean(args[3]);
+        if (!update && Files.notExists(baseline)) {
+            System.err.println("No baseline at " + baseline.toAbsolutePath()
+                    + ", run the gate with update to write it");
+            System.exit(1);
+        }
+        final Properties measured = run();
+        if (update) {
+            store(measured, baseline);
+            System.out.println("Baseline written to " + baseline.toAbsolutePath());
+            return;
+        }
+        final Properties expected = new Properties();
+        try (Reader reader = Files.newBufferedReader(baseline)) {
+            expected.load(reader);
+        }
+        final List<String> regressions = compare(expected, measured, thrptTolerance, allocTolerance);
+        if (!regressions.isEmpty()) {
+            regressions.forEach(r -> System.err.println("REGRESSION " + r));
+            System.exit(1);
+        }
+        System.out.println("No regression against " + baseline.toAbsolutePath());
+    }
+
+    /**
+     * Compares the measured values with the expected ones.
+     * @param expected the baseline (not null)
+     * @param measured the measured values (not null)
+     * @param thrptTolerance the accepted relative drop of throughput
+     * @param allocTolerance the accepted relative growth of allocation
+     * @return the description of each regression (not null, empty if none)
+     */
+    static List<String> compare(final Properties expected, final Properties measured,
+                                final double thrptTolerance, final double allocTolerance) {
+        final List<String> regressions = new ArrayList<>();
+        for (String benchmark : BENCHMARKS) {
+            final String thrpt = expected.getProperty(benchmark + ".thrpt");
+            final String alloc = expected.getProperty(benchmark + ".alloc");
+            final double actualThrpt = Double.parseDouble(measured.getProperty(benchmark + ".thrpt", "0"));
+            final double actualAlloc = Double.parseDouble(measured.getProperty(benchmark + ".alloc", "0"));
+            System.out.printf(Locale.ROOT, "%-70s thrpt %14.1f (baseline %s) alloc %10.1f B/op (baseline %s)%n",
+                    benchmark, actualThrpt, thrpt, actualAlloc, alloc);
+            if (thrpt == null || alloc == null) {
+                regressions.add(benchmark + " is missing from the baseline");
+                continue;
+            }
+            if (actualThrpt < Double.parseDouble(thrpt) * (1.0 - thrptTolerance)) {
+                regressions.add(String.format(Locale.ROOT, "%s throughput %.1f ops/s < baseline %s ops/s - %.0f%%",
+                        benchmark, actualThrpt, thrpt, thrptTolerance * 100));
+            }
+            if (actualAlloc > Double.parseDouble(alloc) * (1.0 + allocTolerance) + ALLOC_SLACK) {
+                regressions.add(String.format(Locale.ROOT, "%s allocation %.1f B/op > baseline %s B/op + %.0f%%",
+                        benchmark, actualAlloc, alloc, allocTolerance * 100));
+            }
+        }
+        return regressions;
+    }
+
+    /**
+     * Runs the guarded benchmarks in throughput mode with the GC profiler.
+     * @return the measured values by key (not null)
+     * @throws RunnerException if the benchmarks can't be run
+     */
+    private static Properties run() throws RunnerException {
+        final ChainedOptionsBuilder options = new OptionsBuilder()
+                .mode(Mode.Throughput)
+                .timeUnit(TimeUnit.SECONDS)
+                .forks(1)
+                .warmupIterations(3)
+                .warmupTime(TimeValue.seconds(1))
+                .measurementIterations(5)
+                .measurementTime(TimeValue.seconds(1))
+                .addProfiler(GCProfiler.class);
+        for (String benchmark : BENCHMARKS) {
+            options.include("^" + benchmark.replace(".", "\\.") + "$");
+        }
+        final Collection<RunResult> results = new Runner(options.build()).run();
+        final Properties measured = new Properties();
+        for (RunResult result : results) {
+            final String benchmark = result.getParams().getBenchmark();
+            measured.setProperty(benchmark + ".thrpt", format(result.getPrimaryResult().getScore()));
+            final Result<?> alloc = result.getSecondaryResults().get(ALLOC);
+            if (alloc != null) {
+                measured.setProperty(benchmark + ".alloc", format(alloc.getScore()));
+            }
+        }
+        return measured;
+    }
+
+    /**
+     * Writes the measured values as the new baseline, sorted by key, after the JDK and the hardware measuring them.
+     * @param measured the measured values (not null)
+     * @param baseline the path of the baseline (not null)
+     * @throws IOException if the baseline can't be written
+     */
+    private static void store(final Properties measured, final Path baseline) throws IOException {
+        try (Writer writer = Files.newBufferedWriter(baseline)) {
+            writer.write("# Baseline of the regression gate: throughput in ops/s, allocation in bytes/op"
+                    + System.lineSeparator());
+            writer.write("# java " + Runtime.version() + " (" + System.getProperty("java.vm.name") + ")"
+                    + System.lineSeparator());
+            writer.write("# " + cpu() + ", " + Runtime.getRuntime().availableProcessors() + " processor(s), "
+                    + System.getProperty("os.name") + " " + System.getProperty("os.arch") + System.lineSeparator());
+            for (Map.Entry<Object, Object> entry : new TreeMap<>(measured).entrySet()) {
+                writer.write(entry.getKey() + "=" + entry.getValue() + System.lineSeparator());
+            }
+        }
+    }
+
+    /**
+     * Returns the model of the processor, read from <code>/proc/cpuinfo</code> when available.
+     * @return the model of the processor (not null)
+     */
+    private static String cpu() {
+        final Path info = Paths.get("/proc/cpuinfo");
+        if (Files.isReadable(info)) {
+            try {
+                for (String line : Files.readAllLines(info)) {
+                    if (line.startsWith("model name")) {
+                        return line.substring(line.indexOf(':') + 1).trim();
+                    }
+                }
+            } catch (IOException err) {
+                //Unknown model
+            }
+        }
+        return "unknown processor";
+    }
+
+    /**
+     * Formats a score.
+     * @param score the score
+     * @return the formatted score (not null)
+     */
+    private static String format(final double score) {
+        return String.format(Locale.ROOT, "%.1f", score);
+    }
+
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright 2021 Claire Fauch
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.code.fauch.revealer.jdbc;
+
+import com.code.fauch.revealer.Database;
+import com.code.fauch.revealer.Person;
+import org.openjdk.jmh.annotations.*;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of mapping rows to beans with <code>BeanReader</code>.
+ * <p>
+ * The rows are fetched once in a scrollable result set, so only the mapping is measured.
+ * </p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BeanReaderBenchmark {
+
+    @Param({"100"})
+    private int rows;
+
+    private Connection conn;
+
+    private PreparedStatement stmt;
+
+    private ResultSet result;
+
+    private BeanReader<Person> reader;
+
+    @Setup
+    public void setUp() throws SQLException {
+        this.conn = Database.open("reader", this.rows);
+        this.stmt = this.conn.prepareStatement("select * from bench_persons order by id",
+                ResultSet.TYPE_SCROLL_INSENSITIVE, ResultSet.CONCUR_READ_ONLY);
+        this.result = this.stmt.executeQuery();
+        this.reader = BeanRWFactory.from(Person.class).getReader(this.stmt);
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        this.result.close();
+        this.stmt.close();
+        this.conn.close();
+    }
+
+    /**
+     * Maps one row, resolving the column names from the metadata.
+     */
+    @Benchmark
+    public Person read() throws SQLException, ReflectiveOperationException {
+        this.result.absolute(1);
+        return this.reader.read(this.result);
+    }
+
+    /**
+     * Maps one row the way <code>SmallJdbcDao.get</code> does.
+     */
+    @Benchmark
+    public Person readNext() throws SQLException, ReflectiveOperationException {
+        this.result.beforeFirst();
+        return this.reader.readNext(this.result);
+    }
+
+    /**
+     * Maps all the rows the way <code>SmallJdbcDao.findAll</code> does.
+     */
+    @Benchmark
+    @OperationsPerInvocation(100)
+    public List<Person> readAll() throws SQLException, ReflectiveOperationException {
+        this.result.beforeFirst();
+        return this.reader.readAll(this.result);
+    }
+
+}
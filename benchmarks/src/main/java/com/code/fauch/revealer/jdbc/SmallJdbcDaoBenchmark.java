@@ -0,0 +1,81 @@
+/*
+ * Copyright 2021 Claire Fauch
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.code.fauch.revealer.jdbc;
+
+import com.code.fauch.revealer.Database;
+import com.code.fauch.revealer.PersistenceException;
+import com.code.fauch.revealer.Person;
+import org.openjdk.jmh.annotations.*;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the <code>SmallJdbcDao</code> operations against an in-memory H2 database.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SmallJdbcDaoBenchmark {
+
+    private static final int ROWS = 1000;
+
+    private Connection conn;
+
+    private SmallJdbcDao<Person> dao;
+
+    @Setup
+    public void setUp() throws SQLException {
+        this.conn = Database.open("dao", ROWS);
+        this.dao = new SmallJdbcDao<>(BeanRWFactory.from(Person.class), this.conn);
+    }
+
+    @Setup(Level.Iteration)
+    public void reset() throws SQLException {
+        Database.reset(this.conn, ROWS);
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        this.conn.close();
+    }
+
+    @Benchmark
+    public int insert() throws PersistenceException {
+        return this.dao.insert(new Person(null, "neville", "neville@hogwarts.uk", 17));
+    }
+
+    @Benchmark
+    public Person get() throws PersistenceException {
+        return this.dao.get((long) ThreadLocalRandom.current().nextInt(1, ROWS + 1));
+    }
+
+    @Benchmark
+    public List<Person> findAll() throws PersistenceException {
+        return this.dao.findAll("select * from bench_persons where age=?", ThreadLocalRandom.current().nextInt(100));
+    }
+
+    @Benchmark
+    public List<Person> getAll() throws PersistenceException {
+        return this.dao.getAll(ThreadLocalRandom.current().nextInt(ROWS - 100), 100);
+    }
+
+}
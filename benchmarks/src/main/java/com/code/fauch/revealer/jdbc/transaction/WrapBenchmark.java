@@ -0,0 +1,155 @@
+/*
+ * Copyright 2021 Claire Fauch
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.code.fauch.revealer.jdbc.transaction;
+
+import com.code.fauch.revealer.Database;
+import com.code.fauch.revealer.IDao;
+import com.code.fauch.revealer.PersistenceException;
+import com.code.fauch.revealer.Person;
+import com.code.fauch.revealer.jdbc.BeanRWFactory;
+import com.code.fauch.revealer.jdbc.SmallJdbcDao;
+import com.code.fauch.revealer.jdbc.pool.ConnectionPool;
+import org.h2.jdbcx.JdbcDataSource;
+import org.openjdk.jmh.annotations.*;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of a call through a <code>JdbcFactory.wrap</code> proxy compared with a direct call.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WrapBenchmark {
+
+    /**
+     * Service to wrap.
+     */
+    public interface IPersonService {
+
+        @Jdbc(transactional = false)
+        Person get(long id) throws PersistenceException;
+
+        @Jdbc(transactional = true)
+        Person getInTransaction(long id) throws PersistenceException;
+
+        String ping();
+
+    }
+
+    /**
+     * Implementation of the service.
+     */
+    public static final class PersonService implements IPersonService {
+
+        private final IDao<Person> dao;
+
+        public PersonService(final IDao<Person> dao) {
+            this.dao = dao;
+        }
+
+        @Override
+        public Person get(final long id) throws PersistenceException {
+            return this.dao.get(id);
+        }
+
+        @Override
+        public Person getInTransaction(final long id) throws PersistenceException {
+            return this.dao.get(id);
+        }
+
+        @Override
+        public String ping() {
+            return "pong";
+        }
+
+    }
+
+    private Connection keepAlive;
+
+    private ConnectionPool pool;
+
+    private BeanRWFactory<Person> factory;
+
+    private IPersonService direct;
+
+    private IPersonService wrapped;
+
+    @Setup
+    public void setUp() throws SQLException {
+        this.keepAlive = Database.open("wrap", 10);
+        final JdbcDataSource ds = new JdbcDataSource();
+        ds.setURL(Database.url("wrap"));
+        ds.setUser("bench");
+        this.pool = ConnectionPool.create(ds);
+        this.factory = BeanRWFactory.from(Person.class);
+        this.direct = new PersonService(JdbcFactory.dao(Person.class));
+        this.wrapped = (IPersonService) JdbcFactory.wrap(this.pool, this.direct);
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        this.pool.close();
+        this.keepAlive.close();
+    }
+
+    /**
+     * Baseline: direct call of a method without jdbc.
+     */
+    @Benchmark
+    public String directPing() {
+        return this.direct.ping();
+    }
+
+    /**
+     * Proxy call of a method without <code>@Jdbc</code>.
+     */
+    @Benchmark
+    public String wrappedPing() {
+        return this.wrapped.ping();
+    }
+
+    /**
+     * Baseline: connection borrowed by hand and DAO built on it.
+     */
+    @Benchmark
+    public Person directGet() throws SQLException, PersistenceException {
+        try (Connection conn = this.pool.getConnection()) {
+            return new SmallJdbcDao<>(this.factory, conn).get(1L);
+        }
+    }
+
+    /**
+     * Proxy call of a <code>@Jdbc</code> method: connection borrowed and bound by the wrapper.
+     */
+    @Benchmark
+    public Person wrappedGet() throws PersistenceException {
+        return this.wrapped.get(1L);
+    }
+
+    /**
+     * Proxy call of a transactional <code>@Jdbc</code> method.
+     */
+    @Benchmark
+    public Person wrappedGetInTransaction() throws PersistenceException {
+        return this.wrapped.getInTransaction(1L);
+    }
+
+}
@@ -0,0 +1,56 @@
+/*
+ * Copyright 2021 Claire Fauch
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.code.fauch.revealer.load;
+
+import com.code.fauch.revealer.PersistenceException;
+import com.code.fauch.revealer.Person;
+import com.code.fauch.revealer.jdbc.transaction.Jdbc;
+
+import java.util.List;
+
+/**
+ * Sample service driven by the load test.
+ */
+public interface IPersonService {
+
+    /**
+     * Reads a person.
+     * @param id the id of the person
+     * @return the person or null if not found
+     * @throws PersistenceException if SQL or bean access problem
+     */
+    @Jdbc(transactional = false)
+    Person get(long id) throws PersistenceException;
+
+    /**
+     * Reads a page of persons.
+     * @param start the start id (excluded)
+     * @param size the page size
+     * @return the persons (not null)
+     * @throws PersistenceException if SQL or bean access problem
+     */
+    @Jdbc(transactional = false)
+    List<Person> page(long start, int size) throws PersistenceException;
+
+    /**
+     * Reads then updates the age of a person in a transaction.
+     * @param id the id of the person
+     * @return the number of updated rows
+     * @throws PersistenceException if SQL or bean access problem
+     */
+    @Jdbc(transactional = true)
+    int birthday(long id) throws PersistenceException;
+
+}
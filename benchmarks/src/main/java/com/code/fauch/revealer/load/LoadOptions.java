@@ -0,0 +1,101 @@
+/*
+ * Copyright 2021 Claire Fauch
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.code.fauch.revealer.load;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Options of the load test, parsed from the command line.
+ * <pre>
+ *   --threads N      number of concurrent workers (default 16)
+ *   --virtual        use virtual threads (requires a runtime providing them)
+ *   --pool N         maximum size of the connection pool (default 8)
+ *   --rows N         number of rows of the table (default 10000)
+ *   --warmup S       warm up duration in seconds, not measured (default 5)
+ *   --duration S     measured duration in seconds (default 20)
+ *   --writes P       percentage of transactional writes (default 10)
+ *   --pages P        percentage of page reads of 20 rows (default 10)
+ *   --file PATH      use an H2 file database instead of an in-memory one
+ *   --csv PATH       append the report to a CSV file
+ * </pre>
+ */
+final class LoadOptions {
+
+    int threads = 16;
+
+    boolean virtual;
+
+    int pool = 8;
+
+    int rows = 10_000;
+
+    int warmup = 5;
+
+    int duration = 20;
+
+    int writes = 10;
+
+    int pages = 10;
+
+    Path file;
+
+    Path csv;
+
+    /**
+     * Parses the command line.
+     * @param args the command line arguments (not null)
+     * @return the options (not null)
+     * @throws IllegalArgumentException if an argument is unknown or invalid
+     */
+    static LoadOptions parse(final String[] args) {
+        final LoadOptions options = new LoadOptions();
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--threads" -> options.threads = Integer.parseInt(value(args, ++i));
+                case "--virtual" -> options.virtual = true;
+                case "--pool" -> options.pool = Integer.parseInt(value(args, ++i));
+                case "--rows" -> options.rows = Integer.parseInt(value(args, ++i));
+                case "--warmup" -> options.warmup = Integer.parseInt(value(args, ++i));
+                case "--duration" -> options.duration = Integer.parseInt(value(args, ++i));
+                case "--writes" -> options.writes = Integer.parseInt(value(args, ++i));
+                case "--pages" -> options.pages = Integer.parseInt(value(args, ++i));
+                case "--file" -> options.file = Paths.get(value(args, ++i));
+                case "--csv" -> options.csv = Paths.get(value(args, ++i));
+                default -> throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+        if (options.threads <= 0 || options.pool <= 0 || options.rows <= 0 || options.duration <= 0
+                || options.warmup < 0 || options.writes < 0 || options.pages < 0
+                || options.writes + options.pages > 100) {
+            throw new IllegalArgumentException("Invalid options");
+        }
+        return options;
+    }
+
+    /**
+     * Returns the value of an option.
+     * @param args the command line arguments (not null)
+     * @param index the index of the value
+     * @return the value (not null)
+     */
+    private static String value(final String[] args, final int index) {
+        if (index >= args.length) {
+            throw new IllegalArgumentException("Missing value for " + args[index - 1]);
+        }
+        return args[index];
+    }
+
+}
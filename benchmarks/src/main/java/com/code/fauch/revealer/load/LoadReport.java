@@ -0,0 +1,106 @@
+/*
+ * Copyright 2021 Claire Fauch
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.code.fauch.revealer.load;
+
+import com.code.fauch.revealer.metrics.Histogram;
+
+import java.time.Instant;
+import java.util.Locale;
+
+/**
+ * Throughput and latency percentiles of a load test.
+ */
+final class LoadReport {
+
+    /**
+     * Header of the CSV lines.
+     */
+    static final String CSV_HEADER = "date,java,threads,virtual,pool,rows,writes,pages,ops,errors,"
+            + "throughput_ops_s,p50_us,p99_us,p999_us,max_us";
+
+    /**
+     * The latencies of the measured calls in nanoseconds (not null)
+     */
+    private final Histogram latencies;
+
+    /**
+     * The number of failed calls.
+     */
+    private final long errors;
+
+    /**
+     * The measured duration in seconds (>0)
+     */
+    private final int seconds;
+
+    /**
+     * Constructor.
+     * @param latencies the latencies of the measured calls in nanoseconds (not null)
+     * @param errors the number of failed calls
+     * @param seconds the measured duration in seconds (>0)
+     */
+    LoadReport(final Histogram latencies, final long errors, final int seconds) {
+        this.latencies = latencies;
+        this.errors = errors;
+        this.seconds = seconds;
+    }
+
+    /**
+     * Returns the number of calls per second.
+     * @return the throughput
+     */
+    double getThroughput() {
+        return (double) this.latencies.getCount() / this.seconds;
+    }
+
+    /**
+     * Returns a latency percentile in microseconds.
+     * @param percentile the percentile (between 0 and 100)
+     * @return the latency in microseconds
+     */
+    double getLatency(final double percentile) {
+        return this.latencies.getPercentile(percentile) / 1000.0;
+    }
+
+    /**
+     * Formats the report for humans.
+     * @param options the options of the run (not null)
+     * @return the formatted report (not null)
+     */
+    String format(final LoadOptions options) {
+        return String.format(Locale.ROOT,
+                "%d %s threads, pool %d, %d rows, %d%% writes, %d%% pages%n"
+                        + "  calls      : %d (%d errors)%n"
+                        + "  throughput : %.1f ops/s%n"
+                        + "  latency us : p50=%.1f p99=%.1f p999=%.1f max=%.1f",
+                options.threads, options.virtual ? "virtual" : "platform", options.pool, options.rows,
+                options.writes, options.pages, this.latencies.getCount(), this.errors, getThroughput(),
+                getLatency(50.0), getLatency(99.0), getLatency(99.9), this.latencies.getMax() / 1000.0);
+    }
+
+    /**
+     * Formats the report as a CSV line (see <code>CSV_HEADER</code>).
+     * @param options the options of the run (not null)
+     * @return the CSV line (not null)
+     */
+    String csv(final LoadOptions options) {
+        return String.format(Locale.ROOT, "%s,%d,%d,%b,%d,%d,%d,%d,%d,%d,%.1f,%.1f,%.1f,%.1f,%.1f",
+                Instant.now(), Runtime.version().feature(), options.threads, options.virtual, options.pool,
+                options.rows, options.writes, options.pages, this.latencies.getCount(), this.errors,
+                getThroughput(), getLatency(50.0), getLatency(99.0), getLatency(99.9),
+                this.latencies.getMax() / 1000.0);
+    }
+
+}
@@ -0,0 +1,184 @@
+/*
+ * Copyright 2021 Claire Fauch
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.code.fauch.revealer.load;
+
+import com.code.fauch.revealer.Database;
+import com.code.fauch.revealer.Person;
+import com.code.fauch.revealer.jdbc.pool.ConnectionPool;
+import com.code.fauch.revealer.jdbc.pool.PoolOptions;
+import com.code.fauch.revealer.jdbc.transaction.JdbcFactory;
+import com.code.fauch.revealer.metrics.Histogram;
+import org.h2.jdbcx.JdbcDataSource;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Load generator driving a <code>JdbcFactory.wrap</code> service from many threads sharing one connection pool.
+ * <p>
+ * Each worker loops on a mix of reads, page reads and transactional writes. After the warm up, the latency
+ * of each call is recorded, then the throughput and the p50/p99/p999 latencies are reported. The report can
+ * be appended to a CSV file to compare releases:
+ * </p>
+ * <pre>
+ *     java -cp benchmarks/target/benchmarks.jar com.code.fauch.revealer.load.LoadTest --threads 64 --csv load.csv
+ * </pre>
+ */
+public final class LoadTest {
+
+    /**
+     * No constructor.
+     */
+    private LoadTest() {
+        //Nothing to do
+    }
+
+    /**
+     * Runs the load test.
+     * @param args the command line arguments (see <code>LoadOptions</code>)
+     * @throws Exception if the load test can't be run
+     */
+    public static void main(final String[] args) throws Exception {
+        final LoadOptions options = LoadOptions.parse(args);
+        final String url = options.file == null
+                ? Database.url("load")
+                : "jdbc:h2:file:" + options.file.toAbsolutePath();
+        try (Connection keepAlive = DriverManager.getConnection(url, "bench", "")) {
+            Database.reset(keepAlive, options.rows);
+            final JdbcDataSource source = new JdbcDataSource();
+            source.setURL(url);
+            source.setUser("bench");
+            try (ConnectionPool pool = ConnectionPool.create(source, PoolOptions.defaults().withMaxSize(options.pool))) {
+                final IPersonService service = (IPersonService) JdbcFactory.wrap(
+                        pool, new PersonService(JdbcFactory.dao(Person.class)));
+                final LoadReport report = run(service, options);
+                System.out.println(report.format(options));
+                System.out.println(pool.getMetrics());
+                if (options.csv != null) {
+                    append(options, report);
+                }
+            }
+        }
+    }
+
+    /**
+     * Runs the workers for the warm up then for the measured duration.
+     * @param service the service to drive (not null)
+     * @param options the options (not null)
+     * @return the report of the measured period (not null)
+     * @throws InterruptedException if interrupted while waiting for the workers
+     */
+    private static LoadReport run(final IPersonService service, final LoadOptions options)
+            throws InterruptedException {
+        final Histogram latencies = new Histogram();
+        final LongAdder errors = new LongAdder();
+        final long start = System.nanoTime();
+        final long measureFrom = start + TimeUnit.SECONDS.toNanos(options.warmup);
+        final long end = measureFrom + TimeUnit.SECONDS.toNanos(options.duration);
+        final ThreadFactory factory = threadFactory(options.virtual);
+        final List<Thread> workers = new ArrayList<>(options.threads);
+        for (int i = 0; i < options.threads; i++) {
+            final Thread worker = factory.newThread(() -> work(service, options, measureFrom, end, latencies, errors));
+            workers.add(worker);
+            worker.start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        return new LoadReport(latencies, errors.sum(), options.duration);
+    }
+
+    /**
+     * Loop of one worker.
+     * @param service the service to drive (not null)
+     * @param options the options (not null)
+     * @param measureFrom the time the measure starts (after warm up)
+     * @param end the time the worker stops
+     * @param latencies the histogram of latencies in nanoseconds (not null)
+     * @param errors the counter of failed calls (not null)
+     */
+    private static void work(final IPersonService service, final LoadOptions options, final long measureFrom,
+                             final long end, final Histogram latencies, final LongAdder errors) {
+        final ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (long now = System.nanoTime(); now < end; ) {
+            final long id = random.nextLong(1, options.rows + 1L);
+            final int dice = random.nextInt(100);
+            boolean failed = false;
+            try {
+                if (dice < options.writes) {
+                    service.birthday(id);
+                } else if (dice < options.writes + options.pages) {
+                    service.page(id, 20);
+                } else {
+                    service.get(id);
+                }
+            } catch (Exception err) {
+                failed = true;
+            }
+            final long done = System.nanoTime();
+            if (now >= measureFrom) {
+                latencies.record(done - now);
+                if (failed) {
+                    errors.increment();
+                }
+            }
+            now = done;
+        }
+    }
+
+    /**
+     * Returns the factory of worker threads.
+     * @param virtual true for virtual threads
+     * @return the thread factory (not null)
+     * @throws IllegalStateException if virtual threads are not provided by the runtime
+     */
+    private static ThreadFactory threadFactory(final boolean virtual) {
+        if (!virtual) {
+            return Thread::new;
+        }
+        try {
+            final Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            // The class of the builder is internal to the JDK: look up the method on the public interface.
+            return (ThreadFactory) Class.forName("java.lang.Thread$Builder").getMethod("factory").invoke(builder);
+        } catch (ReflectiveOperationException err) {
+            throw new IllegalStateException("Virtual threads are not available on Java "
+                    + Runtime.version().feature(), err);
+        }
+    }
+
+    /**
+     * Appends the report to the CSV file of the options, writing the header first if the file is new.
+     * @param options the options (not null)
+     * @param report the report (not null)
+     * @throws IOException if the file can't be written
+     */
+    private static void append(final LoadOptions options, final LoadReport report) throws IOException {
+        if (Files.notExists(options.csv)) {
+            Files.writeString(options.csv, LoadReport.CSV_HEADER + System.lineSeparator());
+        }
+        Files.writeString(options.csv, report.csv(options) + System.lineSeparator(), StandardOpenOption.APPEND);
+    }
+
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright 2021 Claire Fauch
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.code.fauch.revealer.load;
+
+import com.code.fauch.revealer.IDao;
+import com.code.fauch.revealer.PersistenceException;
+import com.code.fauch.revealer.Person;
+
+import java.util.List;
+
+/**
+ * Implementation of the sample service based on a DAO.
+ */
+public final class PersonService implements IPersonService {
+
+    /**
+     * The DAO of persons (not null)
+     */
+    private final IDao<Person> dao;
+
+    /**
+     * Constructor.
+     * @param dao the DAO of persons (not null)
+     */
+    public PersonService(final IDao<Person> dao) {
+        this.dao = dao;
+    }
+
+    @Override
+    public Person get(final long id) throws PersistenceException {
+        return this.dao.get(id);
+    }
+
+    @Override
+    public List<Person> page(final long start, final int size) throws PersistenceException {
+        return this.dao.getAll(start, size);
+    }
+
+    @Override
+    public int birthday(final long id) throws PersistenceException {
+        final Person person = this.dao.get(id);
+        if (person == null) {
+            return 0;
+        }
+        person.setAge(person.getAge() + 1);
+        return this.dao.update(person);
+    }
+
+}
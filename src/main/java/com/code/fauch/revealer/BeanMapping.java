@@ -109,6 +109,14 @@ public final class BeanMapping<T> {
         return this.collection;
     }
 
+    /**
+     * Returns the class of the bean.
+     * @return the class of the bean (not null)
+     */
+    public Class<T> getType() {
+        return this.constructor.getDeclaringClass();
+    }
+
     /**
      * Returns the number of mapped fields.
      * @return the number of mapped fields
@@ -125,6 +133,16 @@ public final class BeanMapping<T> {
         return this.id;
     }
 
+    /**
+     * Returns the type of a mapped field.
+     * @param col the name of the field (not null)
+     * @return the type of the field or null if the field is not mapped
+     */
+    public Class<?> getType(final String col) {
+        final PropertyDescriptor desc = this.descriptors.get(col);
+        return desc == null ? null : desc.getPropertyType();
+    }
+
     /**
      * Set a value.
      * @param bean the bean to modify (if null a new one is created)
@@ -14,7 +14,14 @@
  */
 package com.code.fauch.revealer;
 
+import com.code.fauch.revealer.jdbc.ResultPublisher;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.Flow;
 
 /**
  * Interface describing the expected behavior of a DAO.
@@ -31,6 +38,32 @@ public interface IDao<T> {
      */
     int insert(final T bean) throws PersistenceException;
 
+    /**
+     * Insert several beans with as few statements as possible. By default, the beans are inserted one by one.
+     * @param beans the beans to insert (not null)
+     * @return the number of created records
+     * @throws PersistenceException if SQL or bean access problem.
+     */
+    default int insertAll(final List<T> beans) throws PersistenceException {
+        int total = 0;
+        for (T bean : Objects.requireNonNull(beans, "beans is mandatory")) {
+            total += insert(bean);
+        }
+        return total;
+    }
+
+    /**
+     * Insert the given bean or update its record if it already exists. By default, the bean is inserted when
+     * no record is updated, which is not atomic: implementations should do it with one statement.
+     * @param bean the bean to insert or update (not null, its id must not be null)
+     * @return the inserted or updated record number
+     * @throws PersistenceException if SQL or bean access problem
+     */
+    default int upsert(final T bean) throws PersistenceException {
+        final int updated = update(Objects.requireNonNull(bean, "bean is mandatory"));
+        return updated > 0 ? updated : insert(bean);
+    }
+
     /**
      * Update record using the given bean.
      * @param bean the bean to update (not null)
@@ -55,6 +88,23 @@ public interface IDao<T> {
      */
     T get(final Object id) throws PersistenceException;
 
+    /**
+     * Searches and returns the beans of the given ids. By default, the beans are searched one by one.
+     * @param ids the ids of the beans to research (not null)
+     * @return the found beans in no particular order (it may be empty)
+     * @throws PersistenceException if SQL or bean access problem
+     */
+    default List<T> getAll(final Collection<?> ids) throws PersistenceException {
+        final List<T> founds = new ArrayList<>(Objects.requireNonNull(ids, "ids is mandatory").size());
+        for (Object id : ids) {
+            final T found = get(id);
+            if (found != null) {
+                founds.add(found);
+            }
+        }
+        return founds;
+    }
+
     /**
      * Searches and returns the bean corresponding to a given SQL query.
      * @param query the SQL query (not null)
@@ -82,4 +132,31 @@ public interface IDao<T> {
      */
     List<T> findAll(final String query, final Object... args) throws PersistenceException;
 
+    /**
+     * Publishes the beans of a SQL query as they are read, honouring the demand of the subscribers.
+     * Each subscriber runs the query on its first request; the statement is closed on completion, error or
+     * cancellation. By default, the query reads all the beans with <code>findAll</code> on the requesting
+     * thread, then delivers them as they are requested.
+     * @param query the SQL query (not null)
+     * @param args the optional query arguments
+     * @return the publisher of the beans (not null)
+     */
+    default Flow.Publisher<T> publish(final String query, final Object... args) {
+        Objects.requireNonNull(query, "query is mandatory");
+        return new ResultPublisher<>(() -> {
+            final Iterator<T> beans = findAll(query, args).iterator();
+            return new ResultPublisher.Cursor<T>() {
+                @Override
+                public T next() {
+                    return beans.hasNext() ? beans.next() : null;
+                }
+
+                @Override
+                public void close() {
+                    //Nothing to release
+                }
+            };
+        }, Runnable::run);
+    }
+
 }
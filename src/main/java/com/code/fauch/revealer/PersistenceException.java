@@ -33,4 +33,13 @@ public final class PersistenceException extends Exception {
         super(th);
     }
 
+    /**
+     * Constructor.
+     *
+     * @param message the detail message
+     */
+    public PersistenceException(final String message) {
+        super(message);
+    }
+
 }
@@ -0,0 +1,154 @@
+/*
+ * Copyright 2021 Claire Fauch
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.code.fauch.revealer.id;
+
+import com.code.fauch.revealer.jdbc.dialect.Dialects;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Generator of ids reserving blocks of ids with one call to a database sequence (hi/lo algorithm).
+ * <p>
+ * Each value <code>hi</code> of the sequence reserves the ids from <code>hi * blockSize</code> to
+ * <code>(hi + 1) * blockSize - 1</code>, so the sequence can keep its default increment. The ids of a block
+ * are given without lock; the threads finding the block exhausted each reserve a new block, the first one
+ * installed being shared with the other threads.
+ * </p>
+ */
+public final class HiLoIdGenerator implements IdGenerator {
+
+    /**
+     * Block of reserved ids.
+     */
+    private static final class Block {
+
+        /**
+         * The next id of the block (not null)
+         */
+        private final AtomicLong next;
+
+        /**
+         * The first id after the block.
+         */
+        private final long limit;
+
+        /**
+         * Constructor.
+         * @param first the first id of the block
+         * @param limit the first id after the block
+         */
+        private Block(final long first, final long limit) {
+            this.next = new AtomicLong(first);
+            this.limit = limit;
+        }
+
+    }
+
+    /**
+     * The name of the sequence (not null)
+     */
+    private final String sequence;
+
+    /**
+     * The number of ids of a block (&gt;0)
+     */
+    private final int blockSize;
+
+    /**
+     * The current block (not null)
+     */
+    private final AtomicReference<Block> current = new AtomicReference<>(new Block(0L, 0L));
+
+    /**
+     * The number of calls to the sequence.
+     */
+    private final AtomicLong reservations = new AtomicLong();
+
+    /**
+     * Creates a new generator.
+     * @param sequence the name of the sequence (not null)
+     * @param blockSize the number of ids reserved by each call to the sequence (&gt;0)
+     * @return the just created generator (not null)
+     */
+    public static HiLoIdGenerator create(final String sequence, final int blockSize) {
+        if (blockSize <= 0) {
+            throw new IllegalArgumentException("blockSize must be >0");
+        }
+        return new HiLoIdGenerator(Objects.requireNonNull(sequence, "sequence is mandatory"), blockSize);
+    }
+
+    /**
+     * Constructor.
+     * @param sequence the name of the sequence (not null)
+     * @param blockSize the number of ids of a block (&gt;0)
+     */
+    private HiLoIdGenerator(final String sequence, final int blockSize) {
+        this.sequence = sequence;
+        this.blockSize = blockSize;
+    }
+
+    /**
+     * Returns a new id, reserving a new block when the current one is exhausted.
+     * @param connection the connection used to call the sequence (not null)
+     * @return the new id (not null)
+     * @throws SQLException if the sequence can't be called
+     */
+    @Override
+    public Long next(final Connection connection) throws SQLException {
+        final Block block = this.current.get();
+        final long id = block.next.getAndIncrement();
+        if (id < block.limit) {
+            return id;
+        }
+        final long hi = reserve(Objects.requireNonNull(connection, "connection is mandatory"));
+        final Block fresh = new Block(hi * this.blockSize, (hi + 1) * this.blockSize);
+        final long first = fresh.next.getAndIncrement();
+        this.current.compareAndSet(block, fresh);
+        return first;
+    }
+
+    /**
+     * Returns the number of calls to the sequence.
+     * @return the number of reserved blocks
+     */
+    public long getReservations() {
+        return this.reservations.get();
+    }
+
+    /**
+     * Calls the sequence.
+     * @param connection the connection (not null)
+     * @return the next value of the sequence
+     * @throws SQLException if the sequence can't be called
+     */
+    private long reserve(final Connection connection) throws SQLException {
+        final String sql = Dialects.of(connection.getMetaData()).nextValue(this.sequence);
+        try (PreparedStatement stmt = connection.prepareStatement(sql);
+             ResultSet result = stmt.executeQuery()) {
+            if (!result.next()) {
+                throw new SQLException("No value returned by the sequence " + this.sequence);
+            }
+            this.reservations.incrementAndGet();
+            return result.getLong(1);
+        }
+    }
+
+}
@@ -0,0 +1,38 @@
+/*
+ * Copyright 2021 Claire Fauch
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.code.fauch.revealer.id;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Interface describing a strategy generating the id of the inserted beans on the client side (SPI).
+ * <p>
+ * When a DAO is given a generator, the beans inserted without id get one before the insert is executed,
+ * so that inserts no longer depend on the keys generated by the database. Implementations must be thread safe.
+ * </p>
+ */
+@FunctionalInterface
+public interface IdGenerator {
+
+    /**
+     * Returns a new id.
+     * @param connection the connection of the insert, for the generators needing the database (not null)
+     * @return the new id (not null)
+     * @throws SQLException if the id can't be generated from the database
+     */
+    Object next(Connection connection) throws SQLException;
+
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright 2021 Claire Fauch
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.code.fauch.revealer.id;
+
+import java.sql.Connection;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Generator of time-ordered 64-bit ids needing no database access.
+ * <p>
+ * An id is made of 41 bits of milliseconds since 2021-01-01, 10 bits of node and 12 bits of counter:
+ * the ids of one node are unique and increasing, and the ids of distinct nodes never collide. When more than
+ * 4096 ids are asked in the same millisecond, the following milliseconds are used in advance rather than
+ * waiting. The generation is lock-free.
+ * </p>
+ */
+public final class TimeOrderedIdGenerator implements IdGenerator {
+
+    /**
+     * The origin of the timestamps in milliseconds (2021-01-01T00:00:00Z).
+     */
+    static final long EPOCH = Instant.parse("2021-01-01T00:00:00Z").toEpochMilli();
+
+    /**
+     * The number of bits of the counter.
+     */
+    private static final int COUNTER_BITS = 12;
+
+    /**
+     * The number of bits of the node.
+     */
+    private static final int NODE_BITS = 10;
+
+    /**
+     * The maximum node.
+     */
+    public static final int MAX_NODE = (1 << NODE_BITS) - 1;
+
+    /**
+     * The node shifted at its position in the ids.
+     */
+    private final long node;
+
+    /**
+     * The last timestamp and counter, as <code>timestamp &lt;&lt; 12 | counter</code>.
+     */
+    private final AtomicLong last = new AtomicLong();
+
+    /**
+     * Creates a new generator.
+     * @param node the number of the node generating ids, unique among the nodes sharing a table (0 to 1023)
+     * @return the just created generator (not null)
+     */
+    public static TimeOrderedIdGenerator create(final int node) {
+        if (node < 0 || node > MAX_NODE) {
+            throw new IllegalArgumentException("node must be between 0 and " + MAX_NODE);
+        }
+        return new TimeOrderedIdGenerator(node);
+    }
+
+    /**
+     * Constructor.
+     * @param node the number of the node (0 to 1023)
+     */
+    private TimeOrderedIdGenerator(final int node) {
+        this.node = (long) node << COUNTER_BITS;
+    }
+
+    /**
+     * Returns a new id.
+     * @param connection not used (it may be null)
+     * @return the new id (not null)
+     */
+    @Override
+    public Long next(final Connection connection) {
+        return nextId();
+    }
+
+    /**
+     * Returns a new id.
+     * @return the new id (&gt;0)
+     */
+    public long nextId() {
+        final long now = (System.currentTimeMillis() - EPOCH) << COUNTER_BITS;
+        long previous;
+        long next;
+        do {
+            previous = this.last.get();
+            next = now > previous ? now : previous + 1;
+        } while (!this.last.compareAndSet(previous, next));
+        return (next >>> COUNTER_BITS) << (COUNTER_BITS + NODE_BITS) | this.node | (next & ((1 << COUNTER_BITS) - 1));
+    }
+
+    /**
+     * Returns the time of an id.
+     * @param id an id given by this kind of generator
+     * @return the generation time in milliseconds since 1970-01-01
+     */
+    public static long timestamp(final long id) {
+        return (id >>> (COUNTER_BITS + NODE_BITS)) + EPOCH;
+    }
+
+}
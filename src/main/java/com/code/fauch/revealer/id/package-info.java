@@ -0,0 +1,26 @@
+/*
+ * Copyright 2021 Claire Fauch
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/**
+ * This package defines the generation of the ids of the inserted beans on the client side.
+ * <p>
+ * A DAO given an <code>IdGenerator</code> sets the id of the beans before inserting them, so that inserts
+ * don't need to read the keys generated by the database. Two generators are provided:
+ * </p>
+ * <ul>
+ *     <li><code>HiLoIdGenerator</code> reserves blocks of ids with one call to a database sequence,</li>
+ *     <li><code>TimeOrderedIdGenerator</code> builds time-ordered 64-bit ids without database access.</li>
+ * </ul>
+ */
+package com.code.fauch.revealer.id;
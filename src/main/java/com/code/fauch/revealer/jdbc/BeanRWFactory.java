@@ -15,11 +15,18 @@
 package com.code.fauch.revealer.jdbc;
 
 import com.code.fauch.revealer.BeanMapping;
+import com.code.fauch.revealer.id.IdGenerator;
+import com.code.fauch.revealer.jdbc.dialect.Dialect;
 
 import java.sql.PreparedStatement;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Factory used to create the bean reader and writer.
@@ -32,13 +39,24 @@ public final class BeanRWFactory<T> {
     private static final String DELETE_SQL = "delete from %s where %s=?";
     private static final String UPDATE_SQL = "update %s set %s where %s=?";
     private static final String FOUND_SQL = "select * from %s where %s=?";
-    private static final String FOUND_ALL_SQL = "select * from %s where %s>? order by %s limit ?";
+    private static final String BOUNDS_SQL = "select min(%2$s), max(%2$s) from %1$s";
+    private static final String RANGE_SQL = "select * from %1$s where %2$s>=? and %2$s<=? order by %2$s";
 
     /**
      * The bean mapping (not null).
      */
     private final BeanMapping<T> mapping;
 
+    /**
+     * The generator of ids (null if the ids are generated by the database).
+     */
+    private final IdGenerator idGenerator;
+
+    /**
+     * The inserted columns: the columns without id, followed by the id if generated by the client (not null).
+     */
+    private final List<String> insertColumns;
+
     /**
      * The SQL insert query (not null).
      */
@@ -60,9 +78,44 @@ public final class BeanRWFactory<T> {
     private final String foundQuery;
 
     /**
-     * The SQL select by id with pagination query (not null).
+     * The select of the lowest and highest ids
+     */
+    private final String boundsQuery;
+
+    /**
+     * The select of the records of an id range ordered by id
+     */
+    private final String rangeQuery;
+
+    /**
+     * The ordered columns without id (not null).
+     */
+    private final List<String> columns;
+
+    /**
+     * All the mapped columns, id first (not null).
+     */
+    private final List<String> allColumns;
+
+    /**
+     * The SQL single insert returning queries by dialect (not null).
+     */
+    private final Map<Dialect, String> insertReturningQueries = new ConcurrentHashMap<>();
+
+    /**
+     * The SQL select by id with pagination queries by dialect (not null).
+     */
+    private final Map<Dialect, String> foundAllQueries = new ConcurrentHashMap<>();
+
+    /**
+     * The SQL upsert queries by dialect (not null).
+     */
+    private final Map<Dialect, String> upsertQueries = new ConcurrentHashMap<>();
+
+    /**
+     * The SQL select by ids queries of the dialects using arrays (not null).
      */
-    private final String foundAllQuery;
+    private final Map<Dialect, String> foundInQueries = new ConcurrentHashMap<>();
 
     /**
      * Creates a new factory for the given bean class.
@@ -72,20 +125,40 @@ public final class BeanRWFactory<T> {
      * @return the just created factory
      */
     public static <U> BeanRWFactory<U> from(final Class<U> cls) {
-        return new BeanRWFactory<>(BeanMapping.from(Objects.requireNonNull(cls, "cls is mandatory")));
+        return new BeanRWFactory<>(BeanMapping.from(Objects.requireNonNull(cls, "cls is mandatory")), null);
+    }
+
+    /**
+     * Creates a new factory for the given bean class whose ids are generated by the client.
+     *
+     * @param cls the class of the bean (not null)
+     * @param idGenerator the generator of the ids of the inserted beans (not null)
+     * @param <U> the type of the bean
+     * @return the just created factory
+     */
+    public static <U> BeanRWFactory<U> from(final Class<U> cls, final IdGenerator idGenerator) {
+        return new BeanRWFactory<>(
+                BeanMapping.from(Objects.requireNonNull(cls, "cls is mandatory")),
+                Objects.requireNonNull(idGenerator, "idGenerator is mandatory"));
     }
 
     /**
      * Constructor.
      * @param mapping the bean class mapping (not null)
+     * @param idGenerator the generator of ids (null if the ids are generated by the database)
      */
-    private BeanRWFactory(final BeanMapping<T> mapping) {
+    private BeanRWFactory(final BeanMapping<T> mapping, final IdGenerator idGenerator) {
         this.mapping = mapping;
+        this.idGenerator = idGenerator;
+        this.columns = this.mapping.withoutIdFields().collect(Collectors.toUnmodifiableList());
+        this.insertColumns = idGenerator == null ? this.columns
+                : Stream.concat(this.columns.stream(), Stream.of(this.mapping.getId()))
+                .collect(Collectors.toUnmodifiableList());
         this.insertQuery = String.format(
                 INSERT_SQL,
                 this.mapping.getCollection(),
-                this.mapping.withoutIdFields().collect(Collectors.joining(",")),
-                String.join(",", Collections.nCopies(this.mapping.size() - 1, "?")));
+                String.join(",", this.insertColumns),
+                String.join(",", Collections.nCopies(this.insertColumns.size(), "?")));
         this.deleteQuery = String.format(
                 DELETE_SQL,
                 this.mapping.getCollection(),
@@ -99,11 +172,24 @@ public final class BeanRWFactory<T> {
                 FOUND_SQL,
                 this.mapping.getCollection(),
                 this.mapping.getId());
-        this.foundAllQuery = String.format(
-                FOUND_ALL_SQL,
+        this.boundsQuery = String.format(
+                BOUNDS_SQL,
                 this.mapping.getCollection(),
-                this.mapping.getId(),
                 this.mapping.getId());
+        this.rangeQuery = String.format(
+                RANGE_SQL,
+                this.mapping.getCollection(),
+                this.mapping.getId());
+        this.allColumns = Stream.concat(Stream.of(this.mapping.getId()), this.columns.stream())
+                .collect(Collectors.toUnmodifiableList());
+    }
+
+    /**
+     * Returns the class of the bean
+     * @return the class of the bean (not null)
+     */
+    Class<T> getType() {
+        return this.mapping.getType();
     }
 
     /**
@@ -138,12 +224,135 @@ public final class BeanRWFactory<T> {
         return this.foundQuery;
     }
 
+    /**
+     * Returns the select of the lowest and highest ids
+     * @return the select of the lowest and highest ids (not null)
+     */
+    String getBoundsQuery() {
+        return this.boundsQuery;
+    }
+
+    /**
+     * Returns the select of the records of an id range ordered by id. Its parameters are the lowest and
+     * the highest ids (both included).
+     * @return the select of an id range (not null)
+     */
+    String getRangeQuery() {
+        return this.rangeQuery;
+    }
+
+    /**
+     * Returns the insert query of several beans
+     * @param dialect the SQL dialect (not null)
+     * @param rows the number of beans (&gt;0)
+     * @return insert query (not null)
+     */
+    String getInsertQuery(final Dialect dialect, final int rows) {
+        return rows == 1 ? this.insertQuery : dialect.insert(this.mapping.getCollection(), this.insertColumns, rows);
+    }
+
+    /**
+     * Returns the insert query of several beans returning all their mapped columns
+     * @param dialect the SQL dialect supporting insert returning (not null)
+     * @param rows the number of beans (&gt;0)
+     * @return insert returning query (not null)
+     */
+    String getInsertReturningQuery(final Dialect dialect, final int rows) {
+        if (rows == 1) {
+            return this.insertReturningQueries.computeIfAbsent(dialect,
+                    d -> d.insertReturning(this.mapping.getCollection(), this.insertColumns, 1, this.allColumns));
+        }
+        return dialect.insertReturning(this.mapping.getCollection(), this.insertColumns, rows, this.allColumns);
+    }
+
     /**
      * Returns the select by id with pagination query
+     * @param dialect the SQL dialect (not null)
      * @return the select by id with pagination query (not null)
      */
-    String getFoundAllQuery() {
-        return this.foundAllQuery;
+    String getFoundAllQuery(final Dialect dialect) {
+        return this.foundAllQueries.computeIfAbsent(dialect,
+                d -> d.page(this.mapping.getCollection(), this.mapping.getId()));
+    }
+
+    /**
+     * Returns the select by ids query
+     * @param dialect the SQL dialect (not null)
+     * @param count the number of ids (&gt;0)
+     * @return the select by ids query (not null)
+     */
+    String getFoundInQuery(final Dialect dialect, final int count) {
+        if (dialect.supportsArrays()) {
+            return this.foundInQueries.computeIfAbsent(dialect,
+                    d -> d.selectIn(this.mapping.getCollection(), this.mapping.getId(), 1));
+        }
+        return dialect.selectIn(this.mapping.getCollection(), this.mapping.getId(), count);
+    }
+
+    /**
+     * Returns the upsert query
+     * @param dialect the SQL dialect (not null)
+     * @return the upsert query (not null)
+     */
+    String getUpsertQuery(final Dialect dialect) {
+        return this.upsertQueries.computeIfAbsent(dialect,
+                d -> d.upsert(this.mapping.getCollection(), this.mapping.getId(), this.columns));
+    }
+
+    /**
+     * Returns the number of inserted columns
+     * @return the number of inserted columns
+     */
+    int getInsertColumnCount() {
+        return this.insertColumns.size();
+    }
+
+    /**
+     * Returns the generator of ids
+     * @return the generator of ids (null if the ids are generated by the database)
+     */
+    IdGenerator getIdGenerator() {
+        return this.idGenerator;
+    }
+
+    /**
+     * Returns the id of the given bean
+     * @param bean the bean (not null)
+     * @return the id (it may be null)
+     * @throws ReflectiveOperationException if the bean is not accessible for reflexion
+     */
+    Object getId(final T bean) throws ReflectiveOperationException {
+        return this.mapping.get(bean);
+    }
+
+    /**
+     * Returns the bean mapping
+     * @return the bean mapping (not null)
+     */
+    BeanMapping<T> getMapping() {
+        return this.mapping;
+    }
+
+    /**
+     * Returns all the generated queries for the given dialect
+     * @param dialect the SQL dialect (not null)
+     * @return the generated queries (not null)
+     */
+    List<String> getQueries(final Dialect dialect) {
+        final List<String> queries = new ArrayList<>(List.of(
+                this.insertQuery,
+                this.updateQuery,
+                this.deleteQuery,
+                this.foundQuery,
+                this.boundsQuery,
+                this.rangeQuery,
+                getFoundAllQuery(dialect),
+                getFoundInQuery(dialect, 1),
+                getUpsertQuery(dialect)));
+        if (dialect.supportsReturning()) {
+            queries.add(getInsertReturningQuery(dialect, 1));
+        }
+        return queries;
     }
 
     /**
@@ -161,7 +370,18 @@ public final class BeanRWFactory<T> {
      * @return the new bean writer
      */
     BeanWriter<T> getWriter(final PreparedStatement stmt) {
-        return new BeanWriter<>(stmt, this.mapping);
+        return new BeanWriter<>(stmt, this.mapping, null);
+    }
+
+    /**
+     * Builds and returns a new bean writer for the given prepared statement, keeping the written values
+     * in the given probe.
+     * @param stmt the prepared statement (not null)
+     * @param probe the probe of the operation (not null)
+     * @return the new bean writer
+     */
+    BeanWriter<T> getWriter(final PreparedStatement stmt, final Probe probe) {
+        return new BeanWriter<>(stmt, this.mapping, probe);
     }
 
 }
@@ -15,11 +15,15 @@
 package com.code.fauch.revealer.jdbc;
 
 import com.code.fauch.revealer.BeanMapping;
+import com.code.fauch.revealer.jfr.MappingEvent;
+import com.code.fauch.revealer.metrics.Metrics;
 
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Object used to read a bean from SQL database record.
@@ -65,6 +69,67 @@ final class BeanReader<T> {
         return lazyBean;
     }
 
+    /**
+     * Read the bean of the next record of the given result set, if any.
+     * @param result the result set (not null)
+     * @return the new instance of bean or null if there is no more record
+     * @throws ReflectiveOperationException if the bean is not accessible for reflexion
+     * @throws SQLException if SQL problem
+     */
+    T readNext(final ResultSet result) throws ReflectiveOperationException, SQLException {
+        if (result.next()) {
+            final T bean = read(result);
+            Metrics.get().rowsMapped(this.mapping.getType(), 1);
+            return bean;
+        }
+        return null;
+    }
+
+    /**
+     * Read the beans of all the remaining records of the given result set.
+     * The column names are only resolved once for all the records.
+     * @param result the result set (not null)
+     * @return the new instances of bean (not null, it may be empty)
+     * @throws ReflectiveOperationException if the bean is not accessible for reflexion
+     * @throws SQLException if SQL problem
+     */
+    List<T> readAll(final ResultSet result) throws ReflectiveOperationException, SQLException {
+        final MappingEvent event = new MappingEvent();
+        event.begin();
+        final ArrayList<T> beans = new ArrayList<>();
+        if (result.next()) {
+            final ResultSetMetaData metaData = this.stmt.getMetaData();
+            final String[] columns = new String[metaData.getColumnCount()];
+            for (int i = 0; i < columns.length; i++) {
+                columns[i] = metaData.getColumnName(i + 1);
+            }
+            do {
+                T lazyBean = null;
+                for (int i = 0; i < columns.length; i++) {
+                    lazyBean = this.mapping.set(lazyBean, columns[i], result.getObject(i + 1));
+                }
+                beans.add(lazyBean);
+            } while (result.next());
+        }
+        Metrics.get().rowsMapped(this.mapping.getType(), beans.size());
+        event.complete(this.mapping.getType(), beans.size());
+        return beans;
+    }
+
+    /**
+     * Read the current record of the given result set into an existing bean.
+     * @param result the result set positioned on a record (not null)
+     * @param bean the bean to update (not null)
+     * @throws ReflectiveOperationException if the bean is not accessible for reflexion
+     * @throws SQLException if SQL problem
+     */
+    void readInto(final ResultSet result, final T bean) throws ReflectiveOperationException, SQLException {
+        final ResultSetMetaData metaData = result.getMetaData();
+        for (int i = 1; i <= metaData.getColumnCount(); i++) {
+            this.mapping.set(bean, metaData.getColumnName(i), result.getObject(i));
+        }
+    }
+
     /**
      * Update the id of the given bean.
      * @param bean the bean to update (not null)
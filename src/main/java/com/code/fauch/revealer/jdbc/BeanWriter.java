@@ -43,15 +43,22 @@ final class BeanWriter<T> {
      */
     private final List<String> columns;
 
+    /**
+     * The probe keeping the written values (null if none)
+     */
+    private final Probe probe;
+
     /**
      * Constructor.
      * @param stmt The jdbc statement (not null)
      * @param mapping the class mapping (not null)
+     * @param probe the probe keeping the written values (null if none)
      */
-    BeanWriter(final PreparedStatement stmt, final BeanMapping<T> mapping) {
+    BeanWriter(final PreparedStatement stmt, final BeanMapping<T> mapping, final Probe probe) {
         this.stmt = stmt;
         this.mapping = mapping;
         this.columns = mapping.withoutIdFields().collect(Collectors.toList());
+        this.probe = probe;
     }
 
     /**
@@ -65,12 +72,42 @@ final class BeanWriter<T> {
         int i = 0;
         if (bean != null) {
             for (i = 0; i < columns.size(); i++) {
-                this.stmt.setObject(i + 1, this.mapping.get(bean, columns.get(i)));
+                set(i + 1, this.mapping.get(bean, columns.get(i)));
             }
         }
         for (Object value : values) {
-            this.stmt.setObject(i+1, value);
+            set(i+1, value);
+        }
+    }
+
+    /**
+     * Write a bean from the given parameter offset, as one of the records of a multi-records statement.
+     * @param offset the number of parameters already written (&gt;=0)
+     * @param bean the bean to write (not null)
+     * @return the number of parameters written so far
+     * @throws SQLException if SQL exception
+     * @throws ReflectiveOperationException if the bean is not accessible for reflexion
+     */
+    int write(final int offset, final T bean) throws SQLException, ReflectiveOperationException {
+        for (int i = 0; i < columns.size(); i++) {
+            set(offset + i + 1, this.mapping.get(bean, columns.get(i)));
         }
+        return offset + columns.size();
+    }
+
+    /**
+     * Write a bean followed by its id from the given parameter offset, as one of the records of a multi-records
+     * statement.
+     * @param offset the number of parameters already written (&gt;=0)
+     * @param bean the bean to write (not null)
+     * @return the number of parameters written so far
+     * @throws SQLException if SQL exception
+     * @throws ReflectiveOperationException if the bean is not accessible for reflexion
+     */
+    int writeWithId(final int offset, final T bean) throws SQLException, ReflectiveOperationException {
+        final int next = write(offset, bean);
+        set(next + 1, this.mapping.get(bean));
+        return next + 1;
     }
 
     /**
@@ -90,7 +127,21 @@ final class BeanWriter<T> {
      * @throws ReflectiveOperationException if the bean is not accessible for reflexion
      */
     void writeId(final T bean) throws SQLException, ReflectiveOperationException {
-        this.stmt.setObject(1, this.mapping.get(bean));
+        set(1, this.mapping.get(bean));
+    }
+
+    /**
+     * Write one parameter on the prepared statement.
+     * @param index the index of the parameter (starting at 1)
+     * @param value the value of the parameter
+     * @throws SQLException SQL Exception
+     */
+    private void set(final int index, final Object value) throws SQLException {
+        if (this.probe == null) {
+            this.stmt.setObject(index, value);
+        } else {
+            this.probe.bind(this.stmt, index, value);
+        }
     }
 
 }
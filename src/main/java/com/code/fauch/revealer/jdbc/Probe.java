@@ -0,0 +1,189 @@
+/*
+ * Copyright 2021 Claire Fauch
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.code.fauch.revealer.jdbc;
+
+import com.code.fauch.revealer.jfr.StatementEvent;
+import com.code.fauch.revealer.metrics.Metrics;
+import com.code.fauch.revealer.metrics.SlowQueryLog;
+import com.code.fauch.revealer.tracing.Span;
+import com.code.fauch.revealer.tracing.Tracing;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * This class instruments one DAO operation: flight recorder event, trace span, execution metrics and
+ * slow query log.
+ * <p>
+ * A probe is started before the statement is prepared and must be ended in a finally block. While the slow
+ * query log is enabled, the parameters bound through the probe are kept to be logged with the statement, together
+ * with the calling method of the thread starting the probe (a cursor may end it on another thread).
+ * </p>
+ */
+final class Probe {
+
+    /**
+     * The name of the DAO operation (not null)
+     */
+    private final String operation;
+
+    /**
+     * The SQL statement (not null)
+     */
+    private final String sql;
+
+    /**
+     * The class of the beans (not null)
+     */
+    private final Class<?> type;
+
+    /**
+     * The flight recorder event (not null)
+     */
+    private final StatementEvent event;
+
+    /**
+     * The trace span (not null)
+     */
+    private final Span span;
+
+    /**
+     * The start time of the operation in nanoseconds.
+     */
+    private final long start;
+
+    /**
+     * The bound parameters by index (null if the slow query log is disabled)
+     */
+    private final List<Object> params;
+
+    /**
+     * The calling method of the operation, on the thread starting it (null if unknown)
+     */
+    private final String caller;
+
+    /**
+     * Constructor.
+     * @param operation the name of the DAO operation (not null)
+     * @param sql the SQL statement (not null)
+     * @param type the class of the beans (not null)
+     */
+    private Probe(final String operation, final String sql, final Class<?> type) {
+        this.operation = operation;
+        this.sql = sql;
+        this.type = type;
+        this.event = new StatementEvent();
+        this.event.begin();
+        this.span = Tracing.start(operation);
+        this.start = System.nanoTime();
+        this.params = SlowQueryLog.isEnabled() ? new ArrayList<>() : null;
+        this.caller = SlowQueryLog.caller();
+    }
+
+    /**
+     * Starts the instrumentation of a DAO operation.
+     * @param operation the name of the DAO operation (not null)
+     * @param sql the SQL statement (not null)
+     * @param type the class of the beans (not null)
+     * @return the started probe (not null)
+     */
+    static Probe start(final String operation, final String sql, final Class<?> type) {
+        return new Probe(operation, sql, type);
+    }
+
+    /**
+     * Binds a parameter of the prepared statement and keeps it for the slow query log.
+     * @param stmt the prepared statement (not null)
+     * @param index the index of the parameter (starting at 1)
+     * @param value the value of the parameter
+     * @throws SQLException if SQL problem
+     */
+    void bind(final PreparedStatement stmt, final int index, final Object value) throws SQLException {
+        stmt.setObject(index, value);
+        bound(index, value);
+    }
+
+    /**
+     * Keeps a parameter bound by other means for the slow query log.
+     * @param index the index of the parameter (starting at 1)
+     * @param value the value of the parameter
+     */
+    void bound(final int index, final Object value) {
+        if (this.params != null) {
+            while (this.params.size() < index) {
+                this.params.add(null);
+            }
+            this.params.set(index - 1, value);
+        }
+    }
+
+    /**
+     * Executes a query and records its execution time.
+     * @param stmt the prepared statement (not null)
+     * @return the result set (not null)
+     * @throws SQLException if SQL problem
+     */
+    ResultSet executeQuery(final PreparedStatement stmt) throws SQLException {
+        final long begin = System.nanoTime();
+        try {
+            return stmt.executeQuery();
+        } finally {
+            Metrics.get().statementExecuted(this.sql, System.nanoTime() - begin);
+        }
+    }
+
+    /**
+     * Executes an update and records its execution time.
+     * @param stmt the prepared statement (not null)
+     * @return the number of affected records
+     * @throws SQLException if SQL problem
+     */
+    int executeUpdate(final PreparedStatement stmt) throws SQLException {
+        final long begin = System.nanoTime();
+        try {
+            return stmt.executeUpdate();
+        } finally {
+            Metrics.get().statementExecuted(this.sql, System.nanoTime() - begin);
+        }
+    }
+
+    /**
+     * Ends the instrumentation of the operation whose parameters were bound through this probe.
+     * @param rows the number of read or affected rows (-1 if failed)
+     */
+    void end(final long rows) {
+        end(rows, this.params == null ? new Object[0] : this.params.toArray());
+    }
+
+    /**
+     * Ends the instrumentation of the operation.
+     * @param rows the number of read or affected rows (-1 if failed)
+     * @param params the parameters bound to the statement (not null)
+     */
+    void end(final long rows, final Object... params) {
+        this.event.complete(this.operation, this.sql, this.type, rows);
+        if (this.span != Span.NOOP) {
+            this.span.setAttribute(Span.SQL, this.sql);
+            this.span.setAttribute(Span.ENTITY, this.type.getName());
+            this.span.setAttribute(Span.ROWS, rows);
+            this.span.end();
+        }
+        SlowQueryLog.report(this.caller, this.sql, params, rows, System.nanoTime() - this.start);
+    }
+
+}
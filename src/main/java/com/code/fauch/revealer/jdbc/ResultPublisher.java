@@ -0,0 +1,279 @@
+/*
+ * Copyright 2021 Claire Fauch
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.code.fauch.revealer.jdbc;
+
+import com.code.fauch.revealer.PersistenceException;
+
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Publisher of the beans read from a cursor, honouring the demand of its subscribers.
+ * <p>
+ * Each subscriber gets its own cursor, opened on the first demand. The rows are only read when requested,
+ * one subscription at a time on the given executor (or on the requesting thread with a direct executor), and
+ * the cursor is closed on completion, error or cancellation.
+ * </p>
+ * <p>
+ * This class is internal to the library: it is public only for the default <code>IDao.publish</code>.
+ * </p>
+ *
+ * @param <T> the type of the bean
+ */
+public final class ResultPublisher<T> implements Flow.Publisher<T> {
+
+    /**
+     * Cursor over the beans of a query.
+     *
+     * @param <T> the type of the bean
+     */
+    public interface Cursor<T> extends AutoCloseable {
+
+        /**
+         * Reads the next bean.
+         * @return the next bean or null if there is no more record
+         * @throws Exception if SQL or bean access problem
+         */
+        T next() throws Exception;
+
+        /**
+         * Releases the statement, and the connection if owned by the cursor.
+         */
+        @Override
+        void close();
+
+    }
+
+    /**
+     * Opener of a cursor.
+     *
+     * @param <T> the type of the bean
+     */
+    @FunctionalInterface
+    public interface Opener<T> {
+
+        /**
+         * Opens a cursor.
+         * @return the opened cursor (not null)
+         * @throws Exception if SQL problem
+         */
+        Cursor<T> open() throws Exception;
+
+    }
+
+    /**
+     * The opener of the cursors (not null)
+     */
+    private final Opener<T> opener;
+
+    /**
+     * The executor reading the rows (not null)
+     */
+    private final Executor executor;
+
+    /**
+     * Constructor.
+     * @param opener the opener of the cursors (not null)
+     * @param executor the executor reading the rows (not null)
+     */
+    public ResultPublisher(final Opener<T> opener, final Executor executor) {
+        this.opener = opener;
+        this.executor = executor;
+    }
+
+    @Override
+    public void subscribe(final Flow.Subscriber<? super T> subscriber) {
+        final Subscription<T> subscription = new Subscription<>(
+                Objects.requireNonNull(subscriber, "subscriber is mandatory"), this.opener, this.executor);
+        subscriber.onSubscribe(subscription);
+        subscription.schedule();
+    }
+
+    /**
+     * Subscription of one subscriber. The signals are serialized by a work-in-progress counter: only the
+     * thread that increments it from zero reads the rows, the others just record their request.
+     *
+     * @param <T> the type of the bean
+     */
+    private static final class Subscription<T> implements Flow.Subscription {
+
+        /**
+         * The subscriber (not null)
+         */
+        private final Flow.Subscriber<? super T> subscriber;
+
+        /**
+         * The opener of the cursor (not null)
+         */
+        private final Opener<T> opener;
+
+        /**
+         * The executor reading the rows (not null)
+         */
+        private final Executor executor;
+
+        /**
+         * The requested and not yet delivered beans.
+         */
+        private final AtomicLong requested = new AtomicLong();
+
+        /**
+         * The number of pending drains.
+         */
+        private final AtomicInteger wip = new AtomicInteger();
+
+        /**
+         * Whether the subscription is cancelled or not.
+         */
+        private volatile boolean cancelled;
+
+        /**
+         * The invalid request to signal (null if none)
+         */
+        private volatile IllegalArgumentException invalid;
+
+        /**
+         * The opened cursor (null until the first demand), only used by the draining thread.
+         */
+        private Cursor<T> cursor;
+
+        /**
+         * Whether a terminal signal was sent or not, only used by the draining thread.
+         */
+        private boolean done;
+
+        /**
+         * Constructor.
+         * @param subscriber the subscriber (not null)
+         * @param opener the opener of the cursor (not null)
+         * @param executor the executor reading the rows (not null)
+         */
+        private Subscription(final Flow.Subscriber<? super T> subscriber, final Opener<T> opener,
+                             final Executor executor) {
+            this.subscriber = subscriber;
+            this.opener = opener;
+            this.executor = executor;
+        }
+
+        @Override
+        public void request(final long n) {
+            if (n <= 0) {
+                this.invalid = new IllegalArgumentException("request must be >0 (rule 3.9): " + n);
+            } else {
+                this.requested.getAndUpdate(r -> r + n < 0 ? Long.MAX_VALUE : r + n);
+            }
+            schedule();
+        }
+
+        @Override
+        public void cancel() {
+            this.cancelled = true;
+            schedule();
+        }
+
+        /**
+         * Schedules a drain unless one is already running. When the executor rejects the drain, the calling
+         * thread holds the drain in its place: it closes the cursor and signals the rejection.
+         */
+        private void schedule() {
+            if (this.wip.getAndIncrement() == 0) {
+                try {
+                    this.executor.execute(this::drain);
+                } catch (RejectedExecutionException err) {
+                    if (!this.done) {
+                        terminate();
+                        this.subscriber.onError(err);
+                    }
+                }
+            }
+        }
+
+        /**
+         * Delivers the requested beans until no more drain is pending.
+         */
+        private void drain() {
+            int missed = 1;
+            do {
+                if (!this.done) {
+                    step();
+                }
+                missed = this.wip.addAndGet(-missed);
+            } while (missed != 0);
+        }
+
+        /**
+         * Delivers the requested beans or the terminal signal.
+         */
+        private void step() {
+            if (this.cancelled) {
+                terminate();
+                return;
+            }
+            if (this.invalid != null) {
+                terminate();
+                this.subscriber.onError(this.invalid);
+                return;
+            }
+            final long requested = this.requested.get();
+            if (requested == 0) {
+                return;
+            }
+            long emitted = 0;
+            try {
+                if (this.cursor == null) {
+                    this.cursor = this.opener.open();
+                }
+                while (emitted < requested && !this.cancelled && this.invalid == null) {
+                    final T bean = this.cursor.next();
+                    if (bean == null) {
+                        terminate();
+                        this.subscriber.onComplete();
+                        return;
+                    }
+                    this.subscriber.onNext(bean);
+                    emitted++;
+                }
+            } catch (Exception err) {
+                terminate();
+                this.subscriber.onError(err instanceof PersistenceException ? err : new PersistenceException(err));
+                return;
+            }
+            if (requested != Long.MAX_VALUE) {
+                this.requested.addAndGet(-emitted);
+            }
+            if (this.cancelled || this.invalid != null) {
+                step();
+            }
+        }
+
+        /**
+         * Closes the cursor and ignores the next signals.
+         */
+        private void terminate() {
+            this.done = true;
+            this.cancelled = true;
+            if (this.cursor != null) {
+                this.cursor.close();
+                this.cursor = null;
+            }
+        }
+
+    }
+
+}
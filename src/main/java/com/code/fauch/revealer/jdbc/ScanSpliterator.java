@@ -0,0 +1,154 @@
+/*
+ * Copyright 2021 Claire Fauch
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.code.fauch.revealer.jdbc;
+
+import com.code.fauch.revealer.PersistenceException;
+import com.code.fauch.revealer.UncheckedPersistenceException;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * Spliterator over the beans of several partitions of a table, read one after the other.
+ * <p>
+ * A partition is a cursor opened on the first read of its beans and closed when exhausted. Splitting hands over
+ * the first half of the partitions not yet opened, so that each partition is read by one thread in id order.
+ * The cursors still opened when the traversal is abandoned are closed by <code>close</code>, shared by all the
+ * spliterators split from the same root.
+ * </p>
+ *
+ * @param <T> the type of the bean
+ */
+final class ScanSpliterator<T> implements Spliterator<T> {
+
+    /**
+     * The openers of the cursors of all the partitions (not null)
+     */
+    private final List<ResultPublisher.Opener<T>> openers;
+
+    /**
+     * The cursors currently opened by this spliterator and the ones split from the same root (not null)
+     */
+    private final Set<ResultPublisher.Cursor<T>> cursors;
+
+    /**
+     * The index of the next partition to read.
+     */
+    private int index;
+
+    /**
+     * The index of the first partition not covered by this spliterator.
+     */
+    private final int end;
+
+    /**
+     * The cursor of the partition being read (null if none)
+     */
+    private ResultPublisher.Cursor<T> cursor;
+
+    /**
+     * Constructor.
+     * @param openers the openers of the cursors of all the partitions (not null)
+     * @param cursors the opened cursors (not null)
+     * @param index the index of the first covered partition
+     * @param end the index of the first partition not covered
+     */
+    ScanSpliterator(final List<ResultPublisher.Opener<T>> openers, final Set<ResultPublisher.Cursor<T>> cursors,
+                    final int index, final int end) {
+        this.openers = openers;
+        this.cursors = cursors;
+        this.index = index;
+        this.end = end;
+    }
+
+    @Override
+    public boolean tryAdvance(final Consumer<? super T> action) {
+        Objects.requireNonNull(action, "action is mandatory");
+        try {
+            while (true) {
+                if (this.cursor == null) {
+                    if (this.index >= this.end) {
+                        return false;
+                    }
+                    this.cursor = this.openers.get(this.index).open();
+                    this.cursors.add(this.cursor);
+                }
+                final T bean = this.cursor.next();
+                if (bean != null) {
+                    action.accept(bean);
+                    return true;
+                }
+                release();
+                this.index++;
+            }
+        } catch (RuntimeException err) {
+            throw err;
+        } catch (PersistenceException err) {
+            release();
+            throw new UncheckedPersistenceException(err);
+        } catch (Exception err) {
+            release();
+            throw new UncheckedPersistenceException(new PersistenceException(err));
+        }
+    }
+
+    @Override
+    public Spliterator<T> trySplit() {
+        if (this.cursor != null || this.end - this.index < 2) {
+            return null;
+        }
+        final int mid = (this.index + this.end) >>> 1;
+        final Spliterator<T> prefix = new ScanSpliterator<>(this.openers, this.cursors, this.index, mid);
+        this.index = mid;
+        return prefix;
+    }
+
+    @Override
+    public long estimateSize() {
+        return this.index >= this.end ? 0 : Long.MAX_VALUE;
+    }
+
+    @Override
+    public int characteristics() {
+        return ORDERED | NONNULL;
+    }
+
+    /**
+     * Closes the cursor of the partition being read, if any.
+     */
+    private void release() {
+        if (this.cursor != null) {
+            if (this.cursors.remove(this.cursor)) {
+                this.cursor.close();
+            }
+            this.cursor = null;
+        }
+    }
+
+    /**
+     * Closes all the cursors still opened by this spliterator and the ones split from the same root.
+     */
+    void close() {
+        for (ResultPublisher.Cursor<T> opened : this.cursors) {
+            if (this.cursors.remove(opened)) {
+                opened.close();
+            }
+        }
+    }
+
+}
@@ -16,19 +16,119 @@ package com.code.fauch.revealer.jdbc;
 
 import com.code.fauch.revealer.IDao;
 import com.code.fauch.revealer.PersistenceException;
+import com.code.fauch.revealer.id.IdGenerator;
+import com.code.fauch.revealer.jdbc.dialect.Dialect;
+import com.code.fauch.revealer.jdbc.dialect.Dialects;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+import javax.sql.DataSource;
+import java.math.BigInteger;
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * This class defines a Small generic DAO.
+ * <p>
+ * The generated SQL statements follow the dialect of the database, detected from the metadata of the
+ * connection unless given at construction. The detected dialect is kept per database, so a DAO working on the
+ * current connection of several data sources uses the dialect of each of them.
+ * </p>
  *
  * @param <T> the type of the bean
  */
 public class SmallJdbcDao<T> implements IDao<T> {
 
+    private static final Logger LOGGER = LoggerFactory.getLogger(SmallJdbcDao.class);
+
+    /**
+     * Cursor over the beans of a query, reporting the operation to the probe when closed.
+     */
+    private final class QueryCursor implements ResultPublisher.Cursor<T> {
+
+        /**
+         * The connection owned by the cursor (null if not owned)
+         */
+        private final Connection owned;
+
+        /**
+         * The prepared statement (not null)
+         */
+        private final PreparedStatement stmt;
+
+        /**
+         * The result set (not null)
+         */
+        private final ResultSet result;
+
+        /**
+         * The bean reader (not null)
+         */
+        private final BeanReader<T> reader;
+
+        /**
+         * The probe of the operation (not null)
+         */
+        private final Probe probe;
+
+        /**
+         * The query arguments (not null)
+         */
+        private final Object[] args;
+
+        /**
+         * The number of read beans.
+         */
+        private long rows;
+
+        /**
+         * Constructor.
+         * @param owned the connection owned by the cursor (null if not owned)
+         * @param stmt the prepared statement (not null)
+         * @param result the result set (not null)
+         * @param probe the probe of the operation (not null)
+         * @param args the query arguments (not null)
+         */
+        private QueryCursor(final Connection owned, final PreparedStatement stmt, final ResultSet result,
+                            final Probe probe, final Object[] args) {
+            this.owned = owned;
+            this.stmt = stmt;
+            this.result = result;
+            this.reader = rwFactory.getReader(stmt);
+            this.probe = probe;
+            this.args = args;
+        }
+
+        @Override
+        public T next() throws SQLException, ReflectiveOperationException {
+            final T bean = this.reader.readNext(this.result);
+            if (bean != null) {
+                this.rows++;
+            }
+            return bean;
+        }
+
+        @Override
+        public void close() {
+            try (Connection conn = this.owned; PreparedStatement ps = this.stmt; ResultSet rs = this.result) {
+                LOGGER.debug("Closing the cursor after {} rows", this.rows);
+            } catch (SQLException err) {
+                LOGGER.warn("Unable to close the cursor", err);
+            } finally {
+                this.probe.end(this.rows, this.args);
+            }
+        }
+
+    }
+
     /**
      * The jdbc connection (not null)
      */
@@ -39,35 +139,185 @@ public class SmallJdbcDao<T> implements IDao<T> {
      */
     private final BeanRWFactory<T> rwFactory;
 
+    /**
+     * The SQL dialect (null to detect it from the connection).
+     */
+    private final Dialect dialect;
+
+    /**
+     * The SQL dialect read from the metadata of the connection (null until read or when given by the connection).
+     */
+    private volatile Dialect detected;
+
     /**
      * Constructor.
      * @param rwFactory the factory of bean readers and writers (not null)
      * @param conn the jdbc connection (not null)
      */
     public SmallJdbcDao(final BeanRWFactory<T> rwFactory, final Connection conn) {
+        this(rwFactory, conn, null);
+    }
+
+    /**
+     * Constructor.
+     * @param rwFactory the factory of bean readers and writers (not null)
+     * @param conn the jdbc connection (not null)
+     * @param dialect the SQL dialect (null to detect it from the connection)
+     */
+    public SmallJdbcDao(final BeanRWFactory<T> rwFactory, final Connection conn, final Dialect dialect) {
         this.connection = conn;
         this.rwFactory = rwFactory;
+        this.dialect = dialect;
     }
 
     /**
-     * Insert a bean.
+     * Returns the SQL dialect given at construction, or the one of the database of the connection: given by the
+     * connection when it unwraps as a <code>Dialect</code> (the connection of <code>JdbcFactory</code>, routed
+     * to several data sources), otherwise read once from its metadata.
+     * @return the dialect (not null)
+     * @throws SQLException if the metadata of the database can't be read
+     */
+    private Dialect dialect() throws SQLException {
+        Dialect dialect = this.dialect == null ? this.detected : this.dialect;
+        if (dialect == null) {
+            if (this.connection.isWrapperFor(Dialect.class)) {
+                return this.connection.unwrap(Dialect.class);
+            }
+            dialect = Dialects.of(this.connection.getMetaData());
+            this.detected = dialect;
+        }
+        return dialect;
+    }
+
+    /**
+     * Insert a bean. When the dialect supports it, all the mapped columns are read back into the bean by the
+     * insert itself, including the values given by the database; otherwise only the generated id is.
      * @param bean the bean to insert (not null)
      * @return newly created bean number
      * @throws PersistenceException if SQL or bean access problem.
      */
     @Override
     public final int insert(final T bean) throws PersistenceException {
-        try(PreparedStatement stmt = this.connection.prepareStatement(this.rwFactory.getInsertQuery(), Statement.RETURN_GENERATED_KEYS)) {
-            this.rwFactory.getWriter(stmt).write(Objects.requireNonNull(bean, "bean is mandatory"));
-            final int nb = stmt.executeUpdate();
-            try(ResultSet result = stmt.getGeneratedKeys()) {
-                if (result.next()) {
-                    this.rwFactory.getReader(stmt).updateId(bean, result.getObject(1));
+        Objects.requireNonNull(bean, "bean is mandatory");
+        try {
+            return insertRows(dialect(), List.of(bean), "insert");
+        } catch (SQLException err) {
+            throw new PersistenceException(err);
+        }
+    }
+
+    /**
+     * Insert several beans with multi-records inserts, split to stay under the parameter limit of the dialect.
+     * As with <code>insert</code>, the beans are filled back by the inserts.
+     * @param beans the beans to insert (not null)
+     * @return the number of created records
+     * @throws PersistenceException if SQL or bean access problem.
+     */
+    @Override
+    public final int insertAll(final List<T> beans) throws PersistenceException {
+        Objects.requireNonNull(beans, "beans is mandatory");
+        int total = 0;
+        try {
+            final Dialect current = dialect();
+            final int chunk = Math.max(1, current.getMaxParameters() / Math.max(1, this.rwFactory.getInsertColumnCount()));
+            for (int from = 0; from < beans.size(); from += chunk) {
+                final List<T> rows = beans.subList(from, Math.min(beans.size(), from + chunk));
+                total += insertRows(current, rows, "insertAll");
+            }
+            return total;
+        } catch (SQLException err) {
+            throw new PersistenceException(err);
+        }
+    }
+
+    /**
+     * Insert beans with one statement: an insert returning all the mapped columns if the dialect supports it,
+     * otherwise an insert returning the generated keys, unless the ids are generated by the client. In that case,
+     * the beans without id get one before the insert.
+     * @param current the SQL dialect (not null)
+     * @param beans the beans to insert (not null, not empty)
+     * @param operation the name of the DAO operation (not null)
+     * @return the number of created records
+     * @throws PersistenceException if SQL or bean access problem.
+     */
+    private int insertRows(final Dialect current, final List<T> beans, final String operation)
+            throws PersistenceException {
+        final boolean returning = current.supportsReturning();
+        final IdGenerator generator = this.rwFactory.getIdGenerator();
+        final String sql = returning
+                ? this.rwFactory.getInsertReturningQuery(current, beans.size())
+                : this.rwFactory.getInsertQuery(current, beans.size());
+        final Probe probe = Probe.start(operation, sql, this.rwFactory.getType());
+        int rows = -1;
+        try(PreparedStatement stmt = returning || generator != null
+                ? this.connection.prepareStatement(sql)
+                : this.connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+            final BeanWriter<T> writer = this.rwFactory.getWriter(stmt, probe);
+            final BeanReader<T> reader = this.rwFactory.getReader(stmt);
+            int offset = 0;
+            for (T bean : beans) {
+                Objects.requireNonNull(bean, "bean is mandatory");
+                if (generator == null) {
+                    offset = writer.write(offset, bean);
+                } else {
+                    if (this.rwFactory.getId(bean) == null) {
+                        reader.updateId(bean, generator.next(this.connection));
+                    }
+                    offset = writer.writeWithId(offset, bean);
+                }
+            }
+            int nb = 0;
+            if (returning) {
+                try (ResultSet result = probe.executeQuery(stmt)) {
+                    while (nb < beans.size() && result.next()) {
+                        reader.readInto(result, beans.get(nb++));
+                    }
+                }
+            } else {
+                nb = probe.executeUpdate(stmt);
+                if (generator == null) {
+                    try(ResultSet result = stmt.getGeneratedKeys()) {
+                        for (int i = 0; i < beans.size() && result.next(); i++) {
+                            reader.updateId(beans.get(i), result.getObject(1));
+                        }
+                    }
                 }
             }
+            rows = nb;
             return nb;
         } catch (SQLException | ReflectiveOperationException err) {
             throw new PersistenceException(err);
+        } finally {
+            probe.end(rows);
+        }
+    }
+
+    /**
+     * Insert the given bean or update its record if it already exists.
+     * @param bean the bean to insert or update (not null, its id must not be null)
+     * @return the inserted or updated record number
+     * @throws PersistenceException if SQL or bean access problem
+     */
+    @Override
+    public final int upsert(final T bean) throws PersistenceException {
+        Objects.requireNonNull(bean, "bean is mandatory");
+        final String sql;
+        try {
+            Objects.requireNonNull(this.rwFactory.getId(bean), "id is mandatory");
+            sql = this.rwFactory.getUpsertQuery(dialect());
+        } catch (SQLException | ReflectiveOperationException err) {
+            throw new PersistenceException(err);
+        }
+        final Probe probe = Probe.start("upsert", sql, this.rwFactory.getType());
+        int rows = -1;
+        try (PreparedStatement stmt = this.connection.prepareStatement(sql)) {
+            this.rwFactory.getWriter(stmt, probe).writeWithId(bean);
+            rows = probe.executeUpdate(stmt);
+            return rows;
+        } catch (SQLException | ReflectiveOperationException err) {
+            throw new PersistenceException(err);
+        } finally {
+            probe.end(rows);
         }
     }
 
@@ -79,11 +329,16 @@ public class SmallJdbcDao<T> implements IDao<T> {
      */
     @Override
     public final int update(final T bean) throws PersistenceException {
+        final Probe probe = Probe.start("update", this.rwFactory.getUpdateQuery(), this.rwFactory.getType());
+        int rows = -1;
         try (PreparedStatement stmt = this.connection.prepareStatement(this.rwFactory.getUpdateQuery())) {
-            this.rwFactory.getWriter(stmt).writeWithId(Objects.requireNonNull(bean, "bean is mandatory"));
-            return stmt.executeUpdate();
+            this.rwFactory.getWriter(stmt, probe).writeWithId(Objects.requireNonNull(bean, "bean is mandatory"));
+            rows = probe.executeUpdate(stmt);
+            return rows;
         } catch (SQLException | ReflectiveOperationException err) {
             throw new PersistenceException(err);
+        } finally {
+            probe.end(rows);
         }
     }
 
@@ -95,15 +350,20 @@ public class SmallJdbcDao<T> implements IDao<T> {
      */
     @Override
     public final int delete(final T bean) throws PersistenceException {
+        final Probe probe = Probe.start("delete", this.rwFactory.getDeleteQuery(), this.rwFactory.getType());
+        int rows = -1;
         try (PreparedStatement stmt = this.connection.prepareStatement(rwFactory.getDeleteQuery())) {
-            this.rwFactory.getWriter(stmt).writeId(Objects.requireNonNull(bean, "bean is mandatory"));
-            int nb =  stmt.executeUpdate();
+            this.rwFactory.getWriter(stmt, probe).writeId(Objects.requireNonNull(bean, "bean is mandatory"));
+            int nb =  probe.executeUpdate(stmt);
             if (nb > 0) {
                 this.rwFactory.getReader(stmt).updateId(bean, null);
             }
+            rows = nb;
             return nb;
         } catch (SQLException | ReflectiveOperationException err) {
             throw new PersistenceException(err);
+        } finally {
+            probe.end(rows);
         }
     }
 
@@ -115,16 +375,70 @@ public class SmallJdbcDao<T> implements IDao<T> {
      */
     @Override
     public final T get(final Object id) throws PersistenceException {
+        final Probe probe = Probe.start("get", this.rwFactory.getFoundQuery(), this.rwFactory.getType());
+        int rows = -1;
         try (PreparedStatement stmt = this.connection.prepareStatement(this.rwFactory.getFoundQuery())) {
-            stmt.setObject(1, id);
-            try (ResultSet result = stmt.executeQuery()) {
-                if (result.next()) {
-                    return this.rwFactory.getReader(stmt).read(result);
-                }
-                return null;
+            probe.bind(stmt, 1, id);
+            try (ResultSet result = probe.executeQuery(stmt)) {
+                final T found = this.rwFactory.getReader(stmt).readNext(result);
+                rows = found == null ? 0 : 1;
+                return found;
+            }
+        } catch (SQLException | ReflectiveOperationException err) {
+            throw new PersistenceException(err);
+        } finally {
+            probe.end(rows);
+        }
+    }
+
+    /**
+     * Searches and returns the beans of the given ids: with a single array parameter when the dialect supports
+     * it, otherwise with IN-lists split to stay under the parameter limit of the dialect.
+     * @param ids the ids of the beans to research (not null)
+     * @return the found beans in no particular order (it may be empty)
+     * @throws PersistenceException if SQL or bean access problem
+     */
+    @Override
+    public final List<T> getAll(final Collection<?> ids) throws PersistenceException {
+        final List<?> all = new ArrayList<>(Objects.requireNonNull(ids, "ids is mandatory"));
+        final List<T> founds = new ArrayList<>(all.size());
+        try {
+            final Dialect current = dialect();
+            final int chunk = current.supportsArrays() ? Math.max(1, all.size()) : current.getMaxParameters();
+            for (int from = 0; from < all.size(); from += chunk) {
+                founds.addAll(getRows(current, all.subList(from, Math.min(all.size(), from + chunk))));
+            }
+            return founds;
+        } catch (SQLException err) {
+            throw new PersistenceException(err);
+        }
+    }
+
+    /**
+     * Searches and returns the beans of the given ids with one query.
+     * @param current the SQL dialect (not null)
+     * @param ids the ids of the beans to research (not null, not empty)
+     * @return the found beans (it may be empty)
+     * @throws PersistenceException if SQL or bean access problem
+     */
+    private List<T> getRows(final Dialect current, final List<?> ids) throws PersistenceException {
+        final String sql = this.rwFactory.getFoundInQuery(current, ids.size());
+        final Probe probe = Probe.start("getAll", sql, this.rwFactory.getType());
+        int rows = -1;
+        try (PreparedStatement stmt = this.connection.prepareStatement(sql)) {
+            current.setIds(stmt, 1, ids);
+            for (int i = 0; i < ids.size(); i++) {
+                probe.bound(i + 1, ids.get(i));
+            }
+            try (ResultSet result = probe.executeQuery(stmt)) {
+                final List<T> founds = this.rwFactory.getReader(stmt).readAll(result);
+                rows = founds.size();
+                return founds;
             }
         } catch (SQLException | ReflectiveOperationException err) {
             throw new PersistenceException(err);
+        } finally {
+            probe.end(rows);
         }
     }
 
@@ -137,18 +451,21 @@ public class SmallJdbcDao<T> implements IDao<T> {
      */
     @Override
     public final T find(final String query, final Object... args) throws PersistenceException {
-        try (PreparedStatement stmt = this.connection.prepareStatement(Objects.requireNonNull(query, "query is mandatory"))) {
+        final Probe probe = Probe.start("find", Objects.requireNonNull(query, "query is mandatory"), this.rwFactory.getType());
+        int rows = -1;
+        try (PreparedStatement stmt = this.connection.prepareStatement(query)) {
             for (int i = 0 ; i < args.length; i++) {
                 stmt.setObject(i+1, args[i]);
             }
-            try (ResultSet result = stmt.executeQuery()) {
-                if (result.next()) {
-                    return this.rwFactory.getReader(stmt).read(result);
-                }
-                return null;
+            try (ResultSet result = probe.executeQuery(stmt)) {
+                final T found = this.rwFactory.getReader(stmt).readNext(result);
+                rows = found == null ? 0 : 1;
+                return found;
             }
         } catch (SQLException | ReflectiveOperationException err) {
             throw new PersistenceException(err);
+        } finally {
+            probe.end(rows, args);
         }
     }
 
@@ -164,19 +481,27 @@ public class SmallJdbcDao<T> implements IDao<T> {
         if (size < 0) {
             throw new IllegalArgumentException("size must be >=0");
         }
-        ArrayList<T> founds = new ArrayList<>();
-        try (PreparedStatement stmt = this.connection.prepareStatement(this.rwFactory.getFoundAllQuery())) {
-            stmt.setObject(1, start);
-            stmt.setObject(2, size);
-            try (ResultSet result = stmt.executeQuery()) {
-                while (result.next()) {
-                    founds.add(this.rwFactory.getReader(stmt).read(result));
-                }
+        final String sql;
+        try {
+            sql = this.rwFactory.getFoundAllQuery(dialect());
+        } catch (SQLException err) {
+            throw new PersistenceException(err);
+        }
+        final Probe probe = Probe.start("getAll", sql, this.rwFactory.getType());
+        int rows = -1;
+        try (PreparedStatement stmt = this.connection.prepareStatement(sql)) {
+            probe.bind(stmt, 1, start);
+            probe.bind(stmt, 2, size);
+            try (ResultSet result = probe.executeQuery(stmt)) {
+                final List<T> founds = this.rwFactory.getReader(stmt).readAll(result);
+                rows = founds.size();
+                return founds;
             }
         } catch (SQLException | ReflectiveOperationException err) {
             throw new PersistenceException(err);
+        } finally {
+            probe.end(rows);
         }
-        return founds;
     }
 
     /**
@@ -188,20 +513,221 @@ public class SmallJdbcDao<T> implements IDao<T> {
      */
     @Override
     public final List<T> findAll(final String query, final Object... args) throws PersistenceException {
-        ArrayList<T> founds = new ArrayList<>();
-        try (PreparedStatement stmt = this.connection.prepareStatement(Objects.requireNonNull(query, "query is mandatory"))) {
+        final Probe probe = Probe.start("findAll", Objects.requireNonNull(query, "query is mandatory"), this.rwFactory.getType());
+        int rows = -1;
+        try (PreparedStatement stmt = this.connection.prepareStatement(query)) {
             for (int i = 0 ; i < args.length; i++) {
                 stmt.setObject(i+1, args[i]);
             }
-            try (ResultSet result = stmt.executeQuery()) {
-                while (result.next()) {
-                    founds.add(this.rwFactory.getReader(stmt).read(result));
-                }
+            try (ResultSet result = probe.executeQuery(stmt)) {
+                final List<T> founds = this.rwFactory.getReader(stmt).readAll(result);
+                rows = founds.size();
+                return founds;
             }
         } catch (SQLException | ReflectiveOperationException err) {
             throw new PersistenceException(err);
+        } finally {
+            probe.end(rows, args);
+        }
+    }
+
+    /**
+     * Publishes the beans of a SQL query as they are read, honouring the demand of the subscribers.
+     * The rows are read on the threads requesting them, with the connection of this DAO that must remain
+     * usable until the end of the subscription.
+     * @param query the SQL query (not null)
+     * @param args the optional query arguments
+     * @return the publisher of the beans (not null)
+     */
+    @Override
+    public final Flow.Publisher<T> publish(final String query, final Object... args) {
+        Objects.requireNonNull(query, "query is mandatory");
+        return new ResultPublisher<>(() -> open(this.connection, false, "publish", query, args), Runnable::run);
+    }
+
+    /**
+     * Publishes the beans of a SQL query as they are read, honouring the demand of the subscribers.
+     * Each subscription takes its own connection from the given <code>DataSource</code>, reads the rows on the
+     * given executor and releases the connection on completion, error or cancellation.
+     * @param ds the DataSource providing the connections (not null)
+     * @param executor the executor reading the rows (not null)
+     * @param query the SQL query (not null)
+     * @param args the optional query arguments
+     * @return the publisher of the beans (not null)
+     */
+    public final Flow.Publisher<T> publish(final DataSource ds, final Executor executor, final String query,
+                                           final Object... args) {
+        Objects.requireNonNull(ds, "ds is mandatory");
+        Objects.requireNonNull(query, "query is mandatory");
+        return new ResultPublisher<>(() -> open(ds, "publish", query, args),
+                Objects.requireNonNull(executor, "executor is mandatory"));
+    }
+
+    /**
+     * Scans the whole table in parallel. The range of ids, found with a min/max query, is split into the given
+     * number of partitions. Each partition is read in id order with its own connection taken from the
+     * <code>DataSource</code>, on the threads of the parallel stream, and its connection is released as soon as
+     * it is exhausted. The records inserted after the min/max query may be missed.
+     * <p>
+     * The stream must be closed to release the connections of the partitions that were not read to the end.
+     * A <code>PersistenceException</code> raised while reading a partition is thrown wrapped in an
+     * <code>UncheckedPersistenceException</code>.
+     * </p>
+     * @param ds the DataSource providing the connections (not null)
+     * @param partitions the number of partitions (&gt;0)
+     * @return the parallel stream of the beans, ordered by id (not null)
+     * @throws PersistenceException if SQL problem while reading the range of ids
+     */
+    public final Stream<T> scan(final DataSource ds, final int partitions) throws PersistenceException {
+        return stream(openers(ds, partitions), true);
+    }
+
+    /**
+     * Splits the whole table into partitions of ids, as <code>scan</code> does, and returns one sequential
+     * stream for each of them. Each stream reads its partition in id order with its own connection taken from
+     * the <code>DataSource</code> on first use, and must be closed.
+     * @param ds the DataSource providing the connections (not null)
+     * @param partitions the maximum number of partitions (&gt;0)
+     * @return the streams of the partitions, in id order (not null, it may be empty)
+     * @throws PersistenceException if SQL problem while reading the range of ids
+     */
+    public final List<Stream<T>> partitions(final DataSource ds, final int partitions) throws PersistenceException {
+        final List<ResultPublisher.Opener<T>> openers = openers(ds, partitions);
+        final List<Stream<T>> streams = new ArrayList<>(openers.size());
+        for (ResultPublisher.Opener<T> opener : openers) {
+            streams.add(stream(List.of(opener), false));
+        }
+        return streams;
+    }
+
+    /**
+     * Builds a stream reading the given partitions one after the other.
+     * @param openers the openers of the cursors of the partitions (not null)
+     * @param parallel whether the stream is parallel or not
+     * @return the stream closing the opened cursors when closed (not null)
+     */
+    private Stream<T> stream(final List<ResultPublisher.Opener<T>> openers, final boolean parallel) {
+        final ScanSpliterator<T> root = new ScanSpliterator<>(openers, ConcurrentHashMap.newKeySet(), 0, openers.size());
+        return StreamSupport.stream(root, parallel).onClose(root::close);
+    }
+
+    /**
+     * Reads the range of ids and builds the openers of the cursors of its partitions.
+     * @param ds the DataSource providing the connections (not null)
+     * @param partitions the maximum number of partitions (&gt;0)
+     * @return the openers (not null, empty if the table is empty)
+     * @throws PersistenceException if SQL problem
+     */
+    private List<ResultPublisher.Opener<T>> openers(final DataSource ds, final int partitions)
+            throws PersistenceException {
+        Objects.requireNonNull(ds, "ds is mandatory");
+        if (partitions <= 0) {
+            throw new IllegalArgumentException("partitions must be >0");
+        }
+        final String sql = this.rwFactory.getBoundsQuery();
+        final Probe probe = Probe.start("scan", sql, this.rwFactory.getType());
+        int rows = -1;
+        final Object low;
+        final Object high;
+        try (Connection conn = ds.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql);
+             ResultSet result = probe.executeQuery(stmt)) {
+            result.next();
+            low = result.getObject(1);
+            high = result.getObject(2);
+            rows = 1;
+        } catch (SQLException err) {
+            throw new PersistenceException(err);
+        } finally {
+            probe.end(rows);
+        }
+        if (low == null) {
+            return List.of();
+        }
+        final List<ResultPublisher.Opener<T>> openers = new ArrayList<>(partitions);
+        for (Object[] range : ranges(low, high, partitions)) {
+            openers.add(() -> open(ds, "scan", this.rwFactory.getRangeQuery(), range));
+        }
+        return openers;
+    }
+
+    /**
+     * Splits a range of ids into contiguous ranges of the same size, give or take one id. Only integral ids
+     * can be split, a range of other ids is returned as is.
+     * @param low the lowest id (not null)
+     * @param high the highest id (not null)
+     * @param partitions the maximum number of ranges (&gt;0)
+     * @return the lowest and highest ids (both included) of each range, in order (not null, not empty)
+     */
+    static List<Object[]> ranges(final Object low, final Object high, final int partitions) {
+        if (!(low instanceof Long || low instanceof Integer || low instanceof Short)) {
+            return List.<Object[]>of(new Object[] {low, high});
+        }
+        final BigInteger min = BigInteger.valueOf(((Number) low).longValue());
+        final BigInteger total = BigInteger.valueOf(((Number) high).longValue()).subtract(min).add(BigInteger.ONE);
+        final BigInteger[] size = total.divideAndRemainder(BigInteger.valueOf(partitions));
+        final List<Object[]> ranges = new ArrayList<>(partitions);
+        BigInteger from = min;
+        for (int i = 0; i < partitions; i++) {
+            final BigInteger count = i < size[1].intValue() ? size[0].add(BigInteger.ONE) : size[0];
+            if (count.signum() == 0) {
+                break;
+            }
+            final BigInteger to = from.add(count).subtract(BigInteger.ONE);
+            ranges.add(new Object[] {from.longValue(), to.longValue()});
+            from = to.add(BigInteger.ONE);
+        }
+        return ranges;
+    }
+
+    /**
+     * Runs a query with a connection taken from the given <code>DataSource</code> and opens a cursor over its
+     * beans, owning the connection.
+     * @param ds the DataSource providing the connection (not null)
+     * @param operation the name of the DAO operation (not null)
+     * @param query the SQL query (not null)
+     * @param args the query arguments (not null)
+     * @return the opened cursor (not null)
+     * @throws SQLException if SQL problem
+     */
+    private ResultPublisher.Cursor<T> open(final DataSource ds, final String operation, final String query,
+                                           final Object[] args) throws SQLException {
+        final Connection conn = ds.getConnection();
+        try {
+            return open(conn, true, operation, query, args);
+        } catch (SQLException | RuntimeException err) {
+            conn.close();
+            throw err;
+        }
+    }
+
+    /**
+     * Runs a query and opens a cursor over its beans.
+     * @param conn the connection (not null)
+     * @param owned whether the cursor must close the connection or not
+     * @param operation the name of the DAO operation (not null)
+     * @param query the SQL query (not null)
+     * @param args the query arguments (not null)
+     * @return the opened cursor (not null)
+     * @throws SQLException if SQL problem
+     */
+    private ResultPublisher.Cursor<T> open(final Connection conn, final boolean owned, final String operation,
+                                           final String query, final Object[] args) throws SQLException {
+        final Probe probe = Probe.start(operation, query, this.rwFactory.getType());
+        PreparedStatement stmt = null;
+        try {
+            stmt = conn.prepareStatement(query);
+            for (int i = 0 ; i < args.length; i++) {
+                stmt.setObject(i+1, args[i]);
+            }
+            return new QueryCursor(owned ? conn : null, stmt, probe.executeQuery(stmt), probe, args);
+        } catch (SQLException | RuntimeException err) {
+            if (stmt != null) {
+                stmt.close();
+            }
+            probe.end(-1, args);
+            throw err;
         }
-        return founds;
     }
 
 }
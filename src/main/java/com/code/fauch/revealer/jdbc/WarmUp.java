@@ -0,0 +1,222 @@
+/*
+ * Copyright 2021 Claire Fauch
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.code.fauch.revealer.jdbc;
+
+import com.code.fauch.revealer.BeanMapping;
+import com.code.fauch.revealer.jdbc.dialect.Dialect;
+import com.code.fauch.revealer.jdbc.dialect.Dialects;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * This class warms up the persistence of a bean class before the first real request.
+ * <p>
+ * It builds the mapping of the class, checks the mapped fields against the columns of the live table,
+ * prepares every generated statement and runs synthetic mapping iterations so that the hot paths are
+ * compiled by the JIT.
+ * </p>
+ */
+public final class WarmUp {
+
+    /**
+     * Boxed types of the primitive types (not null)
+     */
+    private static final Map<Class<?>, Class<?>> BOXES = Map.of(
+            boolean.class, Boolean.class,
+            byte.class, Byte.class,
+            char.class, Character.class,
+            short.class, Short.class,
+            int.class, Integer.class,
+            long.class, Long.class,
+            float.class, Float.class,
+            double.class, Double.class);
+
+    /**
+     * No constructor.
+     */
+    private WarmUp() {
+        //Nothing to do
+    }
+
+    /**
+     * Warms up the persistence of a bean class.
+     * @param conn the connection to the database (not null)
+     * @param cls the class of the bean (not null)
+     * @param iterations the number of synthetic mapping iterations (&gt;=0)
+     * @param <T> the type of the bean
+     * @return the found problems, empty if the class matches the schema (not null)
+     * @throws SQLException if the database can't be read
+     * @throws ReflectiveOperationException if the bean is not accessible for reflexion
+     */
+    public static <T> List<String> run(final Connection conn, final Class<T> cls, final int iterations)
+            throws SQLException, ReflectiveOperationException {
+        if (iterations < 0) {
+            throw new IllegalArgumentException("iterations must be >=0");
+        }
+        final BeanRWFactory<T> factory = BeanRWFactory.from(cls);
+        final BeanMapping<T> mapping = factory.getMapping();
+        final List<String> columns = Stream.concat(Stream.of(mapping.getId()), mapping.withoutIdFields())
+                .collect(Collectors.toList());
+        final List<String> problems = checkColumns(conn, mapping, columns);
+        if (!problems.isEmpty()) {
+            return problems;
+        }
+        final Dialect dialect = Dialects.of(conn.getMetaData());
+        for (String query : factory.getQueries(dialect)) {
+            try (PreparedStatement stmt = conn.prepareStatement(query)) {
+                stmt.getParameterMetaData();
+            } catch (SQLException err) {
+                problems.add(String.format("%s: invalid statement %s (%s)", cls.getName(), query, err.getMessage()));
+            }
+        }
+        if (problems.isEmpty()) {
+            iterate(conn, factory, columns, iterations);
+        }
+        return problems;
+    }
+
+    /**
+     * Checks the mapped fields against the columns of the table.
+     * @param conn the connection to the database (not null)
+     * @param mapping the bean mapping (not null)
+     * @param columns the mapped columns (not null)
+     * @return the found problems (not null)
+     * @throws SQLException if the database can't be read
+     */
+    private static List<String> checkColumns(final Connection conn, final BeanMapping<?> mapping,
+                                             final List<String> columns) throws SQLException {
+        final List<String> problems = new ArrayList<>();
+        final Map<String, String> types = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        try (PreparedStatement stmt = conn.prepareStatement("select * from " + mapping.getCollection() + " where 1=0");
+             ResultSet result = stmt.executeQuery()) {
+            final ResultSetMetaData metaData = result.getMetaData();
+            for (int i = 1; i <= metaData.getColumnCount(); i++) {
+                types.put(metaData.getColumnName(i), metaData.getColumnClassName(i));
+            }
+        } catch (SQLException err) {
+            problems.add(String.format("%s: no table %s (%s)",
+                    mapping.getType().getName(), mapping.getCollection(), err.getMessage()));
+            return problems;
+        }
+        for (String column : columns) {
+            final String type = types.get(column);
+            if (type == null) {
+                problems.add(String.format("%s: no column %s in %s",
+                        mapping.getType().getName(), column, mapping.getCollection()));
+            } else if (!accept(mapping.getType(column), type)) {
+                problems.add(String.format("%s: column %s.%s of type %s can't be set to a field of type %s",
+                        mapping.getType().getName(), mapping.getCollection(), column, type,
+                        mapping.getType(column).getName()));
+            }
+        }
+        return problems;
+    }
+
+    /**
+     * Determines whether the values of a column can be set to a field.
+     * @param field the type of the field (not null)
+     * @param column the class name of the values of the column (not null)
+     * @return true if the values can be set, or if the class of the values is unknown
+     */
+    private static boolean accept(final Class<?> field, final String column) {
+        try {
+            return BOXES.getOrDefault(field, field).isAssignableFrom(
+                    Class.forName(column, false, WarmUp.class.getClassLoader()));
+        } catch (ClassNotFoundException err) {
+            return true;
+        }
+    }
+
+    /**
+     * Runs synthetic mapping iterations: building beans from sample values, reading back their fields and
+     * writing them on a prepared insert that is never executed.
+     * @param conn the connection to the database (not null)
+     * @param factory the factory of readers and writers (not null)
+     * @param columns the mapped columns (not null)
+     * @param iterations the number of iterations (&gt;=0)
+     * @param <T> the type of the bean
+     * @throws SQLException if the insert can't be prepared
+     * @throws ReflectiveOperationException if the bean is not accessible for reflexion
+     */
+    private static <T> void iterate(final Connection conn, final BeanRWFactory<T> factory,
+                                    final List<String> columns, final int iterations)
+            throws SQLException, ReflectiveOperationException {
+        final BeanMapping<T> mapping = factory.getMapping();
+        final Object[] values = new Object[columns.size()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = sample(mapping.getType(columns.get(i)));
+        }
+        try (PreparedStatement stmt = conn.prepareStatement(factory.getInsertQuery())) {
+            final BeanWriter<T> writer = factory.getWriter(stmt);
+            for (int n = 0; n < iterations; n++) {
+                T bean = null;
+                for (int i = 0; i < values.length; i++) {
+                    bean = mapping.set(bean, columns.get(i), values[i]);
+                }
+                for (String column : columns) {
+                    mapping.get(bean, column);
+                }
+                writer.write(0, bean);
+                stmt.clearParameters();
+            }
+        }
+    }
+
+    /**
+     * Returns a sample value of the given type.
+     * @param type the type of a field (not null)
+     * @return the sample value (null for the unknown types)
+     */
+    private static Object sample(final Class<?> type) {
+        final Class<?> boxed = BOXES.getOrDefault(type, type);
+        if (boxed == String.class) {
+            return "warm-up";
+        } else if (boxed == Long.class) {
+            return 1L;
+        } else if (boxed == Integer.class) {
+            return 1;
+        } else if (boxed == Short.class) {
+            return (short) 1;
+        } else if (boxed == Byte.class) {
+            return (byte) 1;
+        } else if (boxed == Double.class) {
+            return 1.0;
+        } else if (boxed == Float.class) {
+            return 1.0f;
+        } else if (boxed == Boolean.class) {
+            return Boolean.TRUE;
+        } else if (boxed == Character.class) {
+            return 'w';
+        } else if (boxed == BigDecimal.class) {
+            return BigDecimal.ONE;
+        } else if (boxed == Timestamp.class) {
+            return new Timestamp(0L);
+        }
+        return null;
+    }
+
+}
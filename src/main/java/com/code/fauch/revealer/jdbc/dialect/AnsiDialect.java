@@ -0,0 +1,140 @@
+/*
+ * Copyright 2021 Claire Fauch
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.code.fauch.revealer.jdbc.dialect;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Generic dialect relying on standard SQL only.
+ */
+class AnsiDialect implements Dialect {
+
+    @Override
+    public String getName() {
+        return "ANSI";
+    }
+
+    @Override
+    public boolean accept(final String productName) {
+        return true;
+    }
+
+    @Override
+    public String page(final String table, final String id) {
+        return String.format("select * from %s where %s>? order by %s fetch first ? rows only", table, id, id);
+    }
+
+    @Override
+    public String insert(final String table, final List<String> columns, final int rows) {
+        final String values = "(" + String.join(",", Collections.nCopies(columns.size(), "?")) + ")";
+        return String.format("insert into %s (%s) values %s",
+                table, String.join(",", columns), String.join(",", Collections.nCopies(rows, values)));
+    }
+
+    @Override
+    public boolean supportsReturning() {
+        return false;
+    }
+
+    @Override
+    public String insertReturning(final String table, final List<String> columns, final int rows,
+                                  final List<String> returning) {
+        throw new UnsupportedOperationException(getName() + " doesn't support insert returning");
+    }
+
+    @Override
+    public boolean supportsArrays() {
+        return false;
+    }
+
+    @Override
+    public String selectIn(final String table, final String id, final int count) {
+        return String.format("select * from %s where %s in (%s)",
+                table, id, String.join(",", Collections.nCopies(count, "?")));
+    }
+
+    @Override
+    public void setIds(final PreparedStatement stmt, final int index, final Collection<?> ids) throws SQLException {
+        int i = index;
+        for (Object id : ids) {
+            stmt.setObject(i++, id);
+        }
+    }
+
+    @Override
+    public String upsert(final String table, final String id, final List<String> columns) {
+        final List<String> all = new ArrayList<>(columns);
+        all.add(id);
+        final String matched = columns.isEmpty() ? "" : " when matched then update set "
+                + columns.stream().map(c -> c + "=s." + c).collect(Collectors.joining(","));
+        return String.format("merge into %s t using (values (%s)) s (%s) on t.%s=s.%s%s"
+                        + " when not matched then insert (%s) values (%s)",
+                table, String.join(",", Collections.nCopies(all.size(), "?")), String.join(",", all), id, id,
+                matched, String.join(",", all), all.stream().map(c -> "s." + c).collect(Collectors.joining(",")));
+    }
+
+    @Override
+    public String nextValue(final String sequence) {
+        return String.format("values (next value for %s)", sequence);
+    }
+
+    @Override
+    public int getMaxParameters() {
+        return 1000;
+    }
+
+    @Override
+    public String toString() {
+        return getName();
+    }
+
+    /**
+     * Binds ids as a single array parameter.
+     * @param stmt the statement (not null)
+     * @param index the index of the parameter (starting at 1)
+     * @param ids the ids (not null, not empty)
+     * @throws SQLException if the array can't be created
+     */
+    static void setArray(final PreparedStatement stmt, final int index, final Collection<?> ids) throws SQLException {
+        final Object[] values = ids.toArray();
+        stmt.setArray(index, stmt.getConnection().createArrayOf(sqlType(values[0]), values));
+    }
+
+    /**
+     * Returns the SQL type of the elements of an array.
+     * @param sample an element of the array
+     * @return the SQL type name (not null)
+     */
+    static String sqlType(final Object sample) {
+        if (sample instanceof Long) {
+            return "bigint";
+        } else if (sample instanceof Integer) {
+            return "integer";
+        } else if (sample instanceof Short) {
+            return "smallint";
+        } else if (sample instanceof UUID) {
+            return "uuid";
+        }
+        return "varchar";
+    }
+
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright 2021 Claire Fauch
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.code.fauch.revealer.jdbc.dialect;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Interface describing the SQL dialect of a database (SPI).
+ * <p>
+ * The dialect builds the statements generated by the library in the fastest form the database supports.
+ * Implementations must be immutable and thread safe. Custom dialects can be declared as service providers:
+ * they are chosen before the built-in ones when they accept the product name of the database.
+ * </p>
+ */
+public interface Dialect {
+
+    /**
+     * Returns the name of the dialect.
+     * @return the name (not null)
+     */
+    String getName();
+
+    /**
+     * Determines whether this dialect is the one of the given database product.
+     * @param productName the product name given by <code>DatabaseMetaData</code> (not null)
+     * @return true if the dialect applies to this database
+     */
+    boolean accept(String productName);
+
+    /**
+     * Builds the query of a page of records ordered by id. Its parameters are the start id (excluded)
+     * and the page size.
+     * @param table the name of the table (not null)
+     * @param id the name of the id column (not null)
+     * @return the query (not null)
+     */
+    String page(String table, String id);
+
+    /**
+     * Builds an insert of one or more records. The parameters are the columns of each record, record by record.
+     * @param table the name of the table (not null)
+     * @param columns the inserted columns (not null, not empty)
+     * @param rows the number of records (&gt;0)
+     * @return the insert (not null)
+     */
+    String insert(String table, List<String> columns, int rows);
+
+    /**
+     * Determines whether inserts can return the inserted records in the same statement.
+     * @return true if <code>insertReturning</code> is supported
+     */
+    boolean supportsReturning();
+
+    /**
+     * Builds an insert of one or more records, executed as a query returning the given columns of the inserted
+     * records in insertion order.
+     * @param table the name of the table (not null)
+     * @param columns the inserted columns (not null, not empty)
+     * @param rows the number of records (&gt;0)
+     * @param returning the returned columns (not null, not empty)
+     * @return the query (not null)
+     * @throws UnsupportedOperationException if not supported
+     */
+    String insertReturning(String table, List<String> columns, int rows, List<String> returning);
+
+    /**
+     * Determines whether IN-lists are given as a single array parameter.
+     * @return true if arrays are used
+     */
+    boolean supportsArrays();
+
+    /**
+     * Builds the query of the records of a list of ids. With arrays, the query has a single parameter whatever
+     * the number of ids, otherwise it has one parameter per id.
+     * @param table the name of the table (not null)
+     * @param id the name of the id column (not null)
+     * @param count the number of ids (&gt;0)
+     * @return the query (not null)
+     */
+    String selectIn(String table, String id, int count);
+
+    /**
+     * Binds the ids of a query built by <code>selectIn</code>.
+     * @param stmt the statement (not null)
+     * @param index the index of the first parameter (starting at 1)
+     * @param ids the ids (not null, not empty)
+     * @throws SQLException if the ids can't be bound
+     */
+    void setIds(PreparedStatement stmt, int index, Collection<?> ids) throws SQLException;
+
+    /**
+     * Builds an insert-or-update of one record by id. Its parameters are the columns then the id.
+     * @param table the name of the table (not null)
+     * @param id the name of the id column (not null)
+     * @param columns the other columns (not null, it may be empty)
+     * @return the statement (not null)
+     */
+    String upsert(String table, String id, List<String> columns);
+
+    /**
+     * Builds the query returning the next value of a sequence.
+     * @param sequence the name of the sequence (not null)
+     * @return the query (not null)
+     */
+    String nextValue(String sequence);
+
+    /**
+     * Returns the maximum number of parameters of a statement: multi-record inserts and IN-lists are split
+     * to stay under it.
+     * @return the maximum number of parameters (&gt;0)
+     */
+    int getMaxParameters();
+
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright 2021 Claire Fauch
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.code.fauch.revealer.jdbc.dialect;
+
+import java.sql.DatabaseMetaData;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.ServiceLoader;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Holder of the known dialects.
+ * <p>
+ * The dialect of a database is chosen from the product name given by its <code>DatabaseMetaData</code>:
+ * first among the <code>Dialect</code> service providers, then among the built-in H2 and PostgreSQL dialects.
+ * The generic ANSI dialect is used for any other database. The dialect chosen for a product name is kept.
+ * </p>
+ */
+public final class Dialects {
+
+    /**
+     * Generic dialect relying on standard SQL only.
+     */
+    public static final Dialect ANSI = new AnsiDialect();
+
+    /**
+     * Dialect of H2.
+     */
+    public static final Dialect H2 = new H2Dialect();
+
+    /**
+     * Dialect of PostgreSQL.
+     */
+    public static final Dialect POSTGRESQL = new PostgreSqlDialect();
+
+    /**
+     * The provided dialects (not null)
+     */
+    private static final List<Dialect> PROVIDED = ServiceLoader.load(Dialect.class).stream()
+            .map(ServiceLoader.Provider::get)
+            .collect(Collectors.toList());
+
+    /**
+     * The chosen dialects by product name (not null)
+     */
+    private static final Map<String, Dialect> BY_PRODUCT = new ConcurrentHashMap<>();
+
+    /**
+     * No constructor.
+     */
+    private Dialects() {
+        //Nothing to do
+    }
+
+    /**
+     * Returns the dialect of a database.
+     * @param metaData the metadata of the database (not null)
+     * @return the dialect (not null)
+     * @throws SQLException if the product name can't be read
+     */
+    public static Dialect of(final DatabaseMetaData metaData) throws SQLException {
+        return of(Objects.requireNonNull(metaData, "metaData is mandatory").getDatabaseProductName());
+    }
+
+    /**
+     * Returns the dialect of a database product.
+     * @param productName the product name of the database (not null)
+     * @return the dialect (not null)
+     */
+    public static Dialect of(final String productName) {
+        return BY_PRODUCT.computeIfAbsent(Objects.requireNonNull(productName, "productName is mandatory"), name -> {
+            for (Dialect dialect : PROVIDED) {
+                if (dialect.accept(name)) {
+                    return dialect;
+                }
+            }
+            for (Dialect dialect : List.of(H2, POSTGRESQL)) {
+                if (dialect.accept(name)) {
+                    return dialect;
+                }
+            }
+            return ANSI;
+        });
+    }
+
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright 2021 Claire Fauch
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.code.fauch.revealer.jdbc.dialect;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Dialect of H2: inserts returning through <code>FINAL TABLE</code>, arrays for IN-lists and
+ * <code>MERGE ... KEY</code> for upserts.
+ */
+final class H2Dialect extends AnsiDialect {
+
+    @Override
+    public String getName() {
+        return "H2";
+    }
+
+    @Override
+    public boolean accept(final String productName) {
+        return "H2".equalsIgnoreCase(productName);
+    }
+
+    @Override
+    public boolean supportsReturning() {
+        return true;
+    }
+
+    @Override
+    public String insertReturning(final String table, final List<String> columns, final int rows,
+                                  final List<String> returning) {
+        return String.format("select %s from final table (%s)",
+                String.join(",", returning), insert(table, columns, rows));
+    }
+
+    @Override
+    public boolean supportsArrays() {
+        return true;
+    }
+
+    @Override
+    public String selectIn(final String table, final String id, final int count) {
+        return String.format("select * from %s where %s = any(?)", table, id);
+    }
+
+    @Override
+    public void setIds(final PreparedStatement stmt, final int index, final Collection<?> ids) throws SQLException {
+        setArray(stmt, index, ids);
+    }
+
+    @Override
+    public String upsert(final String table, final String id, final List<String> columns) {
+        final String all = columns.isEmpty() ? id : String.join(",", columns) + "," + id;
+        return String.format("merge into %s (%s) key (%s) values (%s)",
+                table, all, id, String.join(",", Collections.nCopies(columns.size() + 1, "?")));
+    }
+
+    @Override
+    public int getMaxParameters() {
+        return 10000;
+    }
+
+}
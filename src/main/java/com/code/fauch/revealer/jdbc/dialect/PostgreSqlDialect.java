@@ -0,0 +1,90 @@
+/*
+ * Copyright 2021 Claire Fauch
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.code.fauch.revealer.jdbc.dialect;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Dialect of PostgreSQL: <code>LIMIT</code>, <code>RETURNING</code>, <code>= ANY(array)</code> and
+ * <code>ON CONFLICT</code> for upserts.
+ */
+final class PostgreSqlDialect extends AnsiDialect {
+
+    @Override
+    public String getName() {
+        return "PostgreSQL";
+    }
+
+    @Override
+    public boolean accept(final String productName) {
+        return "PostgreSQL".equalsIgnoreCase(productName);
+    }
+
+    @Override
+    public String page(final String table, final String id) {
+        return String.format("select * from %s where %s>? order by %s limit ?", table, id, id);
+    }
+
+    @Override
+    public boolean supportsReturning() {
+        return true;
+    }
+
+    @Override
+    public String insertReturning(final String table, final List<String> columns, final int rows,
+                                  final List<String> returning) {
+        return insert(table, columns, rows) + " returning " + String.join(",", returning);
+    }
+
+    @Override
+    public boolean supportsArrays() {
+        return true;
+    }
+
+    @Override
+    public String selectIn(final String table, final String id, final int count) {
+        return String.format("select * from %s where %s = any(?)", table, id);
+    }
+
+    @Override
+    public void setIds(final PreparedStatement stmt, final int index, final Collection<?> ids) throws SQLException {
+        setArray(stmt, index, ids);
+    }
+
+    @Override
+    public String upsert(final String table, final String id, final List<String> columns) {
+        final String all = columns.isEmpty() ? id : String.join(",", columns) + "," + id;
+        return String.format("insert into %s (%s) values (%s) on conflict (%s) do %s",
+                table, all, String.join(",", Collections.nCopies(columns.size() + 1, "?")), id,
+                columns.isEmpty() ? "nothing" : "update set "
+                        + columns.stream().map(c -> c + "=excluded." + c).collect(Collectors.joining(",")));
+    }
+
+    @Override
+    public String nextValue(final String sequence) {
+        return String.format("select nextval('%s')", sequence);
+    }
+
+    @Override
+    public int getMaxParameters() {
+        return 32767;
+    }
+
+}
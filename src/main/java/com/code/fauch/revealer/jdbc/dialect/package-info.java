@@ -0,0 +1,34 @@
+/*
+ * Copyright 2021 Claire Fauch
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/**
+ * This package defines the SQL dialects used to generate the statements of the DAO.
+ * <p>
+ * The dialect is chosen automatically from the product name of the database: H2, PostgreSQL, or the
+ * generic ANSI dialect for any other database. Each dialect uses the fastest forms of its database:
+ * </p>
+ * <ul>
+ *     <li>pagination with <code>FETCH FIRST</code> (<code>LIMIT</code> on PostgreSQL),</li>
+ *     <li>inserts returning the inserted rows with <code>FINAL TABLE</code> on H2 and <code>RETURNING</code> on
+ *     PostgreSQL,</li>
+ *     <li>IN-lists given as a single array parameter (<code>= ANY(?)</code>) on H2 and PostgreSQL,</li>
+ *     <li>multi-record inserts, split to stay under the parameter limit of the database,</li>
+ *     <li>upserts with <code>MERGE ... KEY</code> on H2, <code>ON CONFLICT</code> on PostgreSQL and
+ *     <code>MERGE</code> elsewhere.</li>
+ * </ul>
+ * <p>
+ * A custom <code>Dialect</code> can be declared as a service provider, or given to <code>SmallJdbcDao</code>.
+ * </p>
+ */
+package com.code.fauch.revealer.jdbc.dialect;
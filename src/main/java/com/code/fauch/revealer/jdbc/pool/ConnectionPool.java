@@ -0,0 +1,463 @@
+/*
+ * Copyright 2021 Claire Fauch
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.code.fauch.revealer.jdbc.pool;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.io.PrintWriter;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.SQLTransientConnectionException;
+import java.util.Objects;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lightweight JDBC connection pool.
+ * <p>
+ * Idle connections are kept in a lock-free stack. Each thread first tries to get back the last connection it used
+ * (thread affinity) before looking at the idle stack. Connections are only validated on borrow when they have been
+ * idle for a while, and physical connections are closed once their maximum lifetime is reached.
+ * Threads waiting for a connection are served in order (fair waiting) until the configured timeout.
+ * </p>
+ * Closing a connection borrowed from the pool gives it back to the pool, so this pool can be directly used with
+ * <code>JdbcFactory.wrap</code>.
+ * <pre>
+ *     final ConnectionPool pool = ConnectionPool.create(source, PoolOptions.defaults().withMaxSize(8));
+ *     final IService service = (IService) JdbcFactory.wrap(pool, new ServiceImpl(DAO));
+ * </pre>
+ */
+public final class ConnectionPool implements DataSource, AutoCloseable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ConnectionPool.class);
+
+    /**
+     * The data source used to create physical connections (not null)
+     */
+    private final DataSource source;
+
+    /**
+     * The pool options (not null)
+     */
+    private final PoolOptions options;
+
+    /**
+     * The idle connections (not null)
+     */
+    private final IdleStack idle = new IdleStack();
+
+    /**
+     * The last connection used by each thread (not null)
+     */
+    private final ThreadLocal<PooledEntry> affinity = new ThreadLocal<>();
+
+    /**
+     * One permit per connection that can be borrowed (fair).
+     */
+    private final Semaphore permits;
+
+    /**
+     * The number of physical connections.
+     */
+    private final AtomicInteger size = new AtomicInteger();
+
+    /**
+     * Whether the pool is closed or not.
+     */
+    private volatile boolean closed;
+
+    private final LongAdder borrowed = new LongAdder();
+    private final LongAdder affinityHits = new LongAdder();
+    private final LongAdder created = new LongAdder();
+    private final LongAdder destroyed = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+    private final LongAdder waitNanos = new LongAdder();
+
+    /**
+     * Private inner invocation handler of a borrowed connection: closing it gives the connection back to the pool.
+     */
+    private final class Borrowed implements InvocationHandler {
+
+        /**
+         * The pooled entry (not null)
+         */
+        private final PooledEntry entry;
+
+        /**
+         * Whether the borrowed connection has been given back or not.
+         */
+        private final AtomicBoolean released = new AtomicBoolean(false);
+
+        /**
+         * Constructor.
+         * @param entry the pooled entry (not null)
+         */
+        private Borrowed(final PooledEntry entry) {
+            this.entry = entry;
+        }
+
+        @Override
+        public Object invoke(final Object proxy, final Method method, final Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (this.released.compareAndSet(false, true)) {
+                        release(this.entry);
+                    }
+                    return null;
+                case "isClosed":
+                    return this.released.get() || this.entry.getConnection().isClosed();
+                case "unwrap":
+                    if (((Class<?>) args[0]).isInstance(proxy)) {
+                        return proxy;
+                    }
+                    break;
+                case "isWrapperFor":
+                    if (((Class<?>) args[0]).isInstance(proxy)) {
+                        return true;
+                    }
+                    break;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "Pooled" + this.entry.getConnection();
+                case "isReadOnly":
+                    final Boolean readOnly = this.entry.trackedReadOnly();
+                    if (readOnly != null) {
+                        return readOnly;
+                    }
+                    break;
+                case "setAutoCommit":
+                case "setReadOnly":
+                case "setTransactionIsolation":
+                case "setCatalog":
+                case "setSchema":
+                    try {
+                        final Object result = call(method, args);
+                        this.entry.track(method.getName(), args[0]);
+                        return result;
+                    } catch (SQLException err) {
+                        this.entry.untrack();
+                        throw err;
+                    }
+                default:
+                    break;
+            }
+            return call(method, args);
+        }
+
+        /**
+         * Calls a method on the physical connection unless the borrowed connection has been given back.
+         * @param method the method (not null)
+         * @param args the arguments (it may be null)
+         * @return the result of the method
+         * @throws Throwable the error of the method
+         */
+        private Object call(final Method method, final Object[] args) throws Throwable {
+            if (this.released.get()) {
+                throw new SQLException("Connection is closed");
+            }
+            try {
+                return method.invoke(this.entry.getConnection(), args);
+            } catch (InvocationTargetException err) {
+                throw err.getCause();
+            }
+        }
+
+    }
+
+    /**
+     * Creates a new pool.
+     * @param source the data source used to create physical connections (not null)
+     * @param options the pool options (not null)
+     * @return the just created pool (not null)
+     */
+    public static ConnectionPool create(final DataSource source, final PoolOptions options) {
+        return new ConnectionPool(
+                Objects.requireNonNull(source, "source is mandatory"),
+                Objects.requireNonNull(options, "options is mandatory"));
+    }
+
+    /**
+     * Creates a new pool with default options.
+     * @param source the data source used to create physical connections (not null)
+     * @return the just created pool (not null)
+     */
+    public static ConnectionPool create(final DataSource source) {
+        return create(source, PoolOptions.defaults());
+    }
+
+    /**
+     * Constructor.
+     * @param source the data source used to create physical connections (not null)
+     * @param options the pool options (not null)
+     */
+    private ConnectionPool(final DataSource source, final PoolOptions options) {
+        this.source = source;
+        this.options = options;
+        this.permits = new Semaphore(options.getMaxSize(), true);
+    }
+
+    /**
+     * Borrows a connection from the pool.
+     * Closing the returned connection gives it back to the pool.
+     * @return the borrowed connection (not null)
+     * @throws SQLTransientConnectionException if no connection is available before the timeout
+     * @throws SQLException if the pool is closed or the connection can't be created
+     */
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (this.closed) {
+            throw new SQLException("Pool is closed");
+        }
+        final long start = System.nanoTime();
+        try {
+            if (!this.permits.tryAcquire(this.options.getTimeoutMillis(), TimeUnit.MILLISECONDS)) {
+                this.timeouts.increment();
+                throw new SQLTransientConnectionException(
+                        "No connection available within " + this.options.getTimeoutMillis() + "ms");
+            }
+        } catch (InterruptedException err) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a connection", err);
+        }
+        try {
+            final PooledEntry entry = acquire();
+            this.borrowed.increment();
+            this.waitNanos.add(System.nanoTime() - start);
+            return (Connection) Proxy.newProxyInstance(
+                    ConnectionPool.class.getClassLoader(),
+                    new Class[]{Connection.class},
+                    new Borrowed(entry));
+        } catch (SQLException | RuntimeException err) {
+            this.permits.release();
+            throw err;
+        }
+    }
+
+    /**
+     * Not supported: the credentials are the ones of the underlying data source.
+     */
+    @Override
+    public Connection getConnection(final String username, final String password) throws SQLException {
+        throw new SQLFeatureNotSupportedException("Use getConnection() instead");
+    }
+
+    /**
+     * Returns a snapshot of the pool metrics.
+     * @return the pool metrics (not null)
+     */
+    public PoolMetrics getMetrics() {
+        return new PoolMetrics(
+                this.size.get(),
+                this.options.getMaxSize() - this.permits.availablePermits(),
+                this.permits.getQueueLength(),
+                this.borrowed.sum(),
+                this.affinityHits.sum(),
+                this.created.sum(),
+                this.destroyed.sum(),
+                this.timeouts.sum(),
+                this.waitNanos.sum());
+    }
+
+    /**
+     * Returns the pool options.
+     * @return the pool options (not null)
+     */
+    public PoolOptions getOptions() {
+        return this.options;
+    }
+
+    /**
+     * Closes the pool and all its idle connections.
+     * Borrowed connections are closed when they are given back.
+     */
+    @Override
+    public void close() {
+        this.closed = true;
+        for (PooledEntry entry = this.idle.pop(); entry != null; entry = this.idle.pop()) {
+            if (entry.tryReserve()) {
+                destroy(entry);
+            }
+        }
+    }
+
+    /**
+     * Reserves a usable entry: the one of the thread affinity, an idle one or a new one.
+     * The caller must own a permit.
+     * @return the reserved entry (not null)
+     * @throws SQLException if the physical connection can't be created
+     */
+    private PooledEntry acquire() throws SQLException {
+        final PooledEntry last = this.affinity.get();
+        if (last != null && last.tryReserve()) {
+            if (usable(last)) {
+                this.affinityHits.increment();
+                return last;
+            }
+        }
+        for (PooledEntry entry = this.idle.pop(); entry != null; entry = this.idle.pop()) {
+            if (entry.tryReserve() && usable(entry)) {
+                this.affinity.set(entry);
+                return entry;
+            }
+        }
+        final Connection conn = this.source.getConnection();
+        final PooledEntry entry;
+        try {
+            entry = new PooledEntry(conn, this.options.isReadOnly(), System.nanoTime());
+        } catch (SQLException err) {
+            conn.close();
+            throw err;
+        }
+        this.size.incrementAndGet();
+        this.created.increment();
+        this.affinity.set(entry);
+        return entry;
+    }
+
+    /**
+     * Checks whether a just reserved entry can be borrowed, else closes it.
+     * @param entry the reserved entry (not null)
+     * @return true if the entry can be borrowed
+     */
+    private boolean usable(final PooledEntry entry) {
+        final long now = System.nanoTime();
+        boolean valid = !expired(entry, now);
+        if (valid && now - entry.getLastUsedNanos() > TimeUnit.MILLISECONDS.toNanos(this.options.getValidationIdleMillis())) {
+            try {
+                valid = entry.getConnection().isValid(this.options.getValidationTimeoutSeconds());
+            } catch (SQLException err) {
+                valid = false;
+            }
+        }
+        if (!valid) {
+            destroy(entry);
+        }
+        return valid;
+    }
+
+    /**
+     * Determines whether the max lifetime of an entry is reached or not.
+     * @param entry the entry (not null)
+     * @param now the current time in nanoseconds
+     * @return true if the entry has expired
+     */
+    private boolean expired(final PooledEntry entry, final long now) {
+        return now - entry.getCreatedNanos() > TimeUnit.MILLISECONDS.toNanos(this.options.getMaxLifetimeMillis());
+    }
+
+    /**
+     * Gives a borrowed entry back to the pool.
+     * @param entry the borrowed entry (not null)
+     */
+    private void release(final PooledEntry entry) {
+        try {
+            final long now = System.nanoTime();
+            if (this.closed || expired(entry, now) || this.size.get() > this.options.getMaxSize() || !reset(entry)) {
+                destroy(entry);
+            } else {
+                entry.idle(now);
+                this.idle.push(entry);
+                if (this.closed && entry.tryReserve()) {
+                    destroy(entry);
+                }
+            }
+        } finally {
+            this.permits.release();
+        }
+    }
+
+    /**
+     * Restores the default state of a connection given back to the pool. Only the values changed through the
+     * borrowed connection are restored, without reading them back from the driver.
+     * @param entry the entry to reset (not null)
+     * @return true if the connection can be reused
+     */
+    private boolean reset(final PooledEntry entry) {
+        try {
+            return entry.reset();
+        } catch (SQLException err) {
+            LOGGER.warn("Unable to reset the pooled connection", err);
+            return false;
+        }
+    }
+
+    /**
+     * Closes the physical connection of an entry.
+     * @param entry the entry to close (not null)
+     */
+    private void destroy(final PooledEntry entry) {
+        if (entry.remove()) {
+            this.size.decrementAndGet();
+            this.destroyed.increment();
+            try {
+                entry.getConnection().close();
+            } catch (SQLException err) {
+                LOGGER.warn("Unable to close the pooled connection", err);
+            }
+        }
+    }
+
+    @Override
+    public PrintWriter getLogWriter() throws SQLException {
+        return this.source.getLogWriter();
+    }
+
+    @Override
+    public void setLogWriter(final PrintWriter out) throws SQLException {
+        this.source.setLogWriter(out);
+    }
+
+    @Override
+    public void setLoginTimeout(final int seconds) throws SQLException {
+        this.source.setLoginTimeout(seconds);
+    }
+
+    @Override
+    public int getLoginTimeout() throws SQLException {
+        return this.source.getLoginTimeout();
+    }
+
+    @Override
+    public java.util.logging.Logger getParentLogger() throws SQLFeatureNotSupportedException {
+        return this.source.getParentLogger();
+    }
+
+    @Override
+    public <U> U unwrap(final Class<U> iface) throws SQLException {
+        if (iface.isInstance(this)) {
+            return iface.cast(this);
+        }
+        return this.source.unwrap(iface);
+    }
+
+    @Override
+    public boolean isWrapperFor(final Class<?> iface) throws SQLException {
+        return iface.isInstance(this) || this.source.isWrapperFor(iface);
+    }
+
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright 2021 Claire Fauch
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.code.fauch.revealer.jdbc.pool;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Lock-free (Treiber) stack of idle entries.
+ * <p>
+ * The last returned connection is the first one to be borrowed again, so the hottest connections are reused
+ * and the others may expire. An entry is referenced at most once by the stack, but a popped entry may have
+ * been reserved in the meantime (thread affinity): callers have to reserve it before using it.
+ * </p>
+ */
+final class IdleStack {
+
+    /**
+     * Node of the stack.
+     */
+    private static final class Node {
+
+        private final PooledEntry entry;
+
+        private Node next;
+
+        private Node(final PooledEntry entry) {
+            this.entry = entry;
+        }
+
+    }
+
+    /**
+     * The top of the stack (it may be null).
+     */
+    private final AtomicReference<Node> head = new AtomicReference<>();
+
+    /**
+     * Pushes an entry on the stack if it is not already referenced by the stack.
+     * @param entry the entry to push (not null)
+     */
+    void push(final PooledEntry entry) {
+        if (entry.markStacked()) {
+            final Node node = new Node(entry);
+            do {
+                node.next = this.head.get();
+            } while (!this.head.compareAndSet(node.next, node));
+        }
+    }
+
+    /**
+     * Pops an entry from the stack.
+     * @return the popped entry or null if the stack is empty
+     */
+    PooledEntry pop() {
+        Node top;
+        do {
+            top = this.head.get();
+            if (top == null) {
+                return null;
+            }
+        } while (!this.head.compareAndSet(top, top.next));
+        top.entry.unmarkStacked();
+        return top.entry;
+    }
+
+}
@@ -0,0 +1,152 @@
+/*
+ * Copyright 2021 Claire Fauch
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.code.fauch.revealer.jdbc.pool;
+
+/**
+ * Snapshot of the metrics of a connection pool.
+ */
+public final class PoolMetrics {
+
+    private final int size;
+    private final int active;
+    private final int waiting;
+    private final long borrowed;
+    private final long affinityHits;
+    private final long created;
+    private final long destroyed;
+    private final long timeouts;
+    private final long waitNanos;
+
+    /**
+     * Constructor.
+     * @param size the number of physical connections
+     * @param active the number of borrowed connections
+     * @param waiting the number of threads waiting for a connection
+     * @param borrowed the total number of borrows
+     * @param affinityHits the number of borrows served by the thread affinity
+     * @param created the total number of created physical connections
+     * @param destroyed the total number of closed physical connections
+     * @param timeouts the total number of borrows that timed out
+     * @param waitNanos the total time spent to borrow connections in nanoseconds
+     */
+    PoolMetrics(final int size, final int active, final int waiting, final long borrowed, final long affinityHits,
+                final long created, final long destroyed, final long timeouts, final long waitNanos) {
+        this.size = size;
+        this.active = active;
+        this.waiting = waiting;
+        this.borrowed = borrowed;
+        this.affinityHits = affinityHits;
+        this.created = created;
+        this.destroyed = destroyed;
+        this.timeouts = timeouts;
+        this.waitNanos = waitNanos;
+    }
+
+    /**
+     * Returns the number of physical connections.
+     * @return the number of physical connections
+     */
+    public int getSize() {
+        return this.size;
+    }
+
+    /**
+     * Returns the number of borrowed connections.
+     * @return the number of borrowed connections
+     */
+    public int getActive() {
+        return this.active;
+    }
+
+    /**
+     * Returns the number of idle connections.
+     * @return the number of idle connections
+     */
+    public int getIdle() {
+        return Math.max(0, this.size - this.active);
+    }
+
+    /**
+     * Returns the (estimated) number of threads waiting for a connection.
+     * @return the number of waiting threads
+     */
+    public int getWaiting() {
+        return this.waiting;
+    }
+
+    /**
+     * Returns the total number of borrows.
+     * @return the total number of borrows
+     */
+    public long getBorrowed() {
+        return this.borrowed;
+    }
+
+    /**
+     * Returns the number of borrows served by the last connection used by the same thread.
+     * @return the number of affinity hits
+     */
+    public long getAffinityHits() {
+        return this.affinityHits;
+    }
+
+    /**
+     * Returns the total number of created physical connections.
+     * @return the total number of created physical connections
+     */
+    public long getCreated() {
+        return this.created;
+    }
+
+    /**
+     * Returns the total number of closed physical connections.
+     * @return the total number of closed physical connections
+     */
+    public long getDestroyed() {
+        return this.destroyed;
+    }
+
+    /**
+     * Returns the total number of borrows that timed out.
+     * @return the total number of timeouts
+     */
+    public long getTimeouts() {
+        return this.timeouts;
+    }
+
+    /**
+     * Returns the total time spent to borrow connections.
+     * @return the total wait time in nanoseconds
+     */
+    public long getWaitNanos() {
+        return this.waitNanos;
+    }
+
+    @Override
+    public String toString() {
+        return "PoolMetrics{" +
+                "size=" + size +
+                ", active=" + active +
+                ", waiting=" + waiting +
+                ", borrowed=" + borrowed +
+                ", affinityHits=" + affinityHits +
+                ", created=" + created +
+                ", destroyed=" + destroyed +
+                ", timeouts=" + timeouts +
+                ", waitNanos=" + waitNanos +
+                '}';
+    }
+
+}
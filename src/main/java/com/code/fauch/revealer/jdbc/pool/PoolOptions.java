@@ -0,0 +1,201 @@
+/*
+ * Copyright 2021 Claire Fauch
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.code.fauch.revealer.jdbc.pool;
+
+/**
+ * Immutable options of a connection pool.
+ * Each <code>withXxx</code> method returns a copy of the options with the given value.
+ */
+public final class PoolOptions {
+
+    private static final PoolOptions DEFAULTS = new PoolOptions(10, 30_000L, 5_000L, 1_800_000L, 5, false);
+
+    /**
+     * The maximum number of physical connections (>0)
+     */
+    private final int maxSize;
+
+    /**
+     * The maximum time to wait for a connection in milliseconds (>=0)
+     */
+    private final long timeoutMillis;
+
+    /**
+     * The idle time after which a connection is validated on borrow in milliseconds (>=0)
+     */
+    private final long validationIdleMillis;
+
+    /**
+     * The maximum lifetime of a physical connection in milliseconds (>0)
+     */
+    private final long maxLifetimeMillis;
+
+    /**
+     * The timeout of the validation in seconds (>=0)
+     */
+    private final int validationTimeoutSeconds;
+
+    /**
+     * Whether the physical connections are created read-only
+     */
+    private final boolean readOnly;
+
+    /**
+     * Returns the default options.
+     * @return the default options (not null)
+     */
+    public static PoolOptions defaults() {
+        return DEFAULTS;
+    }
+
+    /**
+     * Constructor.
+     * @param maxSize the maximum number of physical connections (>0)
+     * @param timeoutMillis the maximum time to wait for a connection in milliseconds (>=0)
+     * @param validationIdleMillis the idle time after which a connection is validated on borrow (>=0)
+     * @param maxLifetimeMillis the maximum lifetime of a physical connection in milliseconds (>0)
+     * @param validationTimeoutSeconds the timeout of the validation in seconds (>=0)
+     * @param readOnly whether the physical connections are created read-only
+     */
+    private PoolOptions(final int maxSize, final long timeoutMillis, final long validationIdleMillis,
+                        final long maxLifetimeMillis, final int validationTimeoutSeconds, final boolean readOnly) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("maxSize must be >0");
+        }
+        if (timeoutMillis < 0 || validationIdleMillis < 0 || validationTimeoutSeconds < 0) {
+            throw new IllegalArgumentException("timeouts must be >=0");
+        }
+        if (maxLifetimeMillis <= 0) {
+            throw new IllegalArgumentException("maxLifetimeMillis must be >0");
+        }
+        this.maxSize = maxSize;
+        this.timeoutMillis = timeoutMillis;
+        this.validationIdleMillis = validationIdleMillis;
+        this.maxLifetimeMillis = maxLifetimeMillis;
+        this.validationTimeoutSeconds = validationTimeoutSeconds;
+        this.readOnly = readOnly;
+    }
+
+    /**
+     * Returns a copy of these options with the given maximum number of physical connections.
+     * @param value the maximum number of physical connections (>0)
+     * @return the new options (not null)
+     */
+    public PoolOptions withMaxSize(final int value) {
+        return new PoolOptions(value, this.timeoutMillis, this.validationIdleMillis, this.maxLifetimeMillis,
+                this.validationTimeoutSeconds, this.readOnly);
+    }
+
+    /**
+     * Returns a copy of these options with the given maximum time to wait for a connection.
+     * @param value the maximum time to wait for a connection in milliseconds (>=0)
+     * @return the new options (not null)
+     */
+    public PoolOptions withTimeoutMillis(final long value) {
+        return new PoolOptions(this.maxSize, value, this.validationIdleMillis, this.maxLifetimeMillis,
+                this.validationTimeoutSeconds, this.readOnly);
+    }
+
+    /**
+     * Returns a copy of these options with the given idle time after which a connection is validated on borrow.
+     * @param value the idle time in milliseconds (>=0)
+     * @return the new options (not null)
+     */
+    public PoolOptions withValidationIdleMillis(final long value) {
+        return new PoolOptions(this.maxSize, this.timeoutMillis, value, this.maxLifetimeMillis,
+                this.validationTimeoutSeconds, this.readOnly);
+    }
+
+    /**
+     * Returns a copy of these options with the given maximum lifetime of a physical connection.
+     * @param value the maximum lifetime in milliseconds (>0)
+     * @return the new options (not null)
+     */
+    public PoolOptions withMaxLifetimeMillis(final long value) {
+        return new PoolOptions(this.maxSize, this.timeoutMillis, this.validationIdleMillis, value,
+                this.validationTimeoutSeconds, this.readOnly);
+    }
+
+    /**
+     * Returns a copy of these options with the given validation timeout.
+     * @param value the timeout of the validation in seconds (>=0)
+     * @return the new options (not null)
+     */
+    public PoolOptions withValidationTimeoutSeconds(final int value) {
+        return new PoolOptions(this.maxSize, this.timeoutMillis, this.validationIdleMillis, this.maxLifetimeMillis,
+                value, this.readOnly);
+    }
+
+    /**
+     * Returns a copy of these options creating the physical connections read-only or not.
+     * The flag being the creation value of the connections, the pool keeps it when a connection is released:
+     * use it for the pools of read replicas.
+     * @param value whether the physical connections are created read-only
+     * @return the new options (not null)
+     */
+    public PoolOptions withReadOnly(final boolean value) {
+        return new PoolOptions(this.maxSize, this.timeoutMillis, this.validationIdleMillis, this.maxLifetimeMillis,
+                this.validationTimeoutSeconds, value);
+    }
+
+    /**
+     * Returns the maximum number of physical connections.
+     * @return the maximum number of physical connections (>0)
+     */
+    public int getMaxSize() {
+        return this.maxSize;
+    }
+
+    /**
+     * Returns the maximum time to wait for a connection.
+     * @return the maximum time to wait in milliseconds (>=0)
+     */
+    public long getTimeoutMillis() {
+        return this.timeoutMillis;
+    }
+
+    /**
+     * Returns the idle time after which a connection is validated on borrow.
+     * @return the idle time in milliseconds (>=0)
+     */
+    public long getValidationIdleMillis() {
+        return this.validationIdleMillis;
+    }
+
+    /**
+     * Returns the maximum lifetime of a physical connection.
+     * @return the maximum lifetime in milliseconds (>0)
+     */
+    public long getMaxLifetimeMillis() {
+        return this.maxLifetimeMillis;
+    }
+
+    /**
+     * Returns the timeout of the validation.
+     * @return the timeout of the validation in seconds (>=0)
+     */
+    public int getValidationTimeoutSeconds() {
+        return this.validationTimeoutSeconds;
+    }
+
+    /**
+     * Returns whether the physical connections are created read-only.
+     * @return true if the physical connections are created read-only
+     */
+    public boolean isReadOnly() {
+        return this.readOnly;
+    }
+
+}
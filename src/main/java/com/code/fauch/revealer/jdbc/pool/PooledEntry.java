@@ -0,0 +1,288 @@
+/*
+ * Copyright 2021 Claire Fauch
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.code.fauch.revealer.jdbc.pool;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * This class defines a physical connection managed by the pool.
+ * <p>
+ * Besides the state of the physical connection when created, the entry keeps the autocommit, read-only,
+ * isolation, catalog and schema set through the borrowed connection. These values are only used by the
+ * borrowing thread, then by the pool when the connection is given back.
+ * </p>
+ */
+final class PooledEntry {
+
+    static final int IDLE = 0;
+    static final int IN_USE = 1;
+    static final int REMOVED = 2;
+
+    /**
+     * The physical connection (not null)
+     */
+    private final Connection connection;
+
+    /**
+     * The creation time in nanoseconds.
+     */
+    private final long createdNanos;
+
+    /**
+     * The autocommit mode of the physical connection when created.
+     */
+    private final boolean autoCommit;
+
+    /**
+     * The read-only flag of the physical connection when created.
+     */
+    private final boolean readOnly;
+
+    /**
+     * The transaction isolation of the physical connection when created.
+     */
+    private final int isolation;
+
+    /**
+     * The catalog of the physical connection when created (it may be null).
+     */
+    private final String catalog;
+
+    /**
+     * The schema of the physical connection when created (it may be null).
+     */
+    private final String schema;
+
+    /**
+     * The current autocommit mode.
+     */
+    private boolean currentAutoCommit;
+
+    /**
+     * The current read-only flag.
+     */
+    private boolean currentReadOnly;
+
+    /**
+     * The current transaction isolation.
+     */
+    private int currentIsolation;
+
+    /**
+     * The current catalog (it may be null).
+     */
+    private String currentCatalog;
+
+    /**
+     * The current schema (it may be null).
+     */
+    private String currentSchema;
+
+    /**
+     * Whether a change of the state failed, leaving it unknown, or not.
+     */
+    private boolean unknown;
+
+    /**
+     * The last time the connection has been returned to the pool in nanoseconds.
+     */
+    private volatile long lastUsedNanos;
+
+    /**
+     * The state of the entry (IDLE, IN_USE or REMOVED).
+     */
+    private final AtomicInteger state = new AtomicInteger(IN_USE);
+
+    /**
+     * Whether the entry is referenced by the idle stack or not.
+     */
+    private final AtomicBoolean stacked = new AtomicBoolean(false);
+
+    /**
+     * Constructor (the entry is created in use).
+     * A connection created read-only is switched to read-only, the flag being recorded as its creation value
+     * whatever the driver reports afterwards (some drivers only take it as a hint).
+     * @param connection the physical connection (not null)
+     * @param readOnly whether the connection is created read-only or not
+     * @param now the creation time in nanoseconds
+     * @throws SQLException if the state of the physical connection can't be read or set
+     */
+    PooledEntry(final Connection connection, final boolean readOnly, final long now) throws SQLException {
+        this.connection = connection;
+        this.createdNanos = now;
+        this.autoCommit = connection.getAutoCommit();
+        if (readOnly) {
+            connection.setReadOnly(true);
+            this.readOnly = true;
+        } else {
+            this.readOnly = connection.isReadOnly();
+        }
+        this.isolation = connection.getTransactionIsolation();
+        this.catalog = connection.getCatalog();
+        this.schema = connection.getSchema();
+        this.currentAutoCommit = this.autoCommit;
+        this.currentReadOnly = this.readOnly;
+        this.currentIsolation = this.isolation;
+        this.currentCatalog = this.catalog;
+        this.currentSchema = this.schema;
+        this.lastUsedNanos = now;
+    }
+
+    /**
+     * Returns the physical connection.
+     * @return the physical connection (not null)
+     */
+    Connection getConnection() {
+        return this.connection;
+    }
+
+    /**
+     * Returns the creation time.
+     * @return the creation time in nanoseconds
+     */
+    long getCreatedNanos() {
+        return this.createdNanos;
+    }
+
+    /**
+     * Records a change of state made through the borrowed connection.
+     * @param setter the name of the setter method (not null)
+     * @param value the new value (it may be null)
+     */
+    void track(final String setter, final Object value) {
+        switch (setter) {
+            case "setAutoCommit":
+                this.currentAutoCommit = (Boolean) value;
+                break;
+            case "setReadOnly":
+                this.currentReadOnly = (Boolean) value;
+                break;
+            case "setTransactionIsolation":
+                this.currentIsolation = (Integer) value;
+                break;
+            case "setCatalog":
+                this.currentCatalog = (String) value;
+                break;
+            case "setSchema":
+                this.currentSchema = (String) value;
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * Returns the read-only flag set through the borrowed connection.
+     * @return the tracked read-only flag, or null if the state is unknown
+     */
+    Boolean trackedReadOnly() {
+        return this.unknown ? null : this.currentReadOnly;
+    }
+
+    /**
+     * Records that a change of state failed, so that the state of the connection is unknown.
+     */
+    void untrack() {
+        this.unknown = true;
+    }
+
+    /**
+     * Restores the state of the physical connection when created, only changing the values that differ.
+     * An open transaction is rolled back.
+     * @return false if the state is unknown and can't be restored, else true
+     * @throws SQLException if the state can't be restored
+     */
+    boolean reset() throws SQLException {
+        if (this.unknown) {
+            return false;
+        }
+        if (!this.currentAutoCommit) {
+            this.connection.rollback();
+        }
+        if (this.currentAutoCommit != this.autoCommit) {
+            this.connection.setAutoCommit(this.autoCommit);
+            this.currentAutoCommit = this.autoCommit;
+        }
+        if (this.currentReadOnly != this.readOnly) {
+            this.connection.setReadOnly(this.readOnly);
+            this.currentReadOnly = this.readOnly;
+        }
+        if (this.currentIsolation != this.isolation) {
+            this.connection.setTransactionIsolation(this.isolation);
+            this.currentIsolation = this.isolation;
+        }
+        if (this.catalog != null && !this.catalog.equals(this.currentCatalog)) {
+            this.connection.setCatalog(this.catalog);
+            this.currentCatalog = this.catalog;
+        }
+        if (this.schema != null && !this.schema.equals(this.currentSchema)) {
+            this.connection.setSchema(this.schema);
+            this.currentSchema = this.schema;
+        }
+        return true;
+    }
+
+    /**
+     * Returns the last time the connection has been returned to the pool.
+     * @return the last use time in nanoseconds
+     */
+    long getLastUsedNanos() {
+        return this.lastUsedNanos;
+    }
+
+    /**
+     * Tries to reserve this entry.
+     * @return true if the entry was idle and is now in use, else false
+     */
+    boolean tryReserve() {
+        return this.state.compareAndSet(IDLE, IN_USE);
+    }
+
+    /**
+     * Makes this entry idle again.
+     * @param now the current time in nanoseconds
+     */
+    void idle(final long now) {
+        this.lastUsedNanos = now;
+        this.state.set(IDLE);
+    }
+
+    /**
+     * Marks this entry as removed from the pool.
+     * @return true if the entry was not already removed
+     */
+    boolean remove() {
+        return this.state.getAndSet(REMOVED) != REMOVED;
+    }
+
+    /**
+     * Marks this entry as referenced by the idle stack.
+     * @return true if the entry was not already referenced by the idle stack
+     */
+    boolean markStacked() {
+        return this.stacked.compareAndSet(false, true);
+    }
+
+    /**
+     * Marks this entry as no more referenced by the idle stack.
+     */
+    void unmarkStacked() {
+        this.stacked.set(false);
+    }
+
+}
@@ -0,0 +1,33 @@
+/*
+ * Copyright 2021 Claire Fauch
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/**
+ * This package defines a lightweight JDBC connection pool.
+ * The pool is a <code>DataSource</code> so it can be given to <code>JdbcFactory.wrap</code> in place of the
+ * data source of the driver: each outermost <code>@Jdbc</code> call then borrows a connection from the pool
+ * instead of opening a new physical connection.
+ *
+ * <pre>
+ *     final JdbcDataSource source = new JdbcDataSource();
+ *     source.setURL("jdbc:h2:mem:v3");
+ *     final ConnectionPool pool = ConnectionPool.create(
+ *             source,
+ *             PoolOptions.defaults().withMaxSize(8).withTimeoutMillis(5_000L));
+ *     final IService service = (IService) JdbcFactory.wrap(pool, new ServiceImpl(DAO));
+ *     ...
+ *     System.out.println(pool.getMetrics());
+ *     pool.close();
+ * </pre>
+ */
+package com.code.fauch.revealer.jdbc.pool;
@@ -0,0 +1,154 @@
+/*
+ * Copyright 2021 Claire Fauch
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.code.fauch.revealer.jdbc.transaction;
+
+import com.code.fauch.revealer.tracing.Span;
+import com.code.fauch.revealer.tracing.Tracing;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * This class runs blocking calls on an executor and exposes them as <code>CompletableFuture</code>.
+ * <p>
+ * The active span is propagated to the executing thread, and cancelling a future cancels the statements
+ * running for it with <code>Statement.cancel()</code>.
+ * </p>
+ */
+final class Async {
+
+    /**
+     * No constructor.
+     */
+    private Async() {
+        //Nothing to do
+    }
+
+    /**
+     * Runs a blocking call on the given executor.
+     * @param executor the executor (not null)
+     * @param call the blocking call (not null)
+     * @param <V> the type of the result
+     * @return the future result of the call (not null)
+     */
+    static <V> CompletableFuture<V> supply(final Executor executor, final Cancellation.Operation<V> call) {
+        final CompletableFuture<V> future = new CompletableFuture<>();
+        final Cancellation token = new Cancellation();
+        final Span parent = Tracing.active();
+        future.whenComplete((result, err) -> {
+            if (future.isCancelled()) {
+                token.cancel();
+            }
+        });
+        try {
+            executor.execute(() -> {
+                if (future.isDone()) {
+                    return;
+                }
+                try (Tracing.Scope scope = Tracing.activate(parent)) {
+                    future.complete(Cancellation.where(token, call));
+                } catch (Throwable err) {
+                    future.completeExceptionally(err);
+                }
+            });
+        } catch (RejectedExecutionException err) {
+            future.completeExceptionally(err);
+        }
+        return future;
+    }
+
+    /**
+     * Invocation handler running the methods of an asynchronous interface as the blocking methods of the same
+     * name and parameters of a service.
+     */
+    static final class Handler implements InvocationHandler {
+
+        /**
+         * The blocking service (not null)
+         */
+        private final Object service;
+
+        /**
+         * The blocking methods by asynchronous method (not null)
+         */
+        private final Map<Method, Method> methods = new HashMap<>();
+
+        /**
+         * The executor of the calls (not null)
+         */
+        private final Executor executor;
+
+        /**
+         * Constructor.
+         * @param api the asynchronous interface (not null)
+         * @param service the blocking service (not null)
+         * @param executor the executor of the calls (not null)
+         * @throws IllegalArgumentException if a method of the interface doesn't return a
+         * <code>CompletableFuture</code> or has no blocking counterpart
+         */
+        Handler(final Class<?> api, final Object service, final Executor executor) {
+            this.service = service;
+            this.executor = executor;
+            for (Method method : api.getMethods()) {
+                if (!method.getReturnType().isAssignableFrom(CompletableFuture.class)
+                        || !CompletionStage.class.isAssignableFrom(method.getReturnType())) {
+                    throw new IllegalArgumentException("Not an asynchronous method: " + method);
+                }
+                this.methods.put(method, blocking(service.getClass(), method));
+            }
+        }
+
+        @Override
+        public Object invoke(Object o, Method method, Object[] args) throws Throwable {
+            final Method target = this.methods.get(method);
+            if (target == null) {
+                return method.invoke(this.service, args);
+            }
+            return supply(this.executor, () -> {
+                try {
+                    return target.invoke(this.service, args);
+                } catch (InvocationTargetException err) {
+                    throw err.getCause();
+                }
+            });
+        }
+
+        /**
+         * Finds the blocking counterpart of an asynchronous method.
+         * @param cls the class of the blocking service (not null)
+         * @param method the asynchronous method (not null)
+         * @return the blocking method (not null)
+         */
+        private static Method blocking(final Class<?> cls, final Method method) {
+            for (Class<?> itf : cls.getInterfaces()) {
+                try {
+                    return itf.getMethod(method.getName(), method.getParameterTypes());
+                } catch (NoSuchMethodException err) {
+                    //Try the next interface
+                }
+            }
+            throw new IllegalArgumentException("No blocking method for " + method);
+        }
+
+    }
+
+}
@@ -0,0 +1,385 @@
+/*
+ * Copyright 2021 Claire Fauch
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.code.fauch.revealer.jdbc.transaction;
+
+import com.code.fauch.revealer.IDao;
+import com.code.fauch.revealer.PersistenceException;
+import com.code.fauch.revealer.UncheckedPersistenceException;
+import com.code.fauch.revealer.jdbc.SmallJdbcDao;
+
+import javax.sql.DataSource;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.stream.Stream;
+
+/**
+ * This class defines an asynchronous DAO.
+ * <p>
+ * Each operation runs on the given executor with its own connection taken from the <code>DataSource</code>
+ * (<code>insertAll</code> within a transaction) and returns a <code>CompletableFuture</code> completed with
+ * the result or with the <code>PersistenceException</code>. Cancelling the future cancels the running
+ * statement.
+ * </p>
+ *
+ * @param <T> the type of the bean
+ */
+public final class AsyncDao<T> {
+
+    /**
+     * Handler of the beans of one partition of a parallel scan.
+     *
+     * @param <T> the type of the bean
+     */
+    @FunctionalInterface
+    public interface PartitionHandler<T> {
+
+        /**
+         * Handles the beans of a partition, on a thread of the executor.
+         * @param index the index of the partition, the partitions being ordered by id (&gt;=0)
+         * @param beans the beans of the partition ordered by id (not null)
+         * @throws PersistenceException if the beans can't be handled
+         */
+        void handle(int index, Stream<T> beans) throws PersistenceException;
+
+    }
+
+    /**
+     * The blocking operations, run within a connection.
+     *
+     * @param <T> the type of the bean
+     */
+    interface Operations<T> {
+        @Jdbc(transactional = false)
+        int insert(T bean) throws PersistenceException;
+        @Jdbc(transactional = true)
+        int insertAll(List<T> beans) throws PersistenceException;
+        @Jdbc(transactional = false)
+        int upsert(T bean) throws PersistenceException;
+        @Jdbc(transactional = false)
+        int update(T bean) throws PersistenceException;
+        @Jdbc(transactional = false)
+        int delete(T bean) throws PersistenceException;
+        @Jdbc(transactional = false)
+        T get(Object id) throws PersistenceException;
+        @Jdbc(transactional = false)
+        List<T> getAll(Collection<?> ids) throws PersistenceException;
+        @Jdbc(transactional = false)
+        List<T> getAll(Object start, int size) throws PersistenceException;
+        @Jdbc(transactional = false)
+        T find(String query, Object... args) throws PersistenceException;
+        @Jdbc(transactional = false)
+        List<T> findAll(String query, Object... args) throws PersistenceException;
+    }
+
+    /**
+     * The blocking operations delegated to a DAO.
+     *
+     * @param <T> the type of the bean
+     */
+    private static final class Blocking<T> implements Operations<T> {
+
+        /**
+         * The DAO (not null)
+         */
+        private final IDao<T> dao;
+
+        /**
+         * Constructor.
+         * @param dao the DAO (not null)
+         */
+        private Blocking(final IDao<T> dao) {
+            this.dao = dao;
+        }
+
+        @Override
+        public int insert(final T bean) throws PersistenceException {
+            return this.dao.insert(bean);
+        }
+
+        @Override
+        public int insertAll(final List<T> beans) throws PersistenceException {
+            return this.dao.insertAll(beans);
+        }
+
+        @Override
+        public int upsert(final T bean) throws PersistenceException {
+            return this.dao.upsert(bean);
+        }
+
+        @Override
+        public int update(final T bean) throws PersistenceException {
+            return this.dao.update(bean);
+        }
+
+        @Override
+        public int delete(final T bean) throws PersistenceException {
+            return this.dao.delete(bean);
+        }
+
+        @Override
+        public T get(final Object id) throws PersistenceException {
+            return this.dao.get(id);
+        }
+
+        @Override
+        public List<T> getAll(final Collection<?> ids) throws PersistenceException {
+            return this.dao.getAll(ids);
+        }
+
+        @Override
+        public List<T> getAll(final Object start, final int size) throws PersistenceException {
+            return this.dao.getAll(start, size);
+        }
+
+        @Override
+        public T find(final String query, final Object... args) throws PersistenceException {
+            return this.dao.find(query, args);
+        }
+
+        @Override
+        public List<T> findAll(final String query, final Object... args) throws PersistenceException {
+            return this.dao.findAll(query, args);
+        }
+
+    }
+
+    /**
+     * The DataSource providing the connections (not null)
+     */
+    private final DataSource ds;
+
+    /**
+     * The DAO (not null)
+     */
+    private final IDao<T> dao;
+
+    /**
+     * The blocking operations wrapped with connections (not null)
+     */
+    private final Operations<T> operations;
+
+    /**
+     * The executor of the operations (not null)
+     */
+    private final Executor executor;
+
+    /**
+     * Creates an asynchronous DAO.
+     * @param ds the DataSource to use to create needed connections (not null)
+     * @param cls the class of the bean (not null)
+     * @param executor the executor of the operations, see <code>JdbcExecutors</code> (not null)
+     * @param <U> the type of the bean
+     * @return the just created DAO (not null)
+     */
+    public static <U> AsyncDao<U> create(final DataSource ds, final Class<U> cls, final Executor executor) {
+        return create(ds, JdbcFactory.dao(cls), executor);
+    }
+
+    /**
+     * Creates an asynchronous DAO from a DAO created by <code>JdbcFactory</code>.
+     * @param ds the DataSource to use to create needed connections (not null)
+     * @param dao the DAO created by <code>JdbcFactory.dao</code> (not null)
+     * @param executor the executor of the operations, see <code>JdbcExecutors</code> (not null)
+     * @param <U> the type of the bean
+     * @return the just created DAO (not null)
+     */
+    @SuppressWarnings("unchecked")
+    public static <U> AsyncDao<U> create(final DataSource ds, final IDao<U> dao, final Executor executor) {
+        Objects.requireNonNull(dao, "dao is mandatory");
+        return new AsyncDao<>(
+                ds,
+                dao,
+                (Operations<U>) JdbcFactory.wrap(ds, new Blocking<>(dao)),
+                Objects.requireNonNull(executor, "executor is mandatory"));
+    }
+
+    /**
+     * Constructor.
+     * @param ds the DataSource providing the connections (not null)
+     * @param dao the DAO (not null)
+     * @param operations the blocking operations wrapped with connections (not null)
+     * @param executor the executor of the operations (not null)
+     */
+    private AsyncDao(final DataSource ds, final IDao<T> dao, final Operations<T> operations, final Executor executor) {
+        this.ds = ds;
+        this.dao = dao;
+        this.operations = operations;
+        this.executor = executor;
+    }
+
+    /**
+     * Insert a bean.
+     * @param bean the bean to insert (not null)
+     * @return the future newly created bean number (not null)
+     */
+    public CompletableFuture<Integer> insert(final T bean) {
+        return Async.supply(this.executor, () -> this.operations.insert(bean));
+    }
+
+    /**
+     * Insert several beans within a transaction.
+     * @param beans the beans to insert (not null)
+     * @return the future number of created records (not null)
+     */
+    public CompletableFuture<Integer> insertAll(final List<T> beans) {
+        return Async.supply(this.executor, () -> this.operations.insertAll(beans));
+    }
+
+    /**
+     * Insert the given bean or update its record if it already exists.
+     * @param bean the bean to insert or update (not null, its id must not be null)
+     * @return the future inserted or updated record number (not null)
+     */
+    public CompletableFuture<Integer> upsert(final T bean) {
+        return Async.supply(this.executor, () -> this.operations.upsert(bean));
+    }
+
+    /**
+     * Update record using the given bean.
+     * @param bean the bean to update (not null)
+     * @return the future updated record number (not null)
+     */
+    public CompletableFuture<Integer> update(final T bean) {
+        return Async.supply(this.executor, () -> this.operations.update(bean));
+    }
+
+    /**
+     * Delete the record corresponding to the given bean.
+     * @param bean the bean to delete (not null)
+     * @return the future deleted record number (not null)
+     */
+    public CompletableFuture<Integer> delete(final T bean) {
+        return Async.supply(this.executor, () -> this.operations.delete(bean));
+    }
+
+    /**
+     * Searches the bean of the given id.
+     * @param id the id of the bean to research
+     * @return the future corresponding bean, completed with null if not found (not null)
+     */
+    public CompletableFuture<T> get(final Object id) {
+        return Async.supply(this.executor, () -> this.operations.get(id));
+    }
+
+    /**
+     * Searches the beans of the given ids.
+     * @param ids the ids of the beans to research (not null)
+     * @return the future found beans (not null)
+     */
+    public CompletableFuture<List<T>> getAll(final Collection<?> ids) {
+        return Async.supply(this.executor, () -> this.operations.getAll(ids));
+    }
+
+    /**
+     * Searches beans with pagination ordered by id.
+     * @param start the start id (excluded)
+     * @param size the page size (&gt;=0)
+     * @return the future corresponding beans (not null)
+     */
+    public CompletableFuture<List<T>> getAll(final Object start, final int size) {
+        return Async.supply(this.executor, () -> this.operations.getAll(start, size));
+    }
+
+    /**
+     * Searches the bean corresponding to a given SQL query.
+     * @param query the SQL query (not null)
+     * @param args the optional query arguments
+     * @return the future corresponding bean, completed with null if not found (not null)
+     */
+    public CompletableFuture<T> find(final String query, final Object... args) {
+        return Async.supply(this.executor, () -> this.operations.find(query, args));
+    }
+
+    /**
+     * Searches beans from SQL query.
+     * @param query the SQL query (not null)
+     * @param args the optional query arguments
+     * @return the future corresponding beans (not null)
+     */
+    public CompletableFuture<List<T>> findAll(final String query, final Object... args) {
+        return Async.supply(this.executor, () -> this.operations.findAll(query, args));
+    }
+
+    /**
+     * Scans the whole table as a parallel stream, split into partitions of ids each read with its own
+     * connection. The stream must be closed.
+     * @param partitions the number of partitions, usually the number of cores (&gt;0)
+     * @return the parallel stream of the beans, ordered by id (not null)
+     * @throws PersistenceException if SQL problem while reading the range of ids
+     * @throws UnsupportedOperationException if the DAO was not created by <code>JdbcFactory.dao</code>
+     */
+    public Stream<T> scan(final int partitions) throws PersistenceException {
+        return small().scan(this.ds, partitions);
+    }
+
+    /**
+     * Scans the whole table split into partitions of ids, each read with its own connection and handled on
+     * the executor. A partition is released as soon as its handler returns.
+     * @param partitions the maximum number of partitions (&gt;0)
+     * @param handler the handler of the partitions (not null)
+     * @return the future completed when all the partitions are handled, or with the first failure (not null)
+     * @throws UnsupportedOperationException if the DAO was not created by <code>JdbcFactory.dao</code>
+     */
+    public CompletableFuture<Void> scan(final int partitions, final PartitionHandler<T> handler) {
+        Objects.requireNonNull(handler, "handler is mandatory");
+        final SmallJdbcDao<T> small = small();
+        return Async.supply(this.executor, () -> small.partitions(this.ds, partitions)).thenCompose(streams -> {
+            final CompletableFuture<?>[] futures = new CompletableFuture<?>[streams.size()];
+            for (int i = 0; i < futures.length; i++) {
+                final int index = i;
+                final Stream<T> beans = streams.get(i);
+                futures[i] = Async.supply(this.executor, () -> {
+                    try (beans) {
+                        handler.handle(index, beans);
+                    } catch (UncheckedPersistenceException err) {
+                        throw err.getCause();
+                    }
+                    return null;
+                });
+            }
+            return CompletableFuture.allOf(futures);
+        });
+    }
+
+    /**
+     * Publishes the beans of a SQL query as they are read, honouring the demand of the subscribers. Each
+     * subscription reads the rows on the executor with its own connection, released on completion, error or
+     * cancellation.
+     * @param query the SQL query (not null)
+     * @param args the optional query arguments
+     * @return the publisher of the beans (not null)
+     * @throws UnsupportedOperationException if the DAO was not created by <code>JdbcFactory.dao</code>
+     */
+    public Flow.Publisher<T> publish(final String query, final Object... args) {
+        return small().publish(this.ds, this.executor, query, args);
+    }
+
+    /**
+     * Returns the DAO as created by <code>JdbcFactory.dao</code>.
+     * @return the DAO (not null)
+     * @throws UnsupportedOperationException if the DAO was not created by <code>JdbcFactory.dao</code>
+     */
+    private SmallJdbcDao<T> small() {
+        if (!(this.dao instanceof SmallJdbcDao)) {
+            throw new UnsupportedOperationException("The DAO must be created by JdbcFactory.dao");
+        }
+        return (SmallJdbcDao<T>) this.dao;
+    }
+
+}
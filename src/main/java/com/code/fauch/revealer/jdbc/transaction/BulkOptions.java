@@ -0,0 +1,149 @@
+/*
+ * Copyright 2021 Claire Fauch
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.code.fauch.revealer.jdbc.transaction;
+
+/**
+ * Immutable options of a bulk writer.
+ * Each <code>withXxx</code> method returns a copy of the options with the given value.
+ */
+public final class BulkOptions {
+
+    private static final BulkOptions DEFAULTS = new BulkOptions(4, 1_000, 3, 100L);
+
+    /**
+     * The number of chunks written concurrently (>0)
+     */
+    private final int parallelism;
+
+    /**
+     * The number of beans of a chunk (>0)
+     */
+    private final int chunkSize;
+
+    /**
+     * The maximum number of attempts to write a chunk (>0)
+     */
+    private final int maxAttempts;
+
+    /**
+     * The delay before the first retry of a chunk in milliseconds, doubled at each retry (>=0)
+     */
+    private final long retryDelayMillis;
+
+    /**
+     * Returns the default options: 4 chunks of 1000 beans written concurrently, each attempted up to 3 times.
+     * @return the default options (not null)
+     */
+    public static BulkOptions defaults() {
+        return DEFAULTS;
+    }
+
+    /**
+     * Constructor.
+     * @param parallelism the number of chunks written concurrently (>0)
+     * @param chunkSize the number of beans of a chunk (>0)
+     * @param maxAttempts the maximum number of attempts to write a chunk (>0)
+     * @param retryDelayMillis the delay before the first retry of a chunk in milliseconds (>=0)
+     */
+    private BulkOptions(final int parallelism, final int chunkSize, final int maxAttempts,
+                        final long retryDelayMillis) {
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("parallelism must be >0");
+        }
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("chunkSize must be >0");
+        }
+        if (maxAttempts <= 0) {
+            throw new IllegalArgumentException("maxAttempts must be >0");
+        }
+        if (retryDelayMillis < 0) {
+            throw new IllegalArgumentException("retryDelayMillis must be >=0");
+        }
+        this.parallelism = parallelism;
+        this.chunkSize = chunkSize;
+        this.maxAttempts = maxAttempts;
+        this.retryDelayMillis = retryDelayMillis;
+    }
+
+    /**
+     * Returns a copy of these options with the given number of chunks written concurrently, each on its
+     * own connection.
+     * @param value the number of chunks written concurrently (>0)
+     * @return the new options (not null)
+     */
+    public BulkOptions withParallelism(final int value) {
+        return new BulkOptions(value, this.chunkSize, this.maxAttempts, this.retryDelayMillis);
+    }
+
+    /**
+     * Returns a copy of these options with the given number of beans of a chunk.
+     * @param value the number of beans of a chunk (>0)
+     * @return the new options (not null)
+     */
+    public BulkOptions withChunkSize(final int value) {
+        return new BulkOptions(this.parallelism, value, this.maxAttempts, this.retryDelayMillis);
+    }
+
+    /**
+     * Returns a copy of these options with the given maximum number of attempts to write a chunk.
+     * @param value the maximum number of attempts (>0, 1 to never retry)
+     * @return the new options (not null)
+     */
+    public BulkOptions withMaxAttempts(final int value) {
+        return new BulkOptions(this.parallelism, this.chunkSize, value, this.retryDelayMillis);
+    }
+
+    /**
+     * Returns a copy of these options with the given delay before the first retry of a chunk.
+     * @param value the delay in milliseconds, doubled at each retry (>=0)
+     * @return the new options (not null)
+     */
+    public BulkOptions withRetryDelayMillis(final long value) {
+        return new BulkOptions(this.parallelism, this.chunkSize, this.maxAttempts, value);
+    }
+
+    /**
+     * Returns the number of chunks written concurrently.
+     * @return the number of chunks written concurrently (>0)
+     */
+    public int getParallelism() {
+        return this.parallelism;
+    }
+
+    /**
+     * Returns the number of beans of a chunk.
+     * @return the number of beans of a chunk (>0)
+     */
+    public int getChunkSize() {
+        return this.chunkSize;
+    }
+
+    /**
+     * Returns the maximum number of attempts to write a chunk.
+     * @return the maximum number of attempts (>0)
+     */
+    public int getMaxAttempts() {
+        return this.maxAttempts;
+    }
+
+    /**
+     * Returns the delay before the first retry of a chunk.
+     * @return the delay in milliseconds (>=0)
+     */
+    public long getRetryDelayMillis() {
+        return this.retryDelayMillis;
+    }
+
+}
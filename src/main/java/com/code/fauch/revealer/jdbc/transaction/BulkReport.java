@@ -0,0 +1,189 @@
+/*
+ * Copyright 2021 Claire Fauch
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.code.fauch.revealer.jdbc.transaction;
+
+import java.util.List;
+
+/**
+ * Immutable report of a bulk write.
+ *
+ * @param <T> the type of the bean
+ */
+public final class BulkReport<T> {
+
+    /**
+     * A chunk that could not be written.
+     *
+     * @param <T> the type of the bean
+     */
+    public static final class Failure<T> {
+
+        /**
+         * The index of the chunk in the written beans (>=0)
+         */
+        private final int index;
+
+        /**
+         * The beans of the chunk (not null)
+         */
+        private final List<T> beans;
+
+        /**
+         * The number of attempts (>0)
+         */
+        private final int attempts;
+
+        /**
+         * The error of the last attempt (not null)
+         */
+        private final Exception cause;
+
+        /**
+         * Constructor.
+         * @param index the index of the chunk (>=0)
+         * @param beans the beans of the chunk (not null)
+         * @param attempts the number of attempts (>0)
+         * @param cause the error of the last attempt (not null)
+         */
+        Failure(final int index, final List<T> beans, final int attempts, final Exception cause) {
+            this.index = index;
+            this.beans = List.copyOf(beans);
+            this.attempts = attempts;
+            this.cause = cause;
+        }
+
+        /**
+         * Returns the index of the chunk: the first chunk of the written beans is 0.
+         * @return the index of the chunk (>=0)
+         */
+        public int getIndex() {
+            return this.index;
+        }
+
+        /**
+         * Returns the beans of the chunk, none of them being written.
+         * @return the beans of the chunk (not null)
+         */
+        public List<T> getBeans() {
+            return this.beans;
+        }
+
+        /**
+         * Returns the number of attempts to write the chunk.
+         * @return the number of attempts (>0)
+         */
+        public int getAttempts() {
+            return this.attempts;
+        }
+
+        /**
+         * Returns the error of the last attempt.
+         * @return the error (not null)
+         */
+        public Exception getCause() {
+            return this.cause;
+        }
+
+    }
+
+    /**
+     * The number of written records (>=0)
+     */
+    private final long rows;
+
+    /**
+     * The number of chunks (>=0)
+     */
+    private final int chunks;
+
+    /**
+     * The chunks that could not be written, ordered by index (not null)
+     */
+    private final List<Failure<T>> failures;
+
+    /**
+     * The duration of the write in nanoseconds (>=0)
+     */
+    private final long elapsedNanos;
+
+    /**
+     * Constructor.
+     * @param rows the number of written records (>=0)
+     * @param chunks the number of chunks (>=0)
+     * @param failures the chunks that could not be written, ordered by index (not null)
+     * @param elapsedNanos the duration of the write in nanoseconds (>=0)
+     */
+    BulkReport(final long rows, final int chunks, final List<Failure<T>> failures, final long elapsedNanos) {
+        this.rows = rows;
+        this.chunks = chunks;
+        this.failures = List.copyOf(failures);
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    /**
+     * Returns the number of written records.
+     * @return the number of written records (>=0)
+     */
+    public long getRows() {
+        return this.rows;
+    }
+
+    /**
+     * Returns the number of chunks, written or not.
+     * @return the number of chunks (>=0)
+     */
+    public int getChunks() {
+        return this.chunks;
+    }
+
+    /**
+     * Returns the chunks that could not be written.
+     * @return the failed chunks ordered by index (not null, empty if all the chunks are written)
+     */
+    public List<Failure<T>> getFailures() {
+        return this.failures;
+    }
+
+    /**
+     * Determines whether all the chunks are written or not.
+     * @return true if all the chunks are written
+     */
+    public boolean isComplete() {
+        return this.failures.isEmpty();
+    }
+
+    /**
+     * Returns the duration of the write.
+     * @return the duration in nanoseconds (>=0)
+     */
+    public long getElapsedNanos() {
+        return this.elapsedNanos;
+    }
+
+    /**
+     * Returns the throughput of the write.
+     * @return the number of written records per second (>=0)
+     */
+    public double getRowsPerSecond() {
+        return this.elapsedNanos == 0 ? 0 : this.rows * 1_000_000_000.0 / this.elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d rows in %d chunks (%d failed) at %.0f rows/s", this.rows, this.chunks,
+                this.failures.size(), getRowsPerSecond());
+    }
+
+}
@@ -0,0 +1,230 @@
+/*
+ * Copyright 2021 Claire Fauch
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.code.fauch.revealer.jdbc.transaction;
+
+import com.code.fauch.revealer.IDao;
+import com.code.fauch.revealer.PersistenceException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * This class writes large numbers of beans concurrently.
+ * <p>
+ * The beans are split into chunks, read from the source as the chunks are written. Each chunk is inserted
+ * with the multi-records inserts of <code>insertAll</code>, within its own transaction on its own connection,
+ * several chunks being written concurrently. A failed chunk is rolled back and, when it failed on a serialization
+ * failure or a deadlock, attempted again after a delay; it is reported once all its attempts have failed, or at
+ * once for any other failure, without stopping the write of the other chunks.
+ * </p>
+ *
+ * @param <T> the type of the bean
+ */
+public final class BulkWriter<T> {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BulkWriter.class);
+
+    /**
+     * The write of a chunk, run within a transaction.
+     *
+     * @param <T> the type of the bean
+     */
+    interface Chunks<T> {
+        @Jdbc(transactional = true)
+        int insertAll(List<T> beans) throws PersistenceException;
+    }
+
+    /**
+     * The write of a chunk delegated to a DAO.
+     *
+     * @param <T> the type of the bean
+     */
+    private static final class Inserts<T> implements Chunks<T> {
+
+        /**
+         * The DAO (not null)
+         */
+        private final IDao<T> dao;
+
+        /**
+         * Constructor.
+         * @param dao the DAO (not null)
+         */
+        private Inserts(final IDao<T> dao) {
+            this.dao = dao;
+        }
+
+        @Override
+        public int insertAll(final List<T> beans) throws PersistenceException {
+            return this.dao.insertAll(beans);
+        }
+
+    }
+
+    /**
+     * The write of the chunks wrapped with transactions (not null)
+     */
+    private final Chunks<T> chunks;
+
+    /**
+     * The options (not null)
+     */
+    private final BulkOptions options;
+
+    /**
+     * Creates a bulk writer.
+     * @param ds the DataSource to use to create needed connections (not null)
+     * @param cls the class of the bean (not null)
+     * @param options the options of the writer (not null)
+     * @param <U> the type of the bean
+     * @return the just created writer (not null)
+     */
+    public static <U> BulkWriter<U> create(final DataSource ds, final Class<U> cls, final BulkOptions options) {
+        return create(ds, JdbcFactory.dao(cls), options);
+    }
+
+    /**
+     * Creates a bulk writer from a DAO created by <code>JdbcFactory</code>.
+     * @param ds the DataSource to use to create needed connections (not null)
+     * @param dao the DAO created by <code>JdbcFactory.dao</code> (not null)
+     * @param options the options of the writer (not null)
+     * @param <U> the type of the bean
+     * @return the just created writer (not null)
+     */
+    @SuppressWarnings("unchecked")
+    public static <U> BulkWriter<U> create(final DataSource ds, final IDao<U> dao, final BulkOptions options) {
+        Objects.requireNonNull(dao, "dao is mandatory");
+        return new BulkWriter<>(
+                (Chunks<U>) JdbcFactory.wrap(ds, new Inserts<>(dao)),
+                Objects.requireNonNull(options, "options is mandatory"));
+    }
+
+    /**
+     * Constructor.
+     * @param chunks the write of the chunks wrapped with transactions (not null)
+     * @param options the options (not null)
+     */
+    private BulkWriter(final Chunks<T> chunks, final BulkOptions options) {
+        this.chunks = chunks;
+        this.options = options;
+    }
+
+    /**
+     * Writes the beans of the given stream. The stream is consumed but not closed.
+     * @param beans the beans to write (not null)
+     * @return the report of the write (not null)
+     * @throws InterruptedException if interrupted while waiting for the chunks being written
+     */
+    public BulkReport<T> write(final Stream<? extends T> beans) throws InterruptedException {
+        return write(Objects.requireNonNull(beans, "beans is mandatory").iterator());
+    }
+
+    /**
+     * Writes the beans of the given iterator. The iterator is read on the calling thread, as the chunks are
+     * written: at most two chunks per connection are held in memory.
+     * @param beans the beans to write (not null)
+     * @return the report of the write (not null)
+     * @throws InterruptedException if interrupted while waiting for the chunks being written; the chunks not
+     * yet written are then abandoned
+     */
+    public BulkReport<T> write(final Iterator<? extends T> beans) throws InterruptedException {
+        Objects.requireNonNull(beans, "beans is mandatory");
+        final int slots = 2 * this.options.getParallelism();
+        final Semaphore pending = new Semaphore(slots);
+        final AtomicLong rows = new AtomicLong();
+        final List<BulkReport.Failure<T>> failures = Collections.synchronizedList(new ArrayList<>());
+        final ExecutorService executor = JdbcExecutors.bounded(this.options.getParallelism());
+        final long start = System.nanoTime();
+        int count = 0;
+        try {
+            while (beans.hasNext()) {
+                final List<T> chunk = new ArrayList<>(this.options.getChunkSize());
+                while (chunk.size() < this.options.getChunkSize() && beans.hasNext()) {
+                    chunk.add(beans.next());
+                }
+                final int index = count++;
+                pending.acquire();
+                executor.execute(() -> {
+                    try {
+                        write(index, chunk, rows, failures);
+                    } finally {
+                        pending.release();
+                    }
+                });
+            }
+            pending.acquire(slots);
+        } catch (InterruptedException err) {
+            executor.shutdownNow();
+            throw err;
+        } finally {
+            executor.shutdown();
+        }
+        failures.sort(Comparator.comparingInt(BulkReport.Failure::getIndex));
+        final BulkReport<T> report = new BulkReport<>(rows.get(), count, failures, System.nanoTime() - start);
+        LOGGER.info("Bulk write of {}", report);
+        return report;
+    }
+
+    /**
+     * Writes a chunk within a transaction, attempting it again after a delay doubled at each failure caused by a
+     * serialization failure or a deadlock (the SQL states retried by default by <code>@Jdbc</code>). Any other
+     * failure is reported at once.
+     * @param index the index of the chunk (&gt;=0)
+     * @param chunk the beans of the chunk (not null)
+     * @param rows the number of written records (not null)
+     * @param failures the failed chunks (not null)
+     */
+    private void write(final int index, final List<T> chunk, final AtomicLong rows,
+                       final List<BulkReport.Failure<T>> failures) {
+        long delay = this.options.getRetryDelayMillis();
+        int attempt = 1;
+        while (true) {
+            try {
+                rows.addAndGet(this.chunks.insertAll(chunk));
+                return;
+            } catch (PersistenceException | RuntimeException err) {
+                if (attempt >= this.options.getMaxAttempts() || err instanceof RuntimeException
+                        || !Delegate.isRetryable(err, Jdbc.SERIALIZATION_FAILURE, Jdbc.DEADLOCK_DETECTED)) {
+                    LOGGER.warn("Chunk {} of {} beans failed after {} attempt(s)", index, chunk.size(), attempt, err);
+                    failures.add(new BulkReport.Failure<>(index, chunk, attempt, err));
+                    return;
+                }
+                LOGGER.debug("Chunk {} failed on attempt {}, retrying in {} ms", index, attempt, delay, err);
+            }
+            try {
+                TimeUnit.MILLISECONDS.sleep(delay);
+            } catch (InterruptedException err) {
+                Thread.currentThread().interrupt();
+                failures.add(new BulkReport.Failure<>(index, chunk, attempt, err));
+                return;
+            }
+            delay = Math.min(delay * 2, TimeUnit.MINUTES.toMillis(1));
+            attempt++;
+        }
+    }
+
+}
@@ -0,0 +1,145 @@
+/*
+ * Copyright 2021 Claire Fauch
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.code.fauch.revealer.jdbc.transaction;
+
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * This class defines the cancellation token of an asynchronous call.
+ * <p>
+ * While the call runs, the statements created through <code>JdbcFactory</code> connections on its thread are
+ * registered in the token, so that cancelling the call cancels the running statements.
+ * </p>
+ */
+final class Cancellation {
+
+    /**
+     * The token of the call running on the current thread.
+     */
+    private static final ThreadLocal<Cancellation> CURRENT = new ThreadLocal<>();
+
+    /**
+     * The registered statements (not null)
+     */
+    private final List<Statement> statements = new ArrayList<>();
+
+    /**
+     * Whether the call is cancelled or not.
+     */
+    private boolean cancelled;
+
+    /**
+     * Returns the token of the call running on the current thread.
+     * @return the token or null if not within an asynchronous call
+     */
+    static Cancellation current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Runs an operation with the given token.
+     * @param token the token of the call (null to run out of any asynchronous call)
+     * @param operation the operation to run (not null)
+     * @param <V> the type of the result
+     * @return the result of the operation
+     * @throws Throwable the exception raised by the operation
+     */
+    static <V> V where(final Cancellation token, final Operation<V> operation) throws Throwable {
+        final Cancellation previous = CURRENT.get();
+        CURRENT.set(token);
+        try {
+            return operation.call();
+        } finally {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+            if (token != null) {
+                token.clear();
+            }
+        }
+    }
+
+    /**
+     * Registers a statement of the call; it is cancelled at once if the call is already cancelled.
+     * @param stmt the statement (not null)
+     */
+    void register(final Statement stmt) {
+        synchronized (this.statements) {
+            if (!this.cancelled) {
+                this.statements.add(stmt);
+                return;
+            }
+        }
+        cancel(stmt);
+    }
+
+    /**
+     * Cancels the call: all its registered statements are cancelled.
+     */
+    void cancel() {
+        final List<Statement> running;
+        synchronized (this.statements) {
+            this.cancelled = true;
+            running = new ArrayList<>(this.statements);
+            this.statements.clear();
+        }
+        running.forEach(Cancellation::cancel);
+    }
+
+    /**
+     * Forgets the registered statements at the end of the call.
+     */
+    private void clear() {
+        synchronized (this.statements) {
+            this.statements.clear();
+        }
+    }
+
+    /**
+     * Cancels a statement, ignoring the statements already closed.
+     * @param stmt the statement (not null)
+     */
+    private static void cancel(final Statement stmt) {
+        try {
+            if (!stmt.isClosed()) {
+                stmt.cancel();
+            }
+        } catch (SQLException err) {
+            //Statement closed in the meantime: nothing to cancel
+        }
+    }
+
+    /**
+     * Operation run with a token.
+     * @param <V> the type of the result
+     */
+    @FunctionalInterface
+    interface Operation<V> {
+
+        /**
+         * Runs the operation.
+         * @return the result
+         * @throws Throwable if something went wrong
+         */
+        V call() throws Throwable;
+
+    }
+
+}
@@ -0,0 +1,179 @@
+/*
+ * Copyright 2021 Claire Fauch
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.code.fauch.revealer.jdbc.transaction;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.Flow;
+
+/**
+ * Publisher of the items of several publishers, one after the other.
+ * <p>
+ * Each subscriber subscribes to the sources in order, the next one once the previous one is complete. The
+ * outstanding demand is carried over from one source to the next, and the signals are serialized by the
+ * subscription monitor.
+ * </p>
+ *
+ * @param <T> the type of the items
+ */
+final class ConcatPublisher<T> implements Flow.Publisher<T> {
+
+    /**
+     * The sources (not null)
+     */
+    private final List<Flow.Publisher<T>> sources;
+
+    /**
+     * Constructor.
+     * @param sources the sources in order (not null)
+     */
+    ConcatPublisher(final List<Flow.Publisher<T>> sources) {
+        this.sources = List.copyOf(sources);
+    }
+
+    @Override
+    public void subscribe(final Flow.Subscriber<? super T> subscriber) {
+        final Concat<T> concat = new Concat<>(Objects.requireNonNull(subscriber, "subscriber is mandatory"),
+                this.sources);
+        subscriber.onSubscribe(concat);
+        concat.next();
+    }
+
+    /**
+     * Subscription of one subscriber, subscribing in turn to each source.
+     *
+     * @param <T> the type of the items
+     */
+    private static final class Concat<T> implements Flow.Subscription, Flow.Subscriber<T> {
+
+        /**
+         * The subscriber (not null)
+         */
+        private final Flow.Subscriber<? super T> downstream;
+
+        /**
+         * The sources (not null)
+         */
+        private final List<Flow.Publisher<T>> sources;
+
+        /**
+         * The index of the next source.
+         */
+        private int index;
+
+        /**
+         * The subscription to the current source (null if not subscribed yet)
+         */
+        private Flow.Subscription upstream;
+
+        /**
+         * The outstanding demand.
+         */
+        private long demand;
+
+        /**
+         * Whether the subscription is terminated or not.
+         */
+        private boolean done;
+
+        /**
+         * Constructor.
+         * @param downstream the subscriber (not null)
+         * @param sources the sources (not null)
+         */
+        private Concat(final Flow.Subscriber<? super T> downstream, final List<Flow.Publisher<T>> sources) {
+            this.downstream = downstream;
+            this.sources = sources;
+        }
+
+        /**
+         * Subscribes to the next source, or completes if there is no more source.
+         */
+        private synchronized void next() {
+            if (this.done) {
+                return;
+            }
+            this.upstream = null;
+            if (this.index >= this.sources.size()) {
+                this.done = true;
+                this.downstream.onComplete();
+                return;
+            }
+            this.sources.get(this.index++).subscribe(this);
+        }
+
+        @Override
+        public synchronized void onSubscribe(final Flow.Subscription subscription) {
+            if (this.done) {
+                subscription.cancel();
+                return;
+            }
+            this.upstream = subscription;
+            if (this.demand > 0) {
+                subscription.request(this.demand);
+            }
+        }
+
+        @Override
+        public synchronized void onNext(final T item) {
+            if (this.done) {
+                return;
+            }
+            if (this.demand != Long.MAX_VALUE) {
+                this.demand--;
+            }
+            this.downstream.onNext(item);
+        }
+
+        @Override
+        public synchronized void onError(final Throwable throwable) {
+            if (!this.done) {
+                this.done = true;
+                this.downstream.onError(throwable);
+            }
+        }
+
+        @Override
+        public void onComplete() {
+            next();
+        }
+
+        @Override
+        public synchronized void request(final long n) {
+            if (this.done) {
+                return;
+            }
+            if (n <= 0) {
+                cancel();
+                this.downstream.onError(new IllegalArgumentException("n must be >0"));
+                return;
+            }
+            this.demand = this.demand + n < 0 ? Long.MAX_VALUE : this.demand + n;
+            if (this.upstream != null) {
+                this.upstream.request(n);
+            }
+        }
+
+        @Override
+        public synchronized void cancel() {
+            this.done = true;
+            if (this.upstream != null) {
+                this.upstream.cancel();
+            }
+        }
+
+    }
+
+}
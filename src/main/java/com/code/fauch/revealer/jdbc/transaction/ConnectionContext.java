@@ -0,0 +1,469 @@
+/*
+ * Copyright 2021 Claire Fauch
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.code.fauch.revealer.jdbc.transaction;
+
+import com.code.fauch.revealer.PersistenceException;
+import com.code.fauch.revealer.jdbc.dialect.Dialect;
+import com.code.fauch.revealer.jdbc.dialect.Dialects;
+import com.code.fauch.revealer.metrics.Metrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * This class defines the connection context of the current <code>@Jdbc</code> call.
+ * <p>
+ * A context is bound for the duration of an operation only (like a scoped value) and the previous binding
+ * is always restored when the operation ends, so nothing is left on the thread once the outermost call
+ * returns. This makes it safe to use with a large number of short living (virtual) threads.
+ * </p>
+ * <p>
+ * In lazy mode, the physical connection is only acquired on the first real jdbc operation and, out of
+ * a transaction, it is released as soon as its last statement is closed.
+ * A context is confined to the thread it is bound to.
+ * </p>
+ * <p>
+ * The autocommit, the transaction isolation and the read-only flag of the connection are only set when they
+ * change, and are restored as they were acquired when the connection is closed.
+ * </p>
+ */
+final class ConnectionContext {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ConnectionContext.class);
+
+    /**
+     * The context bound to the current thread (it may be unbound).
+     */
+    private static final ThreadLocal<ConnectionContext> CURRENT = new ThreadLocal<>();
+
+    /**
+     * Operation to run within a context.
+     *
+     * @param <V> the type of the result
+     */
+    @FunctionalInterface
+    interface Operation<V> {
+
+        /**
+         * Runs the operation.
+         * @return the result (it may be null)
+         * @throws SQLException if something went wrong during connection management
+         * @throws PersistenceException if something went wrong during method evaluation
+         */
+        V call() throws SQLException, PersistenceException;
+
+    }
+
+    /**
+     * The dialects of the data sources, resolved from the metadata of their first connection (not null)
+     */
+    private static final Map<DataSource, Dialect> DIALECTS = Collections.synchronizedMap(new WeakHashMap<>());
+
+    /**
+     * The data source the connection comes from (not null)
+     */
+    private final DataSource ds;
+
+    /**
+     * Whether the connection is acquired lazily or not.
+     */
+    private final boolean lazy;
+
+    /**
+     * Whether the connection is read-only or not.
+     */
+    private final boolean readOnly;
+
+    /**
+     * The transaction isolation applied to the connection (<code>Jdbc.DEFAULT_ISOLATION</code> to keep it)
+     */
+    private int isolation = Jdbc.DEFAULT_ISOLATION;
+
+    /**
+     * Whether the connection is switched to read-only for the call or not.
+     */
+    private boolean readOnlyHint;
+
+    /**
+     * The jdbc connection (null when not acquired yet in lazy mode)
+     */
+    private Connection connection;
+
+    /**
+     * The tracked state of the connection (null when not acquired yet in lazy mode)
+     */
+    private ConnectionState state;
+
+    /**
+     * The SQL dialect of the data source (null until resolved)
+     */
+    private Dialect dialect;
+
+    /**
+     * Whether a transaction is in progress or not.
+     */
+    private boolean transactional;
+
+    /**
+     * The number of open statements (lazy mode only).
+     */
+    private int openStatements;
+
+    /**
+     * Constructor.
+     * @param ds the data source the connection comes from (not null)
+     * @param connection the jdbc connection (null in lazy mode)
+     * @param lazy whether the connection is acquired lazily or not
+     * @param readOnly whether the connection is read-only or not
+     */
+    private ConnectionContext(final DataSource ds, final Connection connection, final boolean lazy,
+                              final boolean readOnly) {
+        this.ds = ds;
+        this.connection = connection;
+        this.state = connection == null ? null : new ConnectionState(connection);
+        this.lazy = lazy;
+        this.readOnly = readOnly;
+    }
+
+    /**
+     * Constructor of an eager context.
+     * @param ds the data source the connection comes from (not null)
+     * @param connection the already acquired jdbc connection (not null)
+     */
+    ConnectionContext(final DataSource ds, final Connection connection) {
+        this(ds, connection, false, false);
+    }
+
+    /**
+     * Constructor of an eager context.
+     * @param ds the data source the connection comes from (not null)
+     * @param connection the already acquired jdbc connection (not null)
+     * @param readOnly whether the connection is read-only or not
+     */
+    ConnectionContext(final DataSource ds, final Connection connection, final boolean readOnly) {
+        this(ds, connection, false, readOnly);
+    }
+
+    /**
+     * Creates a lazy context.
+     * @param ds the data source to acquire the connection from (not null)
+     * @return the just created context (not null)
+     */
+    static ConnectionContext lazy(final DataSource ds) {
+        return lazy(ds, false);
+    }
+
+    /**
+     * Creates a lazy context.
+     * @param ds the data source to acquire the connection from (not null)
+     * @param readOnly whether the connection is read-only or not
+     * @return the just created context (not null)
+     */
+    static ConnectionContext lazy(final DataSource ds, final boolean readOnly) {
+        return new ConnectionContext(ds, null, true, readOnly);
+    }
+
+    /**
+     * Gets a new connection from a data source and records the time spent.
+     * @param ds the data source (not null)
+     * @return the new connection (not null)
+     * @throws SQLException if the connection can't be acquired
+     */
+    static Connection acquire(final DataSource ds) throws SQLException {
+        return acquire(ds, false);
+    }
+
+    /**
+     * Gets a new connection from a data source and records the time spent. A read-only connection is
+     * switched to read-only unless it already is. A pool restoring the flag when the connection is released,
+     * the pools of read replicas should create their connections read-only (see
+     * <code>PoolOptions.withReadOnly</code>) so that it is not switched on every call.
+     * @param ds the data source (not null)
+     * @param readOnly whether the connection is read-only or not
+     * @return the new connection (not null)
+     * @throws SQLException if the connection can't be acquired
+     */
+    static Connection acquire(final DataSource ds, final boolean readOnly) throws SQLException {
+        final long start = System.nanoTime();
+        final Connection conn = ds.getConnection();
+        Metrics.get().connectionAcquired(System.nanoTime() - start);
+        if (readOnly) {
+            try {
+                if (!conn.isReadOnly()) {
+                    conn.setReadOnly(true);
+                }
+            } catch (SQLException err) {
+                conn.close();
+                throw err;
+            }
+        }
+        return conn;
+    }
+
+    /**
+     * Returns the context bound to the current thread.
+     * @return the current context or null if unbound
+     */
+    static ConnectionContext current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Runs the given operation with the given context bound, then restores the previous binding.
+     * @param ctx the context to bind (not null)
+     * @param operation the operation to run (not null)
+     * @param <V> the type of the result
+     * @return the result of the operation
+     * @throws SQLException if something went wrong during connection management
+     * @throws PersistenceException if something went wrong during method evaluation
+     */
+    static <V> V where(final ConnectionContext ctx, final Operation<V> operation)
+            throws SQLException, PersistenceException {
+        final ConnectionContext previous = CURRENT.get();
+        CURRENT.set(ctx);
+        try {
+            return operation.call();
+        } finally {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        }
+    }
+
+    /**
+     * Returns the data source the connection comes from.
+     * @return the data source (not null)
+     */
+    DataSource getDataSource() {
+        return this.ds;
+    }
+
+    /**
+     * Whether the connection is read-only or not.
+     * @return true if the connection is read-only
+     */
+    boolean isReadOnly() {
+        return this.readOnly;
+    }
+
+    /**
+     * Returns the transaction isolation applied to the connection.
+     * @return the transaction isolation or <code>Jdbc.DEFAULT_ISOLATION</code> if the connection keeps its own
+     */
+    int getIsolation() {
+        return this.isolation;
+    }
+
+    /**
+     * Whether the connection is switched to read-only for the call or not.
+     * @return true if switched to read-only
+     */
+    boolean isReadOnlyHint() {
+        return this.readOnlyHint;
+    }
+
+    /**
+     * Applies the transaction isolation and the read-only flag of a call to the connection, now or when it is
+     * acquired. It must be called before any transaction is started.
+     * @param isolation the transaction isolation (<code>Jdbc.DEFAULT_ISOLATION</code> to keep the one of the
+     *                  connection)
+     * @param readOnly whether the connection is switched to read-only or not
+     * @throws SQLException if the connection can't be configured
+     */
+    void configure(final int isolation, final boolean readOnly) throws SQLException {
+        this.isolation = isolation;
+        this.readOnlyHint = readOnly;
+        if (this.state != null) {
+            apply(this.state);
+        }
+    }
+
+    /**
+     * Whether the connection is acquired lazily or not.
+     * @return true in lazy mode
+     */
+    boolean isLazy() {
+        return this.lazy;
+    }
+
+    /**
+     * Returns the jdbc connection, acquiring it first if needed.
+     * @return the jdbc connection (not null)
+     * @throws SQLException if the connection can't be acquired
+     */
+    Connection getConnection() throws SQLException {
+        if (this.connection == null) {
+            LOGGER.debug("Opening jdbc connection (lazy)...");
+            final Connection conn = acquire(this.ds, this.readOnly);
+            final ConnectionState acquired = new ConnectionState(conn);
+            try {
+                apply(acquired);
+                if (this.transactional) {
+                    acquired.setAutoCommit(false);
+                }
+            } catch (SQLException err) {
+                try {
+                    acquired.restore();
+                } finally {
+                    conn.close();
+                }
+                throw err;
+            }
+            this.connection = conn;
+            this.state = acquired;
+        }
+        return this.connection;
+    }
+
+    /**
+     * Returns the SQL dialect of the data source. The metadata of the connection is only read the first time
+     * a connection of the data source asks for it.
+     * @return the dialect (not null)
+     * @throws SQLException if the connection can't be acquired or its metadata can't be read
+     */
+    Dialect getDialect() throws SQLException {
+        if (this.dialect == null) {
+            Dialect resolved = DIALECTS.get(this.ds);
+            if (resolved == null) {
+                resolved = Dialects.of(getConnection().getMetaData());
+                DIALECTS.put(this.ds, resolved);
+            }
+            this.dialect = resolved;
+        }
+        return this.dialect;
+    }
+
+    /**
+     * Returns the tracked state of the connection, acquiring it first if needed.
+     * @return the state of the connection (not null)
+     * @throws SQLException if the connection can't be acquired
+     */
+    ConnectionState getState() throws SQLException {
+        getConnection();
+        return this.state;
+    }
+
+    /**
+     * Returns the jdbc connection only if it is already acquired.
+     * @return the jdbc connection or null if not acquired
+     */
+    Connection getAcquiredConnection() {
+        return this.connection;
+    }
+
+    /**
+     * Whether a transaction is in progress or not.
+     * @return true if a transaction is in progress
+     */
+    boolean isTransactional() {
+        return this.transactional;
+    }
+
+    /**
+     * Starts a transaction: the autocommit of the connection is disabled now, or when it is acquired.
+     * @throws SQLException if the autocommit can't be changed
+     */
+    void begin() throws SQLException {
+        if (this.state != null) {
+            this.state.setAutoCommit(false);
+        }
+        this.transactional = true;
+    }
+
+    /**
+     * Ends the transaction: the autocommit of the connection is restored as it was acquired, then the
+     * connection is released if it is no more used (lazy mode).
+     * @throws SQLException if the autocommit can't be changed
+     */
+    void end() throws SQLException {
+        this.transactional = false;
+        if (this.state != null) {
+            try {
+                this.state.restoreAutoCommit();
+            } finally {
+                releaseIfIdle();
+            }
+        }
+    }
+
+    /**
+     * Notifies the opening of a statement (lazy mode).
+     */
+    void statementOpened() {
+        this.openStatements++;
+    }
+
+    /**
+     * Notifies the closing of a statement: the connection is released if it is no more used (lazy mode).
+     * @throws SQLException if the connection can't be released
+     */
+    void statementClosed() throws SQLException {
+        this.openStatements--;
+        releaseIfIdle();
+    }
+
+    /**
+     * Closes the connection if any, after restoring its state.
+     * @throws SQLException if the connection can't be restored or closed
+     */
+    void close() throws SQLException {
+        if (this.connection != null) {
+            final Connection conn = this.connection;
+            final ConnectionState acquired = this.state;
+            this.connection = null;
+            this.state = null;
+            LOGGER.debug("Closing jdbc connection...");
+            try {
+                acquired.restore();
+            } finally {
+                conn.close();
+            }
+        }
+    }
+
+    /**
+     * Applies the transaction isolation and the read-only flag of the call to a connection.
+     * @param target the state of the connection (not null)
+     * @throws SQLException if the connection can't be configured
+     */
+    private void apply(final ConnectionState target) throws SQLException {
+        if (this.readOnlyHint) {
+            target.setReadOnly(true);
+        }
+        if (this.isolation != Jdbc.DEFAULT_ISOLATION) {
+            target.setTransactionIsolation(this.isolation);
+        }
+    }
+
+    /**
+     * Releases the connection in lazy mode when it is no more used by a statement or a transaction.
+     * @throws SQLException if the connection can't be released
+     */
+    private void releaseIfIdle() throws SQLException {
+        if (this.lazy && !this.transactional && this.openStatements <= 0) {
+            this.openStatements = 0;
+            close();
+        }
+    }
+
+}
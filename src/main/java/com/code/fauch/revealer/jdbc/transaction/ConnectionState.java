@@ -0,0 +1,147 @@
+/*
+ * Copyright 2021 Claire Fauch
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.code.fauch.revealer.jdbc.transaction;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * This class tracks the autocommit, the transaction isolation and the read-only flag of a jdbc connection.
+ * <p>
+ * Each value is read from the connection the first time it is changed, and is only set when it really
+ * changes: switching a connection to a value it already has does not cost a round trip to the database.
+ * The values are restored as they were when the connection was acquired before giving it back to its
+ * data source, only for those that have changed.
+ * </p>
+ */
+final class ConnectionState {
+
+    /**
+     * The tracked connection (not null)
+     */
+    private final Connection connection;
+
+    /**
+     * The current autocommit (null if not read yet)
+     */
+    private Boolean autoCommit;
+
+    /**
+     * The autocommit of the acquired connection.
+     */
+    private boolean initialAutoCommit;
+
+    /**
+     * The current transaction isolation (null if not read yet)
+     */
+    private Integer isolation;
+
+    /**
+     * The transaction isolation of the acquired connection.
+     */
+    private int initialIsolation;
+
+    /**
+     * The current read-only flag (null if not read yet)
+     */
+    private Boolean readOnly;
+
+    /**
+     * The read-only flag of the acquired connection.
+     */
+    private boolean initialReadOnly;
+
+    /**
+     * Constructor.
+     * @param connection the just acquired connection to track (not null)
+     */
+    ConnectionState(final Connection connection) {
+        this.connection = connection;
+    }
+
+    /**
+     * Sets the autocommit of the connection if it changes.
+     * @param value the autocommit
+     * @throws SQLException if the autocommit can't be read or changed
+     */
+    void setAutoCommit(final boolean value) throws SQLException {
+        if (this.autoCommit == null) {
+            this.initialAutoCommit = this.connection.getAutoCommit();
+            this.autoCommit = this.initialAutoCommit;
+        }
+        if (this.autoCommit != value) {
+            this.connection.setAutoCommit(value);
+            this.autoCommit = value;
+        }
+    }
+
+    /**
+     * Sets the transaction isolation of the connection if it changes.
+     * @param value the transaction isolation, one of the <code>Connection.TRANSACTION_XXX</code> constants
+     * @throws SQLException if the transaction isolation can't be read or changed
+     */
+    void setTransactionIsolation(final int value) throws SQLException {
+        if (this.isolation == null) {
+            this.initialIsolation = this.connection.getTransactionIsolation();
+            this.isolation = this.initialIsolation;
+        }
+        if (this.isolation != value) {
+            this.connection.setTransactionIsolation(value);
+            this.isolation = value;
+        }
+    }
+
+    /**
+     * Sets the read-only flag of the connection if it changes.
+     * @param value the read-only flag
+     * @throws SQLException if the read-only flag can't be read or changed
+     */
+    void setReadOnly(final boolean value) throws SQLException {
+        if (this.readOnly == null) {
+            this.initialReadOnly = this.connection.isReadOnly();
+            this.readOnly = this.initialReadOnly;
+        }
+        if (this.readOnly != value) {
+            this.connection.setReadOnly(value);
+            this.readOnly = value;
+        }
+    }
+
+    /**
+     * Restores the autocommit of the acquired connection, if it has changed.
+     * @throws SQLException if the autocommit can't be changed
+     */
+    void restoreAutoCommit() throws SQLException {
+        if (this.autoCommit != null) {
+            setAutoCommit(this.initialAutoCommit);
+        }
+    }
+
+    /**
+     * Restores the values of the acquired connection, only those that have changed: the autocommit first,
+     * then the read-only flag and the transaction isolation, which can't be changed within a transaction.
+     * @throws SQLException if a value can't be changed
+     */
+    void restore() throws SQLException {
+        restoreAutoCommit();
+        if (this.readOnly != null) {
+            setReadOnly(this.initialReadOnly);
+        }
+        if (this.isolation != null) {
+            setTransactionIsolation(this.initialIsolation);
+        }
+    }
+
+}
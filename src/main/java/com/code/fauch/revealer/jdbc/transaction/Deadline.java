@@ -0,0 +1,185 @@
+/*
+ * Copyright 2021 Claire Fauch
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.code.fauch.revealer.jdbc.transaction;
+
+import com.code.fauch.revealer.PersistenceException;
+
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This class defines the deadline of the jdbc operations of the current thread.
+ * <p>
+ * A deadline is set for the duration of a task with <code>within</code>, or for the duration of a
+ * <code>@Jdbc(timeoutMillis = ...)</code> method. Nested deadlines never extend the current one. Within a
+ * deadline, the statements created through the connection of a <code>@Jdbc</code> method (directly with
+ * <code>JdbcFactory.connection()</code> or by a DAO) get a query timeout of the remaining time, are cancelled
+ * as soon as the deadline passes or the thread is interrupted, and can't be created anymore once the deadline
+ * has passed: they fail with a <code>SQLTimeoutException</code>.
+ * </p>
+ * <pre>
+ *     final List&lt;User&gt; users = Deadline.within(500L, () -&gt; service.findAll());
+ * </pre>
+ */
+public final class Deadline {
+
+    /**
+     * The deadline of the current thread (it may be unset).
+     */
+    private static final ThreadLocal<Deadline> CURRENT = new ThreadLocal<>();
+
+    /**
+     * Task to run within a deadline.
+     *
+     * @param <V> the type of the result
+     */
+    @FunctionalInterface
+    public interface Task<V> {
+
+        /**
+         * Runs the task.
+         * @return the result (it may be null)
+         * @throws PersistenceException if something went wrong
+         */
+        V call() throws PersistenceException;
+
+    }
+
+    /**
+     * The time the deadline passes, in <code>System.nanoTime</code> units.
+     */
+    private final long expiry;
+
+    /**
+     * Constructor.
+     * @param expiry the time the deadline passes, in <code>System.nanoTime</code> units
+     */
+    private Deadline(final long expiry) {
+        this.expiry = expiry;
+    }
+
+    /**
+     * Runs a task within a deadline, or within the current deadline if it passes first.
+     * @param timeoutMillis the time given to the task in milliseconds (&gt;0)
+     * @param task the task to run (not null)
+     * @param <V> the type of the result
+     * @return the result of the task
+     * @throws PersistenceException if the task failed, or timed out
+     */
+    public static <V> V within(final long timeoutMillis, final Task<V> task) throws PersistenceException {
+        Objects.requireNonNull(task, "task is mandatory");
+        if (timeoutMillis <= 0) {
+            throw new IllegalArgumentException("timeoutMillis must be >0");
+        }
+        try {
+            return where(after(timeoutMillis), task::call);
+        } catch (SQLException err) {
+            throw new PersistenceException(err);
+        }
+    }
+
+    /**
+     * Returns the time left before the deadline of the current thread.
+     * @return the remaining time in milliseconds (&gt;=0), or <code>Long.MAX_VALUE</code> without deadline
+     */
+    public static long remainingMillis() {
+        final Deadline deadline = CURRENT.get();
+        if (deadline == null) {
+            return Long.MAX_VALUE;
+        }
+        return TimeUnit.NANOSECONDS.toMillis(Math.max(0L, deadline.remainingNanos()));
+    }
+
+    /**
+     * Returns the deadline of the current thread.
+     * @return the deadline or null if unset
+     */
+    static Deadline current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Returns the deadline passing after the given time, or the current one if it passes first.
+     * @param timeoutMillis the time in milliseconds (&gt;0)
+     * @return the deadline (not null)
+     */
+    static Deadline after(final long timeoutMillis) {
+        final Deadline deadline = new Deadline(System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis));
+        final Deadline current = CURRENT.get();
+        return current != null && current.expiry - deadline.expiry < 0 ? current : deadline;
+    }
+
+    /**
+     * Runs the given operation with the given deadline set, then restores the previous one.
+     * @param deadline the deadline to set (null to run without deadline)
+     * @param operation the operation to run (not null)
+     * @param <V> the type of the result
+     * @return the result of the operation
+     * @throws SQLException if something went wrong during connection management
+     * @throws PersistenceException if something went wrong during method evaluation
+     */
+    static <V> V where(final Deadline deadline, final ConnectionContext.Operation<V> operation)
+            throws SQLException, PersistenceException {
+        final Deadline previous = CURRENT.get();
+        CURRENT.set(deadline);
+        try {
+            return operation.call();
+        } finally {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        }
+    }
+
+    /**
+     * Returns the time left before this deadline.
+     * @return the remaining time in nanoseconds (negative once passed)
+     */
+    long remainingNanos() {
+        return this.expiry - System.nanoTime();
+    }
+
+    /**
+     * Whether this deadline has passed or not.
+     * @return true if passed
+     */
+    boolean isExpired() {
+        return remainingNanos() <= 0;
+    }
+
+    /**
+     * Fails if this deadline has passed.
+     * @throws SQLTimeoutException if the deadline has passed
+     */
+    void check() throws SQLTimeoutException {
+        if (isExpired()) {
+            throw new SQLTimeoutException("Deadline exceeded");
+        }
+    }
+
+    /**
+     * Returns the query timeout of a statement created now.
+     * @return the remaining time in seconds, rounded up (&gt;0)
+     */
+    int getQueryTimeoutSeconds() {
+        final long seconds = (Math.max(0L, remainingNanos()) + 999_999_999L) / 1_000_000_000L;
+        return (int) Math.max(1L, Math.min(Integer.MAX_VALUE, seconds));
+    }
+
+}
@@ -18,6 +18,7 @@ import com.code.fauch.revealer.PersistenceException;
 
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.sql.SQLException;
 
 /**
  * This class defines an object that encapsulate information to invoke method by reflection.
@@ -66,6 +67,14 @@ final class Delegate {
         }
     }
 
+    /**
+     * Returns the name of the invoked method.
+     * @return the name of the method prefixed by the simple name of its class (not null)
+     */
+    String getName() {
+        return this.method.getDeclaringClass().getSimpleName() + "." + this.method.getName();
+    }
+
     /**
      * Determines whether this method need jdbc connection or not.
      * @return true if jdbc connection is needed, else false.
@@ -82,4 +91,100 @@ final class Delegate {
         return this.method.getAnnotation(Jdbc.class).transactional();
     }
 
+    /**
+     * Determines whether this method only reads or not: its connection is then read-only.
+     * @return true if the method is read-only, else false.
+     */
+    boolean isReadOnly() {
+        return this.method.getAnnotation(Jdbc.class).readOnly();
+    }
+
+    /**
+     * Determines whether this method may run on a replica or not.
+     * @return true if the method is read-only and not transactional, else false.
+     */
+    boolean isReplicable() {
+        final Jdbc jdbc = this.method.getAnnotation(Jdbc.class);
+        return jdbc.readOnly() && !jdbc.transactional();
+    }
+
+    /**
+     * Returns the transaction isolation of this method.
+     * @return one of the <code>Connection.TRANSACTION_XXX</code> constants or <code>Jdbc.DEFAULT_ISOLATION</code>
+     */
+    int getIsolation() {
+        return this.method.getAnnotation(Jdbc.class).isolation();
+    }
+
+    /**
+     * Determines whether this method may be committed in a group with other calls or not.
+     * @return true if the method is transactional and accepts the group commit, else false.
+     */
+    boolean isGroupCommit() {
+        final Jdbc jdbc = this.method.getAnnotation(Jdbc.class);
+        return jdbc.groupCommit() && jdbc.transactional();
+    }
+
+    /**
+     * Returns the time given to this method.
+     * @return the time in milliseconds, 0 or less without deadline
+     */
+    long getTimeoutMillis() {
+        return this.method.getAnnotation(Jdbc.class).timeoutMillis();
+    }
+
+    /**
+     * Returns the maximum number of attempts of this method.
+     * @return the maximum number of attempts of a transactional method, 1 for the other methods (>0)
+     */
+    int getMaxAttempts() {
+        final Jdbc jdbc = this.method.getAnnotation(Jdbc.class);
+        return jdbc.transactional() ? Math.max(1, jdbc.maxAttempts()) : 1;
+    }
+
+    /**
+     * Returns the delay before the second attempt of this method.
+     * @return the delay in milliseconds (>=0)
+     */
+    long getRetryDelayMillis() {
+        return Math.max(0L, this.method.getAnnotation(Jdbc.class).retryDelayMillis());
+    }
+
+    /**
+     * Determines whether a failure of this method may be retried or not.
+     * @param err the failure (not null)
+     * @return true if the failure is caused by a SQL exception with one of the retryable SQL states, else false.
+     */
+    boolean isRetryable(final Throwable err) {
+        return isRetryable(err, this.method.getAnnotation(Jdbc.class).retryOn());
+    }
+
+    /**
+     * Determines whether a failure is caused by a SQL exception with one of the given SQL states or not.
+     * @param err the failure (not null)
+     * @param states the retryable SQL states or classes of SQL states, matched as prefixes (not null)
+     * @return true if the failure is caused by a SQL exception with one of the SQL states, else false.
+     */
+    static boolean isRetryable(final Throwable err, final String... states) {
+        for (Throwable cause = err; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLException) {
+                final String state = ((SQLException) cause).getSQLState();
+                for (String retryable : states) {
+                    if (state != null && state.startsWith(retryable)) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Determines whether the jdbc connection of this method is acquired lazily or not.
+     * @return true if the connection is acquired on the first jdbc operation, else false.
+     */
+    boolean isLazy() {
+        return this.method.getAnnotation(Jdbc.class).lazy();
+    }
+
 }
@@ -0,0 +1,104 @@
+/*
+ * Copyright 2021 Claire Fauch
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.code.fauch.revealer.jdbc.transaction;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Immutable options of the group commit of the <code>@Jdbc(transactional = true, groupCommit = true)</code> methods.
+ * Each <code>withXxx</code> method returns a copy of the options with the given value.
+ */
+public final class GroupCommit {
+
+    private static final GroupCommit DEFAULTS = new GroupCommit(1_000L, 64);
+
+    /**
+     * The time a group waits for other calls in microseconds (>=0)
+     */
+    private final long windowMicros;
+
+    /**
+     * The maximum number of calls of a group (>0)
+     */
+    private final int maxCalls;
+
+    /**
+     * Returns the default options: groups of at most 64 calls, waiting 1 ms for other calls.
+     * @return the default options (not null)
+     */
+    public static GroupCommit defaults() {
+        return DEFAULTS;
+    }
+
+    /**
+     * Constructor.
+     * @param windowMicros the time a group waits for other calls in microseconds (>=0)
+     * @param maxCalls the maximum number of calls of a group (>0)
+     */
+    private GroupCommit(final long windowMicros, final int maxCalls) {
+        if (windowMicros < 0) {
+            throw new IllegalArgumentException("windowMicros must be >=0");
+        }
+        if (maxCalls <= 0) {
+            throw new IllegalArgumentException("maxCalls must be >0");
+        }
+        this.windowMicros = windowMicros;
+        this.maxCalls = maxCalls;
+    }
+
+    /**
+     * Returns a copy of these options with the given time a group waits for other calls. A group is committed
+     * as soon as it is full, or when the window ends: a call alone waits the whole window.
+     * @param value the window in microseconds (>=0)
+     * @return the new options (not null)
+     */
+    public GroupCommit withWindowMicros(final long value) {
+        return new GroupCommit(value, this.maxCalls);
+    }
+
+    /**
+     * Returns a copy of these options with the given maximum number of calls of a group.
+     * @param value the maximum number of calls (>0)
+     * @return the new options (not null)
+     */
+    public GroupCommit withMaxCalls(final int value) {
+        return new GroupCommit(this.windowMicros, value);
+    }
+
+    /**
+     * Returns the time a group waits for other calls.
+     * @return the window in microseconds (>=0)
+     */
+    public long getWindowMicros() {
+        return this.windowMicros;
+    }
+
+    /**
+     * Returns the maximum number of calls of a group.
+     * @return the maximum number of calls (>0)
+     */
+    public int getMaxCalls() {
+        return this.maxCalls;
+    }
+
+    /**
+     * Returns the window in nanoseconds.
+     * @return the window in nanoseconds (>=0)
+     */
+    long getWindowNanos() {
+        return TimeUnit.MICROSECONDS.toNanos(this.windowMicros);
+    }
+
+}
@@ -0,0 +1,425 @@
+/*
+ * Copyright 2021 Claire Fauch
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.code.fauch.revealer.jdbc.transaction;
+
+import com.code.fauch.revealer.PersistenceException;
+import com.code.fauch.revealer.jfr.TransactionEvent;
+import com.code.fauch.revealer.metrics.Metrics;
+import com.code.fauch.revealer.metrics.SlowQueryLog;
+import com.code.fauch.revealer.tracing.Span;
+import com.code.fauch.revealer.tracing.Tracing;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.sql.Savepoint;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This class runs the <code>@Jdbc(transactional = true, groupCommit = true)</code> calls of a wrapped service
+ * in groups.
+ * <p>
+ * The first call waiting becomes the leader of a group: it waits for other calls during the window, or until
+ * the group is full, then runs all the calls of the group one after the other on its own thread, with one
+ * connection and within one transaction, and commits them together. Each call runs after a savepoint and a
+ * failed call is rolled back to its savepoint, so it fails alone. If the commit fails, all the calls fail.
+ * All the calls of a group commit have the same isolation and read-only flag, applied to the connection of
+ * each group.
+ * The calls waiting when the group starts are led by one of them, in another group.
+ * </p>
+ * <p>
+ * Each call runs with the cancellation token, the active span and the deadline of its own caller, so
+ * cancelling an asynchronous call only cancels its own statements, each call is traced under its own caller
+ * and its statements are timed out on its own deadline. A call still waiting for its group when its deadline
+ * passes is withdrawn and fails with a <code>SQLTimeoutException</code>.
+ * </p>
+ */
+final class GroupCommitter {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(GroupCommitter.class);
+
+    /**
+     * A call waiting for its group.
+     */
+    private static final class Call {
+
+        private static final int PENDING = 0;
+        private static final int PROMOTED = 1;
+        private static final int DONE = 2;
+        private static final int EXPIRED = 3;
+
+        /**
+         * The method call (not null)
+         */
+        private final Delegate delegate;
+
+        /**
+         * The cancellation token of the caller (null out of any asynchronous call)
+         */
+        private final Cancellation cancellation;
+
+        /**
+         * The active span of the caller (it may be null)
+         */
+        private final Span span;
+
+        /**
+         * The deadline of the caller (null if none)
+         */
+        private final Deadline deadline;
+
+        /**
+         * The state of the call.
+         */
+        private int state = PENDING;
+
+        /**
+         * The result of the call (it may be null)
+         */
+        private Object result;
+
+        /**
+         * The failure of the call (null if succeeded)
+         */
+        private Throwable error;
+
+        /**
+         * Constructor, on the thread of the caller.
+         * @param delegate the method call (not null)
+         */
+        private Call(final Delegate delegate) {
+            this.delegate = delegate;
+            this.cancellation = Cancellation.current();
+            this.span = Tracing.active();
+            this.deadline = Deadline.current();
+        }
+
+        /**
+         * Runs the method call with the cancellation token, the active span and the deadline of its caller, the
+         * method being the caller of its slow statements.
+         * @return the result of the method call (it may be null)
+         * @throws PersistenceException if the method call failed
+         */
+        private Object eval() throws PersistenceException {
+            try (Tracing.Scope scope = Tracing.activate(this.span);
+                 SlowQueryLog.Scope caller = SlowQueryLog.enter(this.delegate.getName())) {
+                return Cancellation.where(this.cancellation, () -> Deadline.where(this.deadline, () -> {
+                    if (this.deadline != null) {
+                        this.deadline.check();
+                    }
+                    return this.delegate.eval();
+                }));
+            } catch (PersistenceException | RuntimeException | Error err) {
+                throw err;
+            } catch (Throwable err) {
+                throw new PersistenceException(err);
+            }
+        }
+
+        /**
+         * Waits until the call is done or its caller is promoted leader, or until its deadline if timed.
+         * @param timed whether the wait ends at the deadline of the call or not
+         * @return DONE, PROMOTED or EXPIRED
+         * @throws InterruptedException if interrupted while waiting
+         */
+        private synchronized int await(final boolean timed) throws InterruptedException {
+            while (this.state == PENDING) {
+                if (!timed || this.deadline == null) {
+                    wait();
+                } else {
+                    final long remaining = this.deadline.remainingNanos();
+                    if (remaining <= 0) {
+                        return EXPIRED;
+                    }
+                    TimeUnit.NANOSECONDS.timedWait(this, remaining);
+                }
+            }
+            final int current = this.state;
+            if (current == PROMOTED) {
+                this.state = PENDING;
+            }
+            return current;
+        }
+
+        /**
+         * Promotes the caller leader of the next group.
+         */
+        private synchronized void promote() {
+            if (this.state == PENDING) {
+                this.state = PROMOTED;
+                notifyAll();
+            }
+        }
+
+        /**
+         * Determines whether the caller is promoted and not yet leading.
+         * @return true if promoted
+         */
+        private synchronized boolean isPromoted() {
+            return this.state == PROMOTED;
+        }
+
+        /**
+         * Completes the call.
+         * @param result the result (it may be null)
+         * @param error the failure (null if succeeded)
+         */
+        private synchronized void complete(final Object result, final Throwable error) {
+            this.result = result;
+            this.error = error;
+            this.state = DONE;
+            notifyAll();
+        }
+
+    }
+
+    /**
+     * The data source of the connections (not null)
+     */
+    private final DataSource ds;
+
+    /**
+     * The options (not null)
+     */
+    private final GroupCommit options;
+
+    /**
+     * The transaction isolation of the calls (<code>Jdbc.DEFAULT_ISOLATION</code> to keep the one of the
+     * connection)
+     */
+    private final int isolation;
+
+    /**
+     * Whether the calls only read or not.
+     */
+    private final boolean readOnly;
+
+    /**
+     * The calls waiting for a group (not null)
+     */
+    private final ArrayDeque<Call> pending = new ArrayDeque<>();
+
+    /**
+     * Whether a caller leads or is promoted to lead the next group.
+     */
+    private boolean leading;
+
+    /**
+     * Constructor.
+     * @param ds the data source of the connections (not null)
+     * @param options the options (not null)
+     * @param isolation the transaction isolation of the calls (<code>Jdbc.DEFAULT_ISOLATION</code> to keep the
+     *                  one of the connection)
+     * @param readOnly whether the calls only read or not
+     */
+    GroupCommitter(final DataSource ds, final GroupCommit options, final int isolation, final boolean readOnly) {
+        this.ds = ds;
+        this.options = options;
+        this.isolation = isolation;
+        this.readOnly = readOnly;
+    }
+
+    /**
+     * Runs a call within a group and returns its result once the group is committed.
+     * @param delegate the method call (not null)
+     * @return the result of the method call
+     * @throws SQLException if the connection or the transaction of the group failed
+     * @throws SQLTimeoutException if the deadline of the call passes before the call is run
+     * @throws PersistenceException if the method call failed or if interrupted before the call is run
+     */
+    Object submit(final Delegate delegate) throws SQLException, PersistenceException {
+        final Call call = new Call(delegate);
+        boolean lead;
+        synchronized (this) {
+            this.pending.add(call);
+            lead = !this.leading;
+            this.leading = true;
+            if (this.pending.size() >= this.options.getMaxCalls()) {
+                notifyAll();
+            }
+        }
+        boolean interrupted = false;
+        boolean timed = true;
+        while (true) {
+            if (lead) {
+                lead(call);
+            }
+            final int state;
+            try {
+                state = call.await(timed);
+            } catch (InterruptedException err) {
+                if (withdraw(call)) {
+                    Thread.currentThread().interrupt();
+                    throw new PersistenceException(err);
+                }
+                interrupted = true;
+                lead = false;
+                continue;
+            }
+            if (state == Call.DONE) {
+                break;
+            }
+            if (state == Call.EXPIRED) {
+                if (withdraw(call)) {
+                    throw new SQLTimeoutException("Deadline exceeded while waiting for a group commit");
+                }
+                timed = false;
+                lead = false;
+                continue;
+            }
+            lead = true;
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        if (call.error instanceof SQLException) {
+            throw (SQLException) call.error;
+        }
+        if (call.error instanceof PersistenceException) {
+            throw (PersistenceException) call.error;
+        }
+        if (call.error instanceof RuntimeException) {
+            throw (RuntimeException) call.error;
+        }
+        if (call.error instanceof Error) {
+            throw (Error) call.error;
+        }
+        return call.result;
+    }
+
+    /**
+     * Removes a call not yet in a group, handing over its leadership if it was promoted.
+     * @param call the call (not null)
+     * @return true if removed, false if the call is already in a group
+     */
+    private synchronized boolean withdraw(final Call call) {
+        if (!this.pending.remove(call)) {
+            return false;
+        }
+        if (call.isPromoted()) {
+            handOver();
+        }
+        return true;
+    }
+
+    /**
+     * Hands the leadership over to the first waiting call, if any.
+     */
+    private void handOver() {
+        if (this.pending.isEmpty()) {
+            this.leading = false;
+        } else {
+            this.pending.peek().promote();
+        }
+    }
+
+    /**
+     * Waits for the group to fill during the window, or until the deadline of the leading call, then runs it.
+     * @param leader the call of the leader (not null)
+     */
+    private void lead(final Call leader) {
+        final List<Call> group = new ArrayList<>();
+        synchronized (this) {
+            long window = this.options.getWindowNanos();
+            if (leader.deadline != null) {
+                window = Math.min(window, Math.max(0L, leader.deadline.remainingNanos()));
+            }
+            final long deadline = System.nanoTime() + window;
+            long remaining = deadline - System.nanoTime();
+            while (this.pending.size() < this.options.getMaxCalls() && remaining > 0) {
+                try {
+                    TimeUnit.NANOSECONDS.timedWait(this, remaining);
+                } catch (InterruptedException err) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+                remaining = deadline - System.nanoTime();
+            }
+            while (group.size() < this.options.getMaxCalls() && !this.pending.isEmpty()) {
+                group.add(this.pending.poll());
+            }
+            handOver();
+        }
+        run(group);
+    }
+
+    /**
+     * Runs the calls of a group within one transaction, each after its own savepoint, and completes them
+     * whatever happens.
+     * @param group the calls (not null, not empty)
+     */
+    private void run(final List<Call> group) {
+        final TransactionEvent event = new TransactionEvent();
+        event.begin();
+        final long start = System.nanoTime();
+        final Object[] results = new Object[group.size()];
+        final Throwable[] errors = new Throwable[group.size()];
+        Throwable failure = null;
+        try {
+            final Connection conn = ConnectionContext.acquire(this.ds);
+            final ConnectionContext ctx = new ConnectionContext(this.ds, conn);
+            try {
+                ConnectionContext.where(ctx, () -> {
+                    ctx.configure(this.isolation, this.readOnly);
+                    ctx.begin();
+                    try {
+                        for (int i = 0; i < group.size(); i++) {
+                            final Savepoint savepoint = conn.setSavepoint();
+                            try {
+                                results[i] = group.get(i).eval();
+                            } catch (Throwable err) {
+                                conn.rollback(savepoint);
+                                errors[i] = err;
+                            }
+                        }
+                        conn.commit();
+                    } catch (SQLException err) {
+                        try {
+                            conn.rollback();
+                        } catch (SQLException e) {
+                            LOGGER.warn("Unable to rollback the group transaction", e);
+                        }
+                        throw err;
+                    } finally {
+                        ctx.end();
+                    }
+                    return null;
+                });
+            } finally {
+                ctx.close();
+            }
+        } catch (Throwable err) {
+            failure = err;
+        } finally {
+            Metrics.get().transactionEnded(System.nanoTime() - start, failure == null);
+            event.complete("groupCommit", failure == null);
+            LOGGER.debug("Group of {} calls {}", group.size(), failure == null ? "committed" : "rolled back");
+            for (int i = 0; i < group.size(); i++) {
+                if (failure != null && errors[i] == null) {
+                    group.get(i).complete(null, new PersistenceException(failure));
+                } else {
+                    group.get(i).complete(results[i], errors[i]);
+                }
+            }
+        }
+    }
+
+}
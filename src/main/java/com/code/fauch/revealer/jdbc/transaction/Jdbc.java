@@ -22,9 +22,48 @@ import java.lang.annotation.Target;
 /**
  * Used this annotation to specify that the method need a database connection and
  * <code>transactional=true</code> to specify that the method need to be running within transaction.
+ * With <code>lazy=true</code>, the connection is only acquired on the first jdbc operation and, out of a
+ * transaction, it is released as soon as each statement is closed.
+ * With <code>readOnly=true</code>, the method only reads: its connection is switched to read-only and, unless it
+ * is transactional, a service wrapped with replicas runs it on a read-only connection of one of the replicas.
+ * With <code>isolation</code>, one of the <code>Connection.TRANSACTION_XXX</code> constants, the transaction
+ * isolation of the connection is changed for the method.
+ * Both are applied when the connection is opened, by the outermost <code>@Jdbc</code> method: nested methods
+ * share its connection as is.
+ * With <code>groupCommit=true</code>, a transactional method called out of any <code>@Jdbc</code> method joins
+ * a group of concurrent calls sharing one transaction, see <code>GroupCommit</code>.
+ * With <code>maxAttempts&gt;1</code>, a transactional method called out of any <code>@Jdbc</code> method is run
+ * again on a new transaction when it fails with one of the <code>retryOn</code> SQL states (or classes of SQL
+ * states, matched as prefixes), waiting an exponential backoff with jitter starting at
+ * <code>retryDelayMillis</code> between the attempts.
+ * With <code>timeoutMillis&gt;0</code>, the method runs within a deadline, see <code>Deadline</code>.
  */
 @Retention(RetentionPolicy.RUNTIME)
 @Target(ElementType.METHOD)
 public @interface Jdbc {
+
+    /**
+     * The isolation value keeping the transaction isolation of the connection.
+     */
+    int DEFAULT_ISOLATION = -1;
+
+    /**
+     * The SQL state of a serialization failure, retried by default.
+     */
+    String SERIALIZATION_FAILURE = "40001";
+
+    /**
+     * The SQL state of a detected deadlock (PostgreSQL), retried by default.
+     */
+    String DEADLOCK_DETECTED = "40P01";
+
     boolean transactional();
+    boolean lazy() default false;
+    boolean readOnly() default false;
+    int isolation() default DEFAULT_ISOLATION;
+    boolean groupCommit() default false;
+    long timeoutMillis() default 0L;
+    int maxAttempts() default 1;
+    long retryDelayMillis() default 10L;
+    String[] retryOn() default {SERIALIZATION_FAILURE, DEADLOCK_DETECTED};
 }
@@ -0,0 +1,89 @@
+/*
+ * Copyright 2021 Claire Fauch
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.code.fauch.revealer.jdbc.transaction;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Factory of the executors running the asynchronous jdbc calls.
+ */
+public final class JdbcExecutors {
+
+    /**
+     * No constructor.
+     */
+    private JdbcExecutors() {
+        //Nothing to do
+    }
+
+    /**
+     * Determines whether virtual threads are available on this runtime.
+     * @return true if virtual threads are available
+     */
+    public static boolean isVirtualAvailable() {
+        try {
+            Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return true;
+        } catch (NoSuchMethodException err) {
+            return false;
+        }
+    }
+
+    /**
+     * Creates an executor running each call on a new virtual thread. The number of concurrent calls is then
+     * bounded by the pool of connections only.
+     * @return the executor (not null)
+     * @throws UnsupportedOperationException if virtual threads are not available on this runtime
+     */
+    public static ExecutorService virtual() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException err) {
+            throw new UnsupportedOperationException("Virtual threads are not available on this runtime", err);
+        }
+    }
+
+    /**
+     * Creates an executor running the calls on a fixed number of daemon threads.
+     * @param threads the number of threads, usually the size of the pool of connections (&gt;0)
+     * @return the executor (not null)
+     */
+    public static ExecutorService bounded(final int threads) {
+        if (threads <= 0) {
+            throw new IllegalArgumentException("threads must be >0");
+        }
+        final AtomicInteger count = new AtomicInteger();
+        final ThreadFactory factory = task -> {
+            final Thread thread = new Thread(task, "revealer-async-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        return Executors.newFixedThreadPool(threads, factory);
+    }
+
+    /**
+     * Creates an executor running each call on a virtual thread when available, otherwise on a fixed number
+     * of daemon threads.
+     * @param threads the number of threads without virtual threads (&gt;0)
+     * @return the executor (not null)
+     */
+    public static ExecutorService virtualOrBounded(final int threads) {
+        return isVirtualAvailable() ? virtual() : bounded(threads);
+    }
+
+}
@@ -16,18 +16,38 @@ package com.code.fauch.revealer.jdbc.transaction;
 
 import com.code.fauch.revealer.IDao;
 import com.code.fauch.revealer.PersistenceException;
+import com.code.fauch.revealer.id.IdGenerator;
 import com.code.fauch.revealer.jdbc.BeanRWFactory;
 import com.code.fauch.revealer.jdbc.SmallJdbcDao;
+import com.code.fauch.revealer.jdbc.WarmUp;
+import com.code.fauch.revealer.jdbc.dialect.Dialect;
+import com.code.fauch.revealer.jfr.SessionEvent;
+import com.code.fauch.revealer.jfr.TransactionEvent;
+import com.code.fauch.revealer.metrics.Metrics;
+import com.code.fauch.revealer.metrics.SlowQueryLog;
+import com.code.fauch.revealer.tracing.Span;
+import com.code.fauch.revealer.tracing.Tracing;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.sql.DataSource;
 import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.lang.reflect.Proxy;
 import java.sql.Connection;
+import java.sql.PreparedStatement;
 import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadLocalRandom;
 
 /**
  * Main factory to build DAO and service wrappers.
@@ -36,7 +56,15 @@ public final class JdbcFactory {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(JdbcFactory.class);
 
-    private static final ThreadLocal<Connection> CURRENT_CONNECTION = ThreadLocal.withInitial(()->null);
+    /**
+     * The number of synthetic mapping iterations of the warm-up, enough to get the hot paths compiled.
+     */
+    private static final int WARM_UP_ITERATIONS = 20_000;
+
+    /**
+     * The maximum delay between two attempts of a method call in milliseconds.
+     */
+    private static final long MAX_RETRY_DELAY_MILLIS = 60_000L;
 
     /**
      * Private inner object used to manage database connection creation.
@@ -49,6 +77,21 @@ public final class JdbcFactory {
          */
         private final DataSource ds;
 
+        /**
+         * The router of the read-only calls to the replicas (null if no replica)
+         */
+        private final ReplicaRouter replicas;
+
+        /**
+         * The options of the group commit of the calls to the primary (not null)
+         */
+        private final GroupCommit groupCommit;
+
+        /**
+         * The group commits of the calls to the primary, by isolation and read-only flag (not null)
+         */
+        private final ConcurrentMap<Integer, GroupCommitter> groupCommitters = new ConcurrentHashMap<>();
+
         /**
          * The object database transaction management (not null).
          */
@@ -57,33 +100,171 @@ public final class JdbcFactory {
         /**
          * Constructor.
          * @param ds the DataSource to build database connection (not null)
+         * @param replicas the router of the read-only calls to the replicas (null if no replica)
+         * @param groupCommit the options of the group commit (not null)
          * @param next the object used to manage transaction (not null)
          */
-        private Session(final DataSource ds, final Transaction next) {
+        private Session(final DataSource ds, final ReplicaRouter replicas, final GroupCommit groupCommit,
+                        final Transaction next) {
             this.ds = ds;
+            this.replicas = replicas;
+            this.groupCommit = groupCommit;
             this.next = next;
         }
 
         /**
-         * Evaluate the given method call.
+         * Evaluate the given method call, within its deadline if any.
          * @param delegate the method call object (not null)
          * @return the result of the method call.
          * @throws SQLException If something went wrong during database connection open/close
          * @throws PersistenceException if something went wrong during method evaluation
          */
         Object eval(final Delegate delegate) throws SQLException, PersistenceException {
-            if (CURRENT_CONNECTION.get() == null && delegate.needConnection()) {
-                try(Connection conn = ds.getConnection()) {
-                    LOGGER.info("Opening jdbc connection...");
-                    CURRENT_CONNECTION.set(conn);
-                    return this.next.eval(delegate);
-                } finally {
-                    LOGGER.info("Closing jdbc connection...");
-                    CURRENT_CONNECTION.remove();
+            if (!delegate.needConnection()) {
+                return delegate.eval();
+            }
+            final Span span = Tracing.start(delegate.getName());
+            span.setAttribute(Span.LAZY, delegate.isLazy());
+            try (Tracing.Scope scope = Tracing.activate(span);
+                 SlowQueryLog.Scope caller = SlowQueryLog.enter(delegate.getName())) {
+                final long timeoutMillis = delegate.getTimeoutMillis();
+                if (timeoutMillis > 0) {
+                    return Deadline.where(Deadline.after(timeoutMillis), () -> open(delegate));
+                }
+                return open(delegate);
+            } catch (SQLException | PersistenceException | RuntimeException err) {
+                span.setError(err);
+                throw err;
+            } finally {
+                span.end();
+            }
+        }
+
+        /**
+         * Evaluate the given <code>@Jdbc</code> method call within a connection, opening it if needed: on a
+         * replica for a read-only call, otherwise on the primary, shared with other calls for a group commit.
+         * A new call failing with a retryable SQL state is run again, on a new connection, until its maximum
+         * number of attempts or its deadline. A new call fails at once if its deadline has passed.
+         * @param delegate the method call object (not null)
+         * @return the result of the method call.
+         * @throws SQLException If something went wrong during database connection open/close
+         * @throws PersistenceException if something went wrong during method evaluation
+         */
+        private Object open(final Delegate delegate) throws SQLException, PersistenceException {
+            if (ConnectionContext.current() == null) {
+                final Deadline deadline = Deadline.current();
+                if (deadline != null) {
+                    deadline.check();
+                }
+                final int maxAttempts = delegate.getMaxAttempts();
+                for (int attempt = 1; ; attempt++) {
+                    try {
+                        return route(delegate);
+                    } catch (SQLException | PersistenceException err) {
+                        if (attempt >= maxAttempts || !delegate.isRetryable(err)
+                                || deadline != null && deadline.isExpired()) {
+                            throw err;
+                        }
+                        Metrics.get().transactionRetried(delegate.getName(), attempt);
+                        backoff(delegate, attempt, err);
+                    }
                 }
             }
             return delegate.eval();
         }
+
+        /**
+         * Evaluate the given new <code>@Jdbc</code> method call within a new connection.
+         * @param delegate the method call object (not null)
+         * @return the result of the method call.
+         * @throws SQLException If something went wrong during database connection open/close
+         * @throws PersistenceException if something went wrong during method evaluation
+         */
+        private Object route(final Delegate delegate) throws SQLException, PersistenceException {
+            if (delegate.isGroupCommit()) {
+                return groupCommitter(delegate).submit(delegate);
+            }
+            if (this.replicas != null && delegate.isReplicable()) {
+                final int replica = this.replicas.acquire();
+                try {
+                    return open(this.replicas.get(replica), true, delegate);
+                } finally {
+                    this.replicas.release(replica);
+                }
+            }
+            return open(this.ds, false, delegate);
+        }
+
+        /**
+         * Returns the group commit of the calls with the same isolation and read-only flag as the given one:
+         * they share the connection of their group.
+         * @param delegate the method call object (not null)
+         * @return the group commit (not null)
+         */
+        private GroupCommitter groupCommitter(final Delegate delegate) {
+            final int isolation = delegate.getIsolation();
+            final boolean readOnly = delegate.isReadOnly();
+            return this.groupCommitters.computeIfAbsent(isolation * 2 + (readOnly ? 1 : 0),
+                    key -> new GroupCommitter(this.ds, this.groupCommit, isolation, readOnly));
+        }
+
+        /**
+         * Waits before the next attempt of a method call: an exponential backoff, from the retry delay of the
+         * method up to one minute, with jitter to spread the concurrent attempts.
+         * @param delegate the method call object (not null)
+         * @param attempt the number of the failed attempt (>0)
+         * @param cause the failure of the attempt (not null)
+         * @throws PersistenceException if interrupted while waiting
+         */
+        private static void backoff(final Delegate delegate, final int attempt, final Exception cause)
+                throws PersistenceException {
+            final long ceiling = Math.min(MAX_RETRY_DELAY_MILLIS,
+                    delegate.getRetryDelayMillis() << Math.min(attempt - 1, 16));
+            final long delay = ThreadLocalRandom.current().nextLong(ceiling / 2, ceiling + 1);
+            LOGGER.debug("Attempt {} of {} failed, retrying in {} ms", attempt, delegate.getName(), delay);
+            try {
+                Thread.sleep(delay);
+            } catch (InterruptedException err) {
+                Thread.currentThread().interrupt();
+                final PersistenceException failure = new PersistenceException(err);
+                failure.addSuppressed(cause);
+                throw failure;
+            }
+        }
+
+        /**
+         * Evaluate the given <code>@Jdbc</code> method call within a new connection.
+         * @param source the DataSource of the connection (not null)
+         * @param readOnly whether the connection is read-only or not
+         * @param delegate the method call object (not null)
+         * @return the result of the method call.
+         * @throws SQLException If something went wrong during database connection open/close
+         * @throws PersistenceException if something went wrong during method evaluation
+         */
+        private Object open(final DataSource source, final boolean readOnly, final Delegate delegate)
+                throws SQLException, PersistenceException {
+            final SessionEvent event = new SessionEvent();
+            event.begin();
+            try {
+                final ConnectionContext ctx;
+                if (delegate.isLazy()) {
+                    ctx = ConnectionContext.lazy(source, readOnly);
+                } else {
+                    LOGGER.debug("Opening jdbc connection...");
+                    ctx = new ConnectionContext(source, ConnectionContext.acquire(source, readOnly), readOnly);
+                }
+                try {
+                    return ConnectionContext.where(ctx, () -> {
+                        ctx.configure(delegate.getIsolation(), delegate.isReadOnly());
+                        return this.next.eval(delegate);
+                    });
+                } finally {
+                    ctx.close();
+                }
+            } finally {
+                event.complete(delegate.getName(), delegate.isLazy());
+            }
+        }
     }
 
     /**
@@ -100,26 +281,43 @@ public final class JdbcFactory {
          * @throws PersistenceException if something went wrong during method evaluation
          */
         Object eval(final Delegate delegate) throws SQLException, PersistenceException {
-            final Connection conn = CURRENT_CONNECTION.get();
-            if (conn.getAutoCommit() && delegate.needTransaction()) {
-                try {
-                    LOGGER.info("Starting jdbc transaction...");
-                    conn.setAutoCommit(false);
+            final ConnectionContext ctx = ConnectionContext.current();
+            if (!ctx.isTransactional() && delegate.needTransaction()) {
+                final TransactionEvent event = new TransactionEvent();
+                event.begin();
+                final Span span = Tracing.start("transaction");
+                final long start = System.nanoTime();
+                boolean committed = false;
+                try (Tracing.Scope scope = Tracing.activate(span)) {
+                    LOGGER.debug("Starting jdbc transaction...");
+                    ctx.begin();
                     final Object result = delegate.eval();
-                    LOGGER.info("Committing jdbc transaction...");
-                    conn.commit();
+                    final Connection conn = ctx.getAcquiredConnection();
+                    if (conn != null) {
+                        LOGGER.debug("Committing jdbc transaction...");
+                        conn.commit();
+                    }
+                    committed = true;
                     return result;
                 } catch (SQLException | PersistenceException err) {
-                    try {
-                        LOGGER.info("Rollback of the jdbc transaction");
-                        conn.rollback();
-                    } catch (SQLException e) {
-                        LOGGER.warn("Unable to rollback the current jdbc transaction", e);
+                    final Connection conn = ctx.getAcquiredConnection();
+                    if (conn != null) {
+                        try {
+                            LOGGER.debug("Rollback of the jdbc transaction");
+                            conn.rollback();
+                        } catch (SQLException e) {
+                            LOGGER.warn("Unable to rollback the current jdbc transaction", e);
+                        }
                     }
+                    span.setError(err);
                     throw err;
                 } finally {
-                    conn.setAutoCommit(true);
-                    LOGGER.info("End of jdbc transaction");
+                    ctx.end();
+                    Metrics.get().transactionEnded(System.nanoTime() - start, committed);
+                    event.complete(delegate.getName(), committed);
+                    span.setAttribute(Span.COMMITTED, committed);
+                    span.end();
+                    LOGGER.debug("End of jdbc transaction");
                 }
             }
             return delegate.eval();
@@ -129,12 +327,237 @@ public final class JdbcFactory {
 
     /**
      * Private inner invocation handler used to route the database connection on the one on the current thread.
+     * Within an asynchronous call, the created statements are registered for cancellation. In lazy mode, the
+     * connection is acquired on the first call and the created statements are tracked to release the
+     * connection as soon as possible. When probed, the prepared statements are timed for
+     * the slow query log. The changes of autocommit, transaction isolation and read-only flag go through the
+     * tracked state of the connection, to be skipped when they change nothing and restored on release.
+     * Within a deadline, the statements get a query timeout of the remaining time and are watched while they
+     * run; they can't be created once the deadline has passed. Unwrapped as a <code>Dialect</code>, it gives
+     * the dialect of the data source, resolved once per data source.
      */
     private static final class CurrentConnection implements InvocationHandler {
 
+        /**
+         * Whether the prepared statements are timed or not.
+         */
+        private final boolean probed;
+
+        /**
+         * Constructor.
+         * @param probed whether the prepared statements are timed or not
+         */
+        private CurrentConnection(final boolean probed) {
+            this.probed = probed;
+        }
+
         @Override
-        public Object invoke(Object o, Method method, Object[] args) throws PersistenceException {
-            return new Delegate(CURRENT_CONNECTION.get(), method, args).eval();
+        public Object invoke(Object o, Method method, Object[] args) throws Throwable {
+            final ConnectionContext ctx = ConnectionContext.current();
+            if (ctx == null) {
+                throw new IllegalStateException("No jdbc connection: the call is not made within a @Jdbc method");
+            }
+            switch (method.getName()) {
+                case "setAutoCommit":
+                    ctx.getState().setAutoCommit((Boolean) args[0]);
+                    return null;
+                case "setTransactionIsolation":
+                    ctx.getState().setTransactionIsolation((Integer) args[0]);
+                    return null;
+                case "setReadOnly":
+                    ctx.getState().setReadOnly((Boolean) args[0]);
+                    return null;
+                case "isWrapperFor":
+                    if (args[0] == Dialect.class) {
+                        return true;
+                    }
+                    break;
+                case "unwrap":
+                    if (args[0] == Dialect.class) {
+                        return ctx.getDialect();
+                    }
+                    break;
+                default:
+                    break;
+            }
+            final Deadline deadline = Deadline.current();
+            if (deadline != null && (method.getName().startsWith("prepare")
+                    || "createStatement".equals(method.getName()))) {
+                deadline.check();
+            }
+            final Object result = call(ctx.getConnection(), method, args);
+            if (deadline != null && result instanceof Statement) {
+                try {
+                    ((Statement) result).setQueryTimeout(deadline.getQueryTimeoutSeconds());
+                } catch (SQLException err) {
+                    ((Statement) result).close();
+                    throw err;
+                }
+            }
+            final Cancellation cancellation = Cancellation.current();
+            if (cancellation != null && result instanceof Statement) {
+                cancellation.register((Statement) result);
+            }
+            final String sql = this.probed && result instanceof PreparedStatement
+                    && (SlowQueryLog.isEnabled() || Tracing.isEnabled()) ? (String) args[0] : null;
+            if ((ctx.isLazy() || deadline != null) && result instanceof Statement || sql != null) {
+                if (ctx.isLazy()) {
+                    ctx.statementOpened();
+                }
+                return Proxy.newProxyInstance(
+                        JdbcFactory.class.getClassLoader(),
+                        new Class[]{method.getReturnType()},
+                        new TrackedStatement(ctx.isLazy() ? ctx : null, (Statement) result, sql, deadline));
+            }
+            return result;
+        }
+
+    }
+
+    /**
+     * Private inner invocation handler used to notify the lazy context of the closing of a statement,
+     * to time and trace the executions of a prepared statement and to watch the executions within a deadline.
+     */
+    private static final class TrackedStatement implements InvocationHandler {
+
+        /**
+         * The lazy context the statement comes from (null if not lazy)
+         */
+        private final ConnectionContext ctx;
+
+        /**
+         * The real statement (not null)
+         */
+        private final Statement stmt;
+
+        /**
+         * The SQL of the prepared statement (null if not timed)
+         */
+        private final String sql;
+
+        /**
+         * The deadline of the statement (null if none)
+         */
+        private final Deadline deadline;
+
+        /**
+         * The bound parameters by index (not null)
+         */
+        private final List<Object> params = new ArrayList<>();
+
+        /**
+         * Whether the statement is closed or not.
+         */
+        private boolean closed;
+
+        /**
+         * Constructor.
+         * @param ctx the lazy context the statement comes from (null if not lazy)
+         * @param stmt the real statement (not null)
+         * @param sql the SQL of the prepared statement (null if not timed)
+         * @param deadline the deadline of the statement (null if none)
+         */
+        private TrackedStatement(final ConnectionContext ctx, final Statement stmt, final String sql,
+                                 final Deadline deadline) {
+            this.ctx = ctx;
+            this.stmt = stmt;
+            this.sql = sql;
+            this.deadline = deadline;
+        }
+
+        @Override
+        public Object invoke(Object o, Method method, Object[] args) throws Throwable {
+            final String name = method.getName();
+            if (this.ctx != null && "close".equals(name)) {
+                if (!this.closed) {
+                    this.closed = true;
+                    try {
+                        this.stmt.close();
+                    } finally {
+                        this.ctx.statementClosed();
+                    }
+                }
+                return null;
+            }
+            if (this.sql != null) {
+                if (name.startsWith("execute") && (args == null || args.length == 0)) {
+                    return execute(method);
+                }
+                if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer) {
+                    bind((Integer) args[0], "setNull".equals(name) ? null : args[1]);
+                } else if ("clearParameters".equals(name)) {
+                    this.params.clear();
+                }
+            }
+            if (this.deadline != null && name.startsWith("execute")) {
+                return watch(method, args);
+            }
+            return call(this.stmt, method, args);
+        }
+
+        /**
+         * Executes the prepared statement within a span and reports its execution time to the slow query log.
+         * @param method the execute method (not null)
+         * @return the result of the execution
+         * @throws Throwable the exception raised by the execution
+         */
+        private Object execute(final Method method) throws Throwable {
+            final Span span = Tracing.start(method.getName());
+            final long start = System.nanoTime();
+            long rows = -1;
+            try {
+                final Object result = this.deadline == null ? call(this.stmt, method, null) : watch(method, null);
+                if (result instanceof Number) {
+                    rows = ((Number) result).longValue();
+                }
+                return result;
+            } catch (Throwable err) {
+                span.setError(err);
+                throw err;
+            } finally {
+                SlowQueryLog.report(this.sql, this.params.toArray(), rows, System.nanoTime() - start);
+                span.setAttribute(Span.SQL, this.sql);
+                span.setAttribute(Span.ROWS, rows);
+                span.end();
+            }
+        }
+
+        /**
+         * Executes the statement within its deadline: it fails at once if the deadline has passed and it is
+         * cancelled as soon as the deadline passes or the thread is interrupted.
+         * @param method the execute method (not null)
+         * @param args the method arguments (it may be null)
+         * @return the result of the execution
+         * @throws Throwable the exception raised by the execution
+         */
+        private Object watch(final Method method, final Object[] args) throws Throwable {
+            this.deadline.check();
+            final Watchdog.Watch watch = Watchdog.watch(this.stmt, this.deadline);
+            try {
+                return call(this.stmt, method, args);
+            } catch (SQLException err) {
+                if (!watch.isCancelled()) {
+                    throw err;
+                }
+                if (this.deadline.isExpired()) {
+                    throw new SQLTimeoutException("Deadline exceeded", err.getSQLState(), err);
+                }
+                throw new SQLException("Statement cancelled on interrupt", err.getSQLState(), err);
+            } finally {
+                watch.close();
+            }
+        }
+
+        /**
+         * Keeps a bound parameter.
+         * @param index the index of the parameter (starting at 1)
+         * @param value the value of the parameter
+         */
+        private void bind(final int index, final Object value) {
+            while (this.params.size() < index) {
+                this.params.add(null);
+            }
+            this.params.set(index - 1, value);
         }
 
     }
@@ -177,6 +600,22 @@ public final class JdbcFactory {
 
     }
 
+    /**
+     * Invokes a method on a jdbc object and rethrows the original exception if any.
+     * @param target the jdbc object (not null)
+     * @param method the method to invoke (not null)
+     * @param args the method arguments (it may be null)
+     * @return the result (it may be null)
+     * @throws Throwable the exception raised by the method
+     */
+    private static Object call(final Object target, final Method method, final Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException err) {
+            throw err.getCause();
+        }
+    }
+
     /**
      * No constructor.
      */
@@ -189,10 +628,70 @@ public final class JdbcFactory {
      * @return a connection redirection (not null)
      */
     public static Connection connection() {
+        return connection(true);
+    }
+
+    /**
+     * Returns a proxy of the jdbc connection of the current thread.
+     * @param probed whether the prepared statements are timed or not
+     * @return the proxy (not null)
+     */
+    private static Connection connection(final boolean probed) {
         return (Connection) Proxy.newProxyInstance(
                 JdbcFactory.class.getClassLoader(),
                 new Class[]{Connection.class},
-                new JdbcFactory.CurrentConnection());
+                new JdbcFactory.CurrentConnection(probed));
+    }
+
+    /**
+     * Creates a subtask of the current <code>@Jdbc</code> method.
+     * <p>
+     * The returned task may be submitted to any executor (platform or virtual threads, structured task scope...).
+     * When it runs, it gets its own connection from the data source of the calling method, so DAO and
+     * wrapped services used by the subtask don't share the connection of the caller.
+     * The subtask is never part of the transaction of the caller, but its trace spans are children of the
+     * span of the caller, its slow statements are logged as statements of the caller, and it keeps the deadline,
+     * the isolation and the read-only flag of the caller.
+     * </p>
+     * @param task the task to run (not null)
+     * @param <V> the type of the result
+     * @return the subtask to submit (not null)
+     * @throws IllegalStateException if not called from a <code>@Jdbc</code> method
+     */
+    public static <V> Callable<V> fork(final Callable<V> task) {
+        Objects.requireNonNull(task, "task is mandatory");
+        final ConnectionContext ctx = ConnectionContext.current();
+        if (ctx == null) {
+            throw new IllegalStateException("fork is only available within a @Jdbc method");
+        }
+        final DataSource ds = ctx.getDataSource();
+        final boolean readOnly = ctx.isReadOnly();
+        final int isolation = ctx.getIsolation();
+        final boolean readOnlyHint = ctx.isReadOnlyHint();
+        final Deadline deadline = Deadline.current();
+        final Span parent = Tracing.active();
+        final String caller = SlowQueryLog.caller();
+        return () -> {
+            try (Tracing.Scope scope = Tracing.activate(parent);
+                 SlowQueryLog.Scope callerScope = SlowQueryLog.enter(caller)) {
+                final ConnectionContext forked = new ConnectionContext(ds, ConnectionContext.acquire(ds, readOnly),
+                        readOnly);
+                try {
+                    return Deadline.where(deadline, () -> ConnectionContext.where(forked, () -> {
+                        forked.configure(isolation, readOnlyHint);
+                        try {
+                            return task.call();
+                        } catch (SQLException | PersistenceException | RuntimeException err) {
+                            throw err;
+                        } catch (Exception err) {
+                            throw new PersistenceException(err);
+                        }
+                    }));
+                } finally {
+                    forked.close();
+                }
+            }
+        };
     }
 
     /**
@@ -204,7 +703,66 @@ public final class JdbcFactory {
     public static <U> IDao<U> dao(final Class<U> cls) {
         return new SmallJdbcDao<>(
                 BeanRWFactory.from(cls),
-                connection());
+                connection(false));
+    }
+
+    /**
+     * Creates a DAO to persist bean of the given class whose ids are generated by the client.
+     * @param cls the class of the bean (not null)
+     * @param idGenerator the generator of the ids of the inserted beans (not null)
+     * @param <U> the type of the bean
+     * @return the corresponding DAO (not null)
+     */
+    public static <U> IDao<U> dao(final Class<U> cls, final IdGenerator idGenerator) {
+        return new SmallJdbcDao<>(
+                BeanRWFactory.from(cls, idGenerator),
+                connection(false));
+    }
+
+    /**
+     * Creates a wrapper exposing a service through an asynchronous interface. Each method of the interface
+     * returns a <code>CompletableFuture</code> and runs, on the given executor, the method of the same name and
+     * parameters of the service wrapped as by <code>wrap</code>. Cancelling a future cancels the running
+     * statement.
+     * @param ds the DataSource to use to create needed connections (not null)
+     * @param api the asynchronous interface (not null)
+     * @param impl the real implementation of the blocking interface with the <code>@Jdbc</code> methods (not null)
+     * @param executor the executor of the calls, see <code>JdbcExecutors</code> (not null)
+     * @param <A> the type of the asynchronous interface
+     * @return the just created wrapper (not null)
+     * @throws IllegalArgumentException if a method of the interface doesn't return a <code>CompletableFuture</code>
+     * or has no blocking counterpart
+     */
+    public static <A> A wrapAsync(final DataSource ds, final Class<A> api, final Object impl, final Executor executor) {
+        Objects.requireNonNull(api, "api is mandatory");
+        return api.cast(Proxy.newProxyInstance(
+                JdbcFactory.class.getClassLoader(),
+                new Class[]{api},
+                new Async.Handler(api, wrap(ds, impl), Objects.requireNonNull(executor, "executor is mandatory"))));
+    }
+
+    /**
+     * Warms up the persistence of the given bean classes before the first real request: the mappings are
+     * built, the mapped fields are checked against the columns of the live tables, every generated statement
+     * is prepared and synthetic mapping iterations get the hot paths compiled by the JIT.
+     * @param ds the DataSource of the database (not null)
+     * @param classes the classes of the beans
+     * @throws PersistenceException if SQL problem or if a class doesn't match the schema
+     */
+    public static void warmUp(final DataSource ds, final Class<?>... classes) throws PersistenceException {
+        final List<String> problems = new ArrayList<>();
+        try (Connection conn = Objects.requireNonNull(ds, "ds is mandatory").getConnection()) {
+            for (Class<?> cls : classes) {
+                final long start = System.nanoTime();
+                problems.addAll(WarmUp.run(conn, Objects.requireNonNull(cls, "cls is mandatory"), WARM_UP_ITERATIONS));
+                LOGGER.info("Warmed up {} in {} ms", cls.getName(), (System.nanoTime() - start) / 1_000_000);
+            }
+        } catch (SQLException | ReflectiveOperationException err) {
+            throw new PersistenceException(err);
+        }
+        if (!problems.isEmpty()) {
+            throw new PersistenceException("Mapping doesn't match the schema: " + String.join("; ", problems));
+        }
     }
 
     /**
@@ -215,12 +773,57 @@ public final class JdbcFactory {
      * @return the just created wrapper (not null)
      */
     public static Object wrap(final DataSource ds, final Object impl) {
+        return wrap(ds, null, GroupCommit.defaults(), impl);
+    }
+
+    /**
+     * Creates a wrapper of the given real object to manage database connections and transactions
+     * automatically, running the read-only calls on replicas. The <code>@Jdbc(readOnly = true)</code> methods
+     * that don't need a transaction get a read-only connection of the replica chosen by the router; all the
+     * other methods, and the read-only methods called from them, run on the primary.
+     * @param primary the DataSource of the primary database (not null)
+     * @param replicas the router of the read-only calls to the replicas (null to run all the calls on the primary)
+     * @param impl the real implementation to wrap (not null)
+     * @return the just created wrapper (not null)
+     */
+    public static Object wrap(final DataSource primary, final ReplicaRouter replicas, final Object impl) {
+        return wrap(primary, replicas, GroupCommit.defaults(), impl);
+    }
+
+    /**
+     * Creates a wrapper of the given real object to manage database connections and transactions
+     * automatically, with the given group commit of the <code>@Jdbc(transactional = true, groupCommit = true)</code>
+     * methods. Such a method called out of any other <code>@Jdbc</code> method runs within a group of concurrent
+     * calls sharing one connection and one transaction, on the thread of one of the callers, and is isolated
+     * from the others by a savepoint: it must only write to the database and must not rely on the state of
+     * the calling thread.
+     * @param ds the DataSource to use to create needed connections (not null)
+     * @param groupCommit the options of the group commit (not null)
+     * @param impl the real implementation to wrap (not null)
+     * @return the just created wrapper (not null)
+     */
+    public static Object wrapWithGroupCommit(final DataSource ds, final GroupCommit groupCommit, final Object impl) {
+        return wrap(ds, null, groupCommit, impl);
+    }
+
+    /**
+     * Creates a wrapper of the given real object to manage database connections and transactions
+     * automatically.
+     * @param primary the DataSource of the primary database (not null)
+     * @param replicas the router of the read-only calls to the replicas (null to run all the calls on the primary)
+     * @param groupCommit the options of the group commit (not null)
+     * @param impl the real implementation to wrap (not null)
+     * @return the just created wrapper (not null)
+     */
+    private static Object wrap(final DataSource primary, final ReplicaRouter replicas, final GroupCommit groupCommit,
+                               final Object impl) {
         return Proxy.newProxyInstance(
                 JdbcFactory.class.getClassLoader(),
-                impl.getClass().getInterfaces(),
+                Objects.requireNonNull(impl, "impl is mandatory").getClass().getInterfaces(),
                 new JdbcFactory.ServiceWrapper(
-                        new Session(Objects.requireNonNull(ds, "ds is mandatory"), new Transaction()),
-                        Objects.requireNonNull(impl, "impl is mandatory")));
+                        new Session(Objects.requireNonNull(primary, "primary is mandatory"), replicas,
+                                Objects.requireNonNull(groupCommit, "groupCommit is mandatory"), new Transaction()),
+                        impl));
     }
 
 }
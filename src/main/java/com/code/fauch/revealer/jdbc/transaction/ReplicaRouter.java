@@ -0,0 +1,138 @@
+/*
+ * Copyright 2021 Claire Fauch
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.code.fauch.revealer.jdbc.transaction;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * This class chooses the replica running each read-only <code>@Jdbc</code> call of a wrapped service.
+ * <p>
+ * A round-robin router hands the replicas one after the other. A least-in-flight router hands the replica
+ * running the fewest calls, so a slow replica gets less traffic; ties are broken in round-robin order.
+ * </p>
+ */
+public final class ReplicaRouter {
+
+    /**
+     * The replicas (not null, not empty)
+     */
+    private final List<DataSource> replicas;
+
+    /**
+     * Whether the replica running the fewest calls is chosen or not.
+     */
+    private final boolean leastInFlight;
+
+    /**
+     * The number of calls running on each replica (not null)
+     */
+    private final AtomicIntegerArray inFlight;
+
+    /**
+     * The round-robin counter (not null)
+     */
+    private final AtomicInteger next = new AtomicInteger();
+
+    /**
+     * Creates a router handing the replicas one after the other.
+     * @param replicas the DataSources of the replicas (not null, not empty)
+     * @return the just created router (not null)
+     */
+    public static ReplicaRouter roundRobin(final DataSource... replicas) {
+        return new ReplicaRouter(List.of(replicas), false);
+    }
+
+    /**
+     * Creates a router handing the replica running the fewest calls.
+     * @param replicas the DataSources of the replicas (not null, not empty)
+     * @return the just created router (not null)
+     */
+    public static ReplicaRouter leastInFlight(final DataSource... replicas) {
+        return new ReplicaRouter(List.of(replicas), true);
+    }
+
+    /**
+     * Constructor.
+     * @param replicas the DataSources of the replicas (not null, not empty)
+     * @param leastInFlight whether the replica running the fewest calls is chosen or not
+     */
+    private ReplicaRouter(final List<DataSource> replicas, final boolean leastInFlight) {
+        if (replicas.isEmpty()) {
+            throw new IllegalArgumentException("replicas must not be empty");
+        }
+        this.replicas = replicas;
+        this.leastInFlight = leastInFlight;
+        this.inFlight = new AtomicIntegerArray(replicas.size());
+    }
+
+    /**
+     * Chooses a replica for a call. The replica must be released when the call ends.
+     * @return the index of the chosen replica
+     */
+    int acquire() {
+        final int size = this.replicas.size();
+        final int first = Math.floorMod(this.next.getAndIncrement(), size);
+        int chosen = first;
+        if (this.leastInFlight) {
+            for (int i = 1; i < size; i++) {
+                final int index = (first + i) % size;
+                if (this.inFlight.get(index) < this.inFlight.get(chosen)) {
+                    chosen = index;
+                }
+            }
+        }
+        this.inFlight.incrementAndGet(chosen);
+        return chosen;
+    }
+
+    /**
+     * Releases a replica at the end of a call.
+     * @param index the index of the replica
+     */
+    void release(final int index) {
+        this.inFlight.decrementAndGet(index);
+    }
+
+    /**
+     * Returns a replica.
+     * @param index the index of the replica
+     * @return the DataSource of the replica (not null)
+     */
+    DataSource get(final int index) {
+        return this.replicas.get(index);
+    }
+
+    /**
+     * Returns the number of replicas.
+     * @return the number of replicas (&gt;0)
+     */
+    public int size() {
+        return this.replicas.size();
+    }
+
+    /**
+     * Returns the number of calls running on a replica.
+     * @param index the index of the replica, in the order given at creation
+     * @return the number of running calls (&gt;=0)
+     */
+    public int getInFlight(final int index) {
+        return this.inFlight.get(index);
+    }
+
+}
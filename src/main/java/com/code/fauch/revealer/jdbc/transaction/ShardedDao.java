@@ -0,0 +1,484 @@
+/*
+ * Copyright 2021 Claire Fauch
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.code.fauch.revealer.jdbc.transaction;
+
+import com.code.fauch.revealer.BeanMapping;
+import com.code.fauch.revealer.IDao;
+import com.code.fauch.revealer.PersistenceException;
+import com.code.fauch.revealer.id.IdGenerator;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.function.Function;
+
+/**
+ * This class defines a DAO spreading the records of a table over several databases, the shards.
+ * <p>
+ * The shard of a bean is given by the hash of its id, or of a declared shard key field. The operations on a
+ * bean (<code>insert</code>, <code>upsert</code>, <code>update</code>, <code>delete</code>) run on its shard only,
+ * as <code>get</code> and <code>getAll(ids)</code> when the shard key is the id. The other searches are sent to
+ * all the shards in parallel, on the given executor, and their results are merged. Each shard operation runs
+ * with its own connection; there is no transaction across shards.
+ * </p>
+ * <p>
+ * The bean of an insert must already have its shard key. When the shard key is the id, the ids are given by
+ * the client (see <code>TimeOrderedIdGenerator</code>) and inserted as is. With another shard key, the ids are
+ * generated by each shard and must be made unique across the shards (sequences with distinct ranges for
+ * example) for <code>get</code> and <code>getAll(ids)</code> to be meaningful.
+ * </p>
+ *
+ * @param <T> the type of the bean
+ */
+public final class ShardedDao<T> implements IDao<T> {
+
+    /**
+     * Generator of the DAO sharded by id, never called since the id of an inserted bean is mandatory.
+     */
+    private static final IdGenerator GIVEN_IDS = conn -> {
+        throw new SQLException("The id of the bean is mandatory");
+    };
+
+    /**
+     * Function giving the shard key of an item.
+     *
+     * @param <V> the type of the items
+     */
+    @FunctionalInterface
+    private interface Key<V> {
+
+        /**
+         * Returns the shard key of an item.
+         * @param item the item (not null)
+         * @return the shard key (not null)
+         * @throws PersistenceException if the item is not accessible for reflexion
+         */
+        Object of(V item) throws PersistenceException;
+
+    }
+
+    /**
+     * The DAO of each shard (not null, not empty)
+     */
+    private final List<AsyncDao<T>> shards;
+
+    /**
+     * The mapping of the beans (not null)
+     */
+    private final BeanMapping<T> mapping;
+
+    /**
+     * The name of the shard key field (not null)
+     */
+    private final String shardKey;
+
+    /**
+     * Creates a DAO sharded by the id of the beans.
+     * @param cls the class of the bean (not null)
+     * @param executor the executor of the operations sent to all the shards (not null)
+     * @param shards the DataSources of the shards, whose order must never change (not null, not empty)
+     * @param <U> the type of the bean
+     * @return the just created DAO (not null)
+     */
+    public static <U> ShardedDao<U> create(final Class<U> cls, final Executor executor, final DataSource... shards) {
+        return create(cls, null, executor, shards);
+    }
+
+    /**
+     * Creates a DAO sharded by a field of the beans.
+     * @param cls the class of the bean (not null)
+     * @param shardKey the name of the shard key field (null for the id)
+     * @param executor the executor of the operations sent to all the shards (not null)
+     * @param shards the DataSources of the shards, whose order must never change (not null, not empty)
+     * @param <U> the type of the bean
+     * @return the just created DAO (not null)
+     * @throws IllegalArgumentException if the shard key is not a mapped field or if there is no shard
+     */
+    public static <U> ShardedDao<U> create(final Class<U> cls, final String shardKey, final Executor executor,
+                                           final DataSource... shards) {
+        final BeanMapping<U> mapping = BeanMapping.from(Objects.requireNonNull(cls, "cls is mandatory"));
+        final String key = shardKey == null ? mapping.getId() : shardKey;
+        if (mapping.getType(key) == null) {
+            throw new IllegalArgumentException("Unknown shard key: " + key);
+        }
+        if (shards.length == 0) {
+            throw new IllegalArgumentException("shards must not be empty");
+        }
+        final IDao<U> dao = key.equals(mapping.getId()) ? JdbcFactory.dao(cls, GIVEN_IDS) : JdbcFactory.dao(cls);
+        final List<AsyncDao<U>> daos = new ArrayList<>(shards.length);
+        for (DataSource ds : shards) {
+            daos.add(AsyncDao.create(ds, dao, executor));
+        }
+        return new ShardedDao<>(daos, mapping, key);
+    }
+
+    /**
+     * Constructor.
+     * @param shards the DAO of each shard (not null, not empty)
+     * @param mapping the mapping of the beans (not null)
+     * @param shardKey the name of the shard key field (not null)
+     */
+    private ShardedDao(final List<AsyncDao<T>> shards, final BeanMapping<T> mapping, final String shardKey) {
+        this.shards = List.copyOf(shards);
+        this.mapping = mapping;
+        this.shardKey = shardKey;
+    }
+
+    /**
+     * Returns the shard of a shard key. Integral keys of any type have the same shard for the same value.
+     * @param key the shard key (not null)
+     * @return the index of the shard, in the order given at creation
+     */
+    public int shard(final Object key) {
+        final int hash = key instanceof Long || key instanceof Integer || key instanceof Short || key instanceof Byte
+                ? Long.hashCode(((Number) key).longValue())
+                : key.hashCode();
+        return Math.floorMod(hash ^ (hash >>> 16), this.shards.size());
+    }
+
+    /**
+     * Returns the number of shards.
+     * @return the number of shards (&gt;0)
+     */
+    public int size() {
+        return this.shards.size();
+    }
+
+    /**
+     * Insert a bean in its shard.
+     * @param bean the bean to insert (not null, its shard key must not be null)
+     * @return newly created bean number
+     * @throws PersistenceException if SQL or bean access problem.
+     */
+    @Override
+    public int insert(final T bean) throws PersistenceException {
+        return await(of(bean).insert(bean));
+    }
+
+    /**
+     * Insert several beans, each in its shard, the shards being written in parallel. The beans of a shard are
+     * inserted within a transaction, but there is no transaction across the shards.
+     * @param beans the beans to insert (not null, their shard keys must not be null)
+     * @return the number of created records
+     * @throws PersistenceException if SQL or bean access problem.
+     */
+    @Override
+    public int insertAll(final List<T> beans) throws PersistenceException {
+        final List<List<T>> groups = group(Objects.requireNonNull(beans, "beans is mandatory"), this::key);
+        final List<CompletableFuture<Integer>> futures = new ArrayList<>();
+        for (int i = 0; i < groups.size(); i++) {
+            if (!groups.get(i).isEmpty()) {
+                futures.add(this.shards.get(i).insertAll(groups.get(i)));
+            }
+        }
+        int total = 0;
+        for (CompletableFuture<Integer> future : futures) {
+            total += await(future);
+        }
+        return total;
+    }
+
+    /**
+     * Insert the given bean in its shard or update its record if it already exists.
+     * @param bean the bean to insert or update (not null, its id and shard key must not be null)
+     * @return the inserted or updated record number
+     * @throws PersistenceException if SQL or bean access problem
+     */
+    @Override
+    public int upsert(final T bean) throws PersistenceException {
+        return await(of(bean).upsert(bean));
+    }
+
+    /**
+     * Update the record of the given bean in its shard.
+     * @param bean the bean to update (not null, its shard key must not be null)
+     * @return the updated record number
+     * @throws PersistenceException if SQL or bean access problem
+     */
+    @Override
+    public int update(final T bean) throws PersistenceException {
+        return await(of(bean).update(bean));
+    }
+
+    /**
+     * Delete the record of the given bean from its shard.
+     * @param bean the bean to delete (not null, its shard key must not be null)
+     * @return the deleted record number
+     * @throws PersistenceException if SQL or bean access problem
+     */
+    @Override
+    public int delete(final T bean) throws PersistenceException {
+        return await(of(bean).delete(bean));
+    }
+
+    /**
+     * Searches and returns the bean of the given id: in its shard when sharded by id, otherwise in all the shards.
+     * @param id the id of the bean to research (not null)
+     * @return the corresponding bean or null if not found
+     * @throws PersistenceException if SQL or bean access problem
+     */
+    @Override
+    public T get(final Object id) throws PersistenceException {
+        Objects.requireNonNull(id, "id is mandatory");
+        if (isById()) {
+            return await(this.shards.get(shard(id)).get(id));
+        }
+        return first(all(dao -> dao.get(id)));
+    }
+
+    /**
+     * Searches and returns the beans of the given ids: in their shards when sharded by id, otherwise in all the
+     * shards.
+     * @param ids the ids of the beans to research (not null)
+     * @return the found beans in no particular order (it may be empty)
+     * @throws PersistenceException if SQL or bean access problem
+     */
+    @Override
+    public List<T> getAll(final Collection<?> ids) throws PersistenceException {
+        Objects.requireNonNull(ids, "ids is mandatory");
+        final List<CompletableFuture<List<T>>> futures = new ArrayList<>();
+        if (isById()) {
+            final List<List<Object>> groups = group(ids, id -> id);
+            for (int i = 0; i < groups.size(); i++) {
+                if (!groups.get(i).isEmpty()) {
+                    futures.add(this.shards.get(i).getAll(groups.get(i)));
+                }
+            }
+        } else {
+            futures.addAll(all(dao -> dao.getAll(ids)));
+        }
+        return concat(futures);
+    }
+
+    /**
+     * Searches and returns the first bean corresponding to a given SQL query, run on all the shards.
+     * @param query the SQL query (not null)
+     * @param args the optional query arguments
+     * @return the bean found in the first shard, in the order given at creation, or null if not found
+     * @throws PersistenceException if SQL or bean access problem
+     */
+    @Override
+    public T find(final String query, final Object... args) throws PersistenceException {
+        Objects.requireNonNull(query, "query is mandatory");
+        return first(all(dao -> dao.find(query, args)));
+    }
+
+    /**
+     * Search and returns beans with pagination ordered by id: the page of each shard is read, then the pages
+     * are merged by id.
+     * @param start the start id (excluded)
+     * @param size the page size (&gt;=0)
+     * @return the corresponding beans ordered by id (it may be empty)
+     * @throws PersistenceException if SQL or bean access problem
+     */
+    @Override
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public List<T> getAll(final Object start, final int size) throws PersistenceException {
+        if (size < 0) {
+            throw new IllegalArgumentException("size must be >=0");
+        }
+        final List<T> beans = concat(all(dao -> dao.getAll(start, size)));
+        final List<Object[]> keyed = new ArrayList<>(beans.size());
+        for (T bean : beans) {
+            keyed.add(new Object[] {id(bean), bean});
+        }
+        keyed.sort((a, b) -> ((Comparable) a[0]).compareTo(b[0]));
+        final List<T> page = new ArrayList<>(Math.min(size, keyed.size()));
+        for (int i = 0; i < keyed.size() && i < size; i++) {
+            page.add((T) keyed.get(i)[1]);
+        }
+        return page;
+    }
+
+    /**
+     * Searches and returns the beans of a SQL query, run on all the shards.
+     * @param query the SQL query (not null)
+     * @param args the optional query arguments
+     * @return the beans of each shard one after the other, in the order given at creation (it may be empty)
+     * @throws PersistenceException if SQL or bean access problem
+     */
+    @Override
+    public List<T> findAll(final String query, final Object... args) throws PersistenceException {
+        Objects.requireNonNull(query, "query is mandatory");
+        return concat(all(dao -> dao.findAll(query, args)));
+    }
+
+    /**
+     * Publishes the beans of a SQL query, run on each shard one after the other, in the order given at creation.
+     * @param query the SQL query (not null)
+     * @param args the optional query arguments
+     * @return the publisher of the beans (not null)
+     */
+    @Override
+    public Flow.Publisher<T> publish(final String query, final Object... args) {
+        Objects.requireNonNull(query, "query is mandatory");
+        final List<Flow.Publisher<T>> sources = new ArrayList<>(this.shards.size());
+        for (AsyncDao<T> dao : this.shards) {
+            sources.add(dao.publish(query, args));
+        }
+        return new ConcatPublisher<>(sources);
+    }
+
+    /**
+     * Determines whether the shard key is the id or not.
+     * @return true if sharded by id
+     */
+    private boolean isById() {
+        return this.shardKey.equals(this.mapping.getId());
+    }
+
+    /**
+     * Returns the DAO of the shard of a bean.
+     * @param bean the bean (not null, its shard key must not be null)
+     * @return the DAO of the shard (not null)
+     * @throws PersistenceException if the bean is not accessible for reflexion
+     */
+    private AsyncDao<T> of(final T bean) throws PersistenceException {
+        return this.shards.get(shard(key(Objects.requireNonNull(bean, "bean is mandatory"))));
+    }
+
+    /**
+     * Returns the shard key of a bean.
+     * @param bean the bean (not null)
+     * @return the shard key (not null)
+     * @throws PersistenceException if the bean is not accessible for reflexion
+     * @throws IllegalArgumentException if the shard key of the bean is null
+     */
+    private Object key(final T bean) throws PersistenceException {
+        final Object key;
+        try {
+            key = this.mapping.get(bean, this.shardKey);
+        } catch (ReflectiveOperationException err) {
+            throw new PersistenceException(err);
+        }
+        if (key == null) {
+            throw new IllegalArgumentException("The shard key " + this.shardKey + " of the bean is mandatory");
+        }
+        return key;
+    }
+
+    /**
+     * Returns the id of a bean.
+     * @param bean the bean (not null)
+     * @return the id (not null)
+     * @throws PersistenceException if the bean is not accessible for reflexion
+     */
+    private Object id(final T bean) throws PersistenceException {
+        try {
+            return this.mapping.get(bean);
+        } catch (ReflectiveOperationException err) {
+            throw new PersistenceException(err);
+        }
+    }
+
+    /**
+     * Splits items by shard.
+     * @param items the items (not null)
+     * @param key the function giving the shard key of an item (not null)
+     * @param <V> the type of the items
+     * @return the items of each shard, in the order given at creation (not null)
+     * @throws PersistenceException if a bean is not accessible for reflexion
+     */
+    private <V> List<List<V>> group(final Collection<? extends V> items, final Key<V> key)
+            throws PersistenceException {
+        final List<List<V>> groups = new ArrayList<>(this.shards.size());
+        for (int i = 0; i < this.shards.size(); i++) {
+            groups.add(new ArrayList<>());
+        }
+        for (V item : items) {
+            groups.get(shard(key.of(Objects.requireNonNull(item, "item is mandatory")))).add(item);
+        }
+        return groups;
+    }
+
+    /**
+     * Starts an operation on all the shards.
+     * @param operation the operation (not null)
+     * @param <V> the type of the result
+     * @return the future result of each shard, in the order given at creation (not null)
+     */
+    private <V> List<CompletableFuture<V>> all(final Function<AsyncDao<T>, CompletableFuture<V>> operation) {
+        final List<CompletableFuture<V>> futures = new ArrayList<>(this.shards.size());
+        for (AsyncDao<T> dao : this.shards) {
+            futures.add(operation.apply(dao));
+        }
+        return futures;
+    }
+
+    /**
+     * Waits for the first non null result of the given futures, in order.
+     * @param futures the futures (not null)
+     * @return the first non null result or null
+     * @throws PersistenceException if an operation failed
+     */
+    private T first(final List<CompletableFuture<T>> futures) throws PersistenceException {
+        T found = null;
+        for (CompletableFuture<T> future : futures) {
+            final T result = await(future);
+            if (found == null) {
+                found = result;
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Waits for the results of the given futures and concatenates them, in order.
+     * @param futures the futures (not null)
+     * @return the concatenated results (not null)
+     * @throws PersistenceException if an operation failed
+     */
+    private List<T> concat(final List<CompletableFuture<List<T>>> futures) throws PersistenceException {
+        final List<T> all = new ArrayList<>();
+        for (CompletableFuture<List<T>> future : futures) {
+            all.addAll(await(future));
+        }
+        return all;
+    }
+
+    /**
+     * Waits for the result of an operation.
+     * @param future the future result (not null)
+     * @param <V> the type of the result
+     * @return the result
+     * @throws PersistenceException if the operation failed or if interrupted
+     */
+    private static <V> V await(final CompletableFuture<V> future) throws PersistenceException {
+        try {
+            return future.get();
+        } catch (InterruptedException err) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new PersistenceException(err);
+        } catch (ExecutionException err) {
+            final Throwable cause = err.getCause();
+            if (cause instanceof PersistenceException) {
+                throw (PersistenceException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new PersistenceException(cause);
+        }
+    }
+
+}
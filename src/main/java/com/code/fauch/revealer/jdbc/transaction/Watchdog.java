@@ -0,0 +1,162 @@
+/*
+ * Copyright 2021 Claire Fauch
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.code.fauch.revealer.jdbc.transaction;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This class cancels the statements running within a deadline when the deadline passes or when their
+ * thread is interrupted: a thread blocked in a jdbc driver, virtual or not, is not woken up by an interrupt.
+ * <p>
+ * The running statements are checked periodically by a single daemon thread, started on the first watch.
+ * </p>
+ */
+final class Watchdog {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(Watchdog.class);
+
+    /**
+     * The period of the checks in milliseconds.
+     */
+    private static final long PERIOD_MILLIS = 20L;
+
+    /**
+     * The running statements (not null)
+     */
+    private static final Set<Watch> RUNNING = ConcurrentHashMap.newKeySet();
+
+    /**
+     * The checking thread (null until the first watch)
+     */
+    private static volatile ScheduledExecutorService scheduler;
+
+    /**
+     * The watch of a running statement.
+     */
+    static final class Watch implements AutoCloseable {
+
+        /**
+         * The running statement (not null)
+         */
+        private final Statement stmt;
+
+        /**
+         * The deadline of the statement (not null)
+         */
+        private final Deadline deadline;
+
+        /**
+         * The thread running the statement (not null)
+         */
+        private final Thread thread;
+
+        /**
+         * Whether the statement has been cancelled or not.
+         */
+        private volatile boolean cancelled;
+
+        /**
+         * Constructor.
+         * @param stmt the running statement (not null)
+         * @param deadline the deadline of the statement (not null)
+         */
+        private Watch(final Statement stmt, final Deadline deadline) {
+            this.stmt = stmt;
+            this.deadline = deadline;
+            this.thread = Thread.currentThread();
+        }
+
+        /**
+         * Whether the statement has been cancelled or not.
+         * @return true if cancelled by the watchdog
+         */
+        boolean isCancelled() {
+            return this.cancelled;
+        }
+
+        /**
+         * Cancels the statement if its deadline has passed or its thread is interrupted.
+         */
+        private void check() {
+            if (!this.cancelled && (this.deadline.isExpired() || this.thread.isInterrupted())) {
+                this.cancelled = true;
+                try {
+                    this.stmt.cancel();
+                } catch (SQLException err) {
+                    LOGGER.debug("Unable to cancel the statement", err);
+                }
+            }
+        }
+
+        /**
+         * Stops watching the statement.
+         */
+        @Override
+        public void close() {
+            RUNNING.remove(this);
+        }
+
+    }
+
+    /**
+     * No constructor.
+     */
+    private Watchdog() {
+        //Nothing to do
+    }
+
+    /**
+     * Starts watching a statement run by the current thread.
+     * @param stmt the statement about to run (not null)
+     * @param deadline the deadline of the statement (not null)
+     * @return the watch to close when the statement returns (not null)
+     */
+    static Watch watch(final Statement stmt, final Deadline deadline) {
+        start();
+        final Watch watch = new Watch(stmt, deadline);
+        RUNNING.add(watch);
+        return watch;
+    }
+
+    /**
+     * Starts the checking thread if needed.
+     */
+    private static void start() {
+        if (scheduler == null) {
+            synchronized (Watchdog.class) {
+                if (scheduler == null) {
+                    final ScheduledExecutorService started = Executors.newSingleThreadScheduledExecutor(task -> {
+                        final Thread thread = new Thread(task, "revealer-watchdog");
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+                    started.scheduleWithFixedDelay(() -> RUNNING.forEach(Watch::check),
+                            PERIOD_MILLIS, PERIOD_MILLIS, TimeUnit.MILLISECONDS);
+                    scheduler = started;
+                }
+            }
+        }
+    }
+
+}
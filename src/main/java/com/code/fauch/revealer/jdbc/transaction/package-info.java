@@ -151,5 +151,42 @@
  *     final User user = new User(null, "totoro", "guest");
  *     this.service.save(user);
  * </pre>
+ * <h3>Lazy connections</h3>
+ * By default, the connection is acquired before the method starts and released when it returns.
+ * Use <code>@Jdbc(transactional = false, lazy = true)</code> for methods that spend time in other work before
+ * using the database: the connection is acquired on the first jdbc operation and released as soon as each
+ * statement is closed. Within a lazy transaction, the connection is kept from the first jdbc operation until
+ * the commit or rollback.
+ * <pre>
+ * public interface IService {
+ *
+ *     &#64;Jdbc(transactional = false, lazy = true)
+ *     Report build(Request request) throws PersistenceException;
+ *
+ * }
+ * </pre>
+ * <h3>Read replicas</h3>
+ * A service wrapped with a <code>ReplicaRouter</code> runs its <code>@Jdbc(transactional = false, readOnly = true)</code>
+ * methods on a read-only connection of one of the replicas, and all its other methods on the primary.
+ * <pre>
+ * final IService service = (IService) JdbcFactory.wrap(primary, ReplicaRouter.roundRobin(replica1, replica2), impl);
+ * </pre>
+ * <h3>Deadlines</h3>
+ * A <code>@Jdbc(timeoutMillis = ...)</code> method, or any call made within <code>Deadline.within</code>, runs
+ * its statements with a query timeout of the remaining time; they are cancelled when the deadline passes or
+ * when the thread is interrupted, and fail at once after the deadline.
+ * <pre>
+ * final List&lt;User&gt; users = Deadline.within(500L, () -&gt; service.findAll());
+ * </pre>
+ * <h3>Subtasks</h3>
+ * The connection of a <code>@Jdbc</code> method is bound to the calling thread only for the duration of the call.
+ * Use <code>JdbcFactory.fork</code> to run a part of the method in other threads (platform or virtual threads,
+ * structured task scope...): each subtask gets its own connection from the same data source.
+ * <pre>
+ *     final List&lt;Future&lt;User&gt;&gt; futures = new ArrayList&lt;&gt;();
+ *     for (Long id : ids) {
+ *         futures.add(executor.submit(JdbcFactory.fork(() -&gt; this.dao.get(id))));
+ *     }
+ * </pre>
  */
 package com.code.fauch.revealer.jdbc.transaction;
\ No newline at end of file
@@ -0,0 +1,54 @@
+/*
+ * Copyright 2021 Claire Fauch
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.code.fauch.revealer.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight recorder event emitted once for each bulk mapping of a result set to beans.
+ */
+@Name("com.code.fauch.revealer.Mapping")
+@Label("Bean Mapping")
+@Category({"Revealer", "JDBC"})
+@Description("Mapping of all the records of a result set to beans")
+@StackTrace(false)
+public final class MappingEvent extends Event {
+
+    @Label("Entity Class")
+    private Class<?> entityClass;
+
+    @Label("Rows")
+    private long rows;
+
+    /**
+     * Ends and commits the event if it is enabled.
+     * @param entityClass the class of the beans (not null)
+     * @param rows the number of mapped rows
+     */
+    public void complete(final Class<?> entityClass, final long rows) {
+        end();
+        if (shouldCommit()) {
+            this.entityClass = entityClass;
+            this.rows = rows;
+            commit();
+        }
+    }
+
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright 2021 Claire Fauch
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.code.fauch.revealer.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight recorder event emitted for each DAO operation.
+ */
+@Name("com.code.fauch.revealer.Statement")
+@Label("Dao Operation")
+@Category({"Revealer", "JDBC"})
+@Description("SQL statement executed by a DAO operation, including the mapping of the result")
+@StackTrace(false)
+public final class StatementEvent extends Event {
+
+    @Label("Operation")
+    private String operation;
+
+    @Label("SQL")
+    private String sql;
+
+    @Label("Entity Class")
+    private Class<?> entityClass;
+
+    @Label("Rows")
+    private long rows;
+
+    /**
+     * Ends and commits the event if it is enabled.
+     * @param operation the name of the DAO operation (not null)
+     * @param sql the SQL statement (it may be null)
+     * @param entityClass the class of the bean (not null)
+     * @param rows the number of read or affected rows
+     */
+    public void complete(final String operation, final String sql, final Class<?> entityClass, final long rows) {
+        end();
+        if (shouldCommit()) {
+            this.operation = operation;
+            this.sql = sql;
+            this.entityClass = entityClass;
+            this.rows = rows;
+            commit();
+        }
+    }
+
+}
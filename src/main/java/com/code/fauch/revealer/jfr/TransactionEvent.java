@@ -0,0 +1,54 @@
+/*
+ * Copyright 2021 Claire Fauch
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.code.fauch.revealer.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight recorder event emitted for each jdbc transaction.
+ */
+@Name("com.code.fauch.revealer.Transaction")
+@Label("Jdbc Transaction")
+@Category({"Revealer", "JDBC"})
+@Description("Transaction of a @Jdbc(transactional = true) method")
+@StackTrace(false)
+public final class TransactionEvent extends Event {
+
+    @Label("Method")
+    private String method;
+
+    @Label("Committed")
+    private boolean committed;
+
+    /**
+     * Ends and commits the event if it is enabled.
+     * @param method the name of the service method (not null)
+     * @param committed true if the transaction has been committed, false if it has been rolled back
+     */
+    public void complete(final String method, final boolean committed) {
+        end();
+        if (shouldCommit()) {
+            this.method = method;
+            this.committed = committed;
+            commit();
+        }
+    }
+
+}
@@ -0,0 +1,34 @@
+/*
+ * Copyright 2021 Claire Fauch
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/**
+ * This package defines the JDK Flight Recorder events emitted by the library.
+ * <ul>
+ * <li><code>com.code.fauch.revealer.Session</code>: outermost <code>@Jdbc</code> method call</li>
+ * <li><code>com.code.fauch.revealer.Transaction</code>: transaction of a <code>@Jdbc</code> method</li>
+ * <li><code>com.code.fauch.revealer.Statement</code>: DAO operation with its SQL, entity class and row count</li>
+ * <li><code>com.code.fauch.revealer.Mapping</code>: mapping of all the records of a result set</li>
+ * </ul>
+ * Each event type can be enabled, disabled or given a threshold in the recording settings, for instance:
+ * <pre>
+ *     java -XX:StartFlightRecording:settings=revealer.jfc ...
+ *
+ *     &lt;event name="com.code.fauch.revealer.Statement"&gt;
+ *         &lt;setting name="enabled"&gt;true&lt;/setting&gt;
+ *         &lt;setting name="threshold"&gt;10 ms&lt;/setting&gt;
+ *     &lt;/event&gt;
+ * </pre>
+ * When the flight recorder is off, the events are not committed and cost almost nothing.
+ */
+package com.code.fauch.revealer.jfr;
@@ -0,0 +1,167 @@
+/*
+ * Copyright 2021 Claire Fauch
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.code.fauch.revealer.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free histogram of positive long values (HDR-style).
+ * <p>
+ * Each power of two is split into 16 linear buckets, so recorded values are kept with a relative error
+ * under 6.25% whatever their magnitude, in a fixed amount of memory. Recording a value is wait-free.
+ * </p>
+ */
+public final class Histogram {
+
+    private static final int SUB_BITS = 4;
+    private static final int SUB_COUNT = 1 << SUB_BITS;
+    private static final int BUCKETS = SUB_COUNT + (Long.SIZE - 1 - SUB_BITS) * SUB_COUNT;
+
+    /**
+     * The count of values of each bucket (not null)
+     */
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+
+    /**
+     * The number of recorded values (not null)
+     */
+    private final LongAdder count = new LongAdder();
+
+    /**
+     * The sum of recorded values (not null)
+     */
+    private final LongAdder sum = new LongAdder();
+
+    /**
+     * The maximum recorded value (not null)
+     */
+    private final LongAccumulator max = new LongAccumulator(Long::max, 0L);
+
+    /**
+     * Records a value.
+     * @param value the value to record (negative values are recorded as 0)
+     */
+    public void record(final long value) {
+        final long v = Math.max(0L, value);
+        this.counts.incrementAndGet(index(v));
+        this.count.increment();
+        this.sum.add(v);
+        this.max.accumulate(v);
+    }
+
+    /**
+     * Returns the number of recorded values.
+     * @return the number of recorded values
+     */
+    public long getCount() {
+        return this.count.sum();
+    }
+
+    /**
+     * Returns the sum of recorded values.
+     * @return the sum of recorded values
+     */
+    public long getSum() {
+        return this.sum.sum();
+    }
+
+    /**
+     * Returns the maximum recorded value.
+     * @return the maximum recorded value (0 if empty)
+     */
+    public long getMax() {
+        return this.max.get();
+    }
+
+    /**
+     * Returns the mean of recorded values.
+     * @return the mean (0 if empty)
+     */
+    public double getMean() {
+        final long n = getCount();
+        return n == 0 ? 0.0 : (double) getSum() / n;
+    }
+
+    /**
+     * Returns the value under which the given percentage of recorded values fall.
+     * @param percentile the percentile (between 0 and 100)
+     * @return the corresponding value (0 if empty)
+     */
+    public long getPercentile(final double percentile) {
+        if (percentile < 0.0 || percentile > 100.0) {
+            throw new IllegalArgumentException("percentile must be between 0 and 100");
+        }
+        long total = 0L;
+        for (int i = 0; i < BUCKETS; i++) {
+            total += this.counts.get(i);
+        }
+        if (total == 0L) {
+            return 0L;
+        }
+        final long rank = Math.max(1L, (long) Math.ceil(percentile / 100.0 * total));
+        long seen = 0L;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += this.counts.get(i);
+            if (seen >= rank) {
+                return Math.min(highest(i), getMax());
+            }
+        }
+        return getMax();
+    }
+
+    /**
+     * Clears all recorded values.
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            this.counts.set(i, 0L);
+        }
+        this.count.reset();
+        this.sum.reset();
+        this.max.reset();
+    }
+
+    /**
+     * Returns the index of the bucket of a value.
+     * @param value the value (>=0)
+     * @return the index of the bucket
+     */
+    static int index(final long value) {
+        if (value < SUB_COUNT) {
+            return (int) value;
+        }
+        final int magnitude = Long.SIZE - 1 - Long.numberOfLeadingZeros(value);
+        final int sub = (int) (value >>> (magnitude - SUB_BITS)) & (SUB_COUNT - 1);
+        return SUB_COUNT + (magnitude - SUB_BITS) * SUB_COUNT + sub;
+    }
+
+    /**
+     * Returns the highest value of a bucket.
+     * @param index the index of the bucket
+     * @return the highest value of the bucket
+     */
+    static long highest(final int index) {
+        if (index < SUB_COUNT) {
+            return index;
+        }
+        final int magnitude = (index - SUB_COUNT) / SUB_COUNT + SUB_BITS;
+        final long sub = (index - SUB_COUNT) % SUB_COUNT;
+        final long width = 1L << (magnitude - SUB_BITS);
+        return (1L << magnitude) + sub * width + width - 1;
+    }
+
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright 2021 Claire Fauch
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.code.fauch.revealer.metrics;
+
+/**
+ * Interface describing the expected behavior of a metrics recorder (SPI).
+ * <p>
+ * Implementations are called on the hot path: they must be thread safe and must not block.
+ * All methods do nothing by default.
+ * </p>
+ */
+public interface JdbcMetrics {
+
+    /**
+     * Recorder that records nothing.
+     */
+    JdbcMetrics NOOP = new JdbcMetrics() {};
+
+    /**
+     * Records the acquisition of a jdbc connection.
+     * @param nanos the time spent to get the connection in nanoseconds
+     */
+    default void connectionAcquired(final long nanos) {
+    }
+
+    /**
+     * Records the end of a jdbc transaction.
+     * @param nanos the duration of the transaction in nanoseconds
+     * @param committed true if the transaction has been committed, false if it has been rolled back
+     */
+    default void transactionEnded(final long nanos, final boolean committed) {
+    }
+
+    /**
+     * Records the failure of an attempt of a transactional method, run again after a backoff.
+     * @param method the name of the method (not null)
+     * @param attempt the number of the failed attempt (>0)
+     */
+    default void transactionRetried(final String method, final int attempt) {
+    }
+
+    /**
+     * Records the execution of a SQL statement.
+     * @param sql the SQL statement (not null)
+     * @param nanos the execution time in nanoseconds
+     */
+    default void statementExecuted(final String sql, final long nanos) {
+    }
+
+    /**
+     * Records the mapping of rows to beans.
+     * @param type the class of the beans (not null)
+     * @param rows the number of mapped rows
+     */
+    default void rowsMapped(final Class<?> type, final int rows) {
+    }
+
+}
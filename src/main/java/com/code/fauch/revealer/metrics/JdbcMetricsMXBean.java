@@ -0,0 +1,150 @@
+/*
+ * Copyright 2021 Claire Fauch
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.code.fauch.revealer.metrics;
+
+import java.util.Map;
+
+/**
+ * Management interface of the built-in metrics recorder.
+ * Durations are given in microseconds.
+ */
+public interface JdbcMetricsMXBean {
+
+    /**
+     * Returns the number of acquired connections.
+     * @return the number of acquired connections
+     */
+    long getConnectionsAcquired();
+
+    /**
+     * Returns the mean time spent to acquire a connection.
+     * @return the mean time in microseconds
+     */
+    double getConnectionWaitMeanMicros();
+
+    /**
+     * Returns the 99th percentile of the time spent to acquire a connection.
+     * @return the 99th percentile in microseconds
+     */
+    long getConnectionWaitP99Micros();
+
+    /**
+     * Returns the maximum time spent to acquire a connection.
+     * @return the maximum time in microseconds
+     */
+    long getConnectionWaitMaxMicros();
+
+    /**
+     * Returns the number of committed transactions.
+     * @return the number of commits
+     */
+    long getCommits();
+
+    /**
+     * Returns the number of rolled back transactions.
+     * @return the number of rollbacks
+     */
+    long getRollbacks();
+
+    /**
+     * Returns the number of retried attempts of transactional methods.
+     * @return the number of retries
+     */
+    long getRetries();
+
+    /**
+     * Returns the number of retried attempts per transactional method.
+     * @return the number of retries by method name (not null)
+     */
+    Map<String, Long> getRetriesByMethod();
+
+    /**
+     * Returns the mean duration of transactions.
+     * @return the mean duration in microseconds
+     */
+    double getTransactionMeanMicros();
+
+    /**
+     * Returns the 99th percentile of the duration of transactions.
+     * @return the 99th percentile in microseconds
+     */
+    long getTransactionP99Micros();
+
+    /**
+     * Returns the maximum duration of transactions.
+     * @return the maximum duration in microseconds
+     */
+    long getTransactionMaxMicros();
+
+    /**
+     * Returns the number of executed statements.
+     * @return the number of executed statements
+     */
+    long getStatements();
+
+    /**
+     * Returns the mean execution time of statements.
+     * @return the mean execution time in microseconds
+     */
+    double getStatementMeanMicros();
+
+    /**
+     * Returns the median execution time of statements.
+     * @return the median execution time in microseconds
+     */
+    long getStatementP50Micros();
+
+    /**
+     * Returns the 99th percentile of the execution time of statements.
+     * @return the 99th percentile in microseconds
+     */
+    long getStatementP99Micros();
+
+    /**
+     * Returns the 99.9th percentile of the execution time of statements.
+     * @return the 99.9th percentile in microseconds
+     */
+    long getStatementP999Micros();
+
+    /**
+     * Returns the maximum execution time of statements.
+     * @return the maximum execution time in microseconds
+     */
+    long getStatementMaxMicros();
+
+    /**
+     * Returns the 99th percentile of the execution time of each tracked SQL statement.
+     * @return the 99th percentile in microseconds by SQL statement (not null)
+     */
+    Map<String, Long> getStatementP99MicrosBySql();
+
+    /**
+     * Returns the number of rows mapped to beans.
+     * @return the number of mapped rows
+     */
+    long getRowsMapped();
+
+    /**
+     * Returns the number of rows mapped to beans by bean class.
+     * @return the number of mapped rows by class name (not null)
+     */
+    Map<String, Long> getRowsMappedByType();
+
+    /**
+     * Clears all recorded metrics.
+     */
+    void reset();
+
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright 2021 Claire Fauch
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.code.fauch.revealer.metrics;
+
+import java.util.Objects;
+import java.util.ServiceLoader;
+
+/**
+ * Holder of the metrics recorder used by the library.
+ * <p>
+ * The recorder is the first <code>JdbcMetrics</code> service provider found on the module or class path,
+ * or the no-op recorder. It can be replaced at any time with <code>install</code>.
+ * </p>
+ */
+public final class Metrics {
+
+    /**
+     * The installed recorder (not null).
+     */
+    private static volatile JdbcMetrics current = ServiceLoader.load(JdbcMetrics.class)
+            .findFirst()
+            .orElse(JdbcMetrics.NOOP);
+
+    /**
+     * No constructor.
+     */
+    private Metrics() {
+        //Nothing to do
+    }
+
+    /**
+     * Returns the installed recorder.
+     * @return the installed recorder (not null)
+     */
+    public static JdbcMetrics get() {
+        return current;
+    }
+
+    /**
+     * Installs a recorder.
+     * @param metrics the recorder to install (not null)
+     */
+    public static void install(final JdbcMetrics metrics) {
+        current = Objects.requireNonNull(metrics, "metrics is mandatory");
+    }
+
+}
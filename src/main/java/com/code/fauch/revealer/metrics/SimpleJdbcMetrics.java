@@ -0,0 +1,302 @@
+/*
+ * Copyright 2021 Claire Fauch
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.code.fauch.revealer.metrics;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Built-in low overhead metrics recorder.
+ * <p>
+ * Counters are <code>LongAdder</code> and durations are recorded in lock-free histograms.
+ * Statement latencies are also recorded per SQL string, up to a maximum number of distinct statements.
+ * The recorder can be exposed over JMX with <code>register</code>.
+ * </p>
+ * <pre>
+ *     final SimpleJdbcMetrics metrics = new SimpleJdbcMetrics();
+ *     metrics.register();
+ *     Metrics.install(metrics);
+ * </pre>
+ */
+public final class SimpleJdbcMetrics implements JdbcMetrics, JdbcMetricsMXBean {
+
+    /**
+     * The default JMX object name.
+     */
+    public static final String OBJECT_NAME = "com.code.fauch.revealer:type=JdbcMetrics";
+
+    private static final int DEFAULT_MAX_STATEMENTS = 256;
+
+    /**
+     * The maximum number of distinct SQL statements with their own histogram (>=0).
+     */
+    private final int maxStatements;
+
+    private final Histogram connectionWait = new Histogram();
+    private final Histogram transactions = new Histogram();
+    private final Histogram statements = new Histogram();
+    private final LongAdder commits = new LongAdder();
+    private final LongAdder rollbacks = new LongAdder();
+    private final LongAdder retries = new LongAdder();
+    private final LongAdder rowsMapped = new LongAdder();
+    private final ConcurrentMap<String, Histogram> statementsBySql = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Class<?>, LongAdder> rowsMappedByType = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, LongAdder> retriesByMethod = new ConcurrentHashMap<>();
+
+    /**
+     * Constructor.
+     * @param maxStatements the maximum number of distinct SQL statements with their own histogram (>=0)
+     */
+    public SimpleJdbcMetrics(final int maxStatements) {
+        if (maxStatements < 0) {
+            throw new IllegalArgumentException("maxStatements must be >=0");
+        }
+        this.maxStatements = maxStatements;
+    }
+
+    /**
+     * Constructor with the default maximum number of distinct SQL statements.
+     */
+    public SimpleJdbcMetrics() {
+        this(DEFAULT_MAX_STATEMENTS);
+    }
+
+    /**
+     * Registers this recorder in the platform MBean server with the default object name.
+     * @throws JMException if the registration failed
+     */
+    public void register() throws JMException {
+        final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        server.registerMBean(this, new ObjectName(OBJECT_NAME));
+    }
+
+    /**
+     * Unregisters this recorder from the platform MBean server.
+     * @throws JMException if the recorder is not registered
+     */
+    public void unregister() throws JMException {
+        ManagementFactory.getPlatformMBeanServer().unregisterMBean(new ObjectName(OBJECT_NAME));
+    }
+
+    @Override
+    public void connectionAcquired(final long nanos) {
+        this.connectionWait.record(nanos);
+    }
+
+    @Override
+    public void transactionEnded(final long nanos, final boolean committed) {
+        this.transactions.record(nanos);
+        if (committed) {
+            this.commits.increment();
+        } else {
+            this.rollbacks.increment();
+        }
+    }
+
+    @Override
+    public void transactionRetried(final String method, final int attempt) {
+        this.retries.increment();
+        this.retriesByMethod.computeIfAbsent(method, k -> new LongAdder()).increment();
+    }
+
+    @Override
+    public void statementExecuted(final String sql, final long nanos) {
+        this.statements.record(nanos);
+        Histogram histogram = this.statementsBySql.get(sql);
+        if (histogram == null && this.statementsBySql.size() < this.maxStatements) {
+            histogram = this.statementsBySql.computeIfAbsent(sql, k -> new Histogram());
+        }
+        if (histogram != null) {
+            histogram.record(nanos);
+        }
+    }
+
+    @Override
+    public void rowsMapped(final Class<?> type, final int rows) {
+        this.rowsMapped.add(rows);
+        this.rowsMappedByType.computeIfAbsent(type, k -> new LongAdder()).add(rows);
+    }
+
+    /**
+     * Returns the histogram of connection acquisition times.
+     * @return the histogram of connection acquisition times in nanoseconds (not null)
+     */
+    public Histogram getConnectionWait() {
+        return this.connectionWait;
+    }
+
+    /**
+     * Returns the histogram of transaction durations.
+     * @return the histogram of transaction durations in nanoseconds (not null)
+     */
+    public Histogram getTransactions() {
+        return this.transactions;
+    }
+
+    /**
+     * Returns the histogram of statement execution times.
+     * @return the histogram of statement execution times in nanoseconds (not null)
+     */
+    public Histogram getStatementLatencies() {
+        return this.statements;
+    }
+
+    /**
+     * Returns the histogram of execution times of a given SQL statement.
+     * @param sql the SQL statement (not null)
+     * @return the histogram in nanoseconds or null if the statement is not tracked
+     */
+    public Histogram getStatementLatencies(final String sql) {
+        return this.statementsBySql.get(sql);
+    }
+
+    @Override
+    public long getConnectionsAcquired() {
+        return this.connectionWait.getCount();
+    }
+
+    @Override
+    public double getConnectionWaitMeanMicros() {
+        return this.connectionWait.getMean() / 1_000.0;
+    }
+
+    @Override
+    public long getConnectionWaitP99Micros() {
+        return micros(this.connectionWait.getPercentile(99.0));
+    }
+
+    @Override
+    public long getConnectionWaitMaxMicros() {
+        return micros(this.connectionWait.getMax());
+    }
+
+    @Override
+    public long getCommits() {
+        return this.commits.sum();
+    }
+
+    @Override
+    public long getRollbacks() {
+        return this.rollbacks.sum();
+    }
+
+    @Override
+    public long getRetries() {
+        return this.retries.sum();
+    }
+
+    @Override
+    public Map<String, Long> getRetriesByMethod() {
+        final TreeMap<String, Long> result = new TreeMap<>();
+        this.retriesByMethod.forEach((method, count) -> result.put(method, count.sum()));
+        return result;
+    }
+
+    @Override
+    public double getTransactionMeanMicros() {
+        return this.transactions.getMean() / 1_000.0;
+    }
+
+    @Override
+    public long getTransactionP99Micros() {
+        return micros(this.transactions.getPercentile(99.0));
+    }
+
+    @Override
+    public long getTransactionMaxMicros() {
+        return micros(this.transactions.getMax());
+    }
+
+    @Override
+    public long getStatements() {
+        return this.statements.getCount();
+    }
+
+    @Override
+    public double getStatementMeanMicros() {
+        return this.statements.getMean() / 1_000.0;
+    }
+
+    @Override
+    public long getStatementP50Micros() {
+        return micros(this.statements.getPercentile(50.0));
+    }
+
+    @Override
+    public long getStatementP99Micros() {
+        return micros(this.statements.getPercentile(99.0));
+    }
+
+    @Override
+    public long getStatementP999Micros() {
+        return micros(this.statements.getPercentile(99.9));
+    }
+
+    @Override
+    public long getStatementMaxMicros() {
+        return micros(this.statements.getMax());
+    }
+
+    @Override
+    public Map<String, Long> getStatementP99MicrosBySql() {
+        final TreeMap<String, Long> result = new TreeMap<>();
+        this.statementsBySql.forEach((sql, histogram) -> result.put(sql, micros(histogram.getPercentile(99.0))));
+        return result;
+    }
+
+    @Override
+    public long getRowsMapped() {
+        return this.rowsMapped.sum();
+    }
+
+    @Override
+    public Map<String, Long> getRowsMappedByType() {
+        final TreeMap<String, Long> result = new TreeMap<>();
+        this.rowsMappedByType.forEach((type, rows) -> result.put(type.getName(), rows.sum()));
+        return result;
+    }
+
+    @Override
+    public void reset() {
+        this.connectionWait.reset();
+        this.transactions.reset();
+        this.statements.reset();
+        this.commits.reset();
+        this.rollbacks.reset();
+        this.retries.reset();
+        this.rowsMapped.reset();
+        this.statementsBySql.clear();
+        this.rowsMappedByType.clear();
+        this.retriesByMethod.clear();
+    }
+
+    /**
+     * Converts nanoseconds to microseconds.
+     * @param nanos the duration in nanoseconds
+     * @return the duration in microseconds
+     */
+    private static long micros(final long nanos) {
+        return TimeUnit.NANOSECONDS.toMicros(nanos);
+    }
+
+}
@@ -0,0 +1,361 @@
+/*
+ * Copyright 2021 Claire Fauch
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.code.fauch.revealer.metrics;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Log of the SQL statements slower than a threshold.
+ * <p>
+ * Each logged statement comes with its SQL, its parameters (truncated or redacted), its number of rows and
+ * the calling service method, as entered by <code>JdbcFactory</code>. To keep the log cheap, slow statements can
+ * be sampled and the number of logged statements per second is limited. The log is disabled until a
+ * configuration is installed:
+ * </p>
+ * <pre>
+ *     SlowQueryLog.install(SlowQueryLog.withThresholdMillis(200L)
+ *             .withMaxParameterLength(32)
+ *             .withSampleRate(0.5)
+ *             .withMaxPerSecond(5));
+ * </pre>
+ * The statements executed by <code>SmallJdbcDao</code> and the ones prepared through
+ * <code>JdbcFactory.connection()</code> are timed.
+ */
+public final class SlowQueryLog {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SlowQueryLog.class);
+
+    /**
+     * The number of low bits of the window holding the count of logged statements.
+     */
+    private static final int COUNT_BITS = 20;
+
+    private static final long COUNT_MASK = (1L << COUNT_BITS) - 1;
+
+    /**
+     * The service method calling the statements of the current thread (null if unknown).
+     */
+    private static final ThreadLocal<String> CALLER = new ThreadLocal<>();
+
+    /**
+     * Scope that restores nothing.
+     */
+    private static final Scope NOOP_SCOPE = () -> {};
+
+    /**
+     * Scope of a calling method: closing it restores the previous calling method.
+     */
+    public interface Scope extends AutoCloseable {
+
+        /**
+         * Restores the previous calling method of the current thread.
+         */
+        @Override
+        void close();
+
+    }
+
+    /**
+     * The installed log (null when disabled).
+     */
+    private static volatile SlowQueryLog current;
+
+    /**
+     * The threshold in nanoseconds (>=0)
+     */
+    private final long thresholdNanos;
+
+    /**
+     * The maximum length of a logged parameter (>=0)
+     */
+    private final int maxParameterLength;
+
+    /**
+     * Whether the parameters are replaced by '?' or not.
+     */
+    private final boolean redacted;
+
+    /**
+     * The ratio of slow statements to log (between 0 and 1).
+     */
+    private final double sampleRate;
+
+    /**
+     * The maximum number of logged statements per second (>0).
+     */
+    private final int maxPerSecond;
+
+    /**
+     * The current second (signed high bits) and the number of statements logged during this second (low bits).
+     */
+    private final AtomicLong window = new AtomicLong();
+
+    /**
+     * The number of logged statements.
+     */
+    private final LongAdder logged = new LongAdder();
+
+    /**
+     * The number of slow statements not logged (sampling or rate limit).
+     */
+    private final LongAdder skipped = new LongAdder();
+
+    /**
+     * Constructor.
+     * @param thresholdNanos the threshold in nanoseconds (>=0)
+     * @param maxParameterLength the maximum length of a logged parameter (>=0)
+     * @param redacted whether the parameters are replaced by '?' or not
+     * @param sampleRate the ratio of slow statements to log (between 0 and 1)
+     * @param maxPerSecond the maximum number of logged statements per second (>0)
+     */
+    private SlowQueryLog(final long thresholdNanos, final int maxParameterLength, final boolean redacted,
+                         final double sampleRate, final int maxPerSecond) {
+        if (thresholdNanos < 0 || maxParameterLength < 0) {
+            throw new IllegalArgumentException("threshold and maxParameterLength must be >=0");
+        }
+        if (sampleRate < 0.0 || sampleRate > 1.0) {
+            throw new IllegalArgumentException("sampleRate must be between 0 and 1");
+        }
+        if (maxPerSecond <= 0 || maxPerSecond > COUNT_MASK) {
+            throw new IllegalArgumentException("maxPerSecond must be >0 and <2^20");
+        }
+        this.thresholdNanos = thresholdNanos;
+        this.maxParameterLength = maxParameterLength;
+        this.redacted = redacted;
+        this.sampleRate = sampleRate;
+        this.maxPerSecond = maxPerSecond;
+    }
+
+    /**
+     * Creates a log configuration with the given threshold, parameters truncated to 64 characters,
+     * no sampling and at most 10 statements logged per second.
+     * @param threshold the threshold in milliseconds (>=0)
+     * @return the new configuration (not null)
+     */
+    public static SlowQueryLog withThresholdMillis(final long threshold) {
+        return new SlowQueryLog(TimeUnit.MILLISECONDS.toNanos(threshold), 64, false, 1.0, 10);
+    }
+
+    /**
+     * Returns a copy of this configuration with the given maximum length of logged parameters.
+     * @param value the maximum length of a logged parameter (>=0)
+     * @return the new configuration (not null)
+     */
+    public SlowQueryLog withMaxParameterLength(final int value) {
+        return new SlowQueryLog(this.thresholdNanos, value, this.redacted, this.sampleRate, this.maxPerSecond);
+    }
+
+    /**
+     * Returns a copy of this configuration where parameters are redacted or not.
+     * @param value true to replace all parameters by '?'
+     * @return the new configuration (not null)
+     */
+    public SlowQueryLog withRedactedParameters(final boolean value) {
+        return new SlowQueryLog(this.thresholdNanos, this.maxParameterLength, value, this.sampleRate, this.maxPerSecond);
+    }
+
+    /**
+     * Returns a copy of this configuration with the given sample rate.
+     * @param value the ratio of slow statements to log (between 0 and 1)
+     * @return the new configuration (not null)
+     */
+    public SlowQueryLog withSampleRate(final double value) {
+        return new SlowQueryLog(this.thresholdNanos, this.maxParameterLength, this.redacted, value, this.maxPerSecond);
+    }
+
+    /**
+     * Returns a copy of this configuration with the given maximum number of logged statements per second.
+     * @param value the maximum number of logged statements per second (>0)
+     * @return the new configuration (not null)
+     */
+    public SlowQueryLog withMaxPerSecond(final int value) {
+        return new SlowQueryLog(this.thresholdNanos, this.maxParameterLength, this.redacted, this.sampleRate, value);
+    }
+
+    /**
+     * Installs a log configuration.
+     * @param log the configuration to install (null to disable the log)
+     */
+    public static void install(final SlowQueryLog log) {
+        current = log;
+    }
+
+    /**
+     * Returns the installed log.
+     * @return the installed log (empty if disabled)
+     */
+    public static Optional<SlowQueryLog> get() {
+        return Optional.ofNullable(current);
+    }
+
+    /**
+     * Determines whether the log is enabled or not.
+     * @return true if a log configuration is installed
+     */
+    public static boolean isEnabled() {
+        return current != null;
+    }
+
+    /**
+     * Makes a method the calling method of the statements of the current thread until the returned scope is
+     * closed. Nothing is recorded while the log is disabled.
+     * @param caller the name of the calling method (null to keep the current one)
+     * @return the scope to close on the same thread (not null)
+     */
+    public static Scope enter(final String caller) {
+        if (caller == null || current == null) {
+            return NOOP_SCOPE;
+        }
+        final String previous = CALLER.get();
+        CALLER.set(caller);
+        return () -> {
+            if (previous == null) {
+                CALLER.remove();
+            } else {
+                CALLER.set(previous);
+            }
+        };
+    }
+
+    /**
+     * Returns the calling method of the statements of the current thread.
+     * @return the name of the calling method or null if unknown
+     */
+    public static String caller() {
+        return CALLER.get();
+    }
+
+    /**
+     * Reports the execution of a statement of the calling method of the current thread to the installed log,
+     * if any.
+     * @param sql the SQL statement (it may be null)
+     * @param params the parameters of the statement (not null, it may be empty)
+     * @param rows the number of read or affected rows (-1 if unknown)
+     * @param nanos the execution time in nanoseconds
+     */
+    public static void report(final String sql, final Object[] params, final long rows, final long nanos) {
+        report(CALLER.get(), sql, params, rows, nanos);
+    }
+
+    /**
+     * Reports the execution of a statement to the installed log, if any.
+     * @param caller the name of the calling method (null if unknown)
+     * @param sql the SQL statement (it may be null)
+     * @param params the parameters of the statement (not null, it may be empty)
+     * @param rows the number of read or affected rows (-1 if unknown)
+     * @param nanos the execution time in nanoseconds
+     */
+    public static void report(final String caller, final String sql, final Object[] params, final long rows,
+                              final long nanos) {
+        final SlowQueryLog log = current;
+        if (log != null && nanos >= log.thresholdNanos) {
+            log.record(caller, sql, params, rows, nanos);
+        }
+    }
+
+    /**
+     * Returns the number of logged statements.
+     * @return the number of logged statements
+     */
+    public long getLogged() {
+        return this.logged.sum();
+    }
+
+    /**
+     * Returns the number of slow statements not logged because of sampling or rate limiting.
+     * @return the number of skipped statements
+     */
+    public long getSkipped() {
+        return this.skipped.sum();
+    }
+
+    /**
+     * Logs a slow statement if it is sampled and the rate limit is not reached.
+     * @param caller the name of the calling method (null if unknown)
+     * @param sql the SQL statement (it may be null)
+     * @param params the parameters of the statement (not null, it may be empty)
+     * @param rows the number of read or affected rows (-1 if unknown)
+     * @param nanos the execution time in nanoseconds
+     */
+    private void record(final String caller, final String sql, final Object[] params, final long rows,
+                        final long nanos) {
+        if (this.sampleRate < 1.0 && ThreadLocalRandom.current().nextDouble() >= this.sampleRate
+                || !acquire(System.nanoTime())) {
+            this.skipped.increment();
+            return;
+        }
+        this.logged.increment();
+        LOGGER.warn("Slow query ({} ms, {} rows) in {}: {} {}",
+                TimeUnit.NANOSECONDS.toMillis(nanos), rows, caller == null ? "unknown" : caller, sql, render(params));
+    }
+
+    /**
+     * Takes a slot in the log rate of the current second. The second is kept signed in the high bits, since
+     * <code>System.nanoTime()</code> may be negative, and the count (below 2^20) in the low bits.
+     * @param now the current time in nanoseconds
+     * @return true if the statement can be logged
+     */
+    boolean acquire(final long now) {
+        final long second = TimeUnit.NANOSECONDS.toSeconds(now);
+        for (;;) {
+            final long state = this.window.get();
+            final long count = state & COUNT_MASK;
+            final long next;
+            if (state >> COUNT_BITS != second) {
+                next = second << COUNT_BITS | 1;
+            } else if (count < this.maxPerSecond) {
+                next = state + 1;
+            } else {
+                return false;
+            }
+            if (this.window.compareAndSet(state, next)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Renders the parameters of a statement.
+     * @param params the parameters (not null, it may be empty)
+     * @return the rendered parameters (not null)
+     */
+    private String render(final Object[] params) {
+        final StringBuilder builder = new StringBuilder("[");
+        for (int i = 0; i < params.length; i++) {
+            if (i > 0) {
+                builder.append(", ");
+            }
+            if (this.redacted) {
+                builder.append('?');
+            } else {
+                final String value = String.valueOf(params[i]);
+                if (value.length() > this.maxParameterLength) {
+                    builder.append(value, 0, this.maxParameterLength).append("...");
+                } else {
+                    builder.append(value);
+                }
+            }
+        }
+        return builder.append(']').toString();
+    }
+
+}
@@ -0,0 +1,37 @@
+/*
+ * Copyright 2021 Claire Fauch
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/**
+ * This package defines the metrics SPI of the library.
+ * <p>
+ * The library records the time spent to acquire connections, the duration of transactions with the number of
+ * commits and rollbacks, the execution time of each SQL statement of the DAO and the number of mapped rows.
+ * By default, nothing is recorded. Install the built-in <code>SimpleJdbcMetrics</code> recorder, or your own
+ * <code>JdbcMetrics</code> implementation, to collect them:
+ * </p>
+ * <pre>
+ *     final SimpleJdbcMetrics metrics = new SimpleJdbcMetrics();
+ *     metrics.register();
+ *     Metrics.install(metrics);
+ * </pre>
+ * <p>
+ * A <code>JdbcMetrics</code> implementation can also be declared as a service provider: the first one found
+ * is installed automatically.
+ * </p>
+ * <p>
+ * Statements slower than a threshold can also be logged, with their parameters and the calling method,
+ * by installing a <code>SlowQueryLog</code>. Sampling and rate limiting keep the log cheap under load.
+ * </p>
+ */
+package com.code.fauch.revealer.metrics;
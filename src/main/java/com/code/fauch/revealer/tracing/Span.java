@@ -0,0 +1,96 @@
+/*
+ * Copyright 2021 Claire Fauch
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.code.fauch.revealer.tracing;
+
+/**
+ * Interface describing a span of a trace (SPI).
+ * <p>
+ * A span is started by the <code>Tracer</code> and ended exactly once by the library, but not always on the
+ * thread that started it: the span of a published or scanned query ends on the thread closing its cursor, and
+ * the calls of a group commit run, with their spans, on the thread of the leader of the group. A span must
+ * therefore not rely on the state of its starting thread, and its methods may be called from another thread
+ * than the one that started it (never concurrently). All methods do nothing by default.
+ * </p>
+ */
+public interface Span {
+
+    /**
+     * Span that records nothing.
+     */
+    Span NOOP = new Span() {};
+
+    /**
+     * Name of the attribute holding the SQL statement.
+     */
+    String SQL = "db.statement";
+
+    /**
+     * Name of the attribute holding the number of read or affected rows.
+     */
+    String ROWS = "db.rows";
+
+    /**
+     * Name of the attribute holding the class of the mapped beans.
+     */
+    String ENTITY = "db.entity";
+
+    /**
+     * Name of the attribute holding the outcome of a transaction.
+     */
+    String COMMITTED = "db.committed";
+
+    /**
+     * Name of the attribute telling whether the connection is acquired lazily.
+     */
+    String LAZY = "db.lazy";
+
+    /**
+     * Sets a string attribute.
+     * @param key the name of the attribute (not null)
+     * @param value the value of the attribute (it may be null)
+     */
+    default void setAttribute(final String key, final String value) {
+    }
+
+    /**
+     * Sets a numeric attribute.
+     * @param key the name of the attribute (not null)
+     * @param value the value of the attribute
+     */
+    default void setAttribute(final String key, final long value) {
+    }
+
+    /**
+     * Sets a boolean attribute.
+     * @param key the name of the attribute (not null)
+     * @param value the value of the attribute
+     */
+    default void setAttribute(final String key, final boolean value) {
+    }
+
+    /**
+     * Records the error that ended the span.
+     * @param error the error (not null)
+     */
+    default void setError(final Throwable error) {
+    }
+
+    /**
+     * Ends the span.
+     */
+    default void end() {
+    }
+
+}
@@ -0,0 +1,39 @@
+/*
+ * Copyright 2021 Claire Fauch
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.code.fauch.revealer.tracing;
+
+/**
+ * Interface describing the expected behavior of a tracer (SPI).
+ * <p>
+ * The tracer is called on the hot path: it must be thread safe and must not block.
+ * </p>
+ */
+@FunctionalInterface
+public interface Tracer {
+
+    /**
+     * Tracer that records nothing.
+     */
+    Tracer NOOP = (name, parent) -> Span.NOOP;
+
+    /**
+     * Starts a new span.
+     * @param name the name of the span (not null)
+     * @param parent the parent span (null for a root span)
+     * @return the started span (not null)
+     */
+    Span start(String name, Span parent);
+
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright 2021 Claire Fauch
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.code.fauch.revealer.tracing;
+
+import java.util.Objects;
+import java.util.ServiceLoader;
+
+/**
+ * Holder of the tracer used by the library and of the active span of the current thread.
+ * <p>
+ * The tracer is the first <code>Tracer</code> service provider found on the module or class path,
+ * or the no-op tracer. It can be replaced at any time with <code>install</code>.
+ * When the no-op tracer is installed, starting and activating spans cost nothing.
+ * </p>
+ */
+public final class Tracing {
+
+    /**
+     * Scope of an active span: closing it restores the previously active span.
+     */
+    public interface Scope extends AutoCloseable {
+
+        /**
+         * Restores the previously active span.
+         */
+        @Override
+        void close();
+
+    }
+
+    /**
+     * Scope that restores nothing.
+     */
+    private static final Scope NOOP_SCOPE = () -> {};
+
+    /**
+     * The active span of the current thread (it may be unbound).
+     */
+    private static final ThreadLocal<Span> ACTIVE = new ThreadLocal<>();
+
+    /**
+     * The installed tracer (not null).
+     */
+    private static volatile Tracer current = ServiceLoader.load(Tracer.class)
+            .findFirst()
+            .orElse(Tracer.NOOP);
+
+    /**
+     * No constructor.
+     */
+    private Tracing() {
+        //Nothing to do
+    }
+
+    /**
+     * Returns the installed tracer.
+     * @return the installed tracer (not null)
+     */
+    public static Tracer get() {
+        return current;
+    }
+
+    /**
+     * Installs a tracer.
+     * @param tracer the tracer to install (not null)
+     */
+    public static void install(final Tracer tracer) {
+        current = Objects.requireNonNull(tracer, "tracer is mandatory");
+    }
+
+    /**
+     * Determines whether a tracer other than the no-op one is installed.
+     * @return true if spans are recorded
+     */
+    public static boolean isEnabled() {
+        return current != Tracer.NOOP;
+    }
+
+    /**
+     * Starts a new span, child of the active span of the current thread.
+     * @param name the name of the span (not null)
+     * @return the started span (not null)
+     */
+    public static Span start(final String name) {
+        final Tracer tracer = current;
+        return tracer == Tracer.NOOP ? Span.NOOP : tracer.start(name, ACTIVE.get());
+    }
+
+    /**
+     * Returns the active span of the current thread.
+     * @return the active span or null if none
+     */
+    public static Span active() {
+        return ACTIVE.get();
+    }
+
+    /**
+     * Makes a span the active span of the current thread until the returned scope is closed.
+     * @param span the span to activate (it may be null)
+     * @return the scope to close on the same thread (not null)
+     */
+    public static Scope activate(final Span span) {
+        if (span == null || span == Span.NOOP) {
+            return NOOP_SCOPE;
+        }
+        final Span previous = ACTIVE.get();
+        ACTIVE.set(span);
+        return () -> {
+            if (previous == null) {
+                ACTIVE.remove();
+            } else {
+                ACTIVE.set(previous);
+            }
+        };
+    }
+
+}
@@ -0,0 +1,33 @@
+/*
+ * Copyright 2021 Claire Fauch
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/**
+ * This package defines the tracing SPI of the library.
+ * <p>
+ * When a tracer is installed, the library opens a span for each call of a <code>@Jdbc</code> method,
+ * for each transaction and for each executed statement (DAO operations and statements prepared through
+ * <code>JdbcFactory.connection()</code>). Statement spans carry the SQL, the number of rows and the
+ * class of the beans as attributes. Spans are nested: the parent of a span is the active span of the
+ * thread, and subtasks created with <code>JdbcFactory.fork</code> keep the span of the calling method
+ * as parent. A span may be ended on another thread than the one that started it, see <code>Span</code>.
+ * </p>
+ * <pre>
+ *     Tracing.install((name, parent) -&gt; new MySpan(name, parent));
+ * </pre>
+ * <p>
+ * A <code>Tracer</code> implementation can also be declared as a service provider: the first one found
+ * is installed automatically. By default, nothing is traced.
+ * </p>
+ */
+package com.code.fauch.revealer.tracing;
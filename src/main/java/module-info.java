@@ -1,7 +1,18 @@
 module com.code.fauch.revealer {
     requires transitive java.sql;
     requires java.desktop;
+    requires java.management;
+    requires jdk.jfr;
     requires org.slf4j;
     exports com.code.fauch.revealer.jdbc.transaction;
+    exports com.code.fauch.revealer.jdbc.pool;
+    exports com.code.fauch.revealer.metrics;
+    exports com.code.fauch.revealer.jfr;
+    exports com.code.fauch.revealer.tracing;
+    exports com.code.fauch.revealer.jdbc.dialect;
+    exports com.code.fauch.revealer.id;
     exports com.code.fauch.revealer;
+    uses com.code.fauch.revealer.metrics.JdbcMetrics;
+    uses com.code.fauch.revealer.tracing.Tracer;
+    uses com.code.fauch.revealer.jdbc.dialect.Dialect;
 }
\ No newline at end of file
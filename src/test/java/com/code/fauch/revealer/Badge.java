@@ -0,0 +1,60 @@
+package com.code.fauch.revealer;
+
+import java.sql.Timestamp;
+
+@Collection(name="horcrux_badges")
+public class Badge {
+
+    @Id
+    @Field(name = "id")
+    private Long id;
+
+    @Field(name = "label")
+    private String label;
+
+    @Field(name = "code")
+    private String code;
+
+    @Field(name = "created")
+    private Timestamp created;
+
+    public Badge() {
+    }
+
+    public Badge(final String label) {
+        this.label = label;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    public void setLabel(String label) {
+        this.label = label;
+    }
+
+    public String getCode() {
+        return code;
+    }
+
+    public void setCode(String code) {
+        this.code = code;
+    }
+
+    public Timestamp getCreated() {
+        return created;
+    }
+
+    public void setCreated(Timestamp created) {
+        this.created = created;
+    }
+
+}
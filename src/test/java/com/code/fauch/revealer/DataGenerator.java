@@ -0,0 +1,54 @@
+package com.code.fauch.revealer;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.StringJoiner;
+
+/**
+ * Bulk-fills the scale_rows table with synthetic rows: an id and a configurable number of varchar columns
+ * (c1, c2...) of a configurable width. Rows are generated by the database itself, by chunks.
+ */
+public final class DataGenerator {
+
+    private static final long CHUNK = 500_000L;
+
+    private final int columns;
+
+    private final int width;
+
+    public DataGenerator(final int columns, final int width) {
+        if (columns < 2 || width < 1) {
+            throw new IllegalArgumentException("at least 2 columns of width >=1 are expected");
+        }
+        this.columns = columns;
+        this.width = width;
+    }
+
+    public void fill(final Connection conn, final long rows) throws SQLException {
+        final StringJoiner ddl = new StringJoiner(", ", "create table scale_rows (id bigint not null primary key, ", ")");
+        final StringJoiner values = new StringJoiner(", ", "insert into scale_rows select x, ", " from system_range(?, ?)");
+        for (int i = 1; i <= this.columns; i++) {
+            ddl.add("c" + i + " varchar(" + this.width + ")");
+            values.add("rpad(cast(x * " + i + " as varchar), " + this.width + ", 'x')");
+        }
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("drop table if exists scale_rows");
+            stmt.execute(ddl.toString());
+        }
+        final boolean autoCommit = conn.getAutoCommit();
+        conn.setAutoCommit(false);
+        try (PreparedStatement stmt = conn.prepareStatement(values.toString())) {
+            for (long from = 1; from <= rows; from += CHUNK) {
+                stmt.setLong(1, from);
+                stmt.setLong(2, Math.min(rows, from + CHUNK - 1));
+                stmt.executeUpdate();
+                conn.commit();
+            }
+        } finally {
+            conn.setAutoCommit(autoCommit);
+        }
+    }
+
+}
@@ -0,0 +1,66 @@
+package com.code.fauch.revealer;
+
+import com.code.fauch.revealer.jdbc.transaction.JdbcFactory;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+
+public class DeadlineServiceImpl implements IDeadlineService {
+
+    private static final String SLOW_SQL =
+            "select sum(a.x * b.x) from system_range(1, 1000000) a, system_range(1, 1000000) b";
+
+    private final IDao<User> dao;
+
+    public DeadlineServiceImpl(final IDao<User> dao) {
+        this.dao = dao;
+    }
+
+    @Override
+    public long slowWithTimeout() throws PersistenceException {
+        return slow();
+    }
+
+    @Override
+    public long slow() throws PersistenceException {
+        try (PreparedStatement stmt = JdbcFactory.connection().prepareStatement(SLOW_SQL);
+             ResultSet result = stmt.executeQuery()) {
+            result.next();
+            return result.getLong(1);
+        } catch (SQLException err) {
+            throw new PersistenceException(err);
+        }
+    }
+
+    @Override
+    public int queryTimeout() throws PersistenceException {
+        try (PreparedStatement stmt = JdbcFactory.connection().prepareStatement("select 1")) {
+            return stmt.getQueryTimeout();
+        } catch (SQLException err) {
+            throw new PersistenceException(err);
+        }
+    }
+
+    @Override
+    public int saveGrouped(final User user) throws PersistenceException {
+        return this.dao.insert(user);
+    }
+
+    @Override
+    public int saveGroupedWithTimeout(final User user) throws PersistenceException {
+        return this.dao.insert(user);
+    }
+
+    @Override
+    public long slowGroupedWithTimeout() throws PersistenceException {
+        return slow();
+    }
+
+    @Override
+    public List<User> findAll() throws PersistenceException {
+        return this.dao.findAll("select * from horcrux_users order by id");
+    }
+
+}
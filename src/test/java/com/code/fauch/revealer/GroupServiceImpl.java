@@ -0,0 +1,73 @@
+package com.code.fauch.revealer;
+
+import com.code.fauch.revealer.jdbc.transaction.JdbcFactory;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+
+public class GroupServiceImpl implements IGroupService {
+
+    private final IDao<User> dao;
+
+    private IGroupService self;
+
+    public GroupServiceImpl(final IDao<User> dao) {
+        this.dao = dao;
+    }
+
+    public void setSelf(final IGroupService self) {
+        this.self = self;
+    }
+
+    @Override
+    public int save(final User user) throws PersistenceException {
+        return this.dao.insert(user);
+    }
+
+    @Override
+    public int saveSlowly(final User user, final long rows) throws PersistenceException {
+        try (PreparedStatement stmt = JdbcFactory.connection().prepareStatement(
+                "select sum(a.x * b.x) from system_range(1, ?) a, system_range(1, ?) b")) {
+            stmt.setLong(1, rows);
+            stmt.setLong(2, rows);
+            try (ResultSet result = stmt.executeQuery()) {
+                result.next();
+            }
+        } catch (SQLException err) {
+            throw new PersistenceException(err);
+        }
+        return this.dao.insert(user);
+    }
+
+    @Override
+    public int serializable() throws PersistenceException {
+        try {
+            return JdbcFactory.connection().getTransactionIsolation();
+        } catch (SQLException err) {
+            throw new PersistenceException(err);
+        }
+    }
+
+    @Override
+    public int defaultIsolation() throws PersistenceException {
+        return serializable();
+    }
+
+    @Override
+    public int saveAlone(final User user) throws PersistenceException {
+        return this.dao.insert(user);
+    }
+
+    @Override
+    public int saveTwice(final User user) throws PersistenceException {
+        return this.self.save(user) + this.self.save(new User(null, user.getName() + "-bis", user.getProfile()));
+    }
+
+    @Override
+    public List<User> findAll() throws PersistenceException {
+        return this.dao.findAll("select * from horcrux_users order by id");
+    }
+
+}
@@ -0,0 +1,180 @@
+package com.code.fauch.revealer;
+
+import com.code.fauch.revealer.jdbc.BeanRWFactory;
+import com.code.fauch.revealer.jdbc.SmallJdbcDao;
+import org.h2.jdbcx.JdbcConnectionPool;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+public class IDaoTest {
+
+    /**
+     * DAO implementing the abstract methods only.
+     */
+    private static final class MinimalDao implements IDao<User> {
+
+        private final IDao<User> dao;
+
+        private MinimalDao(final IDao<User> dao) {
+            this.dao = dao;
+        }
+
+        @Override
+        public int insert(User bean) throws PersistenceException {
+            return this.dao.insert(bean);
+        }
+
+        @Override
+        public int update(User bean) throws PersistenceException {
+            return this.dao.update(bean);
+        }
+
+        @Override
+        public int delete(User bean) throws PersistenceException {
+            return this.dao.delete(bean);
+        }
+
+        @Override
+        public User get(Object id) throws PersistenceException {
+            return this.dao.get(id);
+        }
+
+        @Override
+        public User find(String query, Object... args) throws PersistenceException {
+            return this.dao.find(query, args);
+        }
+
+        @Override
+        public List<User> getAll(Object start, int size) throws PersistenceException {
+            return this.dao.getAll(start, size);
+        }
+
+        @Override
+        public List<User> findAll(String query, Object... args) throws PersistenceException {
+            return this.dao.findAll(query, args);
+        }
+
+    }
+
+    private JdbcConnectionPool ds;
+
+    private Connection conn;
+
+    private IDao<User> dao;
+
+    @BeforeEach
+    public void setUp() throws SQLException {
+        this.ds = JdbcConnectionPool.create(
+                "jdbc:h2:mem:idao;INIT=runscript from 'src/test/resources/dataset/init.sql';DB_CLOSE_DELAY=0",
+                "harry",
+                ""
+        );
+        this.conn = this.ds.getConnection();
+        this.dao = new MinimalDao(new SmallJdbcDao<>(BeanRWFactory.from(User.class), this.conn));
+    }
+
+    @AfterEach
+    public void tearDown() throws SQLException {
+        this.conn.close();
+        this.ds.dispose();
+    }
+
+    @Test
+    public void testInsertAll() throws PersistenceException {
+        final List<User> users = List.of(new User(null, "totoro", "guest"), new User(null, "nausicaa", "guest"));
+        Assertions.assertEquals(2, this.dao.insertAll(users));
+        Assertions.assertEquals(6, this.dao.findAll("select * from horcrux_users").size());
+        Assertions.assertNotNull(users.get(1).getId());
+    }
+
+    @Test
+    public void testUpsert() throws PersistenceException {
+        Assertions.assertEquals(1, this.dao.upsert(new User(2L, "casper", "poltergeist")));
+        Assertions.assertEquals("poltergeist", this.dao.get(2L).getProfile());
+        Assertions.assertEquals(1, this.dao.upsert(new User(99L, "totoro", "guest")));
+        Assertions.assertEquals(5, this.dao.findAll("select * from horcrux_users").size());
+    }
+
+    @Test
+    public void testGetAll() throws PersistenceException {
+        final List<String> names = this.dao.getAll(List.of(1L, 99L, 3L)).stream()
+                .map(User::getName)
+                .collect(Collectors.toList());
+        Assertions.assertEquals(List.of("cfauch", "radj"), names);
+        Assertions.assertTrue(this.dao.getAll(List.of()).isEmpty());
+    }
+
+    @Test
+    public void testPublish() {
+        final List<String> names = new ArrayList<>();
+        final AtomicReference<Flow.Subscription> subscription = new AtomicReference<>();
+        final AtomicBoolean completed = new AtomicBoolean();
+        this.dao.publish("select * from horcrux_users order by id").subscribe(new Flow.Subscriber<>() {
+            @Override
+            public void onSubscribe(Flow.Subscription s) {
+                subscription.set(s);
+            }
+
+            @Override
+            public void onNext(User item) {
+                names.add(item.getName());
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                Assertions.fail(throwable);
+            }
+
+            @Override
+            public void onComplete() {
+                completed.set(true);
+            }
+        });
+        Assertions.assertTrue(names.isEmpty());
+        subscription.get().request(3);
+        Assertions.assertEquals(List.of("cfauch", "casper", "radj"), names);
+        Assertions.assertFalse(completed.get());
+        subscription.get().request(2);
+        Assertions.assertEquals(4, names.size());
+        Assertions.assertTrue(completed.get());
+    }
+
+    @Test
+    public void testPublishError() {
+        final AtomicReference<Throwable> error = new AtomicReference<>();
+        this.dao.publish("select * from unknown").subscribe(new Flow.Subscriber<>() {
+            @Override
+            public void onSubscribe(Flow.Subscription s) {
+                s.request(Long.MAX_VALUE);
+            }
+
+            @Override
+            public void onNext(User item) {
+                Assertions.fail("unexpected " + item);
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                error.set(throwable);
+            }
+
+            @Override
+            public void onComplete() {
+                Assertions.fail("unexpected completion");
+            }
+        });
+        Assertions.assertTrue(error.get() instanceof PersistenceException);
+    }
+
+}
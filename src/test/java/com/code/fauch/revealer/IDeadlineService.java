@@ -0,0 +1,30 @@
+package com.code.fauch.revealer;
+
+import com.code.fauch.revealer.jdbc.transaction.Jdbc;
+
+import java.util.List;
+
+public interface IDeadlineService {
+
+    @Jdbc(transactional = false, timeoutMillis = 200L)
+    long slowWithTimeout() throws PersistenceException;
+
+    @Jdbc(transactional = false)
+    long slow() throws PersistenceException;
+
+    @Jdbc(transactional = false)
+    int queryTimeout() throws PersistenceException;
+
+    @Jdbc(transactional = true, groupCommit = true)
+    int saveGrouped(User user) throws PersistenceException;
+
+    @Jdbc(transactional = true, groupCommit = true, timeoutMillis = 200L)
+    int saveGroupedWithTimeout(User user) throws PersistenceException;
+
+    @Jdbc(transactional = true, groupCommit = true, timeoutMillis = 200L)
+    long slowGroupedWithTimeout() throws PersistenceException;
+
+    @Jdbc(transactional = false, timeoutMillis = 60_000L)
+    List<User> findAll() throws PersistenceException;
+
+}
@@ -0,0 +1,31 @@
+package com.code.fauch.revealer;
+
+import com.code.fauch.revealer.jdbc.transaction.Jdbc;
+
+import java.sql.Connection;
+import java.util.List;
+
+public interface IGroupService {
+
+    @Jdbc(transactional = true, groupCommit = true)
+    int save(User user) throws PersistenceException;
+
+    @Jdbc(transactional = true, groupCommit = true)
+    int saveSlowly(User user, long rows) throws PersistenceException;
+
+    @Jdbc(transactional = true, groupCommit = true, isolation = Connection.TRANSACTION_SERIALIZABLE)
+    int serializable() throws PersistenceException;
+
+    @Jdbc(transactional = true, groupCommit = true)
+    int defaultIsolation() throws PersistenceException;
+
+    @Jdbc(transactional = true)
+    int saveAlone(User user) throws PersistenceException;
+
+    @Jdbc(transactional = true)
+    int saveTwice(User user) throws PersistenceException;
+
+    @Jdbc(transactional = false)
+    List<User> findAll() throws PersistenceException;
+
+}
@@ -0,0 +1,9 @@
+package com.code.fauch.revealer;
+
+import java.util.concurrent.CompletableFuture;
+
+public interface IGroupServiceAsync {
+
+    CompletableFuture<Integer> save(User user);
+
+}
@@ -0,0 +1,24 @@
+package com.code.fauch.revealer;
+
+import com.code.fauch.revealer.jdbc.transaction.Jdbc;
+
+import java.sql.Connection;
+
+public interface IIsolationService {
+
+    @Jdbc(transactional = true, isolation = Connection.TRANSACTION_SERIALIZABLE)
+    int serializable() throws PersistenceException;
+
+    @Jdbc(transactional = true, readOnly = true)
+    boolean readOnlyTransaction() throws PersistenceException;
+
+    @Jdbc(transactional = false, lazy = true, isolation = Connection.TRANSACTION_READ_UNCOMMITTED)
+    int lazyIsolation() throws PersistenceException;
+
+    @Jdbc(transactional = true)
+    int nested() throws PersistenceException;
+
+    @Jdbc(transactional = false)
+    boolean autoCommit() throws PersistenceException;
+
+}
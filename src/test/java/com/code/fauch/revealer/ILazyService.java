@@ -0,0 +1,21 @@
+package com.code.fauch.revealer;
+
+import com.code.fauch.revealer.jdbc.transaction.Jdbc;
+
+import java.util.List;
+
+public interface ILazyService {
+
+    @Jdbc(transactional = false, lazy = true)
+    int activeAfterGet(long id) throws PersistenceException;
+
+    @Jdbc(transactional = true, lazy = true)
+    int activeAfterSave(User user) throws PersistenceException;
+
+    @Jdbc(transactional = true, lazy = true)
+    void saveAllThenFail(List<User> users) throws PersistenceException;
+
+    @Jdbc(transactional = false, lazy = true)
+    String compute();
+
+}
@@ -0,0 +1,21 @@
+package com.code.fauch.revealer;
+
+import com.code.fauch.revealer.jdbc.transaction.Jdbc;
+
+import java.util.List;
+
+public interface IReplicaService {
+
+    @Jdbc(transactional = false, readOnly = true)
+    List<User> findAll() throws PersistenceException;
+
+    @Jdbc(transactional = false, readOnly = true, lazy = true)
+    boolean isReadOnly() throws PersistenceException;
+
+    @Jdbc(transactional = true, readOnly = true)
+    List<User> findAllInTransaction() throws PersistenceException;
+
+    @Jdbc(transactional = true)
+    void save(User user) throws PersistenceException;
+
+}
@@ -0,0 +1,26 @@
+package com.code.fauch.revealer;
+
+import com.code.fauch.revealer.jdbc.transaction.Jdbc;
+
+import java.util.List;
+
+public interface IRetryService {
+
+    @Jdbc(transactional = true, maxAttempts = 3, retryDelayMillis = 1L)
+    int save(User user, int failures, String state) throws PersistenceException;
+
+    @Jdbc(transactional = true)
+    int saveOnce(User user, int failures, String state) throws PersistenceException;
+
+    @Jdbc(transactional = true, maxAttempts = 3, retryDelayMillis = 1L, retryOn = "40")
+    int saveAnyRollback(User user, int failures, String state) throws PersistenceException;
+
+    @Jdbc(transactional = true, maxAttempts = 3, retryDelayMillis = 1L)
+    int saveNested(User user, int failures, String state) throws PersistenceException;
+
+    @Jdbc(transactional = false)
+    List<User> findAll() throws PersistenceException;
+
+    int getAttempts();
+
+}
@@ -12,6 +12,12 @@ public interface IService {
     @Jdbc(transactional = false)
     List<User> findAll() throws PersistenceException;
 
+    @Jdbc(transactional = false)
+    List<User> getInSubtasks(List<Long> ids) throws Exception;
+
+    @Jdbc(transactional = true)
+    int rename(long id, String name) throws PersistenceException;
+
     String fake();
 
 }
@@ -0,0 +1,14 @@
+package com.code.fauch.revealer;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+public interface IServiceAsync {
+
+    CompletableFuture<Void> save(User user);
+
+    CompletableFuture<List<User>> findAll();
+
+    CompletableFuture<Integer> rename(long id, String name);
+
+}
@@ -0,0 +1,53 @@
+package com.code.fauch.revealer;
+
+import com.code.fauch.revealer.jdbc.transaction.JdbcFactory;
+
+import java.sql.SQLException;
+
+public class IsolationServiceImpl implements IIsolationService {
+
+    private IIsolationService self;
+
+    public void setSelf(final IIsolationService self) {
+        this.self = self;
+    }
+
+    @Override
+    public int serializable() throws PersistenceException {
+        try {
+            return JdbcFactory.connection().getTransactionIsolation();
+        } catch (SQLException err) {
+            throw new PersistenceException(err);
+        }
+    }
+
+    @Override
+    public boolean readOnlyTransaction() throws PersistenceException {
+        try {
+            return JdbcFactory.connection().isReadOnly();
+        } catch (SQLException err) {
+            throw new PersistenceException(err);
+        }
+    }
+
+    @Override
+    public int lazyIsolation() throws PersistenceException {
+        return serializable();
+    }
+
+    @Override
+    public int nested() throws PersistenceException {
+        return this.self.serializable();
+    }
+
+    @Override
+    public boolean autoCommit() throws PersistenceException {
+        try {
+            JdbcFactory.connection().setAutoCommit(true);
+            return JdbcFactory.connection().getAutoCommit();
+        } catch (SQLException err) {
+            throw new PersistenceException(err);
+        }
+    }
+
+}
@@ -0,0 +1,46 @@
+package com.code.fauch.revealer;
+
+import com.code.fauch.revealer.jdbc.pool.ConnectionPool;
+
+import java.util.List;
+
+public class LazyServiceImpl implements ILazyService {
+
+    private final IDao<User> dao;
+
+    private final ConnectionPool pool;
+
+    public LazyServiceImpl(final IDao<User> dao, final ConnectionPool pool) {
+        this.dao = dao;
+        this.pool = pool;
+    }
+
+    @Override
+    public int activeAfterGet(long id) throws PersistenceException {
+        if (this.pool.getMetrics().getActive() != 0) {
+            throw new IllegalStateException("connection acquired too early");
+        }
+        this.dao.get(id);
+        return this.pool.getMetrics().getActive();
+    }
+
+    @Override
+    public int activeAfterSave(User user) throws PersistenceException {
+        this.dao.insert(user);
+        return this.pool.getMetrics().getActive();
+    }
+
+    @Override
+    public void saveAllThenFail(List<User> users) throws PersistenceException {
+        for (User user : users) {
+            this.dao.insert(user);
+        }
+        throw new PersistenceException(new IllegalStateException("failure"));
+    }
+
+    @Override
+    public String compute() {
+        return "yolo";
+    }
+
+}
@@ -0,0 +1,40 @@
+package com.code.fauch.revealer;
+
+import com.code.fauch.revealer.jdbc.transaction.JdbcFactory;
+
+import java.sql.SQLException;
+import java.util.List;
+
+public class ReplicaServiceImpl implements IReplicaService {
+
+    private final IDao<User> dao;
+
+    public ReplicaServiceImpl(final IDao<User> dao) {
+        this.dao = dao;
+    }
+
+    @Override
+    public List<User> findAll() throws PersistenceException {
+        return this.dao.findAll("select * from horcrux_users order by id");
+    }
+
+    @Override
+    public boolean isReadOnly() throws PersistenceException {
+        try {
+            return JdbcFactory.connection().isReadOnly();
+        } catch (SQLException err) {
+            throw new PersistenceException(err);
+        }
+    }
+
+    @Override
+    public List<User> findAllInTransaction() throws PersistenceException {
+        return findAll();
+    }
+
+    @Override
+    public void save(final User user) throws PersistenceException {
+        this.dao.insert(user);
+    }
+
+}
@@ -0,0 +1,57 @@
+package com.code.fauch.revealer;
+
+import java.sql.SQLException;
+import java.util.List;
+
+public class RetryServiceImpl implements IRetryService {
+
+    private final IDao<User> dao;
+
+    private IRetryService self;
+
+    private int attempts;
+
+    public RetryServiceImpl(final IDao<User> dao) {
+        this.dao = dao;
+    }
+
+    public void setSelf(final IRetryService self) {
+        this.self = self;
+    }
+
+    @Override
+    public int save(final User user, final int failures, final String state) throws PersistenceException {
+        this.attempts++;
+        this.dao.insert(user);
+        if (this.attempts <= failures) {
+            throw new PersistenceException(new SQLException("conflict", state));
+        }
+        return this.attempts;
+    }
+
+    @Override
+    public int saveOnce(final User user, final int failures, final String state) throws PersistenceException {
+        return save(user, failures, state);
+    }
+
+    @Override
+    public int saveAnyRollback(final User user, final int failures, final String state) throws PersistenceException {
+        return save(user, failures, state);
+    }
+
+    @Override
+    public int saveNested(final User user, final int failures, final String state) throws PersistenceException {
+        return this.self.save(user, failures, state);
+    }
+
+    @Override
+    public List<User> findAll() throws PersistenceException {
+        return this.dao.findAll("select * from horcrux_users order by id");
+    }
+
+    @Override
+    public int getAttempts() {
+        return this.attempts;
+    }
+
+}
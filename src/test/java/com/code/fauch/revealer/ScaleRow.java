@@ -0,0 +1,40 @@
+package com.code.fauch.revealer;
+
+@Collection(name="scale_rows")
+public class ScaleRow {
+
+    @Id
+    @Field(name = "id")
+    private Long id;
+
+    @Field(name = "c1")
+    private String c1;
+
+    @Field(name = "c2")
+    private String c2;
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getC1() {
+        return c1;
+    }
+
+    public void setC1(String c1) {
+        this.c1 = c1;
+    }
+
+    public String getC2() {
+        return c2;
+    }
+
+    public void setC2(String c2) {
+        this.c2 = c2;
+    }
+
+}
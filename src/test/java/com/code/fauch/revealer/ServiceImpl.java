@@ -1,7 +1,14 @@
 package com.code.fauch.revealer;
 
+import com.code.fauch.revealer.jdbc.transaction.JdbcFactory;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 public class ServiceImpl implements IService {
 
@@ -36,6 +43,36 @@ public class ServiceImpl implements IService {
         return all;
     }
 
+    @Override
+    public List<User> getInSubtasks(List<Long> ids) throws Exception {
+        final ExecutorService executor = Executors.newFixedThreadPool(ids.size());
+        try {
+            final List<Future<User>> futures = new ArrayList<>();
+            for (Long id : ids) {
+                futures.add(executor.submit(JdbcFactory.fork(() -> this.dao.get(id))));
+            }
+            final ArrayList<User> all = new ArrayList<>();
+            for (Future<User> future : futures) {
+                all.add(future.get());
+            }
+            return all;
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Override
+    public int rename(long id, String name) throws PersistenceException {
+        try (PreparedStatement stmt = JdbcFactory.connection().prepareStatement(
+                "update horcrux_users set name=? where id=?")) {
+            stmt.setString(1, name);
+            stmt.setLong(2, id);
+            return stmt.executeUpdate();
+        } catch (SQLException err) {
+            throw new PersistenceException(err);
+        }
+    }
+
     @Override
     public String fake() {
         return "yolo";
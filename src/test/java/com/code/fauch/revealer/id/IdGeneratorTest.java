@@ -0,0 +1,142 @@
+package com.code.fauch.revealer.id;
+
+import org.h2.jdbcx.JdbcConnectionPool;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class IdGeneratorTest {
+
+    private static final int THREADS = 8;
+
+    private JdbcConnectionPool ds;
+
+    @BeforeEach
+    public void setUp() throws SQLException {
+        this.ds = JdbcConnectionPool.create("jdbc:h2:mem:ids;DB_CLOSE_DELAY=-1", "harry", "");
+        try (Connection conn = this.ds.getConnection(); Statement stmt = conn.createStatement()) {
+            stmt.execute("create sequence horcrux_ids");
+        }
+    }
+
+    @AfterEach
+    public void tearDown() throws SQLException {
+        try (Connection conn = this.ds.getConnection(); Statement stmt = conn.createStatement()) {
+            stmt.execute("drop all objects");
+        }
+        this.ds.dispose();
+    }
+
+    @Test
+    public void testHiLoBlocks() throws SQLException {
+        final HiLoIdGenerator generator = HiLoIdGenerator.create("horcrux_ids", 10);
+        final List<Long> ids = new ArrayList<>();
+        try (Connection conn = this.ds.getConnection()) {
+            for (int i = 0; i < 25; i++) {
+                ids.add(generator.next(conn));
+            }
+        }
+        Assertions.assertEquals(3L, generator.getReservations());
+        Assertions.assertEquals(10L, ids.get(0));
+        Assertions.assertEquals(19L, ids.get(9));
+        Assertions.assertEquals(20L, ids.get(10));
+        Assertions.assertEquals(34L, ids.get(24));
+    }
+
+    @Test
+    public void testHiLoConcurrent() throws Exception {
+        final HiLoIdGenerator generator = HiLoIdGenerator.create("horcrux_ids", 50);
+        final Set<Long> ids = generate(() -> {
+            try (Connection conn = this.ds.getConnection()) {
+                final List<Long> generated = new ArrayList<>();
+                for (int i = 0; i < 1000; i++) {
+                    generated.add(generator.next(conn));
+                }
+                return generated;
+            }
+        });
+        Assertions.assertEquals(THREADS * 1000, ids.size());
+        Assertions.assertTrue(generator.getReservations() >= THREADS * 1000 / 50);
+    }
+
+    @Test
+    public void testHiLoInvalid() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> HiLoIdGenerator.create("horcrux_ids", 0));
+        Assertions.assertThrows(NullPointerException.class, () -> HiLoIdGenerator.create(null, 10));
+    }
+
+    @Test
+    public void testHiLoUnknownSequence() throws SQLException {
+        try (Connection conn = this.ds.getConnection()) {
+            Assertions.assertThrows(SQLException.class, () -> HiLoIdGenerator.create("unknown", 10).next(conn));
+        }
+    }
+
+    @Test
+    public void testTimeOrdered() {
+        final TimeOrderedIdGenerator generator = TimeOrderedIdGenerator.create(5);
+        final long before = System.currentTimeMillis();
+        long previous = 0L;
+        for (int i = 0; i < 10000; i++) {
+            final long id = generator.nextId();
+            Assertions.assertTrue(id > previous);
+            Assertions.assertEquals(5L, (id >>> 12) & TimeOrderedIdGenerator.MAX_NODE);
+            previous = id;
+        }
+        Assertions.assertTrue(TimeOrderedIdGenerator.timestamp(previous) >= before);
+        Assertions.assertTrue(TimeOrderedIdGenerator.timestamp(previous) <= System.currentTimeMillis() + 100);
+        Assertions.assertNotEquals(
+                TimeOrderedIdGenerator.create(1).nextId() & 0x3FF000L,
+                TimeOrderedIdGenerator.create(2).nextId() & 0x3FF000L);
+    }
+
+    @Test
+    public void testTimeOrderedConcurrent() throws Exception {
+        final TimeOrderedIdGenerator generator = TimeOrderedIdGenerator.create(0);
+        final Set<Long> ids = generate(() -> {
+            final List<Long> generated = new ArrayList<>();
+            for (int i = 0; i < 10000; i++) {
+                generated.add(generator.next(null));
+            }
+            return generated;
+        });
+        Assertions.assertEquals(THREADS * 10000, ids.size());
+    }
+
+    @Test
+    public void testTimeOrderedInvalid() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> TimeOrderedIdGenerator.create(-1));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> TimeOrderedIdGenerator.create(1024));
+    }
+
+    private static Set<Long> generate(final Callable<List<Long>> task) throws Exception {
+        final ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            final List<Future<List<Long>>> futures = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                futures.add(executor.submit(task));
+            }
+            final Set<Long> ids = ConcurrentHashMap.newKeySet();
+            for (Future<List<Long>> future : futures) {
+                ids.addAll(future.get());
+            }
+            return ids;
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+}
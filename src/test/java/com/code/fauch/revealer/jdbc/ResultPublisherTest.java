@@ -0,0 +1,253 @@
+package com.code.fauch.revealer.jdbc;
+
+import com.code.fauch.revealer.PersistenceException;
+import com.code.fauch.revealer.User;
+import org.h2.jdbcx.JdbcConnectionPool;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+public class ResultPublisherTest {
+
+    private static final BeanRWFactory<User> FACTORY = BeanRWFactory.from(User.class);
+
+    private static final String ALL = "select * from horcrux_users order by id";
+
+    private JdbcConnectionPool ds;
+
+    private ExecutorService executor;
+
+    @BeforeEach
+    public void setUp() throws SQLException {
+        this.ds = JdbcConnectionPool.create(
+                "jdbc:h2:mem:v7;INIT=runscript from 'src/test/resources/dataset/init.sql';DB_CLOSE_DELAY=0",
+                "harry",
+                ""
+        );
+        this.ds.getConnection().close();
+        this.executor = Executors.newFixedThreadPool(4);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        this.executor.shutdownNow();
+        this.ds.dispose();
+    }
+
+    @Test
+    public void testSubscribeNull() throws SQLException {
+        try (Connection conn = this.ds.getConnection()) {
+            Assertions.assertThrows(NullPointerException.class,
+                    () -> new SmallJdbcDao<>(FACTORY, conn).publish(ALL).subscribe(null));
+        }
+    }
+
+    @Test
+    public void testDemand() throws SQLException {
+        try (Connection conn = this.ds.getConnection()) {
+            final Recorder recorder = new Recorder(null);
+            new SmallJdbcDao<>(FACTORY, conn).publish(ALL).subscribe(recorder);
+            Assertions.assertTrue(recorder.beans.isEmpty());
+            recorder.subscription.request(2);
+            Assertions.assertEquals(2, recorder.beans.size());
+            Assertions.assertFalse(recorder.completed);
+            recorder.subscription.request(10);
+            Assertions.assertEquals(List.of("cfauch", "casper", "radj", "silvester"), recorder.names());
+            Assertions.assertTrue(recorder.completed);
+            recorder.subscription.request(1);
+            recorder.subscription.cancel();
+            Assertions.assertEquals(4, recorder.beans.size());
+            Assertions.assertNull(recorder.error);
+        }
+    }
+
+    @Test
+    public void testArguments() throws SQLException {
+        try (Connection conn = this.ds.getConnection()) {
+            final Recorder recorder = new Recorder(null);
+            new SmallJdbcDao<>(FACTORY, conn).publish("select * from horcrux_users where profile=? order by id", "guest")
+                    .subscribe(recorder);
+            recorder.subscription.request(Long.MAX_VALUE);
+            recorder.subscription.request(Long.MAX_VALUE);
+            Assertions.assertEquals(List.of("radj", "silvester"), recorder.names());
+            Assertions.assertTrue(recorder.completed);
+        }
+    }
+
+    @Test
+    public void testNonPositiveRequest() throws SQLException {
+        try (Connection conn = this.ds.getConnection()) {
+            final Recorder recorder = new Recorder(null);
+            new SmallJdbcDao<>(FACTORY, conn).publish(ALL).subscribe(recorder);
+            recorder.subscription.request(1);
+            recorder.subscription.request(0);
+            Assertions.assertTrue(recorder.error instanceof IllegalArgumentException);
+            recorder.subscription.request(1);
+            Assertions.assertEquals(1, recorder.beans.size());
+            Assertions.assertFalse(recorder.completed);
+        }
+    }
+
+    @Test
+    public void testReentrantRequests() throws SQLException {
+        try (Connection conn = this.ds.getConnection()) {
+            try (Statement stmt = conn.createStatement()) {
+                stmt.execute("insert into horcrux_users (name, profile) select 'user' || x, 'guest'"
+                        + " from system_range(1, 20000)");
+            }
+            final Recorder recorder = new Recorder(r -> r.subscription.request(1));
+            new SmallJdbcDao<>(FACTORY, conn).publish(ALL).subscribe(recorder);
+            recorder.subscription.request(1);
+            Assertions.assertEquals(20004, recorder.beans.size());
+            Assertions.assertTrue(recorder.completed);
+        }
+    }
+
+    @Test
+    public void testColdPublisher() throws SQLException {
+        try (Connection conn = this.ds.getConnection()) {
+            final Flow.Publisher<User> publisher = new SmallJdbcDao<>(FACTORY, conn).publish(ALL);
+            final Recorder first = new Recorder(null);
+            final Recorder second = new Recorder(null);
+            publisher.subscribe(first);
+            publisher.subscribe(second);
+            first.subscription.request(4);
+            second.subscription.request(1);
+            Assertions.assertEquals(4, first.beans.size());
+            Assertions.assertEquals(List.of("cfauch"), second.names());
+        }
+    }
+
+    @Test
+    public void testAsyncCompletionReleasesConnection() throws Exception {
+        final Recorder recorder = new Recorder(r -> r.subscription.request(1));
+        new SmallJdbcDao<>(FACTORY, null).publish(this.ds, this.executor, ALL).subscribe(recorder);
+        Assertions.assertEquals(0, this.ds.getActiveConnections());
+        recorder.subscription.request(1);
+        Assertions.assertTrue(recorder.terminated.await(5, TimeUnit.SECONDS));
+        Assertions.assertEquals(4, recorder.beans.size());
+        Assertions.assertFalse(recorder.concurrent);
+        Assertions.assertEquals(0, this.ds.getActiveConnections());
+    }
+
+    @Test
+    public void testAsyncCancelReleasesConnection() throws Exception {
+        final CountDownLatch first = new CountDownLatch(1);
+        final Recorder recorder = new Recorder(r -> first.countDown());
+        new SmallJdbcDao<>(FACTORY, null).publish(this.ds, this.executor, ALL).subscribe(recorder);
+        recorder.subscription.request(1);
+        Assertions.assertTrue(first.await(5, TimeUnit.SECONDS));
+        Assertions.assertEquals(1, this.ds.getActiveConnections());
+        recorder.subscription.cancel();
+        for (int i = 0; i < 50 && this.ds.getActiveConnections() > 0; i++) {
+            Thread.sleep(20L);
+        }
+        Assertions.assertEquals(0, this.ds.getActiveConnections());
+        recorder.subscription.request(10);
+        Thread.sleep(100L);
+        Assertions.assertEquals(1, recorder.beans.size());
+        Assertions.assertFalse(recorder.completed);
+    }
+
+    @Test
+    public void testRejectedRequestReleasesConnection() throws Exception {
+        final CountDownLatch first = new CountDownLatch(1);
+        final Recorder recorder = new Recorder(r -> first.countDown());
+        new SmallJdbcDao<>(FACTORY, null).publish(this.ds, this.executor, ALL).subscribe(recorder);
+        recorder.subscription.request(1);
+        Assertions.assertTrue(first.await(5, TimeUnit.SECONDS));
+        this.executor.shutdown();
+        Assertions.assertTrue(this.executor.awaitTermination(5, TimeUnit.SECONDS));
+        Assertions.assertEquals(1, this.ds.getActiveConnections());
+        recorder.subscription.request(1);
+        Assertions.assertTrue(recorder.error instanceof RejectedExecutionException);
+        Assertions.assertEquals(0, this.ds.getActiveConnections());
+        recorder.subscription.request(1);
+        Assertions.assertEquals(1, recorder.beans.size());
+    }
+
+    @Test
+    public void testAsyncError() throws Exception {
+        final Recorder recorder = new Recorder(null);
+        new SmallJdbcDao<>(FACTORY, null).publish(this.ds, this.executor, "select * from unknown").subscribe(recorder);
+        recorder.subscription.request(1);
+        Assertions.assertTrue(recorder.terminated.await(5, TimeUnit.SECONDS));
+        Assertions.assertTrue(recorder.error instanceof PersistenceException);
+        Assertions.assertEquals(0, this.ds.getActiveConnections());
+    }
+
+    private static final class Recorder implements Flow.Subscriber<User> {
+
+        private final Consumer<Recorder> onNext;
+
+        private final List<User> beans = new CopyOnWriteArrayList<>();
+
+        private final CountDownLatch terminated = new CountDownLatch(1);
+
+        private final AtomicBoolean active = new AtomicBoolean();
+
+        private volatile Flow.Subscription subscription;
+
+        private volatile boolean completed;
+
+        private volatile boolean concurrent;
+
+        private volatile Throwable error;
+
+        private Recorder(final Consumer<Recorder> onNext) {
+            this.onNext = onNext;
+        }
+
+        @Override
+        public void onSubscribe(final Flow.Subscription subscription) {
+            this.subscription = subscription;
+        }
+
+        @Override
+        public void onNext(final User item) {
+            if (!this.active.compareAndSet(false, true)) {
+                this.concurrent = true;
+            }
+            this.beans.add(item);
+            this.active.set(false);
+            if (this.onNext != null) {
+                this.onNext.accept(this);
+            }
+        }
+
+        @Override
+        public void onError(final Throwable throwable) {
+            this.error = throwable;
+            this.terminated.countDown();
+        }
+
+        @Override
+        public void onComplete() {
+            this.completed = true;
+            this.terminated.countDown();
+        }
+
+        private List<String> names() {
+            final List<String> names = new CopyOnWriteArrayList<>();
+            this.beans.forEach(u -> names.add(u.getName()));
+            return names;
+        }
+
+    }
+
+}
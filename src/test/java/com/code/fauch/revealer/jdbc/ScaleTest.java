@@ -0,0 +1,172 @@
+package com.code.fauch.revealer.jdbc;
+
+import com.code.fauch.revealer.DataGenerator;
+import com.code.fauch.revealer.PersistenceException;
+import com.code.fauch.revealer.ScaleRow;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Scale tests: time and peak heap of findAll, streaming and paging on large tables.
+ * <p>
+ * Only run with the <code>scale</code> profile: <code>mvn test -Pscale</code>. The sizes are given by the
+ * <code>scale.rows</code> property (default 10000,1000000,10000000) and findAll is only measured up to
+ * <code>scale.findAllMax</code> rows (default 1000000) as it keeps the whole result in memory.
+ * </p>
+ */
+@Tag("scale")
+public class ScaleTest {
+
+    private static final BeanRWFactory<ScaleRow> FACTORY = BeanRWFactory.from(ScaleRow.class);
+
+    private static final long MB = 1024L * 1024L;
+
+    private static final int PAGE = 1000;
+
+    private static final Path DB = Paths.get("target", "scale", "rows");
+
+    private static final List<String> REPORT = new ArrayList<>();
+
+    private static Connection conn;
+
+    @BeforeAll
+    public static void setUpClass() throws SQLException {
+        // without lazy execution, H2 materializes the whole result whatever the fetch size
+        conn = DriverManager.getConnection(
+                "jdbc:h2:file:" + DB.toAbsolutePath() + ";LAZY_QUERY_EXECUTION=TRUE", "harry", "");
+    }
+
+    @AfterAll
+    public static void tearDownClass() throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("drop all objects delete files");
+        }
+        conn.close();
+        System.out.println(String.format("%-10s %-10s %10s %10s %10s", "rows", "mode", "time ms", "peak MB", "rows/s"));
+        REPORT.forEach(System.out::println);
+    }
+
+    @Test
+    public void testScale() throws SQLException, PersistenceException {
+        final long findAllMax = Long.getLong("scale.findAllMax", 1_000_000L);
+        final int columns = Integer.getInteger("scale.columns", 4);
+        final int width = Integer.getInteger("scale.width", 32);
+        final List<Long> sizes = new ArrayList<>();
+        for (String size : System.getProperty("scale.rows", "10000,1000000,10000000").split(",")) {
+            sizes.add(Long.parseLong(size.trim()));
+        }
+        final List<long[]> streaming = new ArrayList<>();
+        final List<long[]> paging = new ArrayList<>();
+        for (long size : sizes) {
+            new DataGenerator(columns, width).fill(conn, size);
+            if (size <= findAllMax) {
+                final long[] result = measure(size, "findAll",
+                        () -> new SmallJdbcDao<>(FACTORY, conn).findAll("select * from scale_rows").size());
+                Assertions.assertEquals(size, result[0]);
+            }
+            final long[] stream = measure(size, "streaming", ScaleTest::stream);
+            Assertions.assertEquals(size, stream[0]);
+            streaming.add(stream);
+            final long[] page = measure(size, "paging", ScaleTest::page);
+            Assertions.assertEquals(size, page[0]);
+            paging.add(page);
+        }
+        // memory must not grow with the size of the result when rows are not kept
+        assertBounded(streaming);
+        assertBounded(paging);
+    }
+
+    private static void assertBounded(final List<long[]> measures) {
+        final long first = measures.get(0)[2];
+        final long last = measures.get(measures.size() - 1)[2];
+        Assertions.assertTrue(last <= 2 * first + 128 * MB,
+                "peak heap grows with the size: " + first / MB + "MB -> " + last / MB + "MB");
+    }
+
+    private static long stream() throws SQLException, PersistenceException {
+        try (PreparedStatement stmt = conn.prepareStatement("select * from scale_rows",
+                ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            stmt.setFetchSize(PAGE);
+            final BeanReader<ScaleRow> reader = FACTORY.getReader(stmt);
+            long count = 0L;
+            try (ResultSet result = stmt.executeQuery()) {
+                while (reader.readNext(result) != null) {
+                    count++;
+                }
+            }
+            return count;
+        } catch (ReflectiveOperationException err) {
+            throw new PersistenceException(err);
+        }
+    }
+
+    private static long page() throws PersistenceException {
+        final SmallJdbcDao<ScaleRow> dao = new SmallJdbcDao<>(FACTORY, conn);
+        long count = 0L;
+        long from = 0L;
+        for (;;) {
+            final List<ScaleRow> rows = dao.getAll(from, PAGE);
+            count += rows.size();
+            if (rows.size() < PAGE) {
+                return count;
+            }
+            from = rows.get(rows.size() - 1).getId();
+        }
+    }
+
+    @FunctionalInterface
+    private interface Operation {
+        long run() throws SQLException, PersistenceException;
+    }
+
+    /**
+     * Runs an operation and returns the number of read rows, the elapsed time in nanoseconds and the peak heap
+     * used above the heap used before the operation, in bytes.
+     */
+    private static long[] measure(final long size, final String mode, final Operation operation)
+            throws SQLException, PersistenceException {
+        final List<MemoryPoolMXBean> pools = new ArrayList<>();
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP && pool.isValid()) {
+                pools.add(pool);
+            }
+        }
+        System.gc();
+        long before = 0L;
+        for (MemoryPoolMXBean pool : pools) {
+            pool.resetPeakUsage();
+            before += pool.getUsage().getUsed();
+        }
+        final long start = System.nanoTime();
+        final long rows = operation.run();
+        final long nanos = System.nanoTime() - start;
+        long peak = 0L;
+        for (MemoryPoolMXBean pool : pools) {
+            peak += pool.getPeakUsage().getUsed();
+        }
+        final long used = Math.max(0L, peak - before);
+        REPORT.add(String.format(Locale.ROOT, "%-10d %-10s %10d %10d %10.0f", size, mode,
+                TimeUnit.NANOSECONDS.toMillis(nanos), used / MB, rows * 1e9 / Math.max(1L, nanos)));
+        return new long[]{rows, nanos, used};
+    }
+
+}
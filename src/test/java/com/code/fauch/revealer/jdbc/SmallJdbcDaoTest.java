@@ -14,9 +14,14 @@
  */
 package com.code.fauch.revealer.jdbc;
 
+import com.code.fauch.revealer.Badge;
 import com.code.fauch.revealer.PersistenceException;
 import com.code.fauch.revealer.Tools;
+import com.code.fauch.revealer.UncheckedPersistenceException;
 import com.code.fauch.revealer.User;
+import com.code.fauch.revealer.id.HiLoIdGenerator;
+import com.code.fauch.revealer.id.TimeOrderedIdGenerator;
+import com.code.fauch.revealer.jdbc.dialect.Dialects;
 import org.h2.jdbcx.JdbcConnectionPool;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Assertions;
@@ -26,8 +31,14 @@ import org.junit.jupiter.api.Test;
 import javax.sql.DataSource;
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.sql.Statement;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
 
 public class SmallJdbcDaoTest {
 
@@ -278,4 +289,229 @@ public class SmallJdbcDaoTest {
         }
     }
 
+    @Test
+    public void testInsertAll() throws SQLException, PersistenceException {
+        final List<User> users = List.of(new User(null, "totoro", "guest"), new User(null, "satsuki", "guest"),
+                new User(null, "mei", "admin"));
+        try(Connection conn = ds.getConnection()) {
+            Assertions.assertEquals(3, new SmallJdbcDao<>(FACTORY, conn).insertAll(users));
+        }
+        Assertions.assertEquals(List.of(5L, 6L, 7L), users.stream().map(User::getId).collect(Collectors.toList()));
+        for (User user : users) {
+            Tools.checkUserExists(ds, user, 1);
+        }
+    }
+
+    @Test
+    public void testInsertAllEmpty() throws SQLException, PersistenceException {
+        try(Connection conn = ds.getConnection()) {
+            Assertions.assertEquals(0, new SmallJdbcDao<>(FACTORY, conn).insertAll(List.of()));
+        }
+    }
+
+    @Test
+    public void testInsertAllChunks() throws SQLException, PersistenceException {
+        final List<User> users = new ArrayList<>();
+        for (int i = 0; i < 1203; i++) {
+            users.add(new User(null, "user" + i, "guest"));
+        }
+        try(Connection conn = ds.getConnection()) {
+            Assertions.assertEquals(1203, new SmallJdbcDao<>(FACTORY, conn, Dialects.ANSI).insertAll(users));
+        }
+        Assertions.assertEquals(5L, users.get(0).getId());
+        Assertions.assertEquals(1207L, users.get(1202).getId());
+    }
+
+    @Test
+    public void testInsertAllNull() throws SQLException {
+        try(Connection conn = ds.getConnection()) {
+            Assertions.assertThrows(NullPointerException.class, () -> new SmallJdbcDao<>(FACTORY, conn).insertAll(null));
+        }
+    }
+
+    @Test
+    public void testGetAllIds() throws SQLException, PersistenceException {
+        try(Connection conn = ds.getConnection()) {
+            final List<User> founds = new SmallJdbcDao<>(FACTORY, conn).getAll(List.of(1L, 3L, 10L));
+            founds.sort(Comparator.comparing(User::getId));
+            Assertions.assertEquals(2, founds.size());
+            Assertions.assertEquals("cfauch", founds.get(0).getName());
+            Assertions.assertEquals("radj", founds.get(1).getName());
+            Assertions.assertTrue(new SmallJdbcDao<>(FACTORY, conn).getAll(List.of()).isEmpty());
+        }
+    }
+
+    @Test
+    public void testGetAllIdsAnsi() throws SQLException, PersistenceException {
+        try(Connection conn = ds.getConnection()) {
+            final List<User> founds = new SmallJdbcDao<>(FACTORY, conn, Dialects.ANSI).getAll(List.of(2L, 4L));
+            Assertions.assertEquals(2, founds.size());
+        }
+    }
+
+    @Test
+    public void testUpsert() throws SQLException, PersistenceException {
+        final User updated = new User(2L, "casper", "friendly ghost");
+        final User inserted = new User(20L, "totoro", "guest");
+        try(Connection conn = ds.getConnection()) {
+            Assertions.assertEquals(1, new SmallJdbcDao<>(FACTORY, conn).upsert(updated));
+            Assertions.assertEquals(1, new SmallJdbcDao<>(FACTORY, conn).upsert(inserted));
+        }
+        Tools.checkUserExists(ds, updated, 1);
+        Tools.checkUserExists(ds, inserted, 1);
+    }
+
+    @Test
+    public void testUpsertNullId() throws SQLException {
+        try(Connection conn = ds.getConnection()) {
+            Assertions.assertThrows(NullPointerException.class,
+                    () -> new SmallJdbcDao<>(FACTORY, conn).upsert(new User(null, "totoro", "guest")));
+        }
+    }
+
+    @Test
+    public void testInsertReturningDefaults() throws SQLException, PersistenceException {
+        final List<Badge> badges = List.of(new Badge("gold"), new Badge("silver"));
+        try(Connection conn = ds.getConnection()) {
+            createBadges(conn);
+            final SmallJdbcDao<Badge> dao = new SmallJdbcDao<>(BeanRWFactory.from(Badge.class), conn);
+            final Badge badge = new Badge("bronze");
+            Assertions.assertEquals(1, dao.insert(badge));
+            Assertions.assertEquals(1L, badge.getId());
+            Assertions.assertEquals("NEW", badge.getCode());
+            Assertions.assertNotNull(badge.getCreated());
+            Assertions.assertEquals(2, dao.insertAll(badges));
+        }
+        Assertions.assertEquals(2L, badges.get(0).getId());
+        Assertions.assertEquals("NEW", badges.get(0).getCode());
+        Assertions.assertEquals(3L, badges.get(1).getId());
+        Assertions.assertEquals("NEW", badges.get(1).getCode());
+        Assertions.assertNotNull(badges.get(1).getCreated());
+    }
+
+    @Test
+    public void testInsertGeneratedKeysOnly() throws SQLException, PersistenceException {
+        final Badge badge = new Badge("bronze");
+        try(Connection conn = ds.getConnection()) {
+            createBadges(conn);
+            Assertions.assertEquals(1, new SmallJdbcDao<>(BeanRWFactory.from(Badge.class), conn, Dialects.ANSI).insert(badge));
+        }
+        Assertions.assertEquals(1L, badge.getId());
+        Assertions.assertNull(badge.getCode());
+        Assertions.assertNull(badge.getCreated());
+    }
+
+    @Test
+    public void testInsertGeneratedId() throws SQLException, PersistenceException {
+        final User user = new User(null, "totoro", "guest");
+        final User given = new User(100L, "mei", "guest");
+        try(Connection conn = ds.getConnection()) {
+            final SmallJdbcDao<User> dao = new SmallJdbcDao<>(BeanRWFactory.from(User.class, TimeOrderedIdGenerator.create(3)), conn);
+            Assertions.assertEquals(1, dao.insert(user));
+            Assertions.assertEquals(1, dao.insert(given));
+        }
+        Assertions.assertTrue(user.getId() > 1L << 22);
+        Assertions.assertEquals(100L, given.getId());
+        Tools.checkUserExists(ds, user, 1);
+        Tools.checkUserExists(ds, given, 1);
+    }
+
+    @Test
+    public void testInsertAllGeneratedIds() throws SQLException, PersistenceException {
+        final List<User> users = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            users.add(new User(null, "user" + i, "guest"));
+        }
+        try(Connection conn = ds.getConnection()) {
+            try (Statement stmt = conn.createStatement()) {
+                stmt.execute("create sequence horcrux_users_ids");
+            }
+            final BeanRWFactory<User> factory = BeanRWFactory.from(User.class, HiLoIdGenerator.create("horcrux_users_ids", 100));
+            Assertions.assertEquals(20, new SmallJdbcDao<>(factory, conn, Dialects.ANSI).insertAll(users.subList(0, 20)));
+            Assertions.assertEquals(10, new SmallJdbcDao<>(factory, conn).insertAll(users.subList(20, 30)));
+        }
+        for (int i = 0; i < users.size(); i++) {
+            Assertions.assertEquals(100L + i, users.get(i).getId());
+            Tools.checkUserExists(ds, users.get(i), 1);
+        }
+    }
+
+    @Test
+    public void testRanges() {
+        Assertions.assertEquals(List.of("0-2", "3-5", "6-7", "8-9"), format(SmallJdbcDao.ranges(0L, 9L, 4)));
+        Assertions.assertEquals(List.of("1-1", "2-2", "3-3"), format(SmallJdbcDao.ranges(1, 3, 8)));
+        Assertions.assertEquals(List.of("5-5"), format(SmallJdbcDao.ranges(5L, 5L, 3)));
+        Assertions.assertEquals(List.of("-9223372036854775808--1", "0-9223372036854775807"),
+                format(SmallJdbcDao.ranges(Long.MIN_VALUE, Long.MAX_VALUE, 2)));
+        Assertions.assertEquals(List.of("a-z"), format(SmallJdbcDao.ranges("a", "z", 4)));
+    }
+
+    @Test
+    public void testScan() throws SQLException, PersistenceException {
+        try(Connection conn = ds.getConnection(); Statement stmt = conn.createStatement()) {
+            stmt.execute("insert into horcrux_users (name, profile) select 'user' || x, 'guest' from system_range(1, 996)");
+        }
+        final SmallJdbcDao<User> dao = new SmallJdbcDao<>(FACTORY, null);
+        try (Stream<User> users = dao.scan(ds, 4)) {
+            Assertions.assertTrue(users.isParallel());
+            final List<Long> ids = users.map(User::getId).collect(Collectors.toList());
+            Assertions.assertEquals(LongStream.rangeClosed(1, 1000).boxed().collect(Collectors.toList()), ids);
+        }
+        try (Stream<User> users = dao.scan(ds, 4)) {
+            Assertions.assertEquals(10, users.limit(10).count());
+        }
+        Assertions.assertEquals(0, ((JdbcConnectionPool) ds).getActiveConnections());
+    }
+
+    @Test
+    public void testPartitions() throws SQLException, PersistenceException {
+        final SmallJdbcDao<User> dao = new SmallJdbcDao<>(FACTORY, null);
+        final List<Stream<User>> partitions = dao.partitions(ds, 3);
+        Assertions.assertEquals(3, partitions.size());
+        final List<List<String>> names = new ArrayList<>();
+        for (Stream<User> partition : partitions) {
+            try (partition) {
+                names.add(partition.map(User::getName).collect(Collectors.toList()));
+            }
+        }
+        Assertions.assertEquals(List.of(List.of("cfauch", "casper"), List.of("radj"), List.of("silvester")), names);
+        Assertions.assertEquals(0, ((JdbcConnectionPool) ds).getActiveConnections());
+        try(Connection conn = ds.getConnection(); Statement stmt = conn.createStatement()) {
+            stmt.execute("delete from horcrux_users");
+        }
+        Assertions.assertTrue(dao.partitions(ds, 3).isEmpty());
+        Assertions.assertEquals(0, dao.scan(ds, 3).count());
+    }
+
+    @Test
+    public void testScanFailure() throws SQLException {
+        final SmallJdbcDao<Badge> dao = new SmallJdbcDao<>(BeanRWFactory.from(Badge.class), null);
+        Assertions.assertThrows(PersistenceException.class, () -> dao.scan(ds, 2));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> dao.scan(ds, 0));
+        Assertions.assertEquals(0, ((JdbcConnectionPool) ds).getActiveConnections());
+    }
+
+    @Test
+    public void testScanCursorFailure() {
+        final PersistenceException failure = new PersistenceException("broken partition");
+        final ResultPublisher.Opener<User> opener = () -> {
+            throw failure;
+        };
+        final ScanSpliterator<User> scan = new ScanSpliterator<>(List.of(opener), ConcurrentHashMap.newKeySet(), 0, 1);
+        final UncheckedPersistenceException err = Assertions.assertThrows(UncheckedPersistenceException.class,
+                () -> scan.tryAdvance(user -> Assertions.fail("unexpected " + user)));
+        Assertions.assertSame(failure, err.getCause());
+    }
+
+    private static List<String> format(final List<Object[]> ranges) {
+        return ranges.stream().map(r -> r[0] + "-" + r[1]).collect(Collectors.toList());
+    }
+
+    private static void createBadges(final Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("create table horcrux_badges (id bigint auto_increment primary key, label varchar(20),"
+                    + " code varchar(20) default 'NEW' default on null, created timestamp default localtimestamp default on null)");
+        }
+    }
+
 }
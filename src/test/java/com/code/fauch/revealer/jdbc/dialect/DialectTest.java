@@ -0,0 +1,203 @@
+package com.code.fauch.revealer.jdbc.dialect;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class DialectTest {
+
+    private static final List<String> COLUMNS = List.of("name");
+
+    private Connection conn;
+
+    @BeforeEach
+    public void setUp() throws SQLException {
+        this.conn = DriverManager.getConnection("jdbc:h2:mem:dialect", "harry", "");
+        try (Statement stmt = this.conn.createStatement()) {
+            stmt.execute("create table dialect_items (id bigint auto_increment primary key, name varchar(20),"
+                    + " created int default 42)");
+            stmt.execute("insert into dialect_items (name) values ('a'), ('b'), ('c'), ('d')");
+        }
+    }
+
+    @AfterEach
+    public void tearDown() throws SQLException {
+        this.conn.close();
+    }
+
+    @Test
+    public void testChoice() throws SQLException {
+        Assertions.assertSame(Dialects.H2, Dialects.of(this.conn.getMetaData()));
+        Assertions.assertSame(Dialects.POSTGRESQL, Dialects.of("PostgreSQL"));
+        Assertions.assertSame(Dialects.ANSI, Dialects.of("Apache Derby"));
+        Assertions.assertThrows(NullPointerException.class, () -> Dialects.of((String) null));
+    }
+
+    @Test
+    public void testChoicePerDatabase() throws SQLException {
+        final AtomicInteger reads = new AtomicInteger();
+        Assertions.assertSame(Dialects.POSTGRESQL, Dialects.of(metaData("PostgreSQL", reads)));
+        Assertions.assertSame(Dialects.ANSI, Dialects.of(metaData("Apache Derby", reads)));
+        Assertions.assertEquals(2, reads.get());
+    }
+
+    @Test
+    public void testH2Page() throws SQLException {
+        final String sql = Dialects.H2.page("dialect_items", "id");
+        Assertions.assertEquals("select * from dialect_items where id>? order by id fetch first ? rows only", sql);
+        Assertions.assertEquals(List.of("b", "c"), names(sql, 1L, 2));
+    }
+
+    @Test
+    public void testH2Insert() throws SQLException {
+        final String sql = Dialects.H2.insert("dialect_items", COLUMNS, 3);
+        Assertions.assertEquals("insert into dialect_items (name) values (?),(?),(?)", sql);
+        try (PreparedStatement stmt = this.conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+            stmt.setString(1, "e");
+            stmt.setString(2, "f");
+            stmt.setString(3, "g");
+            Assertions.assertEquals(3, stmt.executeUpdate());
+        }
+        Assertions.assertEquals(7, names("select * from dialect_items").size());
+    }
+
+    @Test
+    public void testH2InsertReturning() throws SQLException {
+        Assertions.assertTrue(Dialects.H2.supportsReturning());
+        final String sql = Dialects.H2.insertReturning("dialect_items", COLUMNS, 2, List.of("id", "created"));
+        Assertions.assertEquals(
+                "select id,created from final table (insert into dialect_items (name) values (?),(?))", sql);
+        try (PreparedStatement stmt = this.conn.prepareStatement(sql)) {
+            stmt.setString(1, "e");
+            stmt.setString(2, "f");
+            try (ResultSet result = stmt.executeQuery()) {
+                Assertions.assertTrue(result.next());
+                Assertions.assertEquals(5L, result.getLong(1));
+                Assertions.assertEquals(42, result.getInt(2));
+                Assertions.assertTrue(result.next());
+                Assertions.assertEquals(6L, result.getLong(1));
+                Assertions.assertFalse(result.next());
+            }
+        }
+    }
+
+    @Test
+    public void testH2SelectIn() throws SQLException {
+        Assertions.assertTrue(Dialects.H2.supportsArrays());
+        final String sql = Dialects.H2.selectIn("dialect_items", "id", 3);
+        Assertions.assertEquals("select * from dialect_items where id = any(?)", sql);
+        try (PreparedStatement stmt = this.conn.prepareStatement(sql + " order by id")) {
+            Dialects.H2.setIds(stmt, 1, List.of(1L, 3L, 9L));
+            Assertions.assertEquals(List.of("a", "c"), names(stmt));
+        }
+    }
+
+    @Test
+    public void testH2Upsert() throws SQLException {
+        final String sql = Dialects.H2.upsert("dialect_items", "id", COLUMNS);
+        Assertions.assertEquals("merge into dialect_items (name,id) key (id) values (?,?)", sql);
+        Assertions.assertEquals(1, update(sql, "z", 2L));
+        Assertions.assertEquals(1, update(sql, "y", 10L));
+        Assertions.assertEquals(List.of("a", "z", "c", "d", "y"), names("select * from dialect_items order by id"));
+    }
+
+    @Test
+    public void testNextValue() throws SQLException {
+        try (Statement stmt = this.conn.createStatement()) {
+            stmt.execute("create sequence dialect_ids");
+        }
+        Assertions.assertEquals("values (next value for dialect_ids)", Dialects.H2.nextValue("dialect_ids"));
+        try (PreparedStatement stmt = this.conn.prepareStatement(Dialects.H2.nextValue("dialect_ids"));
+             ResultSet result = stmt.executeQuery()) {
+            Assertions.assertTrue(result.next());
+            Assertions.assertEquals(1L, result.getLong(1));
+        }
+    }
+
+    @Test
+    public void testAnsiOnH2() throws SQLException {
+        Assertions.assertFalse(Dialects.ANSI.supportsReturning());
+        Assertions.assertFalse(Dialects.ANSI.supportsArrays());
+        Assertions.assertThrows(UnsupportedOperationException.class,
+                () -> Dialects.ANSI.insertReturning("dialect_items", COLUMNS, 1, List.of("id")));
+        Assertions.assertEquals(List.of("d"), names(Dialects.ANSI.page("dialect_items", "id"), 3L, 5));
+        final String in = Dialects.ANSI.selectIn("dialect_items", "id", 2);
+        Assertions.assertEquals("select * from dialect_items where id in (?,?)", in);
+        try (PreparedStatement stmt = this.conn.prepareStatement(in + " order by id")) {
+            Dialects.ANSI.setIds(stmt, 1, List.of(2L, 4L));
+            Assertions.assertEquals(List.of("b", "d"), names(stmt));
+        }
+        final String upsert = Dialects.ANSI.upsert("dialect_items", "id", COLUMNS);
+        Assertions.assertEquals(1, update(upsert, "z", 1L));
+        Assertions.assertEquals(1, update(upsert, "y", 10L));
+        Assertions.assertEquals(List.of("z", "b", "c", "d", "y"), names("select * from dialect_items order by id"));
+    }
+
+    @Test
+    public void testPostgreSql() {
+        Assertions.assertEquals("select * from t where id>? order by id limit ?", Dialects.POSTGRESQL.page("t", "id"));
+        Assertions.assertEquals("insert into t (a,b) values (?,?),(?,?) returning id,a",
+                Dialects.POSTGRESQL.insertReturning("t", List.of("a", "b"), 2, List.of("id", "a")));
+        Assertions.assertEquals("select * from t where id = any(?)", Dialects.POSTGRESQL.selectIn("t", "id", 5));
+        Assertions.assertEquals("insert into t (a,b,id) values (?,?,?) on conflict (id) do update set a=excluded.a,b=excluded.b",
+                Dialects.POSTGRESQL.upsert("t", "id", List.of("a", "b")));
+        Assertions.assertEquals("insert into t (id) values (?) on conflict (id) do nothing",
+                Dialects.POSTGRESQL.upsert("t", "id", List.of()));
+        Assertions.assertEquals("select nextval('s')", Dialects.POSTGRESQL.nextValue("s"));
+    }
+
+    private int update(final String sql, final Object... args) throws SQLException {
+        try (PreparedStatement stmt = this.conn.prepareStatement(sql)) {
+            for (int i = 0; i < args.length; i++) {
+                stmt.setObject(i + 1, args[i]);
+            }
+            return stmt.executeUpdate();
+        }
+    }
+
+    private List<String> names(final String sql, final Object... args) throws SQLException {
+        try (PreparedStatement stmt = this.conn.prepareStatement(sql)) {
+            for (int i = 0; i < args.length; i++) {
+                stmt.setObject(i + 1, args[i]);
+            }
+            return names(stmt);
+        }
+    }
+
+    private static List<String> names(final PreparedStatement stmt) throws SQLException {
+        final List<String> names = new ArrayList<>();
+        try (ResultSet result = stmt.executeQuery()) {
+            while (result.next()) {
+                names.add(result.getString("name"));
+            }
+        }
+        return names;
+    }
+
+    private static DatabaseMetaData metaData(final String product, final AtomicInteger reads) {
+        return (DatabaseMetaData) Proxy.newProxyInstance(DialectTest.class.getClassLoader(),
+                new Class<?>[]{DatabaseMetaData.class}, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "getDatabaseProductName":
+                            reads.incrementAndGet();
+                            return product;
+                        default:
+                            throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+    }
+
+}
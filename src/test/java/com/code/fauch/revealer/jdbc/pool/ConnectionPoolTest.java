@@ -0,0 +1,295 @@
+package com.code.fauch.revealer.jdbc.pool;
+
+import com.code.fauch.revealer.DriverDataSource;
+import com.code.fauch.revealer.IDao;
+import com.code.fauch.revealer.IService;
+import com.code.fauch.revealer.PersistenceException;
+import com.code.fauch.revealer.ServiceImpl;
+import com.code.fauch.revealer.Tools;
+import com.code.fauch.revealer.User;
+import com.code.fauch.revealer.jdbc.transaction.JdbcFactory;
+import org.h2.jdbc.JdbcConnection;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class ConnectionPoolTest {
+
+    private static final IDao<User> DAO = JdbcFactory.dao(User.class);
+
+    private DriverDataSource source;
+
+    private ConnectionPool pool;
+
+    @BeforeEach
+    public void setUp() throws SQLException {
+        this.source = new DriverDataSource(
+                "jdbc:h2:mem:pool;INIT=runscript from 'src/test/resources/dataset/init.sql';DB_CLOSE_DELAY=-1",
+                "harry");
+        this.source.getConnection().close();
+        this.pool = ConnectionPool.create(this.source, PoolOptions.defaults().withMaxSize(2).withTimeoutMillis(200L));
+    }
+
+    @AfterEach
+    public void tearDown() throws SQLException {
+        this.pool.close();
+        try (Connection conn = this.source.getConnection()) {
+            conn.createStatement().execute("drop all objects");
+        }
+    }
+
+    @Test
+    public void testReuse() throws SQLException {
+        final JdbcConnection first;
+        try (Connection conn = this.pool.getConnection()) {
+            first = conn.unwrap(JdbcConnection.class);
+        }
+        try (Connection conn = this.pool.getConnection()) {
+            Assertions.assertSame(first, conn.unwrap(JdbcConnection.class));
+        }
+        final PoolMetrics metrics = this.pool.getMetrics();
+        Assertions.assertEquals(1, metrics.getCreated());
+        Assertions.assertEquals(2, metrics.getBorrowed());
+        Assertions.assertEquals(1, metrics.getAffinityHits());
+        Assertions.assertEquals(1, metrics.getSize());
+        Assertions.assertEquals(0, metrics.getActive());
+    }
+
+    @Test
+    public void testTimeout() throws SQLException {
+        try (Connection c1 = this.pool.getConnection(); Connection c2 = this.pool.getConnection()) {
+            Assertions.assertNotSame(c1.unwrap(JdbcConnection.class), c2.unwrap(JdbcConnection.class));
+            Assertions.assertEquals(2, this.pool.getMetrics().getActive());
+            Assertions.assertThrows(SQLTransientConnectionException.class, () -> this.pool.getConnection());
+        }
+        Assertions.assertEquals(1, this.pool.getMetrics().getTimeouts());
+        Assertions.assertEquals(2, this.pool.getMetrics().getIdle());
+    }
+
+    @Test
+    public void testCloseTwice() throws SQLException {
+        final Connection conn = this.pool.getConnection();
+        conn.close();
+        conn.close();
+        Assertions.assertTrue(conn.isClosed());
+        Assertions.assertThrows(SQLException.class, conn::createStatement);
+        Assertions.assertEquals(0, this.pool.getMetrics().getActive());
+    }
+
+    @Test
+    public void testIsolationResetOnRelease() throws SQLException {
+        final int isolation;
+        try (Connection conn = this.pool.getConnection()) {
+            isolation = conn.getTransactionIsolation();
+            conn.setTransactionIsolation(Connection.TRANSACTION_SERIALIZABLE);
+        }
+        Assertions.assertNotEquals(Connection.TRANSACTION_SERIALIZABLE, isolation);
+        try (Connection conn = this.pool.getConnection()) {
+            Assertions.assertEquals(isolation, conn.getTransactionIsolation());
+        }
+    }
+
+    @Test
+    public void testSchemaResetOnRelease() throws SQLException {
+        final String schema;
+        try (Connection conn = this.pool.getConnection()) {
+            schema = conn.getSchema();
+            conn.createStatement().execute("create schema if not exists hogwarts");
+            conn.setSchema("HOGWARTS");
+        }
+        try (Connection conn = this.pool.getConnection()) {
+            Assertions.assertEquals(schema, conn.getSchema());
+            try (PreparedStatement stmt = conn.prepareStatement("select count(*) from horcrux_users");
+                 ResultSet result = stmt.executeQuery()) {
+                Assertions.assertTrue(result.next());
+            }
+        }
+    }
+
+    @Test
+    public void testResetWithoutReadingState() throws SQLException {
+        final List<String> calls = new CopyOnWriteArrayList<>();
+        final DataSource counting = (DataSource) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[]{DataSource.class}, (proxy, method, args) -> {
+                    final Connection conn = this.source.getConnection();
+                    return Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{Connection.class},
+                            (p, m, a) -> {
+                                calls.add(m.getName());
+                                return m.invoke(conn, a);
+                            });
+                });
+        try (ConnectionPool counted = ConnectionPool.create(counting)) {
+            counted.getConnection().close();
+            calls.clear();
+            try (Connection conn = counted.getConnection()) {
+                conn.setAutoCommit(false);
+                conn.commit();
+                conn.setAutoCommit(true);
+            }
+            Assertions.assertEquals(List.of("setAutoCommit", "commit", "setAutoCommit"), calls);
+            calls.clear();
+            try (Connection conn = counted.getConnection()) {
+                conn.setAutoCommit(false);
+                conn.setTransactionIsolation(Connection.TRANSACTION_SERIALIZABLE);
+            }
+            Assertions.assertEquals(List.of("setAutoCommit", "setTransactionIsolation", "rollback", "setAutoCommit",
+                    "setTransactionIsolation"), calls);
+        }
+    }
+
+    @Test
+    public void testReadOnlyKeptOnRelease() throws SQLException {
+        final List<String> calls = new CopyOnWriteArrayList<>();
+        final DataSource counting = (DataSource) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[]{DataSource.class}, (proxy, method, args) -> {
+                    final Connection conn = this.source.getConnection();
+                    return Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{Connection.class},
+                            (p, m, a) -> {
+                                calls.add(m.getName());
+                                return m.invoke(conn, a);
+                            });
+                });
+        try (ConnectionPool replica = ConnectionPool.create(counting, PoolOptions.defaults().withReadOnly(true))) {
+            try (Connection conn = replica.getConnection()) {
+                Assertions.assertTrue(conn.isReadOnly());
+            }
+            Assertions.assertEquals(1, calls.stream().filter("setReadOnly"::equals).count());
+            calls.clear();
+            for (int i = 0; i < 3; i++) {
+                try (Connection conn = replica.getConnection()) {
+                    Assertions.assertTrue(conn.isReadOnly());
+                }
+            }
+            Assertions.assertFalse(calls.contains("setReadOnly"));
+        }
+    }
+
+    @Test
+    public void testRollbackOnRelease() throws SQLException {
+        try (Connection conn = this.pool.getConnection()) {
+            conn.setAutoCommit(false);
+            conn.createStatement().executeUpdate("delete from horcrux_users");
+        }
+        try (Connection conn = this.pool.getConnection()) {
+            Assertions.assertTrue(conn.getAutoCommit());
+            try (PreparedStatement stmt = conn.prepareStatement("select count(*) from horcrux_users");
+                 ResultSet result = stmt.executeQuery()) {
+                Assertions.assertTrue(result.next());
+                Assertions.assertEquals(4, result.getLong(1));
+            }
+        }
+    }
+
+    @Test
+    public void testMaxLifetime() throws SQLException, InterruptedException {
+        this.pool.close();
+        this.pool = ConnectionPool.create(this.source, PoolOptions.defaults().withMaxLifetimeMillis(1L));
+        final JdbcConnection first;
+        try (Connection conn = this.pool.getConnection()) {
+            first = conn.unwrap(JdbcConnection.class);
+        }
+        Thread.sleep(5L);
+        try (Connection conn = this.pool.getConnection()) {
+            Assertions.assertNotSame(first, conn.unwrap(JdbcConnection.class));
+        }
+        Assertions.assertTrue(first.isClosed());
+        Assertions.assertEquals(2, this.pool.getMetrics().getCreated());
+    }
+
+    @Test
+    public void testValidationAfterIdle() throws SQLException {
+        this.pool.close();
+        this.pool = ConnectionPool.create(this.source, PoolOptions.defaults().withValidationIdleMillis(0L));
+        final JdbcConnection first;
+        try (Connection conn = this.pool.getConnection()) {
+            first = conn.unwrap(JdbcConnection.class);
+        }
+        first.close();
+        try (Connection conn = this.pool.getConnection()) {
+            Assertions.assertNotSame(first, conn.unwrap(JdbcConnection.class));
+            Assertions.assertTrue(conn.isValid(1));
+        }
+        Assertions.assertEquals(1, this.pool.getMetrics().getDestroyed());
+    }
+
+    @Test
+    public void testClosedPool() throws SQLException {
+        final Connection conn = this.pool.getConnection();
+        final JdbcConnection physical = conn.unwrap(JdbcConnection.class);
+        this.pool.close();
+        Assertions.assertThrows(SQLException.class, () -> this.pool.getConnection());
+        conn.close();
+        Assertions.assertTrue(physical.isClosed());
+        Assertions.assertEquals(0, this.pool.getMetrics().getSize());
+    }
+
+    @Test
+    public void testConcurrentBorrows() throws Exception {
+        this.pool.close();
+        this.pool = ConnectionPool.create(this.source, PoolOptions.defaults().withMaxSize(3));
+        final ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            final List<Future<Long>> futures = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                futures.add(executor.submit(() -> {
+                    long count = 0;
+                    for (int j = 0; j < 200; j++) {
+                        try (Connection conn = this.pool.getConnection();
+                             PreparedStatement stmt = conn.prepareStatement("select count(*) from horcrux_users");
+                             ResultSet result = stmt.executeQuery()) {
+                            result.next();
+                            count += result.getLong(1);
+                        }
+                    }
+                    return count;
+                }));
+            }
+            for (Future<Long> future : futures) {
+                Assertions.assertEquals(800L, future.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+        final PoolMetrics metrics = this.pool.getMetrics();
+        Assertions.assertEquals(1600L, metrics.getBorrowed());
+        Assertions.assertEquals(0, metrics.getActive());
+        Assertions.assertTrue(metrics.getSize() <= 3);
+    }
+
+    @Test
+    public void testWithJdbcFactory() throws PersistenceException, SQLException {
+        final IService service = (IService) JdbcFactory.wrap(this.pool, new ServiceImpl(DAO));
+        final User user = new User(null, "totoro", "guest");
+        service.save(user);
+        Assertions.assertEquals(5, service.findAll().size());
+        Tools.checkUserExists(this.pool, user, 1);
+        Assertions.assertEquals(1, this.pool.getMetrics().getCreated());
+    }
+
+    @Test
+    public void testCreateWhenNullSource() {
+        Assertions.assertThrows(NullPointerException.class, () -> ConnectionPool.create(null));
+    }
+
+    @Test
+    public void testInvalidOptions() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> PoolOptions.defaults().withMaxSize(0));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> PoolOptions.defaults().withTimeoutMillis(-1L));
+    }
+
+}
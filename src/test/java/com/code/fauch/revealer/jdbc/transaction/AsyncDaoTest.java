@@ -0,0 +1,181 @@
+package com.code.fauch.revealer.jdbc.transaction;
+
+import com.code.fauch.revealer.*;
+import org.h2.jdbcx.JdbcConnectionPool;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+public class AsyncDaoTest {
+
+    private static final String ENDLESS_QUERY =
+            "select u.* from horcrux_users u, system_range(1, 1000000000000) r where mod(r.x, 7) = 10";
+
+    private JdbcConnectionPool ds;
+
+    private ExecutorService executor;
+
+    @BeforeEach
+    public void setUp() throws SQLException {
+        this.ds = JdbcConnectionPool.create(
+                "jdbc:h2:mem:v6;INIT=runscript from 'src/test/resources/dataset/init.sql';DB_CLOSE_DELAY=0",
+                "harry",
+                ""
+        );
+        this.ds.getConnection().close();
+        this.executor = JdbcExecutors.bounded(2);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        this.executor.shutdownNow();
+        this.ds.dispose();
+    }
+
+    @Test
+    public void testOperations() throws Exception {
+        final AsyncDao<User> dao = AsyncDao.create(this.ds, User.class, this.executor);
+        final User user = new User(null, "totoro", "guest");
+        Assertions.assertEquals(1, dao.insert(user).get(5, TimeUnit.SECONDS));
+        Assertions.assertEquals(5L, user.getId());
+        Assertions.assertEquals("totoro", dao.get(5L).get(5, TimeUnit.SECONDS).getName());
+        Assertions.assertEquals(2, dao.insertAll(List.of(new User(null, "mei", "guest"),
+                new User(null, "satsuki", "guest"))).get(5, TimeUnit.SECONDS));
+        Assertions.assertEquals(7, dao.findAll("select * from horcrux_users").get(5, TimeUnit.SECONDS).size());
+        Assertions.assertEquals(2, dao.getAll(5L, 10).get(5, TimeUnit.SECONDS).size());
+        Assertions.assertEquals(2, dao.getAll(List.of(1L, 2L)).get(5, TimeUnit.SECONDS).size());
+        user.setProfile("admin");
+        Assertions.assertEquals(1, dao.update(user).get(5, TimeUnit.SECONDS));
+        Assertions.assertEquals(1, dao.upsert(new User(20L, "kiki", "witch")).get(5, TimeUnit.SECONDS));
+        Assertions.assertEquals("kiki", dao.find("select * from horcrux_users where id=?", 20L)
+                .get(5, TimeUnit.SECONDS).getName());
+        Assertions.assertEquals(1, dao.delete(user).get(5, TimeUnit.SECONDS));
+        Assertions.assertNull(dao.get(5L).get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testConcurrentOperations() {
+        final AsyncDao<User> dao = AsyncDao.create(this.ds, User.class, this.executor);
+        final CompletableFuture<?>[] futures = new CompletableFuture<?>[50];
+        for (int i = 0; i < futures.length; i++) {
+            futures[i] = dao.insert(new User(null, "user" + i, "guest"));
+        }
+        CompletableFuture.allOf(futures).join();
+        Assertions.assertEquals(54, dao.findAll("select * from horcrux_users").join().size());
+    }
+
+    @Test
+    public void testFailure() {
+        final AsyncDao<User> dao = AsyncDao.create(this.ds, User.class, this.executor);
+        final ExecutionException err = Assertions.assertThrows(ExecutionException.class,
+                () -> dao.findAll("select * from unknown").get(5, TimeUnit.SECONDS));
+        Assertions.assertTrue(err.getCause() instanceof PersistenceException);
+    }
+
+    @Test
+    public void testCancel() throws Exception {
+        final ExecutorService single = JdbcExecutors.bounded(1);
+        try {
+            final AsyncDao<User> dao = AsyncDao.create(this.ds, User.class, single);
+            final CompletableFuture<List<User>> endless = dao.findAll(ENDLESS_QUERY);
+            Thread.sleep(300L);
+            Assertions.assertTrue(endless.cancel(true));
+            Assertions.assertThrows(CancellationException.class, endless::join);
+            Assertions.assertEquals(4, dao.findAll("select * from horcrux_users").get(10, TimeUnit.SECONDS).size());
+        } finally {
+            single.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testPublish() throws Exception {
+        final AsyncDao<User> dao = AsyncDao.create(this.ds, User.class, this.executor);
+        final List<String> names = new CopyOnWriteArrayList<>();
+        final CompletableFuture<Void> done = new CompletableFuture<>();
+        dao.publish("select * from horcrux_users where id>? order by id", 2L).subscribe(new Flow.Subscriber<>() {
+            @Override
+            public void onSubscribe(final Flow.Subscription subscription) {
+                subscription.request(Long.MAX_VALUE);
+            }
+
+            @Override
+            public void onNext(final User item) {
+                names.add(item.getName());
+            }
+
+            @Override
+            public void onError(final Throwable throwable) {
+                done.completeExceptionally(throwable);
+            }
+
+            @Override
+            public void onComplete() {
+                done.complete(null);
+            }
+        });
+        done.get(5, TimeUnit.SECONDS);
+        Assertions.assertEquals(List.of("radj", "silvester"), names);
+    }
+
+    @Test
+    public void testScan() throws Exception {
+        final AsyncDao<User> dao = AsyncDao.create(this.ds, User.class, this.executor);
+        final Map<Integer, List<Long>> partitions = new ConcurrentHashMap<>();
+        dao.scan(3, (index, beans) -> partitions.put(index, beans.map(User::getId).collect(Collectors.toList())))
+                .get(5, TimeUnit.SECONDS);
+        Assertions.assertEquals(Map.of(0, List.of(1L, 2L), 1, List.of(3L), 2, List.of(4L)), partitions);
+        try (Stream<User> users = dao.scan(2)) {
+            Assertions.assertEquals(4, users.count());
+        }
+        final ExecutionException err = Assertions.assertThrows(ExecutionException.class,
+                () -> dao.scan(2, (index, beans) -> {
+                    throw new PersistenceException("failed");
+                }).get(5, TimeUnit.SECONDS));
+        Assertions.assertTrue(err.getCause() instanceof PersistenceException);
+        Assertions.assertEquals(0, this.ds.getActiveConnections());
+    }
+
+    @Test
+    public void testWrapAsync() throws Exception {
+        final IServiceAsync service = JdbcFactory.wrapAsync(this.ds, IServiceAsync.class,
+                new ServiceImpl(JdbcFactory.dao(User.class)), this.executor);
+        Assertions.assertNull(service.save(new User(null, "totoro", "guest")).get(5, TimeUnit.SECONDS));
+        Assertions.assertEquals(5, service.findAll().get(5, TimeUnit.SECONDS).size());
+        Assertions.assertEquals(1, service.rename(1L, "voldemort").get(5, TimeUnit.SECONDS));
+        Assertions.assertNotNull(service.toString());
+    }
+
+    @Test
+    public void testWrapAsyncInvalid() {
+        final ServiceImpl impl = new ServiceImpl(JdbcFactory.dao(User.class));
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> JdbcFactory.wrapAsync(this.ds, IService.class, impl, this.executor));
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> JdbcFactory.wrapAsync(this.ds, Runnable.class, impl, this.executor));
+    }
+
+    @Test
+    public void testExecutors() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> JdbcExecutors.bounded(0));
+        JdbcExecutors.virtualOrBounded(1).shutdown();
+        if (!JdbcExecutors.isVirtualAvailable()) {
+            Assertions.assertThrows(UnsupportedOperationException.class, JdbcExecutors::virtual);
+        }
+    }
+
+}
@@ -0,0 +1,116 @@
+package com.code.fauch.revealer.jdbc.transaction;
+
+import com.code.fauch.revealer.IDao;
+import com.code.fauch.revealer.PersistenceException;
+import com.code.fauch.revealer.User;
+import org.h2.jdbcx.JdbcConnectionPool;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+public class BulkWriterTest {
+
+    private JdbcConnectionPool ds;
+
+    @BeforeEach
+    public void setUp() throws SQLException {
+        this.ds = JdbcConnectionPool.create(
+                "jdbc:h2:mem:bulk;INIT=runscript from 'src/test/resources/dataset/init.sql';DB_CLOSE_DELAY=0",
+                "harry",
+                ""
+        );
+        this.ds.getConnection().close();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        this.ds.dispose();
+    }
+
+    @Test
+    public void testWrite() throws Exception {
+        final BulkWriter<User> writer = BulkWriter.create(this.ds, User.class,
+                BulkOptions.defaults().withChunkSize(500).withParallelism(4));
+        final BulkReport<User> report = writer.write(
+                IntStream.range(0, 10_000).mapToObj(i -> new User(null, "user" + i, "guest")));
+        Assertions.assertTrue(report.isComplete());
+        Assertions.assertEquals(10_000, report.getRows());
+        Assertions.assertEquals(20, report.getChunks());
+        Assertions.assertTrue(report.getRowsPerSecond() > 0);
+        Assertions.assertEquals(10_004, count());
+        Assertions.assertEquals(0, this.ds.getActiveConnections());
+    }
+
+    @Test
+    public void testFailedChunk() throws Exception {
+        final BulkWriter<User> writer = BulkWriter.create(this.ds, User.class,
+                BulkOptions.defaults().withChunkSize(10).withMaxAttempts(2).withRetryDelayMillis(1));
+        final BulkReport<User> report = writer.write(
+                IntStream.range(0, 30).mapToObj(i -> new User(null, i == 15 ? null : "user" + i, "guest")));
+        Assertions.assertFalse(report.isComplete());
+        Assertions.assertEquals(20, report.getRows());
+        Assertions.assertEquals(3, report.getChunks());
+        Assertions.assertEquals(1, report.getFailures().size());
+        final BulkReport.Failure<User> failure = report.getFailures().get(0);
+        Assertions.assertEquals(1, failure.getIndex());
+        Assertions.assertEquals(1, failure.getAttempts());
+        Assertions.assertEquals(10, failure.getBeans().size());
+        Assertions.assertEquals("user10", failure.getBeans().get(0).getName());
+        Assertions.assertTrue(failure.getCause() instanceof PersistenceException);
+        Assertions.assertEquals(24, count());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testRetry() throws Exception {
+        final IDao<User> dao = JdbcFactory.dao(User.class);
+        final AtomicInteger calls = new AtomicInteger();
+        final IDao<User> flaky = (IDao<User>) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[] {IDao.class}, (proxy, method, args) -> {
+                    if (method.getName().equals("insertAll") && calls.incrementAndGet() == 1) {
+                        throw new PersistenceException(new SQLException("deadlock", Jdbc.DEADLOCK_DETECTED));
+                    }
+                    try {
+                        return method.invoke(dao, args);
+                    } catch (InvocationTargetException err) {
+                        throw err.getCause();
+                    }
+                });
+        final BulkReport<User> report = BulkWriter.create(this.ds, flaky,
+                BulkOptions.defaults().withChunkSize(5).withParallelism(1).withRetryDelayMillis(1))
+                .write(IntStream.range(0, 10).mapToObj(i -> new User(null, "user" + i, "guest")).iterator());
+        Assertions.assertTrue(report.isComplete());
+        Assertions.assertEquals(10, report.getRows());
+        Assertions.assertEquals(3, calls.get());
+        Assertions.assertEquals(14, count());
+    }
+
+    @Test
+    public void testOptions() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> BulkOptions.defaults().withChunkSize(0));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> BulkOptions.defaults().withParallelism(0));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> BulkOptions.defaults().withMaxAttempts(0));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> BulkOptions.defaults().withRetryDelayMillis(-1));
+        Assertions.assertEquals(3, BulkOptions.defaults().withMaxAttempts(3).getMaxAttempts());
+    }
+
+    private long count() throws SQLException {
+        try (Connection conn = this.ds.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet result = stmt.executeQuery("select count(*) from horcrux_users")) {
+            result.next();
+            return result.getLong(1);
+        }
+    }
+
+}
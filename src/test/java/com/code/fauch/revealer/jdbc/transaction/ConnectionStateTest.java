@@ -0,0 +1,137 @@
+package com.code.fauch.revealer.jdbc.transaction;
+
+import com.code.fauch.revealer.IIsolationService;
+import com.code.fauch.revealer.IsolationServiceImpl;
+import com.code.fauch.revealer.PersistenceException;
+import org.h2.jdbcx.JdbcConnectionPool;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+public class ConnectionStateTest {
+
+    private JdbcConnectionPool ds;
+
+    private List<String> changes;
+
+    private IIsolationService service;
+
+    @BeforeEach
+    public void setUp() throws SQLException {
+        this.ds = JdbcConnectionPool.create(
+                "jdbc:h2:mem:state;INIT=runscript from 'src/test/resources/dataset/init.sql';DB_CLOSE_DELAY=0",
+                "harry",
+                ""
+        );
+        this.ds.getConnection().close();
+        this.changes = new ArrayList<>();
+        final IsolationServiceImpl impl = new IsolationServiceImpl();
+        this.service = (IIsolationService) JdbcFactory.wrap(recording(this.ds), impl);
+        impl.setSelf(this.service);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        this.ds.dispose();
+    }
+
+    @Test
+    public void testSetOnlyChanges() throws SQLException {
+        final Connection conn = recording(this.ds).getConnection();
+        try {
+            final ConnectionState state = new ConnectionState(conn);
+            state.setAutoCommit(true);
+            state.setReadOnly(false);
+            state.setTransactionIsolation(Connection.TRANSACTION_READ_COMMITTED);
+            Assertions.assertEquals(List.of(), this.changes);
+            state.setAutoCommit(false);
+            state.setAutoCommit(false);
+            state.setTransactionIsolation(Connection.TRANSACTION_SERIALIZABLE);
+            state.restore();
+            state.restore();
+            Assertions.assertEquals(List.of("setAutoCommit(false)", "setTransactionIsolation(8)",
+                    "setAutoCommit(true)", "setTransactionIsolation(2)"), this.changes);
+        } finally {
+            conn.close();
+        }
+    }
+
+    @Test
+    public void testIsolation() throws PersistenceException {
+        Assertions.assertEquals(Connection.TRANSACTION_SERIALIZABLE, this.service.serializable());
+        Assertions.assertEquals(List.of("setTransactionIsolation(8)", "setAutoCommit(false)",
+                "setAutoCommit(true)", "setTransactionIsolation(2)"), this.changes);
+        Assertions.assertEquals(0, this.ds.getActiveConnections());
+    }
+
+    @Test
+    public void testLazyIsolation() throws PersistenceException {
+        Assertions.assertEquals(Connection.TRANSACTION_READ_UNCOMMITTED, this.service.lazyIsolation());
+        Assertions.assertEquals(List.of("setTransactionIsolation(1)", "setTransactionIsolation(2)"), this.changes);
+        Assertions.assertEquals(0, this.ds.getActiveConnections());
+    }
+
+    @Test
+    public void testReadOnly() throws PersistenceException {
+        Assertions.assertTrue(this.service.readOnlyTransaction());
+        Assertions.assertEquals(List.of("setReadOnly(true)", "setAutoCommit(false)",
+                "setAutoCommit(true)", "setReadOnly(false)"), this.changes);
+    }
+
+    @Test
+    public void testNested() throws PersistenceException {
+        Assertions.assertEquals(Connection.TRANSACTION_READ_COMMITTED, this.service.nested());
+        Assertions.assertEquals(List.of("setAutoCommit(false)", "setAutoCommit(true)"), this.changes);
+    }
+
+    @Test
+    public void testUnchangedAutoCommit() throws PersistenceException {
+        Assertions.assertTrue(this.service.autoCommit());
+        Assertions.assertEquals(List.of(), this.changes);
+    }
+
+    // Records the changes of state and keeps the read-only flag, ignored by H2, on the connection proxies.
+    private DataSource recording(final DataSource source) {
+        return (DataSource) Proxy.newProxyInstance(ConnectionStateTest.class.getClassLoader(),
+                new Class<?>[] {DataSource.class}, (proxy, method, args) -> {
+                    final Object result = invoke(source, method, args);
+                    if (!(result instanceof Connection)) {
+                        return result;
+                    }
+                    final boolean[] readOnly = new boolean[1];
+                    return Proxy.newProxyInstance(ConnectionStateTest.class.getClassLoader(),
+                            new Class<?>[] {Connection.class}, (p, m, a) -> {
+                                if (m.getName().startsWith("set") && a != null && a.length == 1) {
+                                    this.changes.add(m.getName() + "(" + a[0] + ")");
+                                }
+                                if (m.getName().equals("setReadOnly")) {
+                                    readOnly[0] = (Boolean) a[0];
+                                    return null;
+                                }
+                                if (m.getName().equals("isReadOnly")) {
+                                    return readOnly[0];
+                                }
+                                return invoke(result, m, a);
+                            });
+                });
+    }
+
+    private static Object invoke(final Object target, final Method method, final Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException err) {
+            throw err.getCause();
+        }
+    }
+
+}
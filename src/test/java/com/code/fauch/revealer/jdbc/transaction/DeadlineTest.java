@@ -0,0 +1,179 @@
+package com.code.fauch.revealer.jdbc.transaction;
+
+import com.code.fauch.revealer.DeadlineServiceImpl;
+import com.code.fauch.revealer.IDeadlineService;
+import com.code.fauch.revealer.PersistenceException;
+import com.code.fauch.revealer.User;
+import org.h2.jdbcx.JdbcConnectionPool;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+public class DeadlineTest {
+
+    private JdbcConnectionPool ds;
+
+    private IDeadlineService service;
+
+    @BeforeEach
+    public void setUp() throws SQLException {
+        this.ds = JdbcConnectionPool.create(
+                "jdbc:h2:mem:deadline;INIT=runscript from 'src/test/resources/dataset/init.sql';DB_CLOSE_DELAY=0",
+                "harry",
+                ""
+        );
+        this.ds.getConnection().close();
+        this.service = (IDeadlineService) JdbcFactory.wrap(this.ds, new DeadlineServiceImpl(JdbcFactory.dao(User.class)));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        this.ds.dispose();
+    }
+
+    @Test
+    public void testTimeoutMillis() {
+        final long start = System.nanoTime();
+        final PersistenceException err = Assertions.assertThrows(PersistenceException.class,
+                this.service::slowWithTimeout);
+        Assertions.assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 5_000L);
+        Assertions.assertTrue(timeout(err));
+        Assertions.assertEquals(0, this.ds.getActiveConnections());
+    }
+
+    @Test
+    public void testWithin() {
+        final long start = System.nanoTime();
+        final PersistenceException err = Assertions.assertThrows(PersistenceException.class,
+                () -> Deadline.within(200L, this.service::slow));
+        Assertions.assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 5_000L);
+        Assertions.assertTrue(timeout(err));
+        Assertions.assertEquals(0, this.ds.getActiveConnections());
+    }
+
+    @Test
+    public void testFailFast() {
+        final PersistenceException err = Assertions.assertThrows(PersistenceException.class,
+                () -> Deadline.within(1L, () -> {
+                    pause(20L);
+                    return this.service.findAll();
+                }));
+        Assertions.assertTrue(timeout(err));
+        Assertions.assertEquals(0, this.ds.getActiveConnections());
+    }
+
+    @Test
+    public void testQueryTimeout() throws PersistenceException {
+        Assertions.assertEquals(0, this.service.queryTimeout());
+        final int seconds = Deadline.within(10_000L, this.service::queryTimeout);
+        Assertions.assertTrue(seconds > 0 && seconds <= 10, "timeout: " + seconds);
+        Assertions.assertEquals(1, Deadline.within(100L, this.service::queryTimeout));
+        Assertions.assertEquals(4, Deadline.within(10_000L, this.service::findAll).size());
+    }
+
+    @Test
+    public void testNested() throws PersistenceException {
+        Assertions.assertEquals(Long.MAX_VALUE, Deadline.remainingMillis());
+        final long remaining = Deadline.within(1_000L, () -> Deadline.within(60_000L, Deadline::remainingMillis));
+        Assertions.assertTrue(remaining <= 1_000L, "remaining: " + remaining);
+        Assertions.assertEquals(Long.MAX_VALUE, Deadline.remainingMillis());
+        Assertions.assertThrows(IllegalArgumentException.class, () -> Deadline.within(0L, () -> null));
+        Assertions.assertThrows(NullPointerException.class, () -> Deadline.within(1L, null));
+    }
+
+    @Test
+    public void testInterrupt() throws Exception {
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            final Future<Object> result = executor.submit(() -> {
+                try {
+                    return Deadline.within(60_000L, this.service::slow);
+                } catch (PersistenceException err) {
+                    return Thread.currentThread().isInterrupted() ? err : null;
+                }
+            });
+            pause(200L);
+            final long start = System.nanoTime();
+            result.cancel(true);
+            executor.shutdown();
+            Assertions.assertTrue(executor.awaitTermination(5L, TimeUnit.SECONDS));
+            Assertions.assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 5_000L);
+            Assertions.assertEquals(0, this.ds.getActiveConnections());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testGroupCommitStatement() throws Exception {
+        final IDeadlineService grouped = grouped(GroupCommit.defaults().withWindowMicros(500_000L).withMaxCalls(2));
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            final Future<Integer> leader = executor.submit(() -> grouped.saveGrouped(new User(null, "leader", "guest")));
+            Thread.sleep(100L);
+            final long start = System.nanoTime();
+            final PersistenceException err = Assertions.assertThrows(PersistenceException.class,
+                    grouped::slowGroupedWithTimeout);
+            Assertions.assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 5_000L);
+            Assertions.assertTrue(timeout(err));
+            Assertions.assertEquals(1, leader.get());
+            Assertions.assertEquals(0, this.ds.getActiveConnections());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testGroupCommitWait() throws Exception {
+        final IDeadlineService grouped = grouped(GroupCommit.defaults().withWindowMicros(2_000_000L).withMaxCalls(8));
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            final Future<Integer> leader = executor.submit(() -> grouped.saveGrouped(new User(null, "leader", "guest")));
+            Thread.sleep(100L);
+            final long start = System.nanoTime();
+            final PersistenceException err = Assertions.assertThrows(PersistenceException.class,
+                    () -> grouped.saveGroupedWithTimeout(new User(null, "late", "guest")));
+            Assertions.assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 1_500L);
+            Assertions.assertTrue(timeout(err));
+            Assertions.assertEquals(1, leader.get());
+            final List<String> names = this.service.findAll().stream().map(User::getName).collect(Collectors.toList());
+            Assertions.assertTrue(names.contains("leader"));
+            Assertions.assertFalse(names.contains("late"));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private IDeadlineService grouped(final GroupCommit options) {
+        return (IDeadlineService) JdbcFactory.wrapWithGroupCommit(this.ds, options,
+                new DeadlineServiceImpl(JdbcFactory.dao(User.class)));
+    }
+
+    private static boolean timeout(final Throwable err) {
+        for (Throwable cause = err; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLTimeoutException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void pause(final long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException err) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+}
@@ -0,0 +1,212 @@
+package com.code.fauch.revealer.jdbc.transaction;
+
+import com.code.fauch.revealer.GroupServiceImpl;
+import com.code.fauch.revealer.IGroupService;
+import com.code.fauch.revealer.IGroupServiceAsync;
+import com.code.fauch.revealer.PersistenceException;
+import com.code.fauch.revealer.User;
+import com.code.fauch.revealer.metrics.JdbcMetrics;
+import com.code.fauch.revealer.metrics.Metrics;
+import com.code.fauch.revealer.metrics.SimpleJdbcMetrics;
+import org.h2.jdbcx.JdbcConnectionPool;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+public class GroupCommitTest {
+
+    private static final int INITIAL = 4;
+
+    private JdbcConnectionPool ds;
+
+    private SimpleJdbcMetrics metrics;
+
+    private ExecutorService executor;
+
+    @BeforeEach
+    public void setUp() throws SQLException {
+        this.ds = JdbcConnectionPool.create(
+                "jdbc:h2:mem:group;INIT=runscript from 'src/test/resources/dataset/init.sql';DB_CLOSE_DELAY=0",
+                "harry",
+                ""
+        );
+        this.ds.getConnection().close();
+        this.metrics = new SimpleJdbcMetrics();
+        Metrics.install(this.metrics);
+        this.executor = Executors.newFixedThreadPool(16);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        this.executor.shutdownNow();
+        Metrics.install(JdbcMetrics.NOOP);
+        this.ds.dispose();
+    }
+
+    @Test
+    public void testGroups() throws Exception {
+        final IGroupService service = wrap(GroupCommit.defaults().withWindowMicros(200_000L).withMaxCalls(8));
+        final List<Future<Integer>> results = saveConcurrently(service, 16, -1);
+        for (Future<Integer> result : results) {
+            Assertions.assertEquals(1, result.get());
+        }
+        Assertions.assertEquals(INITIAL + 16, service.findAll().size());
+        Assertions.assertTrue(this.metrics.getCommits() < 16, "commits: " + this.metrics.getCommits());
+        Assertions.assertEquals(0, this.ds.getActiveConnections());
+    }
+
+    @Test
+    public void testFailureIsolated() throws Exception {
+        final IGroupService service = wrap(GroupCommit.defaults().withWindowMicros(200_000L).withMaxCalls(8));
+        final List<Future<Integer>> results = saveConcurrently(service, 8, 3);
+        for (int i = 0; i < results.size(); i++) {
+            if (i == 3) {
+                final ExecutionException err = Assertions.assertThrows(ExecutionException.class, results.get(i)::get);
+                Assertions.assertTrue(err.getCause() instanceof PersistenceException);
+            } else {
+                Assertions.assertEquals(1, results.get(i).get());
+            }
+        }
+        final List<String> names = service.findAll().stream().map(User::getName).collect(Collectors.toList());
+        Assertions.assertEquals(INITIAL + 7, names.size());
+        Assertions.assertFalse(names.contains("user-3"));
+        Assertions.assertEquals(0, this.ds.getActiveConnections());
+    }
+
+    @Test
+    public void testErrorCompletesGroup() throws Exception {
+        final DataSource failing = (DataSource) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[]{DataSource.class}, (proxy, method, args) -> {
+                    if ("getConnection".equals(method.getName())) {
+                        throw new AssertionError("no connection");
+                    }
+                    return method.invoke(this.ds, args);
+                });
+        final GroupServiceImpl impl = new GroupServiceImpl(JdbcFactory.dao(User.class));
+        final IGroupService service = (IGroupService) JdbcFactory.wrapWithGroupCommit(failing,
+                GroupCommit.defaults().withWindowMicros(200_000L).withMaxCalls(4), impl);
+        for (Future<Integer> result : saveConcurrently(service, 4, -1)) {
+            final ExecutionException err = Assertions.assertThrows(ExecutionException.class,
+                    () -> result.get(10, TimeUnit.SECONDS));
+            Assertions.assertTrue(err.getCause() instanceof PersistenceException);
+            Assertions.assertTrue(err.getCause().getCause() instanceof AssertionError);
+        }
+    }
+
+    @Test
+    public void testSingleCall() throws PersistenceException {
+        final IGroupService service = wrap(GroupCommit.defaults().withMaxCalls(1));
+        Assertions.assertEquals(1, service.save(new User(null, "totoro", "guest")));
+        Assertions.assertEquals(1, service.saveAlone(new User(null, "satsuki", "guest")));
+        Assertions.assertThrows(PersistenceException.class, () -> service.save(new User(null, null, "guest")));
+        Assertions.assertEquals(INITIAL + 2, service.findAll().size());
+        Assertions.assertEquals(3, this.metrics.getCommits());
+        Assertions.assertEquals(0, this.ds.getActiveConnections());
+    }
+
+    @Test
+    public void testNested() throws PersistenceException {
+        final IGroupService service = wrap(GroupCommit.defaults());
+        Assertions.assertEquals(2, service.saveTwice(new User(null, "totoro", "guest")));
+        Assertions.assertEquals(1, this.metrics.getCommits());
+        Assertions.assertEquals("totoro-bis", service.findAll().get(INITIAL + 1).getName());
+    }
+
+    @Test
+    public void testCancelledAsyncLeader() throws Exception {
+        final GroupServiceImpl impl = new GroupServiceImpl(JdbcFactory.dao(User.class));
+        final GroupCommit options = GroupCommit.defaults().withWindowMicros(5_000_000L).withMaxCalls(2);
+        final IGroupService service = (IGroupService) JdbcFactory.wrapWithGroupCommit(this.ds, options, impl);
+        final IGroupServiceAsync async = (IGroupServiceAsync) Proxy.newProxyInstance(
+                GroupCommitTest.class.getClassLoader(), new Class<?>[] {IGroupServiceAsync.class},
+                new Async.Handler(IGroupServiceAsync.class, service, this.executor));
+        final CompletableFuture<Integer> leader = async.save(new User(null, "leader", "guest"));
+        Thread.sleep(200L);
+        final Future<Integer> follower = this.executor.submit(
+                () -> service.saveSlowly(new User(null, "follower", "guest"), 2_000L));
+        Thread.sleep(300L);
+        leader.cancel(true);
+        Assertions.assertEquals(1, follower.get());
+        final List<String> names = service.findAll().stream().map(User::getName).collect(Collectors.toList());
+        Assertions.assertTrue(names.contains("follower"));
+        Assertions.assertEquals(0, this.ds.getActiveConnections());
+    }
+
+    @Test
+    public void testIsolation() throws Exception {
+        final IGroupService service = wrap(GroupCommit.defaults().withWindowMicros(200_000L).withMaxCalls(8));
+        final CountDownLatch start = new CountDownLatch(1);
+        final List<Future<Integer>> serializable = new ArrayList<>();
+        final List<Future<Integer>> defaults = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            serializable.add(this.executor.submit(() -> {
+                start.await();
+                return service.serializable();
+            }));
+            defaults.add(this.executor.submit(() -> {
+                start.await();
+                return service.defaultIsolation();
+            }));
+        }
+        start.countDown();
+        for (Future<Integer> result : serializable) {
+            Assertions.assertEquals(Connection.TRANSACTION_SERIALIZABLE, result.get());
+        }
+        for (Future<Integer> result : defaults) {
+            Assertions.assertEquals(Connection.TRANSACTION_READ_COMMITTED, result.get());
+        }
+        Assertions.assertTrue(this.metrics.getCommits() < 8, "commits: " + this.metrics.getCommits());
+        Assertions.assertEquals(Connection.TRANSACTION_READ_COMMITTED, service.defaultIsolation());
+        Assertions.assertEquals(0, this.ds.getActiveConnections());
+    }
+
+    @Test
+    public void testOptions() {
+        Assertions.assertEquals(1_000L, GroupCommit.defaults().getWindowMicros());
+        Assertions.assertEquals(64, GroupCommit.defaults().getMaxCalls());
+        Assertions.assertEquals(0L, GroupCommit.defaults().withWindowMicros(0L).getWindowMicros());
+        Assertions.assertThrows(IllegalArgumentException.class, () -> GroupCommit.defaults().withWindowMicros(-1L));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> GroupCommit.defaults().withMaxCalls(0));
+        Assertions.assertThrows(NullPointerException.class,
+                () -> JdbcFactory.wrapWithGroupCommit(this.ds, null, new GroupServiceImpl(JdbcFactory.dao(User.class))));
+    }
+
+    private IGroupService wrap(final GroupCommit options) {
+        final GroupServiceImpl impl = new GroupServiceImpl(JdbcFactory.dao(User.class));
+        final IGroupService service = (IGroupService) JdbcFactory.wrapWithGroupCommit(this.ds, options, impl);
+        impl.setSelf(service);
+        return service;
+    }
+
+    private List<Future<Integer>> saveConcurrently(final IGroupService service, final int count, final int failing) {
+        final CountDownLatch start = new CountDownLatch(1);
+        final List<Future<Integer>> results = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            final User user = new User(null, i == failing ? null : "user-" + i, "guest");
+            results.add(this.executor.submit(() -> {
+                start.await();
+                return service.save(user);
+            }));
+        }
+        start.countDown();
+        return results;
+    }
+
+}
@@ -8,8 +8,12 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import javax.sql.DataSource;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
 import java.sql.SQLException;
+import java.sql.Statement;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class JdbcFactoryTest {
 
@@ -36,6 +40,32 @@ public class JdbcFactoryTest {
         ((JdbcConnectionPool)this.ds).dispose();
     }
 
+    @Test
+    public void testWarmUp() throws PersistenceException {
+        JdbcFactory.warmUp(this.ds, User.class);
+        JdbcFactory.warmUp(this.ds);
+    }
+
+    @Test
+    public void testWarmUpNoTable() {
+        final PersistenceException err = Assertions.assertThrows(PersistenceException.class,
+                () -> JdbcFactory.warmUp(this.ds, User.class, Badge.class));
+        Assertions.assertTrue(err.getMessage().contains("no table horcrux_badges"));
+    }
+
+    @Test
+    public void testWarmUpMismatch() throws SQLException {
+        try (Connection conn = this.ds.getConnection(); Statement stmt = conn.createStatement()) {
+            stmt.execute("create table horcrux_badges (id bigint auto_increment primary key, label varchar(20),"
+                    + " created varchar(20))");
+        }
+        final PersistenceException err = Assertions.assertThrows(PersistenceException.class,
+                () -> JdbcFactory.warmUp(this.ds, Badge.class));
+        Assertions.assertTrue(err.getMessage().contains("no column code in horcrux_badges"));
+        Assertions.assertTrue(err.getMessage().contains("column horcrux_badges.created of type java.lang.String"));
+        Assertions.assertFalse(err.getMessage().contains("label"));
+    }
+
     @Test
     public void testTransactionalDirectAccess() throws SQLException, PersistenceException {
         final User user = new User(null, "totoro", "guest");
@@ -101,6 +131,51 @@ public class JdbcFactoryTest {
         Assertions.assertThrows(Exception.class, ()->this.composition.fake());
     }
 
+    @Test
+    public void testForkSubtasks() throws Exception {
+        final List<User> users = this.service.getInSubtasks(List.of(1L, 2L, 3L, 4L));
+        Assertions.assertEquals(4, users.size());
+        Assertions.assertEquals("cfauch", users.get(0).getName());
+        Assertions.assertEquals("casper", users.get(1).getName());
+        Assertions.assertEquals("radj", users.get(2).getName());
+        Assertions.assertEquals("silvester", users.get(3).getName());
+    }
+
+    @Test
+    public void testDialectResolvedOncePerDataSource() throws PersistenceException {
+        final AtomicInteger reads = new AtomicInteger();
+        final DataSource counting = (DataSource) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[]{DataSource.class}, (proxy, method, args) -> {
+                    if (!method.getName().equals("getConnection")) {
+                        return method.invoke(this.ds, args);
+                    }
+                    final Connection conn = this.ds.getConnection();
+                    return Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{Connection.class},
+                            (p, m, a) -> {
+                                if (m.getName().equals("getMetaData")) {
+                                    reads.incrementAndGet();
+                                }
+                                return m.invoke(conn, a);
+                            });
+                });
+        final IService counted = (IService) JdbcFactory.wrap(counting, new ServiceImpl(DAO));
+        for (int i = 0; i < 3; i++) {
+            Assertions.assertEquals(4, counted.findAll().size());
+        }
+        counted.save(new User(null, "totoro", "guest"));
+        Assertions.assertEquals(1, reads.get());
+    }
+
+    @Test
+    public void testForkOutsideJdbcMethod() {
+        Assertions.assertThrows(IllegalStateException.class, ()->JdbcFactory.fork(()->"yolo"));
+    }
+
+    @Test
+    public void testForkWhenNullTask() {
+        Assertions.assertThrows(NullPointerException.class, ()->JdbcFactory.fork(null));
+    }
+
     @Test
     public void testNewDAOWhenNullClass() {
         Assertions.assertThrows(NullPointerException.class, ()->JdbcFactory.dao(null));
@@ -0,0 +1,74 @@
+package com.code.fauch.revealer.jdbc.transaction;
+
+import com.code.fauch.revealer.*;
+import com.code.fauch.revealer.jdbc.pool.ConnectionPool;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+
+public class LazyJdbcFactoryTest {
+
+    private static final IDao<User> DAO = JdbcFactory.dao(User.class);
+
+    private DriverDataSource source;
+
+    private ConnectionPool pool;
+
+    private ILazyService service;
+
+    @BeforeEach
+    public void setUp() throws SQLException {
+        this.source = new DriverDataSource(
+                "jdbc:h2:mem:lazy;INIT=runscript from 'src/test/resources/dataset/init.sql';DB_CLOSE_DELAY=-1",
+                "harry");
+        this.source.getConnection().close();
+        this.pool = ConnectionPool.create(this.source);
+        this.service = (ILazyService) JdbcFactory.wrap(this.pool, new LazyServiceImpl(DAO, this.pool));
+    }
+
+    @AfterEach
+    public void tearDown() throws SQLException {
+        this.pool.close();
+        try (Connection conn = this.source.getConnection()) {
+            conn.createStatement().execute("drop all objects");
+        }
+    }
+
+    @Test
+    public void testReleasedAfterEachStatement() throws PersistenceException {
+        Assertions.assertEquals(0, this.service.activeAfterGet(1L));
+        Assertions.assertEquals(1, this.pool.getMetrics().getBorrowed());
+        Assertions.assertEquals(0, this.pool.getMetrics().getActive());
+    }
+
+    @Test
+    public void testKeptWithinTransaction() throws PersistenceException, SQLException {
+        final User user = new User(null, "totoro", "guest");
+        Assertions.assertEquals(1, this.service.activeAfterSave(user));
+        Assertions.assertEquals(0, this.pool.getMetrics().getActive());
+        Tools.checkUserExists(this.pool, user, 1);
+    }
+
+    @Test
+    public void testRollback() throws SQLException {
+        final User u1 = new User(null, "totoro", "guest");
+        final User u2 = new User(null, "porco rosso", "guest");
+        Assertions.assertThrows(PersistenceException.class, () -> this.service.saveAllThenFail(List.of(u1, u2)));
+        Assertions.assertEquals(1, this.pool.getMetrics().getBorrowed());
+        Assertions.assertEquals(0, this.pool.getMetrics().getActive());
+        Tools.checkUserExists(this.pool, u1, 0);
+        Tools.checkUserExists(this.pool, u2, 0);
+    }
+
+    @Test
+    public void testNoConnectionWhenNotNeeded() {
+        Assertions.assertEquals("yolo", this.service.compute());
+        Assertions.assertEquals(0, this.pool.getMetrics().getBorrowed());
+    }
+
+}
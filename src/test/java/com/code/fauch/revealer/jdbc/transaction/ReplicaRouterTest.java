@@ -0,0 +1,142 @@
+package com.code.fauch.revealer.jdbc.transaction;
+
+import com.code.fauch.revealer.IReplicaService;
+import com.code.fauch.revealer.PersistenceException;
+import com.code.fauch.revealer.ReplicaServiceImpl;
+import com.code.fauch.revealer.User;
+import org.h2.jdbcx.JdbcConnectionPool;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.stream.Collectors;
+
+public class ReplicaRouterTest {
+
+    private JdbcConnectionPool primary;
+
+    private JdbcConnectionPool replica1;
+
+    private JdbcConnectionPool replica2;
+
+    @BeforeEach
+    public void setUp() throws SQLException {
+        this.primary = create("primary");
+        this.replica1 = create("replica1");
+        this.replica2 = create("replica2");
+        mark(this.replica1, "replica1");
+        mark(this.replica2, "replica2");
+    }
+
+    @AfterEach
+    public void tearDown() {
+        this.primary.dispose();
+        this.replica1.dispose();
+        this.replica2.dispose();
+    }
+
+    @Test
+    public void testRoundRobin() throws PersistenceException {
+        final IReplicaService service = (IReplicaService) JdbcFactory.wrap(this.primary,
+                ReplicaRouter.roundRobin(this.replica1, this.replica2), new ReplicaServiceImpl(JdbcFactory.dao(User.class)));
+        Assertions.assertEquals("replica1", last(service.findAll()));
+        Assertions.assertEquals("replica2", last(service.findAll()));
+        Assertions.assertEquals("replica1", last(service.findAll()));
+        Assertions.assertEquals("silvester", last(service.findAllInTransaction()));
+        service.save(new User(null, "totoro", "guest"));
+        Assertions.assertEquals("totoro", last(service.findAllInTransaction()));
+        Assertions.assertEquals("replica2", last(service.findAll()));
+    }
+
+    @Test
+    public void testReadOnlyConnection() throws PersistenceException {
+        final IReplicaService service = (IReplicaService) JdbcFactory.wrap(this.primary,
+                ReplicaRouter.roundRobin(readOnlyAware(this.replica1)), new ReplicaServiceImpl(JdbcFactory.dao(User.class)));
+        Assertions.assertTrue(service.isReadOnly());
+        Assertions.assertEquals("replica1", last(service.findAll()));
+        Assertions.assertEquals(0, this.replica1.getActiveConnections());
+        final IReplicaService noReplica = (IReplicaService) JdbcFactory.wrap(this.primary,
+                new ReplicaServiceImpl(JdbcFactory.dao(User.class)));
+        Assertions.assertFalse(noReplica.isReadOnly());
+        Assertions.assertEquals("silvester", last(noReplica.findAll()));
+        final IReplicaService primaryOnly = (IReplicaService) JdbcFactory.wrap(this.primary, null,
+                new ReplicaServiceImpl(JdbcFactory.dao(User.class)));
+        Assertions.assertEquals("silvester", last(primaryOnly.findAll()));
+    }
+
+    @Test
+    public void testLeastInFlight() {
+        final ReplicaRouter router = ReplicaRouter.leastInFlight(this.replica1, this.replica2);
+        final int first = router.acquire();
+        final int second = router.acquire();
+        Assertions.assertNotEquals(first, second);
+        router.release(first);
+        Assertions.assertEquals(first, router.acquire());
+        router.release(second);
+        Assertions.assertEquals(second, router.acquire());
+        Assertions.assertEquals(1, router.getInFlight(first));
+        Assertions.assertEquals(1, router.getInFlight(second));
+        Assertions.assertThrows(IllegalArgumentException.class, ReplicaRouter::leastInFlight);
+    }
+
+    // H2 ignores the read-only flag of its connections: keeps it on connection proxies instead.
+    private static DataSource readOnlyAware(final DataSource ds) {
+        return (DataSource) Proxy.newProxyInstance(ReplicaRouterTest.class.getClassLoader(),
+                new Class<?>[] {DataSource.class}, (proxy, method, args) -> {
+                    final Object result = invoke(ds, method, args);
+                    if (!(result instanceof Connection)) {
+                        return result;
+                    }
+                    final boolean[] readOnly = new boolean[1];
+                    return Proxy.newProxyInstance(ReplicaRouterTest.class.getClassLoader(),
+                            new Class<?>[] {Connection.class}, (p, m, a) -> {
+                                if (m.getName().equals("setReadOnly")) {
+                                    readOnly[0] = (Boolean) a[0];
+                                    return null;
+                                }
+                                if (m.getName().equals("isReadOnly")) {
+                                    return readOnly[0];
+                                }
+                                return invoke(result, m, a);
+                            });
+                });
+    }
+
+    private static Object invoke(final Object target, final Method method, final Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException err) {
+            throw err.getCause();
+        }
+    }
+
+    private static String last(final List<User> users) {
+        return users.stream().map(User::getName).collect(Collectors.toList()).get(users.size() - 1);
+    }
+
+    private static JdbcConnectionPool create(final String name) throws SQLException {
+        final JdbcConnectionPool ds = JdbcConnectionPool.create(
+                "jdbc:h2:mem:" + name + ";INIT=runscript from 'src/test/resources/dataset/init.sql';DB_CLOSE_DELAY=0",
+                "harry",
+                ""
+        );
+        ds.getConnection().close();
+        return ds;
+    }
+
+    private static void mark(final JdbcConnectionPool ds, final String name) throws SQLException {
+        try (Connection conn = ds.getConnection(); Statement stmt = conn.createStatement()) {
+            stmt.execute("insert into horcrux_users (name, profile) values ('" + name + "', 'guest')");
+        }
+    }
+
+}
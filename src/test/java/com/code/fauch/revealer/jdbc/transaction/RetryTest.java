@@ -0,0 +1,122 @@
+package com.code.fauch.revealer.jdbc.transaction;
+
+import com.code.fauch.revealer.IRetryService;
+import com.code.fauch.revealer.PersistenceException;
+import com.code.fauch.revealer.RetryServiceImpl;
+import com.code.fauch.revealer.User;
+import com.code.fauch.revealer.metrics.JdbcMetrics;
+import com.code.fauch.revealer.metrics.Metrics;
+import com.code.fauch.revealer.metrics.SimpleJdbcMetrics;
+import org.h2.jdbcx.JdbcConnectionPool;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+public class RetryTest {
+
+    private static final int INITIAL = 4;
+
+    private JdbcConnectionPool ds;
+
+    private SimpleJdbcMetrics metrics;
+
+    private List<String> retried;
+
+    private IRetryService service;
+
+    @BeforeEach
+    public void setUp() throws SQLException {
+        this.ds = JdbcConnectionPool.create(
+                "jdbc:h2:mem:retry;INIT=runscript from 'src/test/resources/dataset/init.sql';DB_CLOSE_DELAY=0",
+                "harry",
+                ""
+        );
+        this.ds.getConnection().close();
+        this.metrics = new SimpleJdbcMetrics();
+        this.retried = new CopyOnWriteArrayList<>();
+        Metrics.install(new JdbcMetrics() {
+            @Override
+            public void transactionEnded(final long nanos, final boolean committed) {
+                metrics.transactionEnded(nanos, committed);
+            }
+
+            @Override
+            public void transactionRetried(final String method, final int attempt) {
+                retried.add(method + "#" + attempt);
+                metrics.transactionRetried(method, attempt);
+            }
+        });
+        final RetryServiceImpl impl = new RetryServiceImpl(JdbcFactory.dao(User.class));
+        this.service = (IRetryService) JdbcFactory.wrap(this.ds, impl);
+        impl.setSelf(this.service);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        Metrics.install(JdbcMetrics.NOOP);
+        this.ds.dispose();
+    }
+
+    @Test
+    public void testRetry() throws PersistenceException {
+        Assertions.assertEquals(3, this.service.save(new User(null, "totoro", "guest"), 2, "40001"));
+        Assertions.assertEquals(INITIAL + 1, this.service.findAll().size());
+        Assertions.assertEquals(2L, this.metrics.getRetries());
+        Assertions.assertEquals(Map.of("IRetryService.save", 2L), this.metrics.getRetriesByMethod());
+        Assertions.assertEquals(List.of("IRetryService.save#1", "IRetryService.save#2"), this.retried);
+        Assertions.assertEquals(1L, this.metrics.getCommits());
+        Assertions.assertEquals(2L, this.metrics.getRollbacks());
+        Assertions.assertEquals(0, this.ds.getActiveConnections());
+    }
+
+    @Test
+    public void testDeadlock() throws PersistenceException {
+        Assertions.assertEquals(2, this.service.save(new User(null, "totoro", "guest"), 1, "40P01"));
+        Assertions.assertEquals(1L, this.metrics.getRetries());
+    }
+
+    @Test
+    public void testExhausted() throws PersistenceException {
+        final PersistenceException err = Assertions.assertThrows(PersistenceException.class,
+                () -> this.service.save(new User(null, "totoro", "guest"), 5, "40001"));
+        Assertions.assertEquals("40001", ((SQLException) err.getCause().getCause()).getSQLState());
+        Assertions.assertEquals(3, this.service.getAttempts());
+        Assertions.assertEquals(INITIAL, this.service.findAll().size());
+        Assertions.assertEquals(2L, this.metrics.getRetries());
+        Assertions.assertEquals(Map.of("IRetryService.save", 2L), this.metrics.getRetriesByMethod());
+        Assertions.assertEquals(List.of("IRetryService.save#1", "IRetryService.save#2"), this.retried);
+        Assertions.assertEquals(3L, this.metrics.getRollbacks());
+    }
+
+    @Test
+    public void testNotRetryable() throws PersistenceException {
+        Assertions.assertThrows(PersistenceException.class,
+                () -> this.service.save(new User(null, "totoro", "guest"), 1, "23505"));
+        Assertions.assertEquals(1, this.service.getAttempts());
+        Assertions.assertThrows(PersistenceException.class,
+                () -> this.service.saveOnce(new User(null, "totoro", "guest"), 2, "40001"));
+        Assertions.assertEquals(2, this.service.getAttempts());
+        Assertions.assertEquals(0L, this.metrics.getRetries());
+    }
+
+    @Test
+    public void testStateClass() throws PersistenceException {
+        Assertions.assertEquals(2, this.service.saveAnyRollback(new User(null, "totoro", "guest"), 1, "40002"));
+        Assertions.assertEquals(INITIAL + 1, this.service.findAll().size());
+    }
+
+    @Test
+    public void testNested() throws PersistenceException {
+        Assertions.assertEquals(2, this.service.saveNested(new User(null, "totoro", "guest"), 1, "40001"));
+        Assertions.assertEquals(1L, this.metrics.getRetriesByMethod().get("IRetryService.saveNested"));
+        Assertions.assertNull(this.metrics.getRetriesByMethod().get("IRetryService.save"));
+        Assertions.assertEquals(INITIAL + 1, this.service.findAll().size());
+    }
+
+}
@@ -0,0 +1,197 @@
+package com.code.fauch.revealer.jdbc.transaction;
+
+import com.code.fauch.revealer.PersistenceException;
+import com.code.fauch.revealer.User;
+import org.h2.jdbcx.JdbcConnectionPool;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+public class ShardedDaoTest {
+
+    private final List<JdbcConnectionPool> shards = new ArrayList<>();
+
+    private ExecutorService executor;
+
+    private ShardedDao<User> dao;
+
+    @BeforeEach
+    public void setUp() throws SQLException {
+        for (int i = 0; i < 3; i++) {
+            final JdbcConnectionPool ds = JdbcConnectionPool.create(
+                    "jdbc:h2:mem:shard" + i + ";INIT=runscript from 'src/test/resources/dataset/init.sql';DB_CLOSE_DELAY=0",
+                    "harry",
+                    ""
+            );
+            try (Connection conn = ds.getConnection(); Statement stmt = conn.createStatement()) {
+                stmt.execute("delete from horcrux_users");
+            }
+            this.shards.add(ds);
+        }
+        this.executor = JdbcExecutors.bounded(3);
+        this.dao = ShardedDao.create(User.class, this.executor, this.shards.toArray(new JdbcConnectionPool[0]));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        this.executor.shutdownNow();
+        this.shards.forEach(JdbcConnectionPool::dispose);
+    }
+
+    @Test
+    public void testRouting() throws Exception {
+        Assertions.assertEquals(30, this.dao.insertAll(users(1, 30)));
+        Assertions.assertEquals(1, this.dao.insert(new User(31L, "user31", "admin")));
+        for (int i = 0; i < this.shards.size(); i++) {
+            for (long id : ids(this.shards.get(i))) {
+                Assertions.assertEquals(i, this.dao.shard(id));
+            }
+        }
+        Assertions.assertEquals(this.dao.shard(7L), this.dao.shard(7));
+        Assertions.assertEquals("user12", this.dao.get(12L).getName());
+        Assertions.assertNull(this.dao.get(99L));
+        final User user = this.dao.get(5L);
+        user.setProfile("admin");
+        Assertions.assertEquals(1, this.dao.update(user));
+        Assertions.assertEquals(1, this.dao.upsert(new User(40L, "user40", "admin")));
+        Assertions.assertEquals(1, this.dao.delete(this.dao.get(6L)));
+        Assertions.assertEquals(List.of(5L, 31L, 40L), this.dao.findAll("select * from horcrux_users where profile=?", "admin")
+                .stream().map(User::getId).sorted().collect(Collectors.toList()));
+        Assertions.assertEquals("user31", this.dao.find("select * from horcrux_users where profile=? and id>?", "admin", 10L).getName());
+        Assertions.assertEquals(List.of(1L, 2L, 3L, 5L), this.dao.getAll(List.of(1L, 2L, 3L, 5L, 6L)).stream()
+                .map(User::getId).sorted().collect(Collectors.toList()));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> this.dao.insert(new User(null, "totoro", "guest")));
+    }
+
+    @Test
+    public void testKeysetPages() throws Exception {
+        this.dao.insertAll(users(1, 25));
+        final List<Long> all = new ArrayList<>();
+        long from = 0L;
+        for (;;) {
+            final List<User> page = this.dao.getAll(from, 10);
+            page.forEach(u -> all.add(u.getId()));
+            if (page.size() != 10) {
+                break;
+            }
+            from = page.get(page.size() - 1).getId();
+        }
+        Assertions.assertEquals(LongStream.rangeClosed(1, 25).boxed().collect(Collectors.toList()), all);
+    }
+
+    @Test
+    public void testShardKey() throws Exception {
+        final ShardedDao<User> byProfile = ShardedDao.create(User.class, "profile", this.executor,
+                this.shards.toArray(new JdbcConnectionPool[0]));
+        final List<User> users = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            users.add(new User(null, "user" + i, "profile" + i % 4));
+        }
+        Assertions.assertEquals(12, byProfile.insertAll(users));
+        for (int i = 0; i < this.shards.size(); i++) {
+            for (String profile : profiles(this.shards.get(i))) {
+                Assertions.assertEquals(i, byProfile.shard(profile));
+            }
+        }
+        final User user = byProfile.find("select * from horcrux_users where name=?", "user7");
+        Assertions.assertEquals("profile3", user.getProfile());
+        user.setName("totoro");
+        Assertions.assertEquals(1, byProfile.update(user));
+        Assertions.assertEquals(12, byProfile.findAll("select * from horcrux_users").size());
+        Assertions.assertEquals("profile3", byProfile.find("select * from horcrux_users where name=?", "totoro").getProfile());
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> ShardedDao.create(User.class, "unknown", this.executor, this.shards.get(0)));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> ShardedDao.create(User.class, this.executor));
+    }
+
+    @Test
+    public void testPublish() throws Exception {
+        this.dao.insertAll(users(1, 20));
+        final List<Long> ids = new CopyOnWriteArrayList<>();
+        final CompletableFuture<Void> done = new CompletableFuture<>();
+        this.dao.publish("select * from horcrux_users order by id").subscribe(new Flow.Subscriber<>() {
+
+            private Flow.Subscription subscription;
+
+            @Override
+            public void onSubscribe(final Flow.Subscription subscription) {
+                this.subscription = subscription;
+                subscription.request(3);
+            }
+
+            @Override
+            public void onNext(final User item) {
+                ids.add(item.getId());
+                if (ids.size() % 3 == 0) {
+                    this.subscription.request(3);
+                }
+            }
+
+            @Override
+            public void onError(final Throwable throwable) {
+                done.completeExceptionally(throwable);
+            }
+
+            @Override
+            public void onComplete() {
+                done.complete(null);
+            }
+        });
+        done.get(5, TimeUnit.SECONDS);
+        Assertions.assertEquals(LongStream.rangeClosed(1, 20).boxed().collect(Collectors.toList()),
+                ids.stream().sorted().collect(Collectors.toList()));
+        for (JdbcConnectionPool ds : this.shards) {
+            Assertions.assertEquals(0, ds.getActiveConnections());
+        }
+    }
+
+    @Test
+    public void testFailure() {
+        final PersistenceException err = Assertions.assertThrows(PersistenceException.class,
+                () -> this.dao.findAll("select * from unknown"));
+        Assertions.assertNotNull(err.getCause());
+    }
+
+    private static List<User> users(final long from, final long to) {
+        return LongStream.rangeClosed(from, to).mapToObj(i -> new User(i, "user" + i, "guest"))
+                .collect(Collectors.toList());
+    }
+
+    private static List<String> profiles(final JdbcConnectionPool ds) throws SQLException {
+        final List<String> profiles = new ArrayList<>();
+        try (Connection conn = ds.getConnection(); Statement stmt = conn.createStatement();
+             ResultSet result = stmt.executeQuery("select profile from horcrux_users")) {
+            while (result.next()) {
+                profiles.add(result.getString(1));
+            }
+        }
+        return profiles;
+    }
+
+    private static List<Long> ids(final JdbcConnectionPool ds) throws SQLException {
+        final List<Long> ids = new ArrayList<>();
+        try (Connection conn = ds.getConnection(); Statement stmt = conn.createStatement();
+             ResultSet result = stmt.executeQuery("select id from horcrux_users")) {
+            while (result.next()) {
+                ids.add(result.getLong(1));
+            }
+        }
+        return ids;
+    }
+
+}
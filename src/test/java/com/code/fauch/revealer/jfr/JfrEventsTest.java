@@ -0,0 +1,108 @@
+package com.code.fauch.revealer.jfr;
+
+import com.code.fauch.revealer.*;
+import com.code.fauch.revealer.jdbc.transaction.JdbcFactory;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.h2.jdbcx.JdbcConnectionPool;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+
+public class JfrEventsTest {
+
+    private static final IDao<User> DAO = JdbcFactory.dao(User.class);
+
+    private JdbcConnectionPool ds;
+
+    private IService service;
+
+    @BeforeEach
+    public void setUp() {
+        this.ds = JdbcConnectionPool.create(
+                "jdbc:h2:mem:v3;INIT=runscript from 'src/test/resources/dataset/init.sql';DB_CLOSE_DELAY=0",
+                "harry",
+                ""
+        );
+        this.service = (IService) JdbcFactory.wrap(this.ds, new ServiceImpl(DAO));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        this.ds.dispose();
+    }
+
+    private static final List<String> NAMES = List.of(
+            "com.code.fauch.revealer.Session",
+            "com.code.fauch.revealer.Transaction",
+            "com.code.fauch.revealer.Statement",
+            "com.code.fauch.revealer.Mapping");
+
+    private List<RecordedEvent> record(final String... names) throws Exception {
+        final Path file = Files.createTempFile("revealer", ".jfr");
+        try (Recording recording = new Recording()) {
+            for (String name : NAMES) {
+                recording.disable(name);
+            }
+            for (String name : names) {
+                recording.enable(name);
+            }
+            recording.start();
+            this.service.save(new User(null, "totoro", "guest"));
+            this.service.findAll();
+            recording.stop();
+            recording.dump(file);
+            return RecordingFile.readAllEvents(file).stream()
+                    .filter(e -> e.getEventType().getName().startsWith("com.code.fauch.revealer."))
+                    .collect(Collectors.toList());
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private static List<RecordedEvent> filter(final List<RecordedEvent> events, final String name) {
+        return events.stream().filter(e -> e.getEventType().getName().equals(name)).collect(Collectors.toList());
+    }
+
+    @Test
+    public void testAllEvents() throws Exception {
+        final List<RecordedEvent> events = record(NAMES.toArray(new String[0]));
+        final List<RecordedEvent> sessions = filter(events, "com.code.fauch.revealer.Session");
+        Assertions.assertEquals(2, sessions.size());
+        Assertions.assertEquals("IService.save", sessions.get(0).getString("method"));
+        final List<RecordedEvent> transactions = filter(events, "com.code.fauch.revealer.Transaction");
+        Assertions.assertEquals(1, transactions.size());
+        Assertions.assertTrue(transactions.get(0).getBoolean("committed"));
+        final List<RecordedEvent> statements = filter(events, "com.code.fauch.revealer.Statement");
+        Assertions.assertEquals(4, statements.size());
+        Assertions.assertEquals("insert", statements.get(0).getString("operation"));
+        Assertions.assertEquals(1L, statements.get(0).getLong("rows"));
+        Assertions.assertEquals(User.class.getName(), statements.get(0).getClass("entityClass").getName());
+        Assertions.assertEquals("getAll", statements.get(1).getString("operation"));
+        Assertions.assertEquals(2L, statements.get(1).getLong("rows"));
+        Assertions.assertTrue(statements.get(1).getString("sql").startsWith("select * from horcrux_users"));
+        final List<RecordedEvent> mappings = filter(events, "com.code.fauch.revealer.Mapping");
+        Assertions.assertEquals(3, mappings.size());
+        Assertions.assertEquals(5L, mappings.stream().mapToLong(e -> e.getLong("rows")).sum());
+    }
+
+    @Test
+    public void testEnabledPerEventType() throws Exception {
+        final List<RecordedEvent> events = record("com.code.fauch.revealer.Transaction");
+        Assertions.assertEquals(1, events.size());
+        Assertions.assertEquals("com.code.fauch.revealer.Transaction", events.get(0).getEventType().getName());
+    }
+
+    @Test
+    public void testNoRecording() throws PersistenceException {
+        Assertions.assertEquals(4, this.service.findAll().size());
+    }
+
+}
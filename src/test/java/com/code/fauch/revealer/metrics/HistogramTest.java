@@ -0,0 +1,61 @@
+package com.code.fauch.revealer.metrics;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class HistogramTest {
+
+    @Test
+    public void testEmpty() {
+        final Histogram histogram = new Histogram();
+        Assertions.assertEquals(0L, histogram.getCount());
+        Assertions.assertEquals(0L, histogram.getPercentile(99.0));
+        Assertions.assertEquals(0.0, histogram.getMean());
+    }
+
+    @Test
+    public void testBuckets() {
+        for (long value : new long[]{0L, 1L, 15L, 16L, 17L, 1_000L, 123_456_789L, Long.MAX_VALUE}) {
+            final int index = Histogram.index(value);
+            Assertions.assertTrue(Histogram.highest(index) >= value);
+            Assertions.assertTrue(index == 0 || Histogram.highest(index - 1) < value);
+        }
+    }
+
+    @Test
+    public void testPercentiles() {
+        final Histogram histogram = new Histogram();
+        for (long i = 1; i <= 10_000; i++) {
+            histogram.record(i * 1_000L);
+        }
+        Assertions.assertEquals(10_000L, histogram.getCount());
+        Assertions.assertEquals(10_000_000L, histogram.getMax());
+        Assertions.assertEquals(5_000_500.0, histogram.getMean());
+        Assertions.assertEquals(5_000_000.0, histogram.getPercentile(50.0), 5_000_000.0 * 0.0625);
+        Assertions.assertEquals(9_900_000.0, histogram.getPercentile(99.0), 9_900_000.0 * 0.0625);
+        Assertions.assertEquals(10_000_000L, histogram.getPercentile(100.0));
+    }
+
+    @Test
+    public void testNegativeValue() {
+        final Histogram histogram = new Histogram();
+        histogram.record(-5L);
+        Assertions.assertEquals(1L, histogram.getCount());
+        Assertions.assertEquals(0L, histogram.getMax());
+    }
+
+    @Test
+    public void testReset() {
+        final Histogram histogram = new Histogram();
+        histogram.record(42L);
+        histogram.reset();
+        Assertions.assertEquals(0L, histogram.getCount());
+        Assertions.assertEquals(0L, histogram.getPercentile(50.0));
+    }
+
+    @Test
+    public void testInvalidPercentile() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new Histogram().getPercentile(101.0));
+    }
+
+}
@@ -0,0 +1,97 @@
+package com.code.fauch.revealer.metrics;
+
+import com.code.fauch.revealer.*;
+import com.code.fauch.revealer.jdbc.transaction.JdbcFactory;
+import org.h2.jdbcx.JdbcConnectionPool;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+
+public class SimpleJdbcMetricsTest {
+
+    private static final IDao<User> DAO = JdbcFactory.dao(User.class);
+
+    private JdbcConnectionPool ds;
+
+    private SimpleJdbcMetrics metrics;
+
+    private IService service;
+
+    private IRaiseError error;
+
+    @BeforeEach
+    public void setUp() throws JMException {
+        this.ds = JdbcConnectionPool.create(
+                "jdbc:h2:mem:v3;INIT=runscript from 'src/test/resources/dataset/init.sql';DB_CLOSE_DELAY=0",
+                "harry",
+                ""
+        );
+        this.metrics = new SimpleJdbcMetrics();
+        this.metrics.register();
+        Metrics.install(this.metrics);
+        this.service = (IService) JdbcFactory.wrap(this.ds, new ServiceImpl(DAO));
+        this.error = (IRaiseError) JdbcFactory.wrap(this.ds, new RaiseErrorImpl());
+    }
+
+    @AfterEach
+    public void tearDown() throws JMException {
+        Metrics.install(JdbcMetrics.NOOP);
+        this.metrics.unregister();
+        this.ds.dispose();
+    }
+
+    @Test
+    public void testTransaction() throws PersistenceException {
+        this.service.save(new User(null, "totoro", "guest"));
+        Assertions.assertEquals(1L, this.metrics.getConnectionsAcquired());
+        Assertions.assertEquals(1L, this.metrics.getCommits());
+        Assertions.assertEquals(0L, this.metrics.getRollbacks());
+        Assertions.assertEquals(1L, this.metrics.getTransactions().getCount());
+        Assertions.assertEquals(1L, this.metrics.getStatements());
+        Assertions.assertNotNull(this.metrics.getStatementLatencies("select id,name,profile from final table (insert into horcrux_users (name,profile) values (?,?))"));
+    }
+
+    @Test
+    public void testRollback() {
+        Assertions.assertThrows(Exception.class, () -> this.error.save(new User(null, "totoro", "guest")));
+        Assertions.assertEquals(0L, this.metrics.getCommits());
+        Assertions.assertEquals(1L, this.metrics.getRollbacks());
+    }
+
+    @Test
+    public void testRowsMapped() throws PersistenceException {
+        this.service.findAll();
+        Assertions.assertEquals(3L, this.metrics.getStatements());
+        Assertions.assertEquals(4L, this.metrics.getRowsMapped());
+        Assertions.assertEquals(Map.of(User.class.getName(), 4L), this.metrics.getRowsMappedByType());
+        Assertions.assertEquals(0L, this.metrics.getCommits());
+    }
+
+    @Test
+    public void testMaxStatements() {
+        final SimpleJdbcMetrics bounded = new SimpleJdbcMetrics(1);
+        bounded.statementExecuted("select 1", 10L);
+        bounded.statementExecuted("select 2", 10L);
+        Assertions.assertEquals(2L, bounded.getStatements());
+        Assertions.assertNotNull(bounded.getStatementLatencies("select 1"));
+        Assertions.assertNull(bounded.getStatementLatencies("select 2"));
+    }
+
+    @Test
+    public void testJmx() throws Exception {
+        this.service.findAll();
+        final Object rows = ManagementFactory.getPlatformMBeanServer().getAttribute(
+                new ObjectName(SimpleJdbcMetrics.OBJECT_NAME), "RowsMapped");
+        Assertions.assertEquals(4L, rows);
+        ManagementFactory.getPlatformMBeanServer().invoke(
+                new ObjectName(SimpleJdbcMetrics.OBJECT_NAME), "reset", new Object[0], new String[0]);
+        Assertions.assertEquals(0L, this.metrics.getRowsMapped());
+    }
+
+}
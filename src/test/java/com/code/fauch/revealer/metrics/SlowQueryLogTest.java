@@ -0,0 +1,164 @@
+package com.code.fauch.revealer.metrics;
+
+import com.code.fauch.revealer.*;
+import com.code.fauch.revealer.jdbc.BeanRWFactory;
+import com.code.fauch.revealer.jdbc.SmallJdbcDao;
+import com.code.fauch.revealer.jdbc.transaction.JdbcFactory;
+import org.h2.jdbcx.JdbcConnectionPool;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+
+public class SlowQueryLogTest {
+
+    private static final IDao<User> DAO = JdbcFactory.dao(User.class);
+
+    private JdbcConnectionPool ds;
+
+    private IService service;
+
+    @BeforeEach
+    public void setUp() {
+        this.ds = JdbcConnectionPool.create(
+                "jdbc:h2:mem:v4;INIT=runscript from 'src/test/resources/dataset/init.sql';DB_CLOSE_DELAY=0",
+                "harry",
+                ""
+        );
+        this.service = (IService) JdbcFactory.wrap(this.ds, new ServiceImpl(DAO));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        SlowQueryLog.install(null);
+        this.ds.dispose();
+    }
+
+    @Test
+    public void testDisabledByDefault() throws PersistenceException {
+        Assertions.assertFalse(SlowQueryLog.isEnabled());
+        Assertions.assertTrue(SlowQueryLog.get().isEmpty());
+        this.service.findAll();
+    }
+
+    @Test
+    public void testDaoStatements() throws PersistenceException {
+        final SlowQueryLog log = SlowQueryLog.withThresholdMillis(0L).withMaxPerSecond(100);
+        SlowQueryLog.install(log);
+        this.service.findAll();
+        Assertions.assertEquals(3L, log.getLogged());
+        Assertions.assertEquals(0L, log.getSkipped());
+    }
+
+    @Test
+    public void testBoundParameters() throws PersistenceException {
+        SlowQueryLog.install(SlowQueryLog.withThresholdMillis(0L).withMaxPerSecond(100));
+        final String logged = captureErr(() -> {
+            this.service.findAll();
+            this.service.save(new User(2L, "casper", "poltergeist"));
+        });
+        Assertions.assertTrue(logged.contains("in IService.findAll:"), logged);
+        Assertions.assertTrue(logged.contains("[0, 2]"), logged);
+        Assertions.assertTrue(logged.contains("[2, 2]"), logged);
+        Assertions.assertTrue(logged.contains("in IService.save:"), logged);
+        Assertions.assertTrue(logged.contains("[casper, poltergeist, 2]"), logged);
+    }
+
+    @Test
+    public void testBoundIds() throws PersistenceException, SQLException {
+        SlowQueryLog.install(SlowQueryLog.withThresholdMillis(0L));
+        final String logged;
+        try (Connection conn = this.ds.getConnection()) {
+            final SmallJdbcDao<User> dao = new SmallJdbcDao<>(BeanRWFactory.from(User.class), conn);
+            logged = captureErr(() -> Assertions.assertEquals(2, dao.getAll(List.of(1L, 3L)).size()));
+        }
+        Assertions.assertTrue(logged.contains("[1, 3]"), logged);
+        Assertions.assertTrue(logged.contains("in unknown:"), logged);
+    }
+
+    @Test
+    public void testConnectionStatements() throws PersistenceException {
+        final SlowQueryLog log = SlowQueryLog.withThresholdMillis(0L).withRedactedParameters(true);
+        SlowQueryLog.install(log);
+        Assertions.assertEquals(1, this.service.rename(1L, "voldemort"));
+        Assertions.assertEquals(1L, log.getLogged());
+    }
+
+    @Test
+    public void testUnderThreshold() throws PersistenceException {
+        final SlowQueryLog log = SlowQueryLog.withThresholdMillis(60_000L);
+        SlowQueryLog.install(log);
+        this.service.save(new User(null, "totoro", "guest"));
+        this.service.rename(1L, "voldemort");
+        Assertions.assertEquals(0L, log.getLogged());
+        Assertions.assertEquals(0L, log.getSkipped());
+    }
+
+    @Test
+    public void testSampling() throws PersistenceException {
+        final SlowQueryLog log = SlowQueryLog.withThresholdMillis(0L).withSampleRate(0.0);
+        SlowQueryLog.install(log);
+        this.service.findAll();
+        Assertions.assertEquals(0L, log.getLogged());
+        Assertions.assertEquals(3L, log.getSkipped());
+    }
+
+    @Test
+    public void testRateLimit() throws PersistenceException {
+        final SlowQueryLog log = SlowQueryLog.withThresholdMillis(0L).withMaxPerSecond(1).withMaxParameterLength(2);
+        SlowQueryLog.install(log);
+        for (int i = 0; i < 10; i++) {
+            this.service.findAll();
+        }
+        Assertions.assertEquals(30L, log.getLogged() + log.getSkipped());
+        Assertions.assertTrue(log.getLogged() >= 1L && log.getLogged() < 30L);
+    }
+
+    @Test
+    public void testRateLimitNegativeClock() {
+        final SlowQueryLog log = SlowQueryLog.withThresholdMillis(0L).withMaxPerSecond(2);
+        Assertions.assertTrue(log.acquire(-5_500_000_000L));
+        Assertions.assertTrue(log.acquire(-5_400_000_000L));
+        Assertions.assertFalse(log.acquire(-5_300_000_000L));
+        Assertions.assertTrue(log.acquire(-4_400_000_000L));
+        Assertions.assertTrue(log.acquire(-4_300_000_000L));
+        Assertions.assertFalse(log.acquire(-4_200_000_000L));
+    }
+
+    @Test
+    public void testInvalidConfiguration() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> SlowQueryLog.withThresholdMillis(-1L));
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> SlowQueryLog.withThresholdMillis(0L).withSampleRate(1.5));
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> SlowQueryLog.withThresholdMillis(0L).withMaxPerSecond(0));
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> SlowQueryLog.withThresholdMillis(0L).withMaxPerSecond(1 << 20));
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> SlowQueryLog.withThresholdMillis(0L).withMaxParameterLength(-1));
+    }
+
+    private interface Action {
+        void run() throws PersistenceException;
+    }
+
+    private String captureErr(final Action action) throws PersistenceException {
+        final PrintStream err = System.err;
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        System.setErr(new PrintStream(out, true, StandardCharsets.UTF_8));
+        try {
+            action.run();
+        } finally {
+            System.setErr(err);
+        }
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+}
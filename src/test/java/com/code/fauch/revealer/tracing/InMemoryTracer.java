@@ -0,0 +1,98 @@
+package com.code.fauch.revealer.tracing;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.stream.Collectors;
+
+public class InMemoryTracer implements Tracer {
+
+    public static final class RecordedSpan implements Span {
+
+        private final String name;
+
+        private final RecordedSpan parent;
+
+        private final Map<String, Object> attributes = new ConcurrentHashMap<>();
+
+        private final InMemoryTracer tracer;
+
+        private volatile Throwable error;
+
+        private volatile boolean ended;
+
+        private RecordedSpan(final String name, final RecordedSpan parent, final InMemoryTracer tracer) {
+            this.name = name;
+            this.parent = parent;
+            this.tracer = tracer;
+        }
+
+        @Override
+        public void setAttribute(String key, String value) {
+            this.attributes.put(key, value);
+        }
+
+        @Override
+        public void setAttribute(String key, long value) {
+            this.attributes.put(key, value);
+        }
+
+        @Override
+        public void setAttribute(String key, boolean value) {
+            this.attributes.put(key, value);
+        }
+
+        @Override
+        public void setError(Throwable error) {
+            this.error = error;
+        }
+
+        @Override
+        public void end() {
+            if (this.ended) {
+                throw new IllegalStateException("span already ended: " + this.name);
+            }
+            this.ended = true;
+            this.tracer.ended.add(this);
+        }
+
+        public String getName() {
+            return this.name;
+        }
+
+        public RecordedSpan getParent() {
+            return this.parent;
+        }
+
+        public Object getAttribute(final String key) {
+            return this.attributes.get(key);
+        }
+
+        public Throwable getError() {
+            return this.error;
+        }
+
+    }
+
+    private final ConcurrentLinkedQueue<RecordedSpan> ended = new ConcurrentLinkedQueue<>();
+
+    @Override
+    public Span start(String name, Span parent) {
+        return new RecordedSpan(name, (RecordedSpan) parent, this);
+    }
+
+    public List<RecordedSpan> getSpans() {
+        return new ArrayList<>(this.ended);
+    }
+
+    public List<String> getNames() {
+        return this.ended.stream().map(RecordedSpan::getName).collect(Collectors.toList());
+    }
+
+    public RecordedSpan find(final String name) {
+        return this.ended.stream().filter(s -> s.getName().equals(name)).findFirst().orElse(null);
+    }
+
+}
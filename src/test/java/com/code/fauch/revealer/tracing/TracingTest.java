@@ -0,0 +1,121 @@
+package com.code.fauch.revealer.tracing;
+
+import com.code.fauch.revealer.*;
+import com.code.fauch.revealer.jdbc.transaction.JdbcFactory;
+import org.h2.jdbcx.JdbcConnectionPool;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+public class TracingTest {
+
+    private static final IDao<User> DAO = JdbcFactory.dao(User.class);
+
+    private JdbcConnectionPool ds;
+
+    private InMemoryTracer tracer;
+
+    private IService service;
+
+    @BeforeEach
+    public void setUp() {
+        this.ds = JdbcConnectionPool.create(
+                "jdbc:h2:mem:v5;INIT=runscript from 'src/test/resources/dataset/init.sql';DB_CLOSE_DELAY=0",
+                "harry",
+                ""
+        );
+        this.tracer = new InMemoryTracer();
+        Tracing.install(this.tracer);
+        this.service = (IService) JdbcFactory.wrap(this.ds, new ServiceImpl(DAO));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        Tracing.install(Tracer.NOOP);
+        this.ds.dispose();
+    }
+
+    @Test
+    public void testNoopByDefault() {
+        Tracing.install(Tracer.NOOP);
+        Assertions.assertFalse(Tracing.isEnabled());
+        Assertions.assertSame(Span.NOOP, Tracing.start("yolo"));
+        try (Tracing.Scope scope = Tracing.activate(Span.NOOP)) {
+            Assertions.assertNull(Tracing.active());
+        }
+    }
+
+    @Test
+    public void testTransactionSpans() throws PersistenceException {
+        this.service.save(new User(null, "totoro", "guest"));
+        Assertions.assertEquals(List.of("insert", "transaction", "IService.save"), this.tracer.getNames());
+        final InMemoryTracer.RecordedSpan insert = this.tracer.find("insert");
+        final InMemoryTracer.RecordedSpan transaction = this.tracer.find("transaction");
+        final InMemoryTracer.RecordedSpan method = this.tracer.find("IService.save");
+        Assertions.assertSame(transaction, insert.getParent());
+        Assertions.assertSame(method, transaction.getParent());
+        Assertions.assertNull(method.getParent());
+        Assertions.assertEquals("select id,name,profile from final table (insert into horcrux_users (name,profile) values (?,?))", insert.getAttribute(Span.SQL));
+        Assertions.assertEquals(1L, insert.getAttribute(Span.ROWS));
+        Assertions.assertEquals(User.class.getName(), insert.getAttribute(Span.ENTITY));
+        Assertions.assertEquals(true, transaction.getAttribute(Span.COMMITTED));
+        Assertions.assertNull(Tracing.active());
+    }
+
+    @Test
+    public void testStatementSpans() throws PersistenceException {
+        this.service.findAll();
+        Assertions.assertEquals(List.of("getAll", "getAll", "getAll", "IService.findAll"), this.tracer.getNames());
+        Assertions.assertEquals(List.of(2L, 2L, 0L), List.of(
+                this.tracer.getSpans().get(0).getAttribute(Span.ROWS),
+                this.tracer.getSpans().get(1).getAttribute(Span.ROWS),
+                this.tracer.getSpans().get(2).getAttribute(Span.ROWS)));
+    }
+
+    @Test
+    public void testConnectionStatementSpans() throws PersistenceException {
+        this.service.rename(1L, "voldemort");
+        Assertions.assertEquals(List.of("executeUpdate", "transaction", "IService.rename"), this.tracer.getNames());
+        final InMemoryTracer.RecordedSpan update = this.tracer.find("executeUpdate");
+        Assertions.assertEquals("update horcrux_users set name=? where id=?", update.getAttribute(Span.SQL));
+        Assertions.assertEquals(1L, update.getAttribute(Span.ROWS));
+    }
+
+    @Test
+    public void testSubtaskSpans() throws Exception {
+        this.service.getInSubtasks(List.of(1L, 2L));
+        final InMemoryTracer.RecordedSpan method = this.tracer.find("IService.getInSubtasks");
+        Assertions.assertEquals(3, this.tracer.getSpans().size());
+        Assertions.assertSame(method, this.tracer.getSpans().get(0).getParent());
+        Assertions.assertSame(method, this.tracer.getSpans().get(1).getParent());
+    }
+
+    @Test
+    public void testErrorSpans() {
+        final IRaiseError error = (IRaiseError) JdbcFactory.wrap(this.ds, new RaiseErrorImpl());
+        Assertions.assertThrows(Exception.class, () -> error.save(new User(null, "totoro", "guest")));
+        Assertions.assertEquals(List.of("transaction", "IRaiseError.save"), this.tracer.getNames());
+        Assertions.assertNotNull(this.tracer.find("transaction").getError());
+        Assertions.assertEquals(false, this.tracer.find("transaction").getAttribute(Span.COMMITTED));
+        Assertions.assertNotNull(this.tracer.find("IRaiseError.save").getError());
+    }
+
+    @Test
+    public void testLazyAttribute() throws PersistenceException {
+        final ILazyService lazy = (ILazyService) JdbcFactory.wrap(this.ds, new LazyServiceImpl(DAO, null));
+        Assertions.assertEquals("yolo", lazy.compute());
+        this.service.findAll();
+        Assertions.assertEquals(true, this.tracer.find("ILazyService.compute").getAttribute(Span.LAZY));
+        Assertions.assertEquals(false, this.tracer.find("IService.findAll").getAttribute(Span.LAZY));
+    }
+
+    @Test
+    public void testNotJdbcMethod() {
+        Assertions.assertEquals("yolo", this.service.fake());
+        Assertions.assertTrue(this.tracer.getSpans().isEmpty());
+    }
+
+}
@@ -1,12 +1,14 @@
-create table horcrux_users (
+create table if not exists horcrux_users (
 id bigint auto_increment not null primary key,
 name varchar (120) not null,
 profile varchar(80),
 mail varchar(80)
 );
 
-insert into horcrux_users (name, profile, mail) values
-('cfauch', 'adminitsrateur', null),
+insert into horcrux_users (name, profile, mail)
+select * from (values
+('cfauch', 'adminitsrateur', cast(null as varchar(80))),
 ('casper', 'ghost', 'casper@yolo.com'),
 ('radj', 'guest', 'radj@yolo.com'),
-('silvester', 'guest', null);
+('silvester', 'guest', cast(null as varchar(80)))
+) where not exists (select 1 from horcrux_users);